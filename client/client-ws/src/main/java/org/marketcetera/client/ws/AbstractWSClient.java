@@ -356,6 +356,20 @@ public abstract class AbstractWSClient
         }
 	}
 	
+    /* (non-Javadoc)
+     * @see org.marketcetera.client.ws.WSClient#getOrderSnapshot()
+     */
+	@Override
+	public final OrderSnapshot getOrderSnapshot() throws ConnectionException {
+        failIfDisconnected();
+        try {
+            return getWebService().getOrderSnapshot(getClientContext());
+        } catch (RemoteException ex) {
+            throw new ConnectionException(ex,
+                                          Messages.ERROR_REMOTE_EXECUTION);
+        }
+	}
+	
     /* (non-Javadoc)
      * @see org.marketcetera.client.ws.WSClient#getPositionAsOf(java.util.Date, org.marketcetera.trade.Instrument)
      */
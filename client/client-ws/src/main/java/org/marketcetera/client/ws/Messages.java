@@ -102,4 +102,8 @@ public interface Messages {
             								new I18NMessage1P(LOGGER, "log_error_receive_data_reject");   //$NON-NLS-1$
     static final I18NMessage1P VALIDATION_UNKNOWN_REQUEST =
             								new I18NMessage1P(LOGGER, "validation_unknown_request");   //$NON-NLS-1$
+    static final I18NMessage1P LOG_WIRE_FORMAT_REFUSED =
+            								new I18NMessage1P(LOGGER, "log_wire_format_refused");   //$NON-NLS-1$
+    static final I18NMessage1P ORDER_SNAPSHOT_UNAVAILABLE =
+            								new I18NMessage1P(LOGGER, "order_snapshot_unavailable");   //$NON-NLS-1$
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package org.marketcetera.client.ws;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import org.marketcetera.trade.ReportBaseImpl;
+import org.marketcetera.util.misc.ClassVersion;
+
+/**
+ * The compacted state of the open orders visible to a user: the latest
+ * report of each open order chain, and the watermark, the highest
+ * report ID saved when the reports were read.
+ * <p>
+ * A client which listens to reports before fetching the snapshot
+ * only needs to apply the live reports the snapshot does not already
+ * reflect, which are mostly the reports above the watermark.
+ */
+@XmlRootElement(name="orderSnapshot")
+@XmlAccessorType(XmlAccessType.FIELD)
+@ClassVersion("$Id$")
+public class OrderSnapshot
+{
+    /**
+     * Creates a new snapshot.
+     *
+     * @param inReports the latest report of each open order chain.
+     * @param inWatermark the highest report ID saved when the reports
+     * were read.
+     */
+    public OrderSnapshot(ReportBaseImpl[] inReports,
+                         long inWatermark)
+    {
+        reports = inReports;
+        watermark = inWatermark;
+    }
+
+    /**
+     * Creates an empty snapshot. This constructor is meant to be used
+     * by JAXB.
+     */
+    protected OrderSnapshot()
+    {
+        reports = new ReportBaseImpl[0];
+        watermark = 0;
+    }
+
+    /**
+     * Gets the latest report of each open order chain.
+     *
+     * @return a <code>ReportBaseImpl[]</code> value
+     */
+    public ReportBaseImpl[] getReports()
+    {
+        return reports == null ? new ReportBaseImpl[0] : reports;
+    }
+
+    /**
+     * Gets the highest report ID saved when the reports were read.
+     *
+     * @return a <code>long</code> value
+     */
+    public long getWatermark()
+    {
+        return watermark;
+    }
+
+    /**
+     * the latest report of each open order chain
+     */
+    private ReportBaseImpl[] reports;
+    /**
+     * the highest report ID saved when the reports were read
+     */
+    private long watermark;
+}
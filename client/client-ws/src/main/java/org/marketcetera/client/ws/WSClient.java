@@ -10,6 +10,7 @@ import java.util.Set;
 
 import org.marketcetera.brokers.BrokerStatusListener;
 import org.marketcetera.brokers.BrokersStatus;
+import org.marketcetera.client.ws.jms.WireFormat;
 import org.marketcetera.util.misc.ClassVersion;
 import org.marketcetera.ws.RequestMessage;
 import org.marketcetera.ws.ValidationException;
@@ -256,6 +257,16 @@ public interface WSClient
      * @throws ConnectionException if an error occurs connecting to the server
      */
     public List<ReportBaseImpl> getOpenOrders() throws ConnectionException;
+
+    /**
+     * Gets the latest report of each open order chain visible to the
+     * current user, with the highest report ID saved when they were read.
+     * Reports with a higher ID are not reflected in the snapshot.
+     *
+     * @return an <code>OrderSnapshot</code> value
+     * @throws ConnectionException if an error occurs connecting to the server
+     */
+    public OrderSnapshot getOrderSnapshot() throws ConnectionException;
     
     /**
      * Returns the position of the supplied instrument based on reports,
@@ -491,6 +502,27 @@ public interface WSClient
      */
     public boolean isRunning();
 
+    /**
+     * Sets the format the client asks the server to send reports and
+     * market data events in. The format is negotiated with the server
+     * right away, and again each time the client reconnects; the
+     * server keeps sending XML if it does not support the format.
+     *
+     * @param inWireFormat the requested format.
+     *
+     * @throws ConnectionException if an error occurs connecting to the server
+     */
+    public void setWireFormat(WireFormat inWireFormat)
+            throws ConnectionException;
+
+    /**
+     * Returns the format the server sends reports and market data
+     * events in, as agreed with it.
+     *
+     * @return the format.
+     */
+    public WireFormat getWireFormat();
+
     /**
      * Disconnects the connection to the server and reconnects back
      * using the properties supplied to this method.
@@ -15,6 +15,7 @@ import org.apache.activemq.pool.PooledConnectionFactory;
 import org.apache.commons.lang.ObjectUtils;
 import org.marketcetera.client.ws.jms.RequestEnvelope;
 import org.marketcetera.client.ws.jms.WSContextClassProvider;
+import org.marketcetera.client.ws.jms.WireFormat;
 import org.marketcetera.core.IDFactory;
 import org.marketcetera.core.NoMoreIDsException;
 import org.marketcetera.metrics.ThreadedMetric;
@@ -530,6 +531,61 @@ public class WSClientImpl extends AbstractWSClient
         		JmsManager.getReplyTopicName(getSessionId()),true);
         mServerMessageListener.start();
         mToServer = mJmsMgr.getOutgoingJmsFactory().createJmsTemplate(JmsManager.getRequestTopicName(),false);
+        negotiateWireFormat();
+    }
+
+    /**
+     * Asks the server to send replies in the requested format. A new
+     * server session sends XML, so there is nothing to ask for unless
+     * another format was requested. The client keeps receiving XML
+     * if the server refuses, or does not know about, the format.
+     */
+    private void negotiateWireFormat()
+    {
+        WireFormat requested = mWireFormat;
+        mAgreedWireFormat = WireFormat.XML;
+        if(requested == WireFormat.XML) {
+            return;
+        }
+        try {
+            mAgreedWireFormat = getWebService().setWireFormat(getClientContext(),
+                                                              requested);
+        } catch (Exception ex) {
+            SLF4JLoggerProxy.debug(this, "Wire format negotiation failed", ex); //$NON-NLS-1$
+        }
+        if(mAgreedWireFormat != requested) {
+            Messages.LOG_WIRE_FORMAT_REFUSED.warn(this, requested);
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.client.ws.WSClient#setWireFormat(org.marketcetera.client.ws.jms.WireFormat)
+     */
+    @Override
+    public void setWireFormat(WireFormat inWireFormat)
+            throws ConnectionException
+    {
+        mWireFormat = inWireFormat == null ? WireFormat.XML : inWireFormat;
+        if(mToServer == null) {
+            // negotiated once connected
+            return;
+        }
+        try {
+            mAgreedWireFormat = getWebService().setWireFormat(getClientContext(),
+                                                              mWireFormat);
+        } catch (RemoteException ex) {
+            throw new ConnectionException(ex,
+                                          Messages.ERROR_REMOTE_EXECUTION);
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.client.ws.WSClient#getWireFormat()
+     */
+    @Override
+    public WireFormat getWireFormat()
+    {
+        return mAgreedWireFormat;
     }
     
     /**
@@ -640,6 +696,8 @@ public class WSClientImpl extends AbstractWSClient
     private volatile JmsManager mJmsMgr;
     private volatile SimpleMessageListenerContainer mServerMessageListener;
     private volatile JmsOperations mToServer;
+    private volatile WireFormat mWireFormat = WireFormat.XML;
+    private volatile WireFormat mAgreedWireFormat = WireFormat.XML;
     protected volatile ClientParameters mParameters;
     private volatile boolean mClosed = false;
 
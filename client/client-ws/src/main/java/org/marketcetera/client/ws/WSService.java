@@ -9,6 +9,7 @@ import javax.jws.WebService;
 import javax.xml.bind.annotation.XmlSeeAlso;
 
 import org.marketcetera.brokers.BrokersStatus;
+import org.marketcetera.client.ws.jms.WireFormat;
 import org.marketcetera.core.position.PositionKey;
 import org.marketcetera.core.position.impl.PositionKeyImpl;
 import org.marketcetera.core.time.Period;
@@ -62,6 +63,19 @@ public interface WSService
     		@WebParam(name="context")ClientContext context)
             throws RemoteException;
     
+    /**
+     * Gets the latest report of each open order chain visible to the
+     * current user, with the highest report ID saved when they were read.
+     *
+     * @param context a <code>ClientContext</code> value
+     * 
+     * @return an <code>OrderSnapshot</code> value
+     * @throws RemoteException if an error occurs
+     */
+    OrderSnapshot getOrderSnapshot(
+    		@WebParam(name="context")ClientContext context)
+            throws RemoteException;
+    
     /**
      * Returns the position of the supplied instrument based on reports,
      * generated and received on or before the supplied date in UTC to the
@@ -372,4 +386,21 @@ public interface WSService
     void heartbeat(
     		@WebParam(name="context")ClientContext context)
         throws RemoteException;
+
+    /**
+     * Asks the server to send the replies to the client with the given
+     * context in the given format. Replies are sent in XML until the
+     * client asks for another format.
+     *
+     * @param context The context.
+     * @param wireFormat The requested format.
+     *
+     * @return The format the server sends replies in from now on.
+     * @throws RemoteException Thrown if the operation cannot be
+     * completed.
+     */
+    WireFormat setWireFormat(
+    		@WebParam(name="context")ClientContext context,
+    		@WebParam(name="wireFormat")WireFormat wireFormat)
+        throws RemoteException;
 }
@@ -0,0 +1,588 @@
+package org.marketcetera.client.ws.jms;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.marketcetera.core.time.Period;
+import org.marketcetera.event.EntryPx;
+import org.marketcetera.event.Quote;
+import org.marketcetera.event.QuoteEvent;
+import org.marketcetera.event.TickEvent;
+import org.marketcetera.event.impl.QuoteEventBuilder;
+import org.marketcetera.event.impl.TickEventBuilder;
+import org.marketcetera.symbol.InstrumentSymbolResolver;
+import org.marketcetera.trade.BrokerID;
+import org.marketcetera.trade.ExecutionReport;
+import org.marketcetera.trade.Factory;
+import org.marketcetera.trade.HasFIXMessage;
+import org.marketcetera.trade.Instrument;
+import org.marketcetera.trade.MessageCreationException;
+import org.marketcetera.trade.OrderCancelReject;
+import org.marketcetera.trade.Originator;
+import org.marketcetera.trade.ReportBase;
+import org.marketcetera.trade.ReportBaseImpl;
+import org.marketcetera.trade.ReportID;
+import org.marketcetera.trade.UserID;
+import org.marketcetera.util.misc.ClassVersion;
+
+import quickfix.InvalidMessage;
+import quickfix.Message;
+
+/**
+ * Encodes the high volume messaging objects (quotes, ticks, execution
+ * reports and cancel rejects) in a compact binary form. This class is
+ * not meant to be used by clients of this package.
+ * <p>
+ * Each object is written as a frame: a magic byte, the format version,
+ * the schema tag of the object type and the length of the body,
+ * followed by the body. The body is the sequence of the fields the
+ * schema of the type declares, in order. Integers are written as
+ * variable length quantities, decimals as their scale and unscaled
+ * value, and strings as their length followed by their UTF-8 bytes.
+ * Objects of any other type have no schema and are not encoded.
+ * <p>
+ * Instances are thread-safe.
+ */
+@ClassVersion("$Id$")
+public class BinaryCodec {
+
+    /**
+     * The object types which have a binary schema. The ordinal is the
+     * schema tag on the wire, so new types may only be appended.
+     */
+    enum Schema {
+        QUOTE_EVENT,
+        TICK_EVENT,
+        EXECUTION_REPORT,
+        CANCEL_REJECT
+    }
+
+    /**
+     * Returns true if the given object has a binary schema.
+     *
+     * @param inObject the object.
+     *
+     * @return true if the object can be encoded.
+     */
+    public boolean canEncode(Object inObject)
+    {
+        return getSchema(inObject) != null;
+    }
+
+    /**
+     * Encodes the given object.
+     *
+     * @param inObject the object.
+     *
+     * @return the frame, or null if the object has no binary schema.
+     */
+    public byte[] encode(Object inObject)
+    {
+        Schema schema = getSchema(inObject);
+        if(schema == null) {
+            return null;
+        }
+        Output out = mOutputs.get();
+        out.reset();
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte((byte)schema.ordinal());
+        // the body length is patched in once the body is known
+        int lengthPosition = out.position();
+        out.skip(LENGTH_SIZE);
+        switch(schema) {
+            case QUOTE_EVENT:
+                writeQuoteEvent(out, (QuoteEvent)inObject);
+                break;
+            case TICK_EVENT:
+                writeTickEvent(out, (TickEvent)inObject);
+                break;
+            case EXECUTION_REPORT:
+            case CANCEL_REJECT:
+                writeReport(out, (ReportBase)inObject);
+                break;
+        }
+        out.putInt(lengthPosition, out.position() - lengthPosition - LENGTH_SIZE);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes the object in the given frame.
+     *
+     * @param inFrame the frame.
+     *
+     * @return the object.
+     *
+     * @throws IOException if the frame is malformed, or if the object
+     * cannot be rebuilt from it.
+     */
+    public Object decode(byte[] inFrame)
+            throws IOException
+    {
+        Input in = new Input(inFrame);
+        if(in.readByte() != MAGIC) {
+            throw new IOException("Not a binary messaging frame"); //$NON-NLS-1$
+        }
+        byte version = in.readByte();
+        if(version != VERSION) {
+            throw new IOException("Unsupported binary format version " + version); //$NON-NLS-1$
+        }
+        int tag = in.readByte();
+        if(tag < 0 || tag >= SCHEMAS.length) {
+            throw new IOException("Unknown binary schema " + tag); //$NON-NLS-1$
+        }
+        int length = in.readInt();
+        if(length != in.remaining()) {
+            throw new IOException("Truncated binary frame"); //$NON-NLS-1$
+        }
+        switch(SCHEMAS[tag]) {
+            case QUOTE_EVENT:
+                return readQuoteEvent(in);
+            case TICK_EVENT:
+                return readTickEvent(in);
+            case EXECUTION_REPORT:
+            case CANCEL_REJECT:
+                return readReport(in, SCHEMAS[tag]);
+            default:
+                throw new IOException("Unknown binary schema " + tag); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Returns the schema of the given object.
+     *
+     * @param inObject the object.
+     *
+     * @return the schema, or null if the object has none.
+     */
+    private static Schema getSchema(Object inObject)
+    {
+        if(inObject instanceof QuoteEvent) {
+            return Schema.QUOTE_EVENT;
+        }
+        if(inObject instanceof TickEvent) {
+            return Schema.TICK_EVENT;
+        }
+        if(inObject instanceof ExecutionReport &&
+           inObject instanceof HasFIXMessage) {
+            return Schema.EXECUTION_REPORT;
+        }
+        if(inObject instanceof OrderCancelReject &&
+           inObject instanceof HasFIXMessage) {
+            return Schema.CANCEL_REJECT;
+        }
+        return null;
+    }
+
+    private void writeQuoteEvent(Output out, QuoteEvent inEvent)
+    {
+        writeInstrument(out, inEvent.getInstrument());
+        out.writeString(inEvent.getBrokerID() == null ? null : inEvent.getBrokerID().toString());
+        out.writeString(inEvent.getPeriod() == null ? null : inEvent.getPeriod().name());
+        Quote quote = inEvent.getQuote();
+        out.writeVarLong(quote.getTime());
+        out.writeDecimal(quote.getOpen());
+        out.writeDecimal(quote.getHigh());
+        out.writeDecimal(quote.getLow());
+        out.writeDecimal(quote.getClose());
+        out.writeDecimal(quote.getVolume());
+        out.writeDecimal(quote.getSpread());
+    }
+
+    private QuoteEvent readQuoteEvent(Input in)
+            throws IOException
+    {
+        Instrument instrument = readInstrument(in);
+        String brokerID = in.readString();
+        String period = in.readString();
+        Quote quote = new Quote(in.readVarLong(),
+                                in.readDecimal(),
+                                in.readDecimal(),
+                                in.readDecimal(),
+                                in.readDecimal(),
+                                in.readDecimal(),
+                                in.readDecimal());
+        return QuoteEventBuilder.quoteEvent()
+                .withInstrument(instrument)
+                .withBrokerID(brokerID == null ? null : new BrokerID(brokerID))
+                .withQuote(quote)
+                .withPeriod(period == null ? null : Period.valueOf(period))
+                .create();
+    }
+
+    private void writeTickEvent(Output out, TickEvent inEvent)
+    {
+        writeInstrument(out, inEvent.getInstrument());
+        out.writeString(inEvent.getBrokerID() == null ? null : inEvent.getBrokerID().toString());
+        out.writeVarLong(inEvent.getTime());
+        writeEntry(out, inEvent.getBid());
+        writeEntry(out, inEvent.getAsk());
+    }
+
+    private TickEvent readTickEvent(Input in)
+            throws IOException
+    {
+        Instrument instrument = readInstrument(in);
+        String brokerID = in.readString();
+        long time = in.readVarLong();
+        EntryPx bid = readEntry(in);
+        EntryPx ask = readEntry(in);
+        TickEventBuilder<TickEvent> builder = TickEventBuilder.tickEvent()
+                .withInstrument(instrument)
+                .withBrokerID(brokerID == null ? null : new BrokerID(brokerID))
+                .withTime(time);
+        if(bid != null) {
+            builder.withBid(bid);
+        }
+        if(ask != null) {
+            builder.withAsk(ask);
+        }
+        return builder.create();
+    }
+
+    private void writeEntry(Output out, EntryPx inEntry)
+    {
+        out.writeBoolean(inEntry != null);
+        if(inEntry != null) {
+            out.writeDecimal(inEntry.getPrice());
+            out.writeDecimal(inEntry.getSize());
+            out.writeString(inEntry.getExchange());
+        }
+    }
+
+    private EntryPx readEntry(Input in)
+            throws IOException
+    {
+        if(!in.readBoolean()) {
+            return null;
+        }
+        return new EntryPx(in.readDecimal(), in.readDecimal(), in.readString());
+    }
+
+    private void writeReport(Output out, ReportBase inReport)
+    {
+        out.writeBoolean(inReport.getReportID() != null);
+        if(inReport.getReportID() != null) {
+            out.writeVarLong(inReport.getReportID().longValue());
+        }
+        out.writeString(inReport.getBrokerID() == null ? null : inReport.getBrokerID().toString());
+        out.writeString(inReport.getOriginator() == null ? null : inReport.getOriginator().name());
+        out.writeBoolean(inReport.getActorID() != null);
+        if(inReport.getActorID() != null) {
+            out.writeVarLong(inReport.getActorID().getValue());
+        }
+        out.writeString(((HasFIXMessage)inReport).getMessage().toString());
+    }
+
+    private ReportBase readReport(Input in, Schema inSchema)
+            throws IOException
+    {
+        ReportID reportID = in.readBoolean() ? new ReportID(in.readVarLong()) : null;
+        String brokerID = in.readString();
+        String originator = in.readString();
+        UserID actorID = in.readBoolean() ? new UserID(in.readVarLong()) : null;
+        String fixMessage = in.readString();
+        try {
+            Message message;
+            try {
+                message = new Message(fixMessage);
+            } catch (InvalidMessage e) {
+                message = new Message(fixMessage, false);
+            }
+            ReportBase report;
+            if(inSchema == Schema.EXECUTION_REPORT) {
+                report = Factory.getInstance().createExecutionReport(message,
+                        brokerID == null ? null : new BrokerID(brokerID),
+                        originator == null ? null : Originator.valueOf(originator),
+                        actorID);
+            } else {
+                report = Factory.getInstance().createOrderCancelReject(message,
+                        brokerID == null ? null : new BrokerID(brokerID),
+                        originator == null ? null : Originator.valueOf(originator),
+                        actorID);
+            }
+            if(reportID != null) {
+                ReportBaseImpl.assignReportID((ReportBaseImpl)report, reportID);
+            }
+            return report;
+        } catch (InvalidMessage | MessageCreationException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void writeInstrument(Output out, Instrument inInstrument)
+    {
+        out.writeBoolean(inInstrument != null);
+        if(inInstrument != null) {
+            out.writeString(inInstrument.getSecurityType().getValue());
+            out.writeString(inInstrument.getFullSymbol());
+        }
+    }
+
+    /**
+     * Reads an instrument. Instruments are resolved once per security
+     * type and symbol, as the same few are found in most messages.
+     */
+    private Instrument readInstrument(Input in)
+            throws IOException
+    {
+        if(!in.readBoolean()) {
+            return null;
+        }
+        String securityType = in.readString();
+        String fullSymbol = in.readString();
+        String key = securityType + ':' + fullSymbol;
+        Instrument instrument = mInstruments.get(key);
+        if(instrument == null) {
+            instrument = InstrumentSymbolResolver.resolveSymbol(securityType, fullSymbol);
+            if(mInstruments.size() >= MAX_INSTRUMENTS) {
+                mInstruments.clear();
+            }
+            mInstruments.put(key, instrument);
+        }
+        return instrument;
+    }
+
+    /**
+     * A growable buffer the frames are written to. One is kept per
+     * thread and reused for every frame.
+     */
+    private static final class Output {
+        void reset()
+        {
+            mPosition = 0;
+        }
+
+        int position()
+        {
+            return mPosition;
+        }
+
+        void skip(int inCount)
+        {
+            ensure(inCount);
+            mPosition += inCount;
+        }
+
+        void putInt(int inPosition, int inValue)
+        {
+            mBuffer[inPosition] = (byte)(inValue >>> 24);
+            mBuffer[inPosition + 1] = (byte)(inValue >>> 16);
+            mBuffer[inPosition + 2] = (byte)(inValue >>> 8);
+            mBuffer[inPosition + 3] = (byte)inValue;
+        }
+
+        void writeByte(byte inValue)
+        {
+            ensure(1);
+            mBuffer[mPosition++] = inValue;
+        }
+
+        void writeBoolean(boolean inValue)
+        {
+            writeByte(inValue ? (byte)1 : (byte)0);
+        }
+
+        void writeVarLong(long inValue)
+        {
+            // zig-zag, so that small negative values stay short
+            long value = (inValue << 1) ^ (inValue >> 63);
+            ensure(10);
+            while((value & ~0x7FL) != 0) {
+                mBuffer[mPosition++] = (byte)((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            mBuffer[mPosition++] = (byte)value;
+        }
+
+        void writeBytes(byte[] inValue)
+        {
+            writeVarLong(inValue.length);
+            ensure(inValue.length);
+            System.arraycopy(inValue, 0, mBuffer, mPosition, inValue.length);
+            mPosition += inValue.length;
+        }
+
+        void writeString(String inValue)
+        {
+            if(inValue == null) {
+                writeVarLong(-1);
+                return;
+            }
+            writeBytes(inValue.getBytes(CHARSET));
+        }
+
+        void writeDecimal(BigDecimal inValue)
+        {
+            if(inValue == null) {
+                writeByte(DECIMAL_NULL);
+                return;
+            }
+            BigInteger unscaled = inValue.unscaledValue();
+            if(unscaled.bitLength() < 64) {
+                writeByte(DECIMAL_LONG);
+                writeVarLong(inValue.scale());
+                writeVarLong(unscaled.longValue());
+            } else {
+                writeByte(DECIMAL_BIG);
+                writeVarLong(inValue.scale());
+                writeBytes(unscaled.toByteArray());
+            }
+        }
+
+        byte[] toByteArray()
+        {
+            byte[] frame = new byte[mPosition];
+            System.arraycopy(mBuffer, 0, frame, 0, mPosition);
+            return frame;
+        }
+
+        private void ensure(int inCount)
+        {
+            if(mPosition + inCount > mBuffer.length) {
+                byte[] buffer = new byte[Math.max(mBuffer.length * 2, mPosition + inCount)];
+                System.arraycopy(mBuffer, 0, buffer, 0, mPosition);
+                mBuffer = buffer;
+            }
+        }
+
+        private byte[] mBuffer = new byte[512];
+        private int mPosition;
+    }
+
+    /**
+     * Reads the fields of a frame.
+     */
+    private static final class Input {
+        Input(byte[] inBuffer)
+        {
+            mBuffer = inBuffer;
+        }
+
+        int remaining()
+        {
+            return mBuffer.length - mPosition;
+        }
+
+        byte readByte()
+                throws IOException
+        {
+            require(1);
+            return mBuffer[mPosition++];
+        }
+
+        boolean readBoolean()
+                throws IOException
+        {
+            return readByte() != 0;
+        }
+
+        int readInt()
+                throws IOException
+        {
+            require(4);
+            int value = ((mBuffer[mPosition] & 0xFF) << 24) |
+                        ((mBuffer[mPosition + 1] & 0xFF) << 16) |
+                        ((mBuffer[mPosition + 2] & 0xFF) << 8) |
+                        (mBuffer[mPosition + 3] & 0xFF);
+            mPosition += 4;
+            return value;
+        }
+
+        long readVarLong()
+                throws IOException
+        {
+            long value = 0;
+            for(int shift = 0; shift < 70; shift += 7) {
+                byte b = readByte();
+                value |= (long)(b & 0x7F) << shift;
+                if((b & 0x80) == 0) {
+                    return (value >>> 1) ^ -(value & 1);
+                }
+            }
+            throw new IOException("Malformed variable length integer"); //$NON-NLS-1$
+        }
+
+        byte[] readBytes()
+                throws IOException
+        {
+            long length = readVarLong();
+            if(length < 0) {
+                return null;
+            }
+            require(length);
+            byte[] value = new byte[(int)length];
+            System.arraycopy(mBuffer, mPosition, value, 0, value.length);
+            mPosition += value.length;
+            return value;
+        }
+
+        String readString()
+                throws IOException
+        {
+            long length = readVarLong();
+            if(length < 0) {
+                return null;
+            }
+            require(length);
+            String value = new String(mBuffer, mPosition, (int)length, CHARSET);
+            mPosition += (int)length;
+            return value;
+        }
+
+        BigDecimal readDecimal()
+                throws IOException
+        {
+            byte kind = readByte();
+            if(kind == DECIMAL_NULL) {
+                return null;
+            }
+            int scale = (int)readVarLong();
+            if(kind == DECIMAL_LONG) {
+                return BigDecimal.valueOf(readVarLong(), scale);
+            }
+            if(kind == DECIMAL_BIG) {
+                byte[] unscaled = readBytes();
+                if(unscaled == null) {
+                    throw new IOException("Malformed decimal"); //$NON-NLS-1$
+                }
+                return new BigDecimal(new BigInteger(unscaled), scale);
+            }
+            throw new IOException("Malformed decimal"); //$NON-NLS-1$
+        }
+
+        private void require(long inCount)
+                throws IOException
+        {
+            if(inCount > mBuffer.length - mPosition) {
+                throw new IOException("Truncated binary frame"); //$NON-NLS-1$
+            }
+        }
+
+        private final byte[] mBuffer;
+        private int mPosition;
+    }
+
+    private final ThreadLocal<Output> mOutputs = new ThreadLocal<Output>() {
+        @Override
+        protected Output initialValue()
+        {
+            return new Output();
+        }
+    };
+    private final ConcurrentMap<String,Instrument> mInstruments =
+            new ConcurrentHashMap<String,Instrument>();
+    private static final Schema[] SCHEMAS = Schema.values();
+    private static final Charset CHARSET = Charset.forName("UTF-8"); //$NON-NLS-1$
+    private static final int MAX_INSTRUMENTS = 10000;
+    private static final int LENGTH_SIZE = 4;
+    private static final byte DECIMAL_NULL = 0;
+    private static final byte DECIMAL_LONG = 1;
+    private static final byte DECIMAL_BIG = 2;
+    static final byte MAGIC = (byte)0xB1;
+    static final byte VERSION = 1;
+}
@@ -0,0 +1,166 @@
+package org.marketcetera.client.ws.jms;
+
+import java.io.IOException;
+
+import javax.jms.*;
+import javax.xml.bind.JAXBException;
+
+import org.marketcetera.util.log.I18NBoundMessage1P;
+import org.marketcetera.util.log.SLF4JLoggerProxy;
+import org.marketcetera.util.misc.ClassVersion;
+import org.marketcetera.util.ws.ContextClassProvider;
+import org.marketcetera.ws.ResponseMessage;
+import org.apache.commons.lang.ObjectUtils;
+import org.springframework.jms.support.converter.MessageConversionException;
+
+/**
+ * Converts messaging objects to the compact binary representation of
+ * {@link BinaryCodec}, sent over JMS as a bytes message, and falls back
+ * to the XML representation for the objects the codec does not
+ * support. This class is not meant to be used by clients of this
+ * package.
+ * <p>
+ * Objects are only sent in binary once the {@link WireFormat} has been
+ * set to {@link WireFormat#BINARY}, which happens when the receiving
+ * side has asked for it. Both representations are always accepted.
+ */
+@ClassVersion("$Id$")
+public class BinaryMessageConverter extends XMLMessageConverter {
+    /**
+     * Creates an instance which sends XML until told otherwise.
+     *
+     * @throws JAXBException if there were errors initializing the
+     * XML marshalling / unmarshalling system.
+     */
+    public BinaryMessageConverter(ContextClassProvider context) throws JAXBException {
+        super(context);
+    }
+
+    /**
+     * Returns the format objects are currently sent in.
+     *
+     * @return the format.
+     */
+    public WireFormat getWireFormat() {
+        return mWireFormat;
+    }
+
+    /**
+     * Sets the format objects are sent in.
+     *
+     * @param inWireFormat the format.
+     */
+    public void setWireFormat(WireFormat inWireFormat) {
+        mWireFormat = inWireFormat == null ? WireFormat.XML : inWireFormat;
+    }
+
+    /**
+     * Converts a JMS Message to a messaging object.
+     *
+     * @param message the received JMS message. It should either be a
+     * {@link javax.jms.BytesMessage} in binary or a
+     * {@link javax.jms.TextMessage} in XML.
+     *
+     * @return the messaging object converted from the supplied JMS message.
+     *
+     * @throws javax.jms.JMSException if there were errors extracting the contents
+     * of the JMS message.
+     * @throws org.springframework.jms.support.converter.MessageConversionException if there were errors converting
+     * the contents of the JMS message to a messaging object.
+     */
+    @Override
+    public Object fromMessage(Message message)
+            throws JMSException, MessageConversionException {
+        if(!(message instanceof BytesMessage)) {
+            return super.fromMessage(message);
+        }
+        SLF4JLoggerProxy.debug(this, "Converting from binary JMS {}", message);  //$NON-NLS-1$
+        BytesMessage bytesMessage = (BytesMessage)message;
+        long length = bytesMessage.getBodyLength();
+        if(length > Integer.MAX_VALUE) {
+            throw new MessageConversionException(new I18NBoundMessage1P(
+                    Messages.UNEXPECTED_MESSAGE_RECEIVED,
+                    ObjectUtils.toString(message)).getText());
+        }
+        byte[] frame = new byte[(int)length];
+        bytesMessage.readBytes(frame);
+        Object object;
+        try {
+            object = fromBinary(frame);
+        } catch (IOException e) {
+            throw new MessageConversionException(new I18NBoundMessage1P(
+                    Messages.ERROR_CONVERTING_MESSAGE_TO_OBJECT,
+                    ObjectUtils.toString(message)).getText(), e);
+        }
+        if(object instanceof ResponseMessage) {
+            return object;
+        }
+        throw new MessageConversionException(new I18NBoundMessage1P(
+                Messages.UNEXPECTED_MESSAGE_RECEIVED,
+                ObjectUtils.toString(object)).getText());
+    }
+
+    /**
+     * Converts a messaging object to a JMS Message, in binary if
+     * the binary format is in use and the codec supports the object,
+     * and in XML otherwise.
+     *
+     * @param object the message to be converted. It should either be
+     * an order or a report.
+     * @param session the JMS Session instance.
+     *
+     * @return the JMS message.
+     *
+     * @throws javax.jms.JMSException if there were errors serializing the
+     * messaging object.
+     * @throws org.springframework.jms.support.converter.MessageConversionException if the supplied object was not
+     * an acceptable messaging object.
+     */
+    @Override
+    public Message toMessage(Object object, Session session)
+            throws JMSException, MessageConversionException {
+        if(mWireFormat != WireFormat.BINARY ||
+           !(object instanceof ResponseMessage)) {
+            return super.toMessage(object, session);
+        }
+        byte[] frame = toBinary(object);
+        if(frame == null) {
+            return super.toMessage(object, session);
+        }
+        SLF4JLoggerProxy.debug(this, "Converting to binary JMS {}", object);  //$NON-NLS-1$
+        BytesMessage message = session.createBytesMessage();
+        message.writeBytes(frame);
+        message.setStringProperty(JMS_TYPE_PROPERTY,
+                object.getClass().getSimpleName());
+        return message;
+    }
+
+    /**
+     * Encodes the supplied object in binary.
+     *
+     * @param inObject the object.
+     *
+     * @return the binary representation, or null if the object has no
+     * binary representation.
+     */
+    public byte[] toBinary(Object inObject) {
+        return mCodec.encode(inObject);
+    }
+
+    /**
+     * Decodes an object from its binary representation.
+     *
+     * @param inFrame the binary representation.
+     *
+     * @return the object.
+     *
+     * @throws IOException if the object cannot be decoded.
+     */
+    public Object fromBinary(byte[] inFrame) throws IOException {
+        return mCodec.decode(inFrame);
+    }
+
+    private final BinaryCodec mCodec = new BinaryCodec();
+    private volatile WireFormat mWireFormat = WireFormat.XML;
+    private static final String JMS_TYPE_PROPERTY = "metc_type";  //$NON-NLS-1$
+}
@@ -165,7 +165,8 @@ public class IncomingJmsFactory
      * Registers the given message handler for messages that are
      * received by the given incoming destination (and of the given
      * type). The handler is expected to operate on FIX Agnostic trade
-     * messages transported using XML. Returns the Spring container of
+     * messages transported using XML, or using the binary format of
+     * {@link BinaryMessageConverter}. Returns the Spring container of
      * the handler (listener) for manual bean lifecycle management.
      *
      * @param handler The message handler.
@@ -185,7 +186,7 @@ public class IncomingJmsFactory
         throws JAXBException
     {
         return registerHandler
-            (handler,inDstName,isInDstTopic,new XMLMessageConverter(getContextClassProvider()));
+            (handler,inDstName,isInDstTopic,new BinaryMessageConverter(getContextClassProvider()));
     }
 
     /**
@@ -88,7 +88,9 @@ public class OutgoingJmsFactory
      * Returns a new Spring JMS connection template for the given
      * destination (and of the given type), and for a producer which
      * emits FIX Agnostic trade messages, request message envelopes, or
-     * replay messages, transported using XML.
+     * replay messages, transported using XML. The converter of the
+     * template is a {@link BinaryMessageConverter}, so the producer
+     * may switch to the binary format once the consumer asks for it.
      *
      * @param dstName The destination name.
      * @param isDstTopic True if the destination is a topic.
@@ -104,6 +106,6 @@ public class OutgoingJmsFactory
         throws JAXBException
     {
         return createJmsTemplate
-            (dstName,isDstTopic,new XMLMessageConverter(getContextClassProvider()));
+            (dstName,isDstTopic,new BinaryMessageConverter(getContextClassProvider()));
     }
 }
@@ -0,0 +1,19 @@
+package org.marketcetera.client.ws.jms;
+
+import org.marketcetera.util.misc.ClassVersion;
+
+/**
+ * The formats messaging objects may be sent in over JMS.
+ */
+@ClassVersion("$Id$")
+public enum WireFormat {
+    /**
+     * JAXB XML in text messages. Understood by every client.
+     */
+    XML,
+    /**
+     * The compact encoding of {@link BinaryCodec} in bytes messages,
+     * for the object types it supports, and XML for the others.
+     */
+    BINARY
+}
@@ -59,6 +59,21 @@ public class AutoOrderHistoryManager
     {
         super(inReportHistoryOrigin);
     }
+    /**
+     * Create a new AutoOrderHistoryManager instance.
+     *
+     * @param inReportHistoryOrigin a <code>Date</code> value indicating the point from which to gather order history or <code>null</code>
+     * @param inUseSnapshot a <code>boolean</code> value indicating whether to bootstrap from the open order snapshot
+     *  of the server instead of the order history, in which case the origin is ignored
+     * @throws ClientInitException if a connection to the <code>Client</code> cannot be made 
+     */
+    public AutoOrderHistoryManager(Date inReportHistoryOrigin,
+                                   boolean inUseSnapshot)
+            throws ClientInitException
+    {
+        super(inReportHistoryOrigin,
+              inUseSnapshot);
+    }
     /* (non-Javadoc)
      * @see org.marketcetera.trade.utils.OrderHistoryManager#add(org.marketcetera.trade.ReportBase)
      */
@@ -77,7 +92,7 @@ public class AutoOrderHistoryManager
                                "Received {}", //$NON-NLS-1$
                                inReport);
         if(inReport != null) {
-            super.add(inReport);
+            addLiveReport(inReport);
         }
     }
     /* (non-Javadoc)
@@ -90,7 +105,7 @@ public class AutoOrderHistoryManager
                                "Received {}", //$NON-NLS-1$
                                inReport);
         if(inReport != null) {
-            super.add(inReport);
+            addLiveReport(inReport);
         }
     }
     /* (non-Javadoc)
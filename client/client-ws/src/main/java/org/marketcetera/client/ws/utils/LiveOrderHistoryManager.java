@@ -4,12 +4,14 @@ import java.util.*;
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.LinkedBlockingDeque;
 
+import org.marketcetera.client.ws.OrderSnapshot;
 import org.marketcetera.client.ws.WSClient;
 import org.marketcetera.client.ws.WSClientImpl;
 import org.marketcetera.trade.ExecutionReport;
 import org.marketcetera.trade.OrderID;
 import org.marketcetera.trade.ReportBase;
 import org.marketcetera.trade.ReportBaseImpl;
+import org.marketcetera.trade.ReportID;
 import org.marketcetera.trade.utils.OrderHistoryManager;
 import org.marketcetera.util.log.SLF4JLoggerProxy;
 import org.marketcetera.util.misc.ClassVersion;
@@ -42,6 +44,11 @@ import org.springframework.context.Lifecycle;
  * <p>It may take a significant amount of time to {@link #start() start} this object as it must process historical
  * order history. Callers may choose to make this operation asynchronous. The object will report that it 
  * {@link #isRunning() is running} when the processing is complete.
+ * 
+ * <p>Callers which only need the state of the open orders may instead bootstrap from an order snapshot,
+ * which holds the latest report of each open order and a watermark, the highest report ID the server had
+ * saved when it was taken. No history is replayed in that case. Live reports received while the snapshot
+ * is fetched are held back, then applied unless the snapshot already reflects them.
  *
  * @author <a href="mailto:colin@marketcetera.com">Colin DuPlantis</a>
  * @version $Id: LiveOrderHistoryManager.java 16841 2014-02-20 19:59:04Z colin $
@@ -60,12 +67,29 @@ public class LiveOrderHistoryManager
      */
     public LiveOrderHistoryManager(Date inReportHistoryOrigin)
             throws ClientInitException
+    {
+        this(inReportHistoryOrigin,
+             false);
+    }
+    /**
+     * Create a new LiveOrderHistoryManager instance.
+     * 
+     * @param inReportHistoryOrigin a <code>Date</code> value indicating the point from which to gather order history or <code>null</code>
+     * @param inUseSnapshot a <code>boolean</code> value indicating whether to bootstrap from the open order snapshot
+     *  of the server instead of the order history, in which case the origin is ignored
+     * @throws ClientInitException if a connection to the <code>Client</code> cannot be made 
+     */
+    public LiveOrderHistoryManager(Date inReportHistoryOrigin,
+                                   boolean inUseSnapshot)
+            throws ClientInitException
     {
         if(inReportHistoryOrigin == null) {
             reportHistoryOrigin = new Date(0);
         } else {
             reportHistoryOrigin = inReportHistoryOrigin;
         }
+        useSnapshot = inUseSnapshot;
+        bootstrapping = inUseSnapshot;
         client = WSClientImpl.getInstance();
     }
     /**
@@ -104,6 +128,33 @@ public class LiveOrderHistoryManager
         if(isRunning) {
             stop();
         }
+        if(useSnapshot) {
+            startFromSnapshot();
+        } else {
+            startFromHistory();
+        }
+        // create and start the report processor
+        reportProcessor = new Thread(new Runnable() {
+            @Override
+            public void run()
+            {
+                try {
+                    while(isRunning) {
+                        // process any updates that exist
+                        add(updateReports.take());
+                    }
+                } catch (InterruptedException ignored) {}
+            }
+        },
+        "LiveOrderHistoryManager Report Processor"); //$NON-NLS-1$
+        reportProcessor.start();
+        isRunning = true;
+    }
+    /**
+     * Loads the reports since the origin date and the open orders.
+     */
+    private void startFromHistory()
+    {
         SLF4JLoggerProxy.debug(LiveOrderHistoryManager.class,
                                "LiveOrderHistoryManager starting - collecting order history since {}", //$NON-NLS-1$
                                reportHistoryOrigin);
@@ -145,22 +196,124 @@ public class LiveOrderHistoryManager
             SLF4JLoggerProxy.debug(LiveOrderHistoryManager.class,
                                    "All historical reports processed"); //$NON-NLS-1$
         }
-        // create and start the report processor
-        reportProcessor = new Thread(new Runnable() {
-            @Override
-            public void run()
-            {
-                try {
-                    while(isRunning) {
-                        // process any updates that exist
-                        add(updateReports.take());
-                    }
-                } catch (InterruptedException ignored) {}
+    }
+    /**
+     * Loads the open order snapshot, then applies the live reports held back while it was fetched.
+     * 
+     * <p>If the snapshot cannot be retrieved, the order history is loaded instead. Whatever happens, the
+     * live reports held back are applied and the live reports are no longer held back on return.
+     */
+    private void startFromSnapshot()
+    {
+        synchronized(bootstrapLock) {
+            bootstrapping = true;
+        }
+        try {
+            OrderSnapshot snapshot;
+            try {
+                snapshot = client.getOrderSnapshot();
+            } catch (ConnectionException | RuntimeException e) {
+                org.marketcetera.client.ws.Messages.ORDER_SNAPSHOT_UNAVAILABLE.warn(LiveOrderHistoryManager.class,
+                                                                                    e,
+                                                                                    reportHistoryOrigin);
+                startFromHistory();
+                return;
             }
-        },
-        "LiveOrderHistoryManager Report Processor"); //$NON-NLS-1$
-        reportProcessor.start();
-        isRunning = true;
+            loadSnapshot(snapshot);
+        } finally {
+            synchronized(bootstrapLock) {
+                // held back reports already loaded from the history are processed twice, which is harmless
+                //  as the reports are keyed by OrderID
+                for(ReportBase report : pendingReports) {
+                    LiveOrderHistoryManager.super.add(report);
+                }
+                pendingReports.clear();
+                bootstrapping = false;
+            }
+        }
+    }
+    /**
+     * Adds the reports of the given snapshot, then the live reports held back while it was fetched which
+     * it does not reflect.
+     * 
+     * @param snapshot an <code>OrderSnapshot</code> value
+     */
+    private void loadSnapshot(OrderSnapshot snapshot)
+    {
+        ReportBaseImpl[] reports = snapshot.getReports();
+        SLF4JLoggerProxy.debug(LiveOrderHistoryManager.class,
+                               "LiveOrderHistoryManager starting - {} open order(s) up to report {}", //$NON-NLS-1$
+                               reports.length,
+                               snapshot.getWatermark());
+        Arrays.sort(reports,
+                    ReportBase.ReportComparator.INSTANCE);
+        Map<OrderID,Long> snapshotReportIDs = new HashMap<OrderID,Long>();
+        for(ReportBase report : reports) {
+            LiveOrderHistoryManager.super.add(report);
+            if(report.getOrderID() != null && report.getReportID() != null) {
+                snapshotReportIDs.put(report.getOrderID(),
+                                      report.getReportID().longValue());
+            }
+        }
+        synchronized(bootstrapLock) {
+            int skipped = 0;
+            for(ReportBase report : pendingReports) {
+                if(isReflected(report,
+                               snapshot.getWatermark(),
+                               snapshotReportIDs)) {
+                    skipped++;
+                } else {
+                    LiveOrderHistoryManager.super.add(report);
+                }
+            }
+            SLF4JLoggerProxy.debug(LiveOrderHistoryManager.class,
+                                   "{} live report(s) held back during the snapshot, {} already in it", //$NON-NLS-1$
+                                   pendingReports.size(),
+                                   skipped);
+            pendingReports.clear();
+        }
+    }
+    /**
+     * Indicates if the given report is already reflected in the snapshot.
+     * 
+     * <p>Reports above the watermark were saved after the snapshot was taken. A report at or below it
+     * is reflected if the snapshot holds the same or a later report of its order. Report IDs are assigned
+     * before reports are saved, so a report below the watermark of an order missing from the snapshot may
+     * have been saved after it and is applied.
+     *
+     * @param inReport a <code>ReportBase</code> value
+     * @param inWatermark a <code>long</code> value
+     * @param inSnapshotReportIDs a <code>Map&lt;OrderID,Long&gt;</code> value
+     * @return a <code>boolean</code> value
+     */
+    private static boolean isReflected(ReportBase inReport,
+                                       long inWatermark,
+                                       Map<OrderID,Long> inSnapshotReportIDs)
+    {
+        ReportID reportID = inReport.getReportID();
+        if(reportID == null || reportID.longValue() > inWatermark) {
+            return false;
+        }
+        Long snapshotReportID = inSnapshotReportIDs.get(inReport.getOrderID());
+        return snapshotReportID != null && snapshotReportID >= reportID.longValue();
+    }
+    /**
+     * Adds a report received from the live report channel.
+     * 
+     * <p>When bootstrapping from a snapshot, reports received before the snapshot is loaded are
+     * held back until it is.
+     *
+     * @param inReport a <code>ReportBase</code> value
+     */
+    protected void addLiveReport(ReportBase inReport)
+    {
+        synchronized(bootstrapLock) {
+            if(bootstrapping) {
+                pendingReports.add(inReport);
+                return;
+            }
+        }
+        LiveOrderHistoryManager.super.add(inReport);
     }
     /* (non-Javadoc)
      * @see org.springframework.context.Lifecycle#stop()
@@ -181,6 +334,10 @@ public class LiveOrderHistoryManager
             reportProcessor = null;
         }
         clear();
+        synchronized(bootstrapLock) {
+            pendingReports.clear();
+            bootstrapping = useSnapshot;
+        }
         isRunning = false;
     }
     /**
@@ -219,6 +376,22 @@ public class LiveOrderHistoryManager
      * collection which contains incoming reports from the live report channel
      */
     private final BlockingDeque<ReportBase> updateReports = new LinkedBlockingDeque<ReportBase>();
+    /**
+     * live reports held back until the snapshot is loaded
+     */
+    private final List<ReportBase> pendingReports = new ArrayList<ReportBase>();
+    /**
+     * guards {@link #pendingReports} and {@link #bootstrapping}
+     */
+    private final Object bootstrapLock = new Object();
+    /**
+     * indicates if live reports are held back
+     */
+    private boolean bootstrapping;
+    /**
+     * indicates if the object bootstraps from the open order snapshot
+     */
+    private final boolean useSnapshot;
     /**
      * date from which to gather status
      */
@@ -0,0 +1,136 @@
+package org.marketcetera.client.ws.jms;
+
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+
+import org.marketcetera.core.time.Period;
+import org.marketcetera.event.EntryPx;
+import org.marketcetera.event.Quote;
+import org.marketcetera.event.impl.QuoteEventBuilder;
+import org.marketcetera.event.impl.TickEventBuilder;
+import org.marketcetera.trade.BrokerID;
+import org.marketcetera.trade.Equity;
+import org.marketcetera.trade.Factory;
+import org.marketcetera.trade.Originator;
+import org.marketcetera.trade.UserID;
+import org.marketcetera.util.misc.ClassVersion;
+
+import quickfix.Message;
+
+/**
+ * Compares the XML and binary representations of the messaging objects
+ * sent the most: the time it takes to encode and decode them, and their
+ * size. Run it with the number of iterations as the only, optional,
+ * argument. It lives with the tests so it is not shipped in the client
+ * jar.
+ */
+@ClassVersion("$Id$")
+public class ConverterBenchmark {
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the number of iterations per sample.
+     *
+     * @throws Exception if the samples cannot be converted.
+     */
+    public static void main(String[] args)
+            throws Exception
+    {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+        BinaryMessageConverter converter = new BinaryMessageConverter(WSContextClassProvider.INSTANCE);
+        Object[] samples = createSamples();
+        System.out.printf("%-24s %10s %10s %12s %12s %12s %12s%n", //$NON-NLS-1$
+                          "sample", "xml bytes", "bin bytes", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                          "xml enc ns", "xml dec ns", "bin enc ns", "bin dec ns"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        for(Object sample : samples) {
+            // warm up both paths before measuring
+            run(converter, sample, iterations / 10 + 1);
+            long[] result = run(converter, sample, iterations);
+            System.out.printf("%-24s %10d %10d %12d %12d %12d %12d%n", //$NON-NLS-1$
+                              sample.getClass().getSimpleName(),
+                              result[0], result[1],
+                              result[2] / iterations, result[3] / iterations,
+                              result[4] / iterations, result[5] / iterations);
+        }
+    }
+
+    /**
+     * Converts the given sample back and forth in both representations.
+     *
+     * @return the XML size, the binary size and the total XML encoding,
+     * XML decoding, binary encoding and binary decoding times, in
+     * nanoseconds.
+     */
+    private static long[] run(BinaryMessageConverter inConverter,
+                              Object inSample,
+                              int inIterations)
+            throws Exception
+    {
+        long[] result = new long[6];
+        String xml = inConverter.toXML(inSample);
+        byte[] binary = inConverter.toBinary(inSample);
+        result[0] = xml.getBytes(CHARSET).length;
+        result[1] = binary.length;
+        long start = System.nanoTime();
+        for(int i = 0; i < inIterations; i++) {
+            xml = inConverter.toXML(inSample);
+        }
+        result[2] = System.nanoTime() - start;
+        start = System.nanoTime();
+        for(int i = 0; i < inIterations; i++) {
+            inConverter.fromXML(xml);
+        }
+        result[3] = System.nanoTime() - start;
+        start = System.nanoTime();
+        for(int i = 0; i < inIterations; i++) {
+            binary = inConverter.toBinary(inSample);
+        }
+        result[4] = System.nanoTime() - start;
+        start = System.nanoTime();
+        for(int i = 0; i < inIterations; i++) {
+            inConverter.fromBinary(binary);
+        }
+        result[5] = System.nanoTime() - start;
+        return result;
+    }
+
+    private static Object[] createSamples()
+            throws Exception
+    {
+        Equity instrument = new Equity("IBM"); //$NON-NLS-1$
+        BrokerID brokerID = new BrokerID("DK"); //$NON-NLS-1$
+        long time = System.currentTimeMillis();
+        Object tick = TickEventBuilder.tickEvent()
+                .withInstrument(instrument)
+                .withBrokerID(brokerID)
+                .withTime(time)
+                .withBid(new EntryPx(new BigDecimal("1.12345"), new BigDecimal("1000000"), "DK")) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                .withAsk(new EntryPx(new BigDecimal("1.12352"), new BigDecimal("2500000"), "DK")) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                .create();
+        Object quote = QuoteEventBuilder.quoteEvent()
+                .withInstrument(instrument)
+                .withBrokerID(brokerID)
+                .withPeriod(Period.values()[0])
+                .withQuote(new Quote(time,
+                                     new BigDecimal("1.12345"), //$NON-NLS-1$
+                                     new BigDecimal("1.12410"), //$NON-NLS-1$
+                                     new BigDecimal("1.12298"), //$NON-NLS-1$
+                                     new BigDecimal("1.12377"), //$NON-NLS-1$
+                                     new BigDecimal("154200000"), //$NON-NLS-1$
+                                     new BigDecimal("0.00007"))) //$NON-NLS-1$
+                .create();
+        Object report = Factory.getInstance().createExecutionReport(
+                new Message(EXECUTION_REPORT.replace('|', '\u0001'), false),
+                brokerID, Originator.Broker, new UserID(1));
+        return new Object[] { tick, quote, report };
+    }
+
+    private static final int DEFAULT_ITERATIONS = 100000;
+    private static final Charset CHARSET = Charset.forName("UTF-8"); //$NON-NLS-1$
+    private static final String EXECUTION_REPORT =
+            "8=FIX.4.4|9=238|35=8|34=12|49=DK|52=20140701-12:00:00.000|56=ORS|" + //$NON-NLS-1$
+            "1=ACC1|6=1.12350|11=1404216000000|14=100000|17=E1|31=1.12350|32=100000|" + //$NON-NLS-1$
+            "37=O1|38=100000|39=2|40=2|44=1.12350|54=1|55=IBM|60=20140701-12:00:00.000|" + //$NON-NLS-1$
+            "150=F|151=0|10=000|"; //$NON-NLS-1$
+}
@@ -29,7 +29,7 @@ import quickfix.ConfigError;
 import quickfix.FieldConvertError;
 import quickfix.RuntimeError;
 import org.marketcetera.exchange.backtesting.ClientPortfolio;
-import org.marketcetera.exchange.backtesting.OrderBook;
+import org.marketcetera.exchange.backtesting.OrderBookRegistry;
 import org.marketcetera.exchange.backtesting.OrderBookSimulator;
 import org.marketcetera.exchange.events.SimulationStoppedEvent;
 import org.marketcetera.exchange.marketDataLoader.IMarketDataLoader;
@@ -120,7 +120,7 @@ public class CcfeaExchange implements Observer {
 
 		if(runBacktest) {
 			try {
-				OrderBook.getInstance().addObserver(clientPortfolio);
+				OrderBookRegistry.getInstance().addObserver(clientPortfolio);
 				
 				marketDataAcceptor.start();
 				orderAcceptor.start();
@@ -17,7 +17,12 @@
  */
 package org.marketcetera.exchange;
 
+import java.sql.SQLException;
+
+import org.marketcetera.exchange.backtesting.ParameterSweepRunner;
 import org.marketcetera.exchange.common.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Main program entry
@@ -27,13 +32,26 @@ import org.marketcetera.exchange.common.Configuration;
  *
  */
 public class Main {
+	private static final Logger LOG = LoggerFactory.getLogger(Main.class);
 
 	/**
 	 * Application entry point.
 	 * Loads the {@link CcfeaExchange} from the Spring configuration.
+	 * With the argument "sweep" the {@link ParameterSweepRunner} is loaded and run instead.
 	 * @param args
 	 */
 	public static void main(String[] args) {
+		if(args.length > 0 && args[0].equals("sweep")) {
+			ParameterSweepRunner parameterSweepRunner =
+				(ParameterSweepRunner) Configuration.getInstance().getBean("ParameterSweepRunner");
+			try {
+				parameterSweepRunner.runSweep();
+			} catch (SQLException e) {
+				LOG.error("SQL error while reading market events for the parameter sweep: " + e.toString());
+			}
+			return;
+		}
+
 		CcfeaExchange ccfeaExchange = (CcfeaExchange) Configuration.getInstance().getBean("CcfeaExchange");
 		ccfeaExchange.runExchange();
 	}
@@ -0,0 +1,193 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.backtesting;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Observable;
+import java.util.Observer;
+
+import quickfix.field.Side;
+import org.marketcetera.exchange.events.ClientFilledEvent;
+import org.marketcetera.exchange.marketEvents.Fill;
+
+/**
+ * Result of one {@link BacktestRun}. Observes the client portfolio of the run and
+ * sums up the client fills in the same way as the
+ * {@link org.marketcetera.exchange.report.CcfeaSumCalcReport}.
+ * 
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+public class BacktestResult implements Observer {
+	private final Map<String, Double> parameters;
+	private final long startDateTime;
+	private final long endDateTime;
+	private double totalBoughtAmount;
+	private double totalSoldAmount;
+	private double totalBoughtPrice;
+	private double totalSoldPrice;
+	private int fillCount;
+	private long replayedEvents;
+
+	/**
+	 * Creates an empty result
+	 * @param parameters Strategy parameters of the run
+	 * @param startDateTime Start of the simulated interval in milliseconds
+	 * @param endDateTime End of the simulated interval in milliseconds
+	 */
+	public BacktestResult(Map<String, Double> parameters, long startDateTime, long endDateTime) {
+		this.parameters = Collections.unmodifiableMap(parameters);
+		this.startDateTime = startDateTime;
+		this.endDateTime = endDateTime;
+	}
+
+	/**
+	 * Updates the summarized values on client fills
+	 */
+	@Override
+	public void update(Observable o, Object arg) {
+		if(arg instanceof ClientFilledEvent) {
+			Fill fill = (Fill)((ClientFilledEvent)arg).getMarketEvent();
+
+			if(fill.getSide() == Side.BUY) {
+				totalBoughtPrice += fill.getExecPrice() * fill.getExecQty();
+				totalBoughtAmount += fill.getExecQty();
+			}
+			else {
+				totalSoldPrice += fill.getExecPrice() * fill.getExecQty();
+				totalSoldAmount += fill.getExecQty();
+			}
+
+			fillCount++;
+		}
+	}
+
+	/**
+	 * Sets the number of market events replayed in the run
+	 * @param replayedEvents Number of replayed market events
+	 */
+	void setReplayedEvents(long replayedEvents) {
+		this.replayedEvents = replayedEvents;
+	}
+
+	/**
+	 * Get the strategy parameters of the run
+	 * @return Unmodifiable map of the parameters
+	 */
+	public Map<String, Double> getParameters() {
+		return parameters;
+	}
+
+	/**
+	 * Get the start of the simulated interval
+	 * @return Start date time in milliseconds
+	 */
+	public long getStartDateTime() {
+		return startDateTime;
+	}
+
+	/**
+	 * Get the end of the simulated interval
+	 * @return End date time in milliseconds
+	 */
+	public long getEndDateTime() {
+		return endDateTime;
+	}
+
+	/**
+	 * Get the total price of bought assets
+	 * @return Total price bought
+	 */
+	public double getTotalBoughtPrice() {
+		return totalBoughtPrice;
+	}
+
+	/**
+	 * Get the total amount of bought assets
+	 * @return Total amount bought
+	 */
+	public double getTotalBoughtAmount() {
+		return totalBoughtAmount;
+	}
+
+	/**
+	 * Get the total price of sold assets
+	 * @return Total price sold
+	 */
+	public double getTotalSoldPrice() {
+		return totalSoldPrice;
+	}
+
+	/**
+	 * Get the total amount of sold assets
+	 * @return Total amount sold
+	 */
+	public double getTotalSoldAmount() {
+		return totalSoldAmount;
+	}
+
+	/**
+	 * Get the average buy price
+	 * @return Average buy price, NaN if nothing was bought
+	 */
+	public double getAverageBuyPrice() {
+		return totalBoughtPrice / totalBoughtAmount;
+	}
+
+	/**
+	 * Get the average sell price
+	 * @return Average sell price, NaN if nothing was sold
+	 */
+	public double getAverageSellPrice() {
+		return totalSoldPrice / totalSoldAmount;
+	}
+
+	/**
+	 * Get the total amount of traded assets
+	 * @return Total amount bought and sold
+	 */
+	public double getTotalTradedAmount() {
+		return totalBoughtAmount + totalSoldAmount;
+	}
+
+	/**
+	 * Get the profit (loss) based on the filled orders
+	 * @return Total price sold minus total price bought
+	 */
+	public double getProfit() {
+		return totalSoldPrice - totalBoughtPrice;
+	}
+
+	/**
+	 * Get the number of client fills and partial fills
+	 * @return Number of fills
+	 */
+	public int getFillCount() {
+		return fillCount;
+	}
+
+	/**
+	 * Get the number of market events replayed in the run
+	 * @return Number of replayed market events
+	 */
+	public long getReplayedEvents() {
+		return replayedEvents;
+	}
+}
@@ -0,0 +1,227 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.backtesting;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Observable;
+import java.util.Observer;
+
+import quickfix.field.Side;
+import org.marketcetera.exchange.common.Configuration;
+import org.marketcetera.exchange.common.UUIDGenerator;
+import org.marketcetera.exchange.databaseAdapter.MarketEventCursor;
+import org.marketcetera.exchange.databaseAdapter.MarketEventTape;
+import org.marketcetera.exchange.marketEvents.Bid;
+import org.marketcetera.exchange.marketEvents.Fill;
+import org.marketcetera.exchange.marketEvents.MarketEvent;
+import org.marketcetera.exchange.marketEvents.Offer;
+import org.marketcetera.exchange.marketEvents.PartialFill;
+import org.marketcetera.exchange.orderExecutionStrategy.IOrderExecutionStrategy;
+
+/**
+ * One isolated simulation of a parameter sweep. The run has its own order book and
+ * client portfolio, and replays its interval of a shared {@link MarketEventTape}
+ * as fast as possible into them, with an {@link IBacktestStrategy} trading
+ * against the book.
+ * 
+ * The shared {@link SimulationTime} and {@link OrderBookRegistry} are not used, so
+ * runs can execute in parallel.
+ * 
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+public class BacktestRun implements Observer {
+	private final MarketEventTape marketEventTape;
+	private final OrderBook orderBook;
+	private final ClientPortfolio clientPortfolio;
+	private final IOrderExecutionStrategy orderExecutionStrategy;
+	private final MarketEventReplayer replayer;
+	private final BacktestResult result;
+	private final IBacktestStrategy strategy;
+	private final String symbol;
+	private final String clientID;
+	private long dateTime;
+
+	/**
+	 * Creates a run
+	 * @param marketEventTape Tape with the market events to replay
+	 * @param parameters Strategy parameters of the run
+	 * @param startDateTime Start of the simulated interval in milliseconds
+	 * @param endDateTime End of the simulated interval in milliseconds
+	 * @param strategyFactory Factory creating the strategy of the run
+	 * @param orderExecutionStrategy Execution strategy used to match orders
+	 */
+	public BacktestRun(MarketEventTape marketEventTape, Map<String, Double> parameters,
+			long startDateTime, long endDateTime, IBacktestStrategyFactory strategyFactory,
+			IOrderExecutionStrategy orderExecutionStrategy) {
+		this.marketEventTape = marketEventTape;
+		this.orderExecutionStrategy = orderExecutionStrategy;
+		this.orderBook = new OrderBook();
+		this.clientPortfolio = new ClientPortfolio(orderExecutionStrategy, orderBook);
+		this.result = new BacktestResult(parameters, startDateTime, endDateTime);
+		this.symbol = Configuration.getInstance().getSymbol();
+		this.clientID = Configuration.getInstance().getClientID();
+		this.dateTime = startDateTime;
+
+		String serverID = Configuration.getInstance().getServerID();
+		this.replayer = new MarketEventReplayer(orderBook, symbol, serverID, serverID);
+
+		clientPortfolio.addObserver(result);
+		orderBook.addObserver(clientPortfolio);
+		orderBook.addObserver(this);
+
+		this.strategy = strategyFactory.createStrategy(parameters, this);
+	}
+
+	/**
+	 * Replays the interval of the run and returns the result
+	 * @return The result of the run
+	 */
+	public BacktestResult run() {
+		MarketEventCursor cursor = marketEventTape.newCursor(result.getStartDateTime(), result.getEndDateTime());
+		long replayedEvents = 0;
+
+		try {
+			while(cursor.next()) {
+				dateTime = cursor.getDateTime();
+				replayer.replay(cursor);
+				replayedEvents++;
+			}
+		} catch (SQLException e) {
+			//A tape cursor never fails
+			throw new IllegalStateException(e);
+		}
+
+		result.setReplayedEvents(replayedEvents);
+
+		return result;
+	}
+
+	/**
+	 * Forwards the order book changes to the strategy
+	 */
+	@Override
+	public void update(Observable o, Object arg) {
+		if(arg instanceof MarketEvent)
+			strategy.onMarketEvent((MarketEvent)arg);
+	}
+
+	/**
+	 * Creates a client bid for the symbol of the run, time stamped with the
+	 * current simulation time of the run
+	 * @param orderQty Order quantity
+	 * @param price Limit price, ignored for market orders
+	 * @param orderType Order type, {@link quickfix.field.OrdType#LIMIT} or
+	 * {@link quickfix.field.OrdType#MARKET}
+	 * @return The bid, to pass to {@link #submitOrder(MarketEvent)}
+	 */
+	public Bid newBid(int orderQty, double price, char orderType) {
+		return new Bid(price, orderQty, orderQty, UUIDGenerator.getUUIDString(),
+				new Date(dateTime), clientID, orderType, symbol, clientID);
+	}
+
+	/**
+	 * Creates a client offer for the symbol of the run, time stamped with the
+	 * current simulation time of the run
+	 * @param orderQty Order quantity
+	 * @param price Limit price, ignored for market orders
+	 * @param orderType Order type, {@link quickfix.field.OrdType#LIMIT} or
+	 * {@link quickfix.field.OrdType#MARKET}
+	 * @return The offer, to pass to {@link #submitOrder(MarketEvent)}
+	 */
+	public Offer newOffer(int orderQty, double price, char orderType) {
+		return new Offer(price, orderQty, orderQty, UUIDGenerator.getUUIDString(),
+				new Date(dateTime), clientID, orderType, symbol, clientID);
+	}
+
+	/**
+	 * Submits a client order. The order is matched against the order book of the
+	 * run in the same way as orders received by the order server, and is either
+	 * (partially) filled or added as an open position.
+	 * @param order The bid or offer to submit
+	 */
+	public void submitOrder(MarketEvent order) {
+		Fill fill = null;
+
+		if(order.getSide() == Side.BUY)
+			fill = orderExecutionStrategy.checkBidForExecution((Bid)order, orderBook.getOffers());
+		else
+			fill = orderExecutionStrategy.checkOfferForExecution((Offer)order, orderBook.getBids());
+
+		if(fill instanceof PartialFill)
+			clientPortfolio.addPartialFill((PartialFill)fill);
+		else if(fill != null)
+			clientPortfolio.addFill(fill);
+		else
+			clientPortfolio.addOpenPosition(order);
+	}
+
+	/**
+	 * Cancels an open client order
+	 * @param order The bid or offer to cancel
+	 */
+	public void cancelOrder(MarketEvent order) {
+		if(order.getSide() == Side.BUY)
+			clientPortfolio.cancelBid(order.getClientOrderID());
+		else
+			clientPortfolio.cancelOffer(order.getClientOrderID());
+	}
+
+	/**
+	 * Get the current simulation time of the run
+	 * @return Date time of the last replayed market event in milliseconds
+	 */
+	public long getDateTime() {
+		return dateTime;
+	}
+
+	/**
+	 * Get the client id of the orders placed in the run
+	 * @return The client id
+	 */
+	public String getClientID() {
+		return clientID;
+	}
+
+	/**
+	 * Get the order book of the run
+	 * @return The order book
+	 */
+	public OrderBook getOrderBook() {
+		return orderBook;
+	}
+
+	/**
+	 * Get the client portfolio of the run
+	 * @return The client portfolio
+	 */
+	public ClientPortfolio getClientPortfolio() {
+		return clientPortfolio;
+	}
+
+	/**
+	 * Get the result of the run
+	 * @return The result, complete after {@link #run()} returned
+	 */
+	public BacktestResult getResult() {
+		return result;
+	}
+}
@@ -18,31 +18,27 @@
 package org.marketcetera.exchange.backtesting;
 
 import java.sql.Date;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Calendar;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import quickfix.field.OrdType;
-import quickfix.field.Side;
 import org.marketcetera.exchange.common.Configuration;
 import org.marketcetera.exchange.databaseAdapter.IDatabaseAdapter;
+import org.marketcetera.exchange.databaseAdapter.MarketEventCursor;
 import org.marketcetera.exchange.events.SimulationEvent;
 import org.marketcetera.exchange.events.SimulationStartedEvent;
 import org.marketcetera.exchange.events.SimulationStoppedEvent;
-import org.marketcetera.exchange.marketEvents.Bid;
-import org.marketcetera.exchange.marketEvents.Fill;
-import org.marketcetera.exchange.marketEvents.MarketEvent;
-import org.marketcetera.exchange.marketEvents.Offer;
-import org.marketcetera.exchange.marketEvents.PartialFill;
 
 /**
  * Order book simulator loads the market events in the given time interval from the
  * database and replays them in order. All events are interpreted and changes the
  * cached order book accordingly.
  * 
+ * The market events are streamed from the database through a {@link MarketEventCursor},
+ * and the replay is paced according to a {@link ReplayPacing} policy. The number of
+ * replayed events per second is logged when the simulation stops.
+ * 
  * Notifies observers when the simulation starts and stops.
  * It runs as a separate thread in order not to block all other application actions.
  * 
@@ -51,17 +47,25 @@ import org.marketcetera.exchange.marketEvents.PartialFill;
  *
  */
 public class CcfeaOrderBookSimulator extends OrderBookSimulator {
-	private OrderBook orderBook;
+	/**
+	 * Default number of market events decoded per chunk
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 4096;
+	/**
+	 * Number of replayed market events between two progress log lines
+	 */
+	private static final long PROGRESS_INTERVAL = 1000000;
 	private IDatabaseAdapter dbAdapter;
-	private ResultSet marketEventResults;
+	private MarketEventCursor marketEventCursor;
 	private Date startDateTime;
 	private Date endDateTime;
-	private Calendar simulationDelayTime;
-	private boolean continueReplaying;
-	private String serverID;
-	private String symbol;
-	private String account;
-	private int simulationDelay;
+	private volatile boolean continueReplaying;
+	private final MarketEventReplayer replayer;
+	private final ReplayPacer pacer;
+	private final int chunkSize;
+	private long replayStartNanos;
+	private volatile long replayedEvents;
+	private volatile long replayNanos;
 	private SimulationTime simulationTime;
 	private static final Logger LOG = LoggerFactory.getLogger(CcfeaOrderBookSimulator.class);
 
@@ -79,30 +83,48 @@ public class CcfeaOrderBookSimulator extends OrderBookSimulator {
 	 */
 	public CcfeaOrderBookSimulator(SimulationDateTimeInterval simulationDates, int simulationDelay,
 			IDatabaseAdapter databaseAdapter) {
+		this(simulationDates, ReplayPacing.DELAY_PER_SECOND, 1, simulationDelay,
+				DEFAULT_CHUNK_SIZE, databaseAdapter);
+	}
+
+	/**
+	 * Creates a simulation object with the given start and end dates, replaying the
+	 * market events according to the given pacing policy.
+	 * @param simulationDates Start and end date times for the simulation.
+	 * @param pacing Pacing policy of the replay.
+	 * @param speed Speed multiplier, only used by {@link ReplayPacing#SCALED}. A speed
+	 * of 60 replays one simulated minute per second.
+	 * @param chunkSize Number of market events decoded per chunk.
+	 * @param databaseAdapter Database adapter to use to fetch market events.
+	 */
+	public CcfeaOrderBookSimulator(SimulationDateTimeInterval simulationDates, ReplayPacing pacing,
+			double speed, int chunkSize, IDatabaseAdapter databaseAdapter) {
+		this(simulationDates, pacing, speed, 0, chunkSize, databaseAdapter);
+	}
+
+	/**
+	 * Shared constructor, see the public constructors.
+	 */
+	private CcfeaOrderBookSimulator(SimulationDateTimeInterval simulationDates, ReplayPacing pacing,
+			double speed, int simulationDelay, int chunkSize, IDatabaseAdapter databaseAdapter) {
+		this.pacer = new ReplayPacer(pacing, speed, simulationDelay);
 		this.startDateTime = simulationDates.getStartDateTime();
 		this.endDateTime = simulationDates.getEndDateTime();
-		this.simulationDelay = simulationDelay;
-
-		simulationDelayTime = Calendar.getInstance();
-		simulationDelayTime.setTime(startDateTime);
-		simulationDelayTime.add(Calendar.SECOND, 1);
+		this.chunkSize = chunkSize;
 
 		simulationTime = SimulationTime.getInstance();
-		setSimulationTime(this.startDateTime);
+		setSimulationTime(this.startDateTime.getTime());
 
 		dbAdapter = databaseAdapter;
-		orderBook = OrderBook.getInstance();
-		serverID = Configuration.getInstance().getServerID();
-		symbol = Configuration.getInstance().getSymbol();
-		account = serverID;
+
+		String serverID = Configuration.getInstance().getServerID();
+		replayer = new MarketEventReplayer(OrderBook.getInstance(),
+				Configuration.getInstance().getSymbol(), serverID, serverID);
 	}
 
 	/**
-	 * Starts the simulation by replaying the market events given in the result set.
+	 * Starts the simulation by replaying the market events given by the cursor.
 	 * Notifies observers when the simulation starts and stops.
-	 * @param results Market events as fetched from the database
-	 * @throws SQLException
-	 * @throws InterruptedException
 	 */
 	@Override
 	public void runSimulation() {
@@ -110,81 +132,26 @@ public class CcfeaOrderBookSimulator extends OrderBookSimulator {
 			notifyChange(new SimulationStartedEvent());
 
 			continueReplaying = true;
-			Calendar tempCal = Calendar.getInstance();
+			replayedEvents = 0;
+			replayStartNanos = System.nanoTime();
+			pacer.start(startDateTime.getTime());
 
-			LOG.info("Running simulation...");
+			LOG.info("Running simulation (" + pacer.getPacing() + ")...");
 
-			while (marketEventResults.next() && continueReplaying) {
-				MarketEvent marketEvent = null;
-
-				String clientOrderID = marketEventResults.getString("orderID");
-				String orderActionTypeString = marketEventResults.getString("orderActionType");
-				int orderQty = marketEventResults.getInt("orderQty");
-				double price = marketEventResults.getDouble("price");
-				String buySellInd = marketEventResults.getString("buySellInd");
-				char side = buySellInd.equals("B") ? Side.BUY : Side.SELL;
-				Date dateTime = marketEventResults.getDate("dateTime");
-				char orderType = OrdType.LIMIT; 
-				tempCal.setTime(dateTime);
+			while (continueReplaying && marketEventCursor.next()) {
+				long dateTime = marketEventCursor.getDateTime();
 
 				setSimulationTime(dateTime);
+				pacer.pace(dateTime);
+				replayer.replay(marketEventCursor);
 
-				if(tempCal.get(Calendar.SECOND) == simulationDelayTime.get(Calendar.SECOND)) {
-					Thread.sleep(simulationDelay);
-					simulationDelayTime.add(Calendar.SECOND, 1);
-				}
-
-				char orderActionType = 0;
-				if(orderActionTypeString != null) {
-					orderActionType = orderActionTypeString.charAt(0);
-				}
-
-				switch (orderActionType)
-				{
-				case 'D':   //Delete
-					marketEvent = getMarketEventFromActionTypeAndBuySellInd(
-							buySellInd, orderActionType, price,
-							orderQty, clientOrderID, dateTime, orderType);
-
-					orderBook.deleteMarketEvent(marketEvent);
-					break;
-				case 'E':   //Expired
-					marketEvent = getMarketEventFromActionTypeAndBuySellInd(
-							buySellInd, orderActionType, price,
-							orderQty, clientOrderID, dateTime, orderType);
-
-					orderBook.deleteMarketEvent(marketEvent);
-					break;
-				case 'P':   //Partial match
-					marketEvent =
-						new PartialFill(price, orderQty, clientOrderID, dateTime, serverID, orderType,
-								symbol, account, orderQty, orderQty, price, 0, side);
-
-					orderBook.addMarketEvent(marketEvent);
-					break;
-				case 'M':   //Full Match
-					marketEvent =
-						new Fill(price, orderQty, clientOrderID, dateTime, serverID, orderType,
-								symbol, account, orderQty, orderQty, price, side);
-
-					orderBook.addMarketEvent(marketEvent);
-					break;
-				case 'T':   //Transaction Limit
-					//Do nothing, ignore.
-					break;
-				default:   //Order (bid or offer)
-					marketEvent = getMarketEventFromActionTypeAndBuySellInd(
-							buySellInd, orderActionType, price,
-							orderQty, clientOrderID, dateTime, orderType);
-
-					orderBook.addMarketEvent(marketEvent);
-					break;
-				}
+				if(++replayedEvents % PROGRESS_INTERVAL == 0)
+					logThroughput("Replayed");
 			}
 
-			marketEventResults.close();
+			marketEventCursor.close();
 
-			LOG.info("Stopped running simulation...");
+			logThroughput("Stopped running simulation, replayed");
 
 			notifyChange(new SimulationStoppedEvent());
 
@@ -196,48 +163,44 @@ public class CcfeaOrderBookSimulator extends OrderBookSimulator {
 	}
 
 	/**
-	 * Sets the simulation time. Should be kept up to date during
-	 * simulation.
-	 * @param time The current time of the simulation (last replayed
-	 * market event)
+	 * Logs the number of replayed events and the replay rate.
+	 * @param message Prefix of the log line
 	 */
-	private void setSimulationTime(Date time) {
-		simulationTime.setTime(time);
+	private void logThroughput(String message) {
+		replayNanos = System.nanoTime() - replayStartNanos;
+
+		LOG.info(message + " " + replayedEvents + " market events in "
+				+ (replayNanos / 1000000L) + " ms (" + (long)getEventsPerSecond() + " events/s)");
 	}
 
 	/**
-	 * Gets a market event based on the action type and buy-sell indicator.
-	 * @param buySellInd Buy sell indicator, 'B' for buy, 'S' for sell
-	 * @param actionType Action type indication whether it is supposed to be a delete event
-	 * @param price Price of the event
-	 * @param orderQty Order quantity of the event
-	 * @param clientOrderID Unique orer id
-	 * @param transactTime Transaction time of the order
-	 * @param orderType Type of the order
-	 * @return A matching market event.
+	 * Get the number of market events replayed so far.
+	 * @return Number of replayed market events
 	 */
-	private MarketEvent getMarketEventFromActionTypeAndBuySellInd(
-			String buySellInd, char actionType, double price, int orderQty,
-			String clientOrderID, Date transactTime, char orderType) {
-
-		MarketEvent marketEvent = null;
+	public long getReplayedEvents() {
+		return replayedEvents;
+	}
 
-		if(buySellInd.equals("B")) {
-			marketEvent = new Bid(price, orderQty, orderQty,
-					clientOrderID, transactTime, serverID,
-					orderType, symbol, account);
-		}
-		else if(buySellInd.equals("S")) {
-			marketEvent = new Offer(price, orderQty, orderQty,
-					clientOrderID, transactTime, serverID, 
-					orderType, symbol, account);
-		}
+	/**
+	 * Get the replay rate measured at the last progress report, or when the
+	 * simulation stopped.
+	 * @return Replayed market events per second, 0 if nothing is measured yet
+	 */
+	public double getEventsPerSecond() {
+		if(replayNanos <= 0)
+			return 0;
 
-		//Set the action of the order
-		marketEvent.setAction((actionType == 'D' || actionType == 'E') ?
-				MarketEvent.Action.DELETE : MarketEvent.Action.ADD);
+		return replayedEvents * 1e9 / replayNanos;
+	}
 
-		return marketEvent;
+	/**
+	 * Sets the simulation time. Should be kept up to date during
+	 * simulation.
+	 * @param time The current time of the simulation (last replayed
+	 * market event) in milliseconds
+	 */
+	private void setSimulationTime(long time) {
+		simulationTime.setTime(time);
 	}
 
 	/**
@@ -249,13 +212,14 @@ public class CcfeaOrderBookSimulator extends OrderBookSimulator {
 	}
 
 	/**
-	 * Start the thread. Fetches the market events for the simulation interval
-	 * and starts the simulation.
+	 * Start the thread. Opens a cursor over the market events for the simulation
+	 * interval and starts the simulation.
 	 */
 	@Override
 	public void run() {
 		try {
-			this.marketEventResults = dbAdapter.getMarketEvents(startDateTime , endDateTime);
+			this.marketEventCursor =
+				dbAdapter.getMarketEventCursor(startDateTime , endDateTime, chunkSize);
 			runSimulation();
 
 		} catch (SQLException e) {
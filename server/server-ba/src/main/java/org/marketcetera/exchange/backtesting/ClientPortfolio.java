@@ -24,7 +24,7 @@ import java.util.Observable;
 import java.util.Observer;
 
 import quickfix.field.Side;
-import org.marketcetera.exchange.common.OrderedMarketEventList;
+import org.marketcetera.exchange.common.OrderedMarketEventList.Order;
 import org.marketcetera.exchange.events.ClientCancelEvent;
 import org.marketcetera.exchange.events.ClientFilledEvent;
 import org.marketcetera.exchange.events.ClientMarketEvent;
@@ -39,35 +39,55 @@ import org.marketcetera.exchange.orderExecutionStrategy.IOrderExecutionStrategy;
 
 /**
  * Client portfolio keeping track of orders placed, filled, cancelled by the client.
- * Can hold one asset, assumes that all entries are for the same asset.
+ * Can hold several assets, client orders are only matched against orders of the
+ * same symbol and added to the order book of their symbol.
  * Notifies on any changes made to the state of the client portfolio. Fires
  * events of type {@link ClientMarketEvent}.
  * 
- * Observes the {@link OrderBook} and tests all client positions for match against
- * new orders.
+ * The open positions are indexed by client order id and by price. Observes the
+ * {@link OrderBook}s and tests the client positions for match against new orders,
+ * but only the positions whose price can trade with the new order.
+ * The public methods are synchronized, as the books of different
+ * symbols may be replayed on different threads. Callers must lock the order book
+ * before the portfolio, as the books notify the portfolio while locked.
  * 
  * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
  * @version 0.1
  *
  */
 public class ClientPortfolio extends Observable implements Observer {
-	private List<Bid> bids;
-	private List<Offer> offers;
+	private ClientPositionIndex<Bid> bids;
+	private ClientPositionIndex<Offer> offers;
 	private List<Fill> fills;
-	private OrderBook orderBook;
 	private final IOrderExecutionStrategy orderExecutionStrategy;
+	private final OrderBook orderBook;
 
 	/**
-	 * Instantiates the object with the given {@link IOrderExecutionStrategy}
+	 * Instantiates the object with the given {@link IOrderExecutionStrategy}.
+	 * Positions are added to the order book of their symbol in the
+	 * {@link OrderBookRegistry}.
 	 * @param orderExecutionStrategy Execution strategy used to match opposing
 	 * orders.
 	 */
 	public ClientPortfolio(IOrderExecutionStrategy orderExecutionStrategy) {
+		this(orderExecutionStrategy, null);
+	}
+
+	/**
+	 * Instantiates the object with the given {@link IOrderExecutionStrategy},
+	 * adding all positions to the given order book. Used for isolated
+	 * simulations that do not share the registered books.
+	 * @param orderExecutionStrategy Execution strategy used to match opposing
+	 * orders.
+	 * @param orderBook Order book of the positions, NULL to use the books of
+	 * the {@link OrderBookRegistry}
+	 */
+	public ClientPortfolio(IOrderExecutionStrategy orderExecutionStrategy, OrderBook orderBook) {
 		this.orderExecutionStrategy = orderExecutionStrategy;
-		bids = new ArrayList<Bid>();
-		offers = new ArrayList<Offer>();
+		this.orderBook = orderBook;
+		bids = new ClientPositionIndex<Bid>(Order.DESC);
+		offers = new ClientPositionIndex<Offer>(Order.ASC);
 		fills = new ArrayList<Fill>();
-		orderBook = OrderBook.getInstance();
 	}
 
 	/**
@@ -75,7 +95,7 @@ public class ClientPortfolio extends Observable implements Observer {
 	 * Notifies observers about the addition.
 	 * @param marketEvent Event to add to the portfolio.
 	 */
-	public void addOpenPosition(MarketEvent marketEvent) {
+	public synchronized void addOpenPosition(MarketEvent marketEvent) {
 		if(marketEvent instanceof Bid)
 			addBid((Bid)marketEvent);
 		else if(marketEvent instanceof Offer)
@@ -83,7 +103,7 @@ public class ClientPortfolio extends Observable implements Observer {
 		else
 			return;
 
-		orderBook.addMarketEvent(marketEvent);
+		getOrderBook(marketEvent).addMarketEvent(marketEvent);
 
 		notifyChange(new ClientNewPositionEvent(marketEvent));
 	}
@@ -112,9 +132,9 @@ public class ClientPortfolio extends Observable implements Observer {
 	 * event for the {@link Fill} was deleted from the open
 	 * positions
 	 */
-	public boolean addFill(Fill fill) {
+	public synchronized boolean addFill(Fill fill) {
 		fills.add(fill);
-		orderBook.addMarketEvent(fill);
+		getOrderBook(fill).addMarketEvent(fill);
 		
 		char side = fill.getSide();
 		
@@ -136,10 +156,10 @@ public class ClientPortfolio extends Observable implements Observer {
 	 * event for the {@link Fill} was deleted from the open
 	 * positions.
 	 */
-	public void addPartialFill(PartialFill partialFill) {
+	public synchronized void addPartialFill(PartialFill partialFill) {
 		fills.add(partialFill);
 
-		orderBook.addMarketEvent(partialFill);
+		getOrderBook(partialFill).addMarketEvent(partialFill);
 
 		updateOpenPosition(partialFill);
 
@@ -198,13 +218,8 @@ public class ClientPortfolio extends Observable implements Observer {
 	 * @return The open client bid order with the given order id,
 	 * returns NULL if no match exist
 	 */
-	public Bid getOpenBidPosition(String clOrdID) {
-		for(Bid bid : bids) {
-			if(bid.getClientOrderID().equals(clOrdID))
-				return bid;
-		}
-
-		return null;
+	public synchronized Bid getOpenBidPosition(String clOrdID) {
+		return bids.get(clOrdID);
 	}
 
 	/**
@@ -213,23 +228,18 @@ public class ClientPortfolio extends Observable implements Observer {
 	 * @return The open client offer order with the given order id,
 	 * returns NULL if no match exist
 	 */
-	public Offer getOpenOfferPosition(String clOrdID) {
-		for(Offer offer : offers) {
-			if(offer.getClientOrderID().equals(clOrdID))
-				return offer;
-		}
-
-		return null;
+	public synchronized Offer getOpenOfferPosition(String clOrdID) {
+		return offers.get(clOrdID);
 	}
 
 	/**
 	 * Deletes the bid with the given order id and notifies observers
 	 * @param clientOrderID Id of the order to cancel/delete
 	 */
-	public void cancelBid(String clientOrderID) {
-		Bid openBidPosition = getOpenBidPosition(clientOrderID);
+	public synchronized void cancelBid(String clientOrderID) {
+		Bid openBidPosition = bids.remove(clientOrderID);
 
-		if(deleteBid(clientOrderID)) {
+		if(openBidPosition != null) {
 			notifyChange(new ClientCancelEvent(openBidPosition));
 		}
 	}
@@ -239,10 +249,10 @@ public class ClientPortfolio extends Observable implements Observer {
 	 * Notifies observers on the cancel
 	 * @param clientOrderID Order id of the offer to cancel.
 	 */
-	public void cancelOffer(String clientOrderID) {
-		Offer openOfferPosition = getOpenOfferPosition(clientOrderID);
+	public synchronized void cancelOffer(String clientOrderID) {
+		Offer openOfferPosition = offers.remove(clientOrderID);
 
-		if(deleteOffer(clientOrderID)) {
+		if(openOfferPosition != null) {
 			notifyChange(new ClientCancelEvent(openOfferPosition));
 		}
 	}
@@ -254,18 +264,7 @@ public class ClientPortfolio extends Observable implements Observer {
 	 * bid with the given client order id.
 	 */
 	private boolean deleteBid(String clOrdID) {
-		boolean isDeleted = false;
-
-		for(int i = 0; i < bids.size(); i++) {
-			if(bids.get(i).getClientOrderID().equals(clOrdID))
-			{
-				bids.remove(i);
-				isDeleted = true;
-				break;
-			}
-		}
-
-		return isDeleted;
+		return bids.remove(clOrdID) != null;
 	}
 
 	/**
@@ -275,18 +274,23 @@ public class ClientPortfolio extends Observable implements Observer {
 	 * offer with the given client order id.
 	 */
 	private boolean deleteOffer(String clOrdID) {
-		boolean isDeleted = false;
+		return offers.remove(clOrdID) != null;
+	}
 
-		for(int i = 0; i < offers.size(); i++) {
-			if(offers.get(i).getClientOrderID().equals(clOrdID))
-			{
-				offers.remove(i);
-				isDeleted = true;
-				break;
-			}
-		}
+	/**
+	 * Get the order book of the symbol of the given market event
+	 * @param marketEvent Market event to get the book of
+	 * @return The order book given at construction, if any, otherwise
+	 * the order book of the symbol, or the book of the configured symbol
+	 * if no book is registered for the symbol
+	 */
+	private OrderBook getOrderBook(MarketEvent marketEvent) {
+		if(orderBook != null)
+			return orderBook;
 
-		return isDeleted;
+		OrderBook symbolOrderBook = OrderBookRegistry.getInstance().getOrderBook(marketEvent.getSymbol());
+
+		return symbolOrderBook != null ? symbolOrderBook : OrderBook.getInstance();
 	}
 
 	/**
@@ -302,7 +306,7 @@ public class ClientPortfolio extends Observable implements Observer {
 	 * Calls the correct methods based on event type.
 	 */
 	@Override
-	public void update(Observable observable, Object event) {
+	public synchronized void update(Observable observable, Object event) {
 		if(event instanceof Bid) {
 			checkOffersForMatch(((Bid)event));
 		} else if(event instanceof Offer) {
@@ -331,65 +335,49 @@ public class ClientPortfolio extends Observable implements Observer {
 	}
 
 	/**
-	 * Check all open {@link Offer}s for match against the given {@link Bid}
+	 * Check the open {@link Offer}s that can trade with the given {@link Bid}
+	 * for match against it
 	 * @param bid {@link Bid} to match against
 	 */
 	private void checkOffersForMatch(Bid bid) {
-		int size = offers.size();
-
-		for(int i = 0; i < size; i++) {
-			Offer offer = offers.get(i);
-			Fill fill = orderExecutionStrategy.checkOfferForExecution(offer,
-					new OrderedMarketEventList<Bid>(Arrays.asList(bid)));
-			boolean isDeleted = updateAccordingToMatch(offer, fill);
-
-			if(isDeleted) {
-				size--;
-				i--;
-			}
+		List<Bid> opposing = Arrays.asList(bid);
 
+		for(Offer offer : offers.getCrossing(bid.getSymbol(), bid.getOrderPrice())) {
+			Fill fill = orderExecutionStrategy.checkOfferForExecution(offer, opposing);
+			updateAccordingToMatch(offer, fill);
 		}
 	}
 
 	/**
-	 * Check all open {@link Bids}s for match against the given {@link Offer}
+	 * Check the open {@link Bids}s that can trade with the given {@link Offer}
+	 * for match against it
 	 * @param offer {@link Offer} to match against
 	 */
 	private void checkBidsForMatch(Offer offer) {
-		int size = bids.size();
-
-		for(int i = 0; i < size; i++) {
-			Bid bid = bids.get(i);
-			Fill fill = orderExecutionStrategy.checkBidForExecution(bid,
-					new OrderedMarketEventList<Offer>(Arrays.asList(offer)));
-			boolean isDeleted = updateAccordingToMatch(bid, fill);
-
-			if(isDeleted) {
-				size--;
-				i--;
-			}
+		List<Offer> opposing = Arrays.asList(offer);
 
+		for(Bid bid : bids.getCrossing(offer.getSymbol(), offer.getOrderPrice())) {
+			Fill fill = orderExecutionStrategy.checkBidForExecution(bid, opposing);
+			updateAccordingToMatch(bid, fill);
 		}
 	}
 
 	/**
-	 * Primarily for testing purposes. Bids should NEVER be added directly
-	 * to this list, instead the method {@link #addOpenPosition(MarketEvent)}
-	 * should be used.
-	 * @return The list of open bid positions.
+	 * Primarily for testing purposes. Bids should be added with the method
+	 * {@link #addOpenPosition(MarketEvent)}.
+	 * @return A copy of the list of open bid positions.
 	 */
-	public List<Bid> getBids() {
-		return bids;
+	public synchronized List<Bid> getBids() {
+		return bids.getPositions();
 	}
 
 	/**
-	 * Primarily for testing purposes. Offers should NEVER be added directly
-	 * to this list, instead the method {@link #addOpenPosition(MarketEvent)}
-	 * should be used.
-	 * @return The list of open offer positions.
+	 * Primarily for testing purposes. Offers should be added with the method
+	 * {@link #addOpenPosition(MarketEvent)}.
+	 * @return A copy of the list of open offer positions.
 	 */
-	public List<Offer> getOffers() {
-		return offers;
+	public synchronized List<Offer> getOffers() {
+		return offers.getPositions();
 	}
 
 	/**
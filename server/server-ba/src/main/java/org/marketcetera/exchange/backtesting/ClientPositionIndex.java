@@ -0,0 +1,169 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.backtesting;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import quickfix.field.OrdType;
+import org.marketcetera.exchange.common.OrderedMarketEventList.Order;
+import org.marketcetera.exchange.common.PriceLevelMarketEventBook;
+import org.marketcetera.exchange.marketEvents.MarketEvent;
+
+/**
+ * Index of the open client positions of one side, by client order id and, per
+ * symbol, by price.
+ * 
+ * Limit orders are kept in a {@link PriceLevelMarketEventBook} per symbol, so the
+ * positions that can trade with an opposing order are found without scanning the
+ * positions that cannot. Market orders trade at any price and are kept apart.
+ * 
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ * @param <M> MarketEvent type of the positions
+ */
+class ClientPositionIndex<M extends MarketEvent> {
+	private final Order order;
+	private final Map<String, M> positions;
+	private final Map<String, PriceLevelMarketEventBook<M>> limitOrders;
+	private final Map<String, Map<String, M>> marketOrders;
+
+	/**
+	 * Creates an empty index
+	 * @param order ASC for offers (lowest price trades first), DESC for bids
+	 * (highest price trades first)
+	 */
+	ClientPositionIndex(Order order) {
+		this.order = order;
+		this.positions = new LinkedHashMap<String, M>();
+		this.limitOrders = new HashMap<String, PriceLevelMarketEventBook<M>>();
+		this.marketOrders = new HashMap<String, Map<String, M>>();
+	}
+
+	/**
+	 * Adds a position, replacing any position with the same client order id
+	 * @param position The position to add
+	 */
+	void add(M position) {
+		remove(position.getClientOrderID());
+
+		positions.put(position.getClientOrderID(), position);
+		String symbol = getSymbolKey(position);
+
+		if(position.getOrderType() == OrdType.MARKET) {
+			Map<String, M> symbolMarketOrders = marketOrders.get(symbol);
+
+			if(symbolMarketOrders == null) {
+				symbolMarketOrders = new LinkedHashMap<String, M>();
+				marketOrders.put(symbol, symbolMarketOrders);
+			}
+
+			symbolMarketOrders.put(position.getClientOrderID(), position);
+		} else {
+			PriceLevelMarketEventBook<M> symbolLimitOrders = limitOrders.get(symbol);
+
+			if(symbolLimitOrders == null) {
+				symbolLimitOrders = new PriceLevelMarketEventBook<M>(order);
+				limitOrders.put(symbol, symbolLimitOrders);
+			}
+
+			symbolLimitOrders.add(position);
+		}
+	}
+
+	/**
+	 * Get the position with the given client order id
+	 * @param clientOrderID Client order id of the position
+	 * @return The position, NULL if there is none
+	 */
+	M get(String clientOrderID) {
+		return positions.get(clientOrderID);
+	}
+
+	/**
+	 * Removes the position with the given client order id
+	 * @param clientOrderID Client order id of the position
+	 * @return The removed position, NULL if there was none
+	 */
+	M remove(String clientOrderID) {
+		M position = positions.remove(clientOrderID);
+
+		if(position != null) {
+			String symbol = getSymbolKey(position);
+
+			if(position.getOrderType() == OrdType.MARKET)
+				marketOrders.get(symbol).remove(clientOrderID);
+			else
+				limitOrders.get(symbol).remove(clientOrderID);
+		}
+
+		return position;
+	}
+
+	/**
+	 * Get the positions of the given symbol that can trade with an opposing
+	 * order at the given price: the market orders followed by the limit orders
+	 * at the price or better, in price-time priority.
+	 * @param symbol Symbol of the opposing order
+	 * @param price Price of the opposing order
+	 * @return The positions that can trade, in a new list
+	 */
+	List<M> getCrossing(String symbol, double price) {
+		List<M> crossing = new ArrayList<M>();
+		String key = symbol != null ? symbol.toUpperCase() : null;
+
+		Map<String, M> symbolMarketOrders = marketOrders.get(key);
+		if(symbolMarketOrders != null)
+			crossing.addAll(symbolMarketOrders.values());
+
+		PriceLevelMarketEventBook<M> symbolLimitOrders = limitOrders.get(key);
+		if(symbolLimitOrders != null) {
+			for(M position : symbolLimitOrders) {
+				double positionPrice = position.getOrderPrice();
+
+				if(order == Order.ASC ? positionPrice > price : positionPrice < price)
+					break;
+
+				crossing.add(position);
+			}
+		}
+
+		return crossing;
+	}
+
+	/**
+	 * Get all positions in the order they were added
+	 * @return The positions, in a new list
+	 */
+	List<M> getPositions() {
+		return new ArrayList<M>(positions.values());
+	}
+
+	/**
+	 * Get the key of the symbol of the given position
+	 * @param position The position
+	 * @return The symbol in upper case
+	 */
+	private String getSymbolKey(M position) {
+		return position.getSymbol() != null ? position.getSymbol().toUpperCase() : null;
+	}
+}
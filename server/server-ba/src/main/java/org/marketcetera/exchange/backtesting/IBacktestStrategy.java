@@ -0,0 +1,39 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.backtesting;
+
+import org.marketcetera.exchange.marketEvents.MarketEvent;
+
+/**
+ * Trading strategy run inside the simulator, used by the {@link ParameterSweepRunner}
+ * to backtest many parameter sets without a FIX client per set.
+ * 
+ * A strategy is created for one {@link BacktestRun} and places its orders through it.
+ * 
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+public interface IBacktestStrategy {
+	/**
+	 * Called for every change of the order book of the run, including the
+	 * fills of the strategy's own orders.
+	 * @param marketEvent The market event applied to the order book
+	 */
+	public void onMarketEvent(MarketEvent marketEvent);
+}
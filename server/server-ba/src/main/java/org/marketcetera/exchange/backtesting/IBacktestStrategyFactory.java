@@ -0,0 +1,37 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.backtesting;
+
+import java.util.Map;
+
+/**
+ * Creates the {@link IBacktestStrategy} of each run of a parameter sweep.
+ * 
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+public interface IBacktestStrategyFactory {
+	/**
+	 * Creates a strategy with the given parameters for the given run
+	 * @param parameters Strategy parameters, keyed by name
+	 * @param backtestRun The run the strategy trades in
+	 * @return The strategy
+	 */
+	public IBacktestStrategy createStrategy(Map<String, Double> parameters, BacktestRun backtestRun);
+}
@@ -0,0 +1,181 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.backtesting;
+
+import java.sql.Date;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import quickfix.field.OrdType;
+import quickfix.field.Side;
+import org.marketcetera.exchange.databaseAdapter.MarketEventCursor;
+import org.marketcetera.exchange.marketEvents.Bid;
+import org.marketcetera.exchange.marketEvents.Fill;
+import org.marketcetera.exchange.marketEvents.MarketEvent;
+import org.marketcetera.exchange.marketEvents.Offer;
+import org.marketcetera.exchange.marketEvents.PartialFill;
+
+/**
+ * Interprets replayed market events of one symbol and applies them to the order
+ * book of the symbol.
+ * 
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+class MarketEventReplayer {
+	private final OrderBook orderBook;
+	private final String symbol;
+	private final String serverID;
+	private final String account;
+	private static final Logger LOG = LoggerFactory.getLogger(MarketEventReplayer.class);
+
+	/**
+	 * Creates a replayer for the given order book
+	 * @param orderBook Order book of the symbol
+	 * @param symbol Symbol of the replayed market events
+	 * @param serverID Server id set on the replayed market events
+	 * @param account Account set on the replayed market events
+	 */
+	MarketEventReplayer(OrderBook orderBook, String symbol, String serverID, String account) {
+		this.orderBook = orderBook;
+		this.symbol = symbol;
+		this.serverID = serverID;
+		this.account = account;
+	}
+
+	/**
+	 * Interprets the current row of the cursor and applies it to the order book.
+	 * Deletes of orders resting in the book reuse the resting order for the notification.
+	 * Rows with a buy-sell indicator other than 'B' or 'S' are ignored, rather than
+	 * replayed as sells.
+	 * @param cursor Cursor positioned at the market event to replay
+	 */
+	void replay(MarketEventCursor cursor) {
+		MarketEvent marketEvent = null;
+
+		long dateTime = cursor.getDateTime();
+		String clientOrderID = cursor.getOrderID();
+		char orderActionType = cursor.getOrderActionType();
+		int orderQty = cursor.getOrderQty();
+		double price = cursor.getPrice();
+		char buySellInd = cursor.getBuySellInd();
+		char side;
+		char orderType = OrdType.LIMIT;
+
+		if(buySellInd == 'B')
+			side = Side.BUY;
+		else if(buySellInd == 'S')
+			side = Side.SELL;
+		else {
+			LOG.warn("Ignored market event " + clientOrderID + " due to illegal buy-sell indicator '"
+					+ buySellInd + "'.");
+			return;
+		}
+
+		switch (orderActionType)
+		{
+		case 'D':   //Delete
+		case 'E':   //Expired
+			if(orderBook.deleteMarketEvent(clientOrderID, side) == null) {
+				marketEvent = getMarketEventFromActionTypeAndBuySellInd(
+						buySellInd, orderActionType, price,
+						orderQty, clientOrderID, new Date(dateTime), orderType);
+
+				orderBook.deleteMarketEvent(marketEvent);
+			}
+			break;
+		case 'P':   //Partial match
+			marketEvent =
+				new PartialFill(price, orderQty, clientOrderID, new Date(dateTime), serverID, orderType,
+						symbol, account, orderQty, orderQty, price, 0, side);
+
+			orderBook.addMarketEvent(marketEvent);
+			break;
+		case 'M':   //Full Match
+			marketEvent =
+				new Fill(price, orderQty, clientOrderID, new Date(dateTime), serverID, orderType,
+						symbol, account, orderQty, orderQty, price, side);
+
+			orderBook.addMarketEvent(marketEvent);
+			break;
+		case 'T':   //Transaction Limit
+			//Do nothing, ignore.
+			break;
+		default:   //Order (bid or offer)
+			marketEvent = getMarketEventFromActionTypeAndBuySellInd(
+					buySellInd, orderActionType, price,
+					orderQty, clientOrderID, new Date(dateTime), orderType);
+
+			orderBook.addMarketEvent(marketEvent);
+			break;
+		}
+	}
+
+	/**
+	 * Gets a market event based on the action type and buy-sell indicator.
+	 * @param buySellInd Buy sell indicator, 'B' for buy, 'S' for sell
+	 * @param actionType Action type indication whether it is supposed to be a delete event
+	 * @param price Price of the event
+	 * @param orderQty Order quantity of the event
+	 * @param clientOrderID Unique orer id
+	 * @param transactTime Transaction time of the order
+	 * @param orderType Type of the order
+	 * @return A matching market event.
+	 */
+	private MarketEvent getMarketEventFromActionTypeAndBuySellInd(
+			char buySellInd, char actionType, double price, int orderQty,
+			String clientOrderID, Date transactTime, char orderType) {
+
+		MarketEvent marketEvent = null;
+
+		if(buySellInd == 'B') {
+			marketEvent = new Bid(price, orderQty, orderQty,
+					clientOrderID, transactTime, serverID,
+					orderType, symbol, account);
+		}
+		else if(buySellInd == 'S') {
+			marketEvent = new Offer(price, orderQty, orderQty,
+					clientOrderID, transactTime, serverID, 
+					orderType, symbol, account);
+		}
+
+		//Set the action of the order
+		marketEvent.setAction((actionType == 'D' || actionType == 'E') ?
+				MarketEvent.Action.DELETE : MarketEvent.Action.ADD);
+
+		return marketEvent;
+	}
+
+	/**
+	 * Get the order book the market events are applied to
+	 * @return The order book
+	 */
+	OrderBook getOrderBook() {
+		return orderBook;
+	}
+
+	/**
+	 * Get the symbol of the replayed market events
+	 * @return The symbol
+	 */
+	String getSymbol() {
+		return symbol;
+	}
+}
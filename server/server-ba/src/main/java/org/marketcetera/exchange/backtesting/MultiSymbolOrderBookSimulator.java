@@ -0,0 +1,302 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.backtesting;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.marketcetera.exchange.common.Configuration;
+import org.marketcetera.exchange.databaseAdapter.IDatabaseAdapter;
+import org.marketcetera.exchange.databaseAdapter.MarketEventCursor;
+import org.marketcetera.exchange.events.SimulationEvent;
+import org.marketcetera.exchange.events.SimulationStartedEvent;
+import org.marketcetera.exchange.events.SimulationStoppedEvent;
+
+/**
+ * Order book simulator replaying several symbols, each into its own order book of the
+ * {@link OrderBookRegistry}. Each symbol is driven by its own partition of the replay
+ * stream, read through the database adapter of the symbol: a {@link
+ * org.marketcetera.exchange.databaseAdapter.ColumnarFileAdapter} of the symbol, or a
+ * {@link org.marketcetera.exchange.databaseAdapter.SQLiteAdapter} of the table of the symbol.
+ * 
+ * The symbols share the {@link SimulationTime} clock, which advances in steps of
+ * the given clock step. Within a step the symbols are replayed in parallel on a
+ * worker pool, and the next step starts when all symbols have replayed the current
+ * one. Steps without market events are skipped. The replay is paced per step
+ * according to a {@link ReplayPacing} policy.
+ * 
+ * Notifies observers when the simulation starts and stops.
+ * It runs as a separate thread in order not to block all other application actions.
+ * 
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+public class MultiSymbolOrderBookSimulator extends OrderBookSimulator {
+	private final List<SymbolReplay> symbolReplays;
+	private final Date startDateTime;
+	private final Date endDateTime;
+	private final ReplayPacer pacer;
+	private final long clockStep;
+	private final int workerThreads;
+	private final int chunkSize;
+	private volatile boolean continueReplaying;
+	private volatile long replayedEvents;
+	private SimulationTime simulationTime;
+	private static final Logger LOG = LoggerFactory.getLogger(MultiSymbolOrderBookSimulator.class);
+
+	/**
+	 * Creates a simulation object replaying the given symbols in the given interval.
+	 * @param simulationDates Start and end date times for the simulation.
+	 * @param databaseAdapters Database adapter to fetch the market events of each symbol,
+	 * keyed by symbol.
+	 * @param pacing Pacing policy of the replay.
+	 * @param speed Speed multiplier, only used by {@link ReplayPacing#SCALED}.
+	 * @param simulationDelay Delay per simulated second in milliseconds, only used by
+	 * {@link ReplayPacing#DELAY_PER_SECOND}.
+	 * @param clockStep Step of the shared simulation clock in milliseconds.
+	 * @param workerThreads Number of threads replaying the symbols.
+	 */
+	public MultiSymbolOrderBookSimulator(SimulationDateTimeInterval simulationDates,
+			Map<String, IDatabaseAdapter> databaseAdapters, ReplayPacing pacing, double speed,
+			int simulationDelay, long clockStep, int workerThreads) {
+		if(clockStep < 1 || workerThreads < 1)
+			throw new IllegalArgumentException("Clock step and worker threads must be positive");
+
+		this.startDateTime = simulationDates.getStartDateTime();
+		this.endDateTime = simulationDates.getEndDateTime();
+		this.pacer = new ReplayPacer(pacing, speed, simulationDelay);
+		this.clockStep = clockStep;
+		this.workerThreads = workerThreads;
+		this.chunkSize = CcfeaOrderBookSimulator.DEFAULT_CHUNK_SIZE;
+
+		simulationTime = SimulationTime.getInstance();
+		simulationTime.setTime(startDateTime.getTime());
+
+		//Register the books up front, so they can be subscribed before the replay starts
+		String serverID = Configuration.getInstance().getServerID();
+		symbolReplays = new ArrayList<SymbolReplay>();
+
+		for(Map.Entry<String, IDatabaseAdapter> entry : databaseAdapters.entrySet()) {
+			String symbol = entry.getKey().toUpperCase();
+			OrderBook orderBook = OrderBookRegistry.getInstance().register(symbol);
+
+			symbolReplays.add(new SymbolReplay(
+					new MarketEventReplayer(orderBook, symbol, serverID, serverID), entry.getValue()));
+		}
+	}
+
+	/**
+	 * Starts the simulation by replaying the opened market event cursors, one
+	 * clock step at a time. Notifies observers when the simulation starts and stops.
+	 */
+	@Override
+	public void runSimulation() {
+		ExecutorService executor = Executors.newFixedThreadPool(workerThreads);
+
+		try {
+			notifyChange(new SimulationStartedEvent());
+
+			continueReplaying = true;
+			replayedEvents = 0;
+			long replayStartNanos = System.nanoTime();
+			pacer.start(startDateTime.getTime());
+
+			LOG.info("Running simulation of " + symbolReplays.size() + " symbols ("
+					+ pacer.getPacing() + ")...");
+
+			List<SymbolReplay> activeReplays = new ArrayList<SymbolReplay>(symbolReplays);
+
+			while (continueReplaying) {
+				long dateTime = Long.MAX_VALUE;
+
+				for(int i = activeReplays.size() - 1; i >= 0; i--) {
+					SymbolReplay symbolReplay = activeReplays.get(i);
+
+					if(symbolReplay.hasCurrent)
+						dateTime = Math.min(dateTime, symbolReplay.cursor.getDateTime());
+					else
+						activeReplays.remove(i);
+				}
+
+				if(activeReplays.isEmpty())
+					break;
+
+				simulationTime.setTime(dateTime);
+				pacer.pace(dateTime);
+
+				long stepEnd = (dateTime / clockStep + 1) * clockStep;
+				for(SymbolReplay symbolReplay : activeReplays)
+					symbolReplay.stepEnd = stepEnd;
+
+				for(Future<Long> future : executor.invokeAll(activeReplays))
+					replayedEvents += getResult(future);
+			}
+
+			long replayNanos = Math.max(1, System.nanoTime() - replayStartNanos);
+			LOG.info("Stopped running simulation, replayed " + replayedEvents + " market events in "
+					+ (replayNanos / 1000000L) + " ms (" + (long)(replayedEvents * 1e9 / replayNanos)
+					+ " events/s)");
+
+			notifyChange(new SimulationStoppedEvent());
+
+		} catch (SQLException e) {
+			LOG.error("A SQL Exception occured during order book simulation: " + e.toString());
+		} catch (InterruptedException e) {
+			LOG.error("The order book simulation thread was wrongly interrupted: " + e.toString());
+		} finally {
+			executor.shutdownNow();
+			closeCursors();
+		}
+	}
+
+	/**
+	 * Waits for the replay of a symbol and rethrows its failure
+	 * @param future Result of the replay
+	 * @return Number of market events replayed
+	 * @throws SQLException If reading the market events failed
+	 * @throws InterruptedException If interrupted while waiting
+	 */
+	private long getResult(Future<Long> future) throws SQLException, InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+
+			if(cause instanceof SQLException)
+				throw (SQLException)cause;
+			if(cause instanceof RuntimeException)
+				throw (RuntimeException)cause;
+
+			throw new SQLException("Replay failed: " + cause.toString());
+		}
+	}
+
+	/**
+	 * Closes the opened market event cursors
+	 */
+	private void closeCursors() {
+		for(SymbolReplay symbolReplay : symbolReplays) {
+			try {
+				if(symbolReplay.cursor != null)
+					symbolReplay.cursor.close();
+			} catch (SQLException e) {
+				LOG.error("Could not close market event cursor of " + symbolReplay.replayer.getSymbol()
+						+ ": " + e.toString());
+			}
+		}
+	}
+
+	/**
+	 * Sets the indicator that specifies whether or not the simulation should continue to,
+	 * and thereby stops the simulation after the current clock step.
+	 */
+	public void stopSimulation() {
+		this.continueReplaying = false;
+	}
+
+	/**
+	 * Get the number of market events replayed so far.
+	 * @return Number of replayed market events
+	 */
+	public long getReplayedEvents() {
+		return replayedEvents;
+	}
+
+	/**
+	 * Start the thread. Opens a cursor over the market events of each symbol for the
+	 * simulation interval and starts the simulation.
+	 */
+	@Override
+	public void run() {
+		try {
+			for(SymbolReplay symbolReplay : symbolReplays) {
+				symbolReplay.cursor = symbolReplay.databaseAdapter.getMarketEventCursor(
+						startDateTime, endDateTime, chunkSize);
+				symbolReplay.hasCurrent = symbolReplay.cursor.next();
+			}
+
+			runSimulation();
+
+		} catch (SQLException e) {
+			closeCursors();
+			LOG.error("SQL error while fetching market events for simulation: " + e.toString());
+		}
+	}
+
+	/**
+	 * Notify servers about updates
+	 * @param simulationEvent Event to fire.
+	 */
+	private void notifyChange(SimulationEvent simulationEvent) {
+		setChanged();
+		notifyObservers(simulationEvent);
+	}
+
+	/**
+	 * Replay of one symbol, replaying the market events of the current clock step
+	 * when called. The cursor is kept positioned at the first market event not
+	 * replayed yet.
+	 * @author Daniel Schiermer
+	 */
+	private static class SymbolReplay implements Callable<Long> {
+		private final MarketEventReplayer replayer;
+		private final IDatabaseAdapter databaseAdapter;
+		private MarketEventCursor cursor;
+		private boolean hasCurrent;
+		private long stepEnd;
+
+		/**
+		 * Creates the replay of a symbol
+		 * @param replayer Replayer applying the market events to the book of the symbol
+		 * @param databaseAdapter Database adapter to fetch the market events of the symbol
+		 */
+		public SymbolReplay(MarketEventReplayer replayer, IDatabaseAdapter databaseAdapter) {
+			this.replayer = replayer;
+			this.databaseAdapter = databaseAdapter;
+		}
+
+		/**
+		 * Replays the market events before the end of the current clock step
+		 * @return Number of market events replayed
+		 */
+		@Override
+		public Long call() throws SQLException {
+			long count = 0;
+
+			while(hasCurrent && cursor.getDateTime() < stepEnd) {
+				replayer.replay(cursor);
+				count++;
+				hasCurrent = cursor.next();
+			}
+
+			return count;
+		}
+	}
+}
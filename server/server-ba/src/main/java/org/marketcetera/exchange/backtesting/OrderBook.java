@@ -22,8 +22,8 @@ import java.util.List;
 import java.util.Observable;
 
 import quickfix.field.Side;
-import org.marketcetera.exchange.common.OrderedMarketEventList;
 import org.marketcetera.exchange.common.OrderedMarketEventList.Order;
+import org.marketcetera.exchange.common.PriceLevelMarketEventBook;
 import org.marketcetera.exchange.marketEvents.Bid;
 import org.marketcetera.exchange.marketEvents.Fill;
 import org.marketcetera.exchange.marketEvents.MarketEvent;
@@ -34,6 +34,12 @@ import org.marketcetera.exchange.marketEvents.PartialFill;
  * Order book keeping the current state of the order book. Notifies on any
  * changes in the order book.
  * 
+ * There is one order book per symbol, kept by the {@link OrderBookRegistry}.
+ * {@link #getInstance()} returns the book of the configured symbol.
+ * 
+ * Both sides are kept as {@link PriceLevelMarketEventBook}s, so orders are looked up,
+ * updated and removed by client order id without scanning the book.
+ * 
  * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
  * @version 0.1
  * 
@@ -42,18 +48,22 @@ import org.marketcetera.exchange.marketEvents.PartialFill;
  * "MarketDataFullSnapshotRefresh" the order book is necessary.
  */
 public class OrderBook extends Observable {
-	private OrderedMarketEventList<Offer> offers;
-	private OrderedMarketEventList<Bid> bids;
+	private PriceLevelMarketEventBook<Offer> offers;
+	private PriceLevelMarketEventBook<Bid> bids;
 	private List<Fill> trades;
 	private static OrderBook sInstance = new OrderBook();
 
-	private OrderBook() {
+	/**
+	 * Creates an empty order book. Books of other symbols than the configured one
+	 * are created by the {@link OrderBookRegistry}.
+	 */
+	OrderBook() {
 		initialize();
 	}
 	
 	private void initialize() {
-		this.offers = new OrderedMarketEventList<Offer>(Order.ASC);
-		this.bids = new OrderedMarketEventList<Bid>(Order.DESC);
+		this.offers = new PriceLevelMarketEventBook<Offer>(Order.ASC);
+		this.bids = new PriceLevelMarketEventBook<Bid>(Order.DESC);
 		this.trades = new LinkedList<Fill>();
 	}
 	
@@ -77,21 +87,11 @@ public class OrderBook extends Observable {
 	 * @param offer The offer that is added to the list
 	 */
 	private void deleteOffer(String orderCode) {
-		for(int i = 0; i < offers.size(); i++) {
-			if(offers.get(i).getClientOrderID().equals(orderCode)) {
-				offers.remove(i);
-				break;
-			}
-		}
+		offers.remove(orderCode);
 	}
 	
 	private void deleteBid(String orderCode) {
-		for(int i = 0; i < bids.size(); i++) {
-			if(bids.get(i).getClientOrderID().equals(orderCode)) {
-				bids.remove(i);
-				break;
-			}
-		}
+		bids.remove(orderCode);
 	}
 	
 	public synchronized void deleteMarketEvent(MarketEvent marketEvent) {
@@ -112,6 +112,29 @@ public class OrderBook extends Observable {
 		notifyChange(marketEvent);
 	}
 
+	/**
+	 * Deletes the resting order with the given client order id and notifies
+	 * observers with the deleted order, avoiding a new event for the delete.
+	 * @param clientOrderID Client order id of the order to delete
+	 * @param side Side of the order
+	 * @return The deleted order, NULL if no such order rests in the book
+	 */
+	public synchronized MarketEvent deleteMarketEvent(String clientOrderID, char side) {
+		MarketEvent marketEvent = null;
+		
+		if(side == Side.BUY)
+			marketEvent = bids.remove(clientOrderID);
+		else if(side == Side.SELL || side == Side.SELL_SHORT)
+			marketEvent = offers.remove(clientOrderID);
+		
+		if(marketEvent != null) {
+			marketEvent.setAction(MarketEvent.Action.DELETE);
+			notifyChange(marketEvent);
+		}
+		
+		return marketEvent;
+	}
+
 	private void addFill(Fill fill) {
 		char side = fill.getSide();
 		String clientOrderID = fill.getClientOrderID();
@@ -139,21 +162,17 @@ public class OrderBook extends Observable {
 	}
 
 	private void updateBid(String orderCode, int tradeSize, double price) {
-		for(int i = 0; i < bids.size(); i++) {
-			if(bids.get(i).getClientOrderID().equals(orderCode)) {
-				updateMarketEvent(bids.get(i), tradeSize, price);
-				break;
-			}
-		}
+		Bid bid = bids.get(orderCode);
+		
+		if(bid != null)
+			updateMarketEvent(bid, tradeSize, price);
 	}
 
 	private void updateOffer(String orderCode, int tradeSize, double price) {
-		for(int i = 0; i < offers.size(); i++) {
-			if(offers.get(i).getClientOrderID().equals(orderCode)) {
-				updateMarketEvent(offers.get(i), tradeSize, price);
-				break;
-			}
-		}
+		Offer offer = offers.get(orderCode);
+		
+		if(offer != null)
+			updateMarketEvent(offer, tradeSize, price);
 	}
 	
 	private void updateMarketEvent(MarketEvent marketEvent, int tradeSize, double price) {
@@ -180,10 +199,7 @@ public class OrderBook extends Observable {
 	 * @return The highest bid price, -1 if no bids are recorded
 	 */
 	public double getHighestBidPrice() {
-		if(bids.size() > 0)
-			return bids.get(0).getOrderPrice();
-	
-		return -1;
+		return bids.getBestPrice();
 	}
 	
 	/**
@@ -192,29 +208,26 @@ public class OrderBook extends Observable {
 	 * @return The lowest offer price, -1 if no offer are recorded
 	 */
 	public double getLowestOfferPrice() {
-		if(offers.size() > 0)
-			return offers.get(0).getOrderPrice();
-	
-		return -1;
+		return offers.getBestPrice();
 	}
 
 	/**
-	 * Get the list of offers.
-	 * Note that one should never add offers directly to this list,
-	 * but rather use {@link #addOffer(Offer)}
-	 * @return List of offers
+	 * Get the offers, lowest price first.
+	 * Note that one should never add offers directly to the book,
+	 * but rather use {@link #addMarketEvent(MarketEvent)}
+	 * @return Book of offers
 	 */
-	public OrderedMarketEventList<Offer> getOffers() {
+	public PriceLevelMarketEventBook<Offer> getOffers() {
 		return offers;
 	}
 
 	/**
-	 * Get the list of bids.
-	 * Note that one should never add bids directly to this list,
-	 * but rather use {@link #addBid(Bid)}
-	 * @return List of bids
+	 * Get the bids, highest price first.
+	 * Note that one should never add bids directly to the book,
+	 * but rather use {@link #addMarketEvent(MarketEvent)}
+	 * @return Book of bids
 	 */
-	public OrderedMarketEventList<Bid> getBids() {
+	public PriceLevelMarketEventBook<Bid> getBids() {
 		return bids;
 	}
 
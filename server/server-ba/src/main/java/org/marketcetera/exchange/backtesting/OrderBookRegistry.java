@@ -0,0 +1,155 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.backtesting;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Observer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.marketcetera.exchange.common.Configuration;
+
+/**
+ * Registry of the order books, keyed by symbol in upper case.
+ * 
+ * The book of the configured symbol is the {@link OrderBook#getInstance()} instance,
+ * so single-symbol set ups keep using the same book. Books of other symbols are
+ * registered by the simulator replaying them. Observers added to the registry
+ * observe all books, including books registered later.
+ * 
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+public class OrderBookRegistry {
+	private final ConcurrentMap<String, OrderBook> orderBooks;
+	private final List<Observer> observers;
+	private static OrderBookRegistry sInstance = new OrderBookRegistry();
+
+	private OrderBookRegistry() {
+		this.orderBooks = new ConcurrentHashMap<String, OrderBook>();
+		this.observers = new CopyOnWriteArrayList<Observer>();
+	}
+
+	/**
+	 * Get the singleton instance
+	 * @return The {@link OrderBookRegistry} instance
+	 */
+	public static OrderBookRegistry getInstance() {
+		return sInstance;
+	}
+
+	/**
+	 * This is only for testing purposes, should NEVER be used for
+	 * for deployment.
+	 * @param orderBookRegistry
+	 */
+	public static void setInstance(OrderBookRegistry orderBookRegistry) {
+		sInstance = orderBookRegistry;
+	}
+
+	/**
+	 * Get the order book of the given symbol. The book of the configured symbol
+	 * is always available.
+	 * @param symbol Symbol of the book, case insensitive
+	 * @return The order book, NULL if no book is registered for the symbol
+	 */
+	public OrderBook getOrderBook(String symbol) {
+		if(symbol == null)
+			return null;
+
+		String key = getKey(symbol);
+		OrderBook orderBook = orderBooks.get(key);
+
+		if(orderBook == null && key.equals(getKey(null)))
+			orderBook = register(key);
+
+		return orderBook;
+	}
+
+	/**
+	 * Registers a book for the given symbol, if none is registered yet. The registry
+	 * observers are added to a new book.
+	 * @param symbol Symbol of the book, case insensitive
+	 * @return The order book of the symbol
+	 */
+	public synchronized OrderBook register(String symbol) {
+		String key = getKey(symbol);
+		OrderBook orderBook = orderBooks.get(key);
+
+		if(orderBook == null) {
+			if(key.equals(getKey(null)))
+				orderBook = OrderBook.getInstance();
+			else
+				orderBook = new OrderBook();
+
+			for(Observer observer : observers)
+				orderBook.addObserver(observer);
+
+			orderBooks.put(key, orderBook);
+		}
+
+		return orderBook;
+	}
+
+	/**
+	 * Get the key of the given symbol in the registry
+	 * @param symbol Symbol, case insensitive, NULL for the configured symbol
+	 * @return The symbol in upper case
+	 */
+	public String getKey(String symbol) {
+		if(symbol == null)
+			symbol = Configuration.getInstance().getSymbol();
+
+		return symbol == null ? null : symbol.toUpperCase();
+	}
+
+	/**
+	 * Adds an observer to all registered books and to books registered later.
+	 * @param observer Observer of the order books
+	 */
+	public synchronized void addObserver(Observer observer) {
+		observers.add(observer);
+
+		for(OrderBook orderBook : orderBooks.values())
+			orderBook.addObserver(observer);
+	}
+
+	/**
+	 * Removes an observer from all registered books and from books registered later.
+	 * @param observer Observer of the order books
+	 * @return True if the observer was added to the registry
+	 */
+	public synchronized boolean removeObserver(Observer observer) {
+		for(OrderBook orderBook : orderBooks.values())
+			orderBook.deleteObserver(observer);
+
+		return observers.remove(observer);
+	}
+
+	/**
+	 * Get the symbols with a registered book
+	 * @return Unmodifiable set of symbols in upper case
+	 */
+	public Set<String> getSymbols() {
+		return Collections.unmodifiableSet(orderBooks.keySet());
+	}
+}
@@ -0,0 +1,240 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.backtesting;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.marketcetera.exchange.common.CcfeaFileWriter;
+import org.marketcetera.exchange.databaseAdapter.IDatabaseAdapter;
+import org.marketcetera.exchange.databaseAdapter.MarketEventTape;
+import org.marketcetera.exchange.orderExecutionStrategy.IOrderExecutionStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs a backtest for every combination of strategy parameters and simulation
+ * interval, and collects the results in one table.
+ * 
+ * The market events covering all intervals are read from the database once into a
+ * {@link MarketEventTape}. Every combination is then replayed from the tape into
+ * an isolated {@link BacktestRun}, with the runs spread over a fork/join pool.
+ * 
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+public class ParameterSweepRunner {
+	/**
+	 * Number of runs below which a task is not split further
+	 */
+	private static final int RUNS_PER_TASK = 1;
+	private static final Logger LOG = LoggerFactory.getLogger(ParameterSweepRunner.class);
+	private final IDatabaseAdapter databaseAdapter;
+	private final IBacktestStrategyFactory strategyFactory;
+	private final IOrderExecutionStrategy orderExecutionStrategy;
+	private final Map<String, List<Double>> parameterGrid;
+	private final List<SimulationDateTimeInterval> intervals;
+	private final int parallelism;
+	private final String reportPath;
+	private final String reportBaseName;
+
+	/**
+	 * Creates a sweep runner
+	 * @param databaseAdapter Database adapter the market events are read from
+	 * @param strategyFactory Factory creating the strategy of each run
+	 * @param orderExecutionStrategy Execution strategy used to match orders
+	 * @param parameterGrid Values to try for each strategy parameter
+	 * @param intervals Simulation intervals to run every parameter combination on
+	 * @param parallelism Number of runs executed at the same time
+	 * @param reportPath Folder the result table is written to
+	 * @param reportBaseName Base name of the result table file
+	 */
+	public ParameterSweepRunner(IDatabaseAdapter databaseAdapter,
+			IBacktestStrategyFactory strategyFactory,
+			IOrderExecutionStrategy orderExecutionStrategy,
+			Map<String, List<Double>> parameterGrid,
+			List<SimulationDateTimeInterval> intervals, int parallelism,
+			String reportPath, String reportBaseName) {
+		this.databaseAdapter = databaseAdapter;
+		this.strategyFactory = strategyFactory;
+		this.orderExecutionStrategy = orderExecutionStrategy;
+		this.parameterGrid = new LinkedHashMap<String, List<Double>>(parameterGrid);
+		this.intervals = new ArrayList<SimulationDateTimeInterval>(intervals);
+		this.parallelism = parallelism;
+		this.reportPath = reportPath;
+		this.reportBaseName = reportBaseName;
+	}
+
+	/**
+	 * Runs the sweep and writes the result table
+	 * @return The results of all runs, in the order of the parameter combinations
+	 * and, for each combination, the intervals
+	 * @throws SQLException If reading the market events fails
+	 */
+	public List<BacktestResult> runSweep() throws SQLException {
+		long startDateTime = Long.MAX_VALUE;
+		long endDateTime = Long.MIN_VALUE;
+
+		for(SimulationDateTimeInterval interval : intervals) {
+			startDateTime = Math.min(startDateTime, interval.getStartDateTime().getTime());
+			endDateTime = Math.max(endDateTime, interval.getEndDateTime().getTime());
+		}
+
+		long readStart = System.currentTimeMillis();
+		MarketEventTape tape = MarketEventTape.read(databaseAdapter.getMarketEventCursor(
+				new Date(startDateTime), new Date(endDateTime), CcfeaOrderBookSimulator.DEFAULT_CHUNK_SIZE));
+		LOG.info("Read " + tape.size() + " market events in "
+				+ (System.currentTimeMillis() - readStart) + " ms");
+
+		List<Map<String, Double>> combinations = getParameterCombinations();
+		BacktestRun[] runs = new BacktestRun[combinations.size() * intervals.size()];
+		int i = 0;
+
+		for(Map<String, Double> parameters : combinations) {
+			for(SimulationDateTimeInterval interval : intervals) {
+				runs[i++] = new BacktestRun(tape, parameters,
+						interval.getStartDateTime().getTime(), interval.getEndDateTime().getTime(),
+						strategyFactory, orderExecutionStrategy);
+			}
+		}
+
+		long sweepStart = System.currentTimeMillis();
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			pool.invoke(new RunTask(runs, 0, runs.length));
+		} finally {
+			pool.shutdown();
+		}
+		LOG.info("Completed " + runs.length + " backtest runs in "
+				+ (System.currentTimeMillis() - sweepStart) + " ms");
+
+		List<BacktestResult> results = new ArrayList<BacktestResult>(runs.length);
+		for(BacktestRun run : runs)
+			results.add(run.getResult());
+
+		writeResults(results);
+
+		return results;
+	}
+
+	/**
+	 * Builds the cartesian product of the parameter grid
+	 * @return One map per parameter combination
+	 */
+	List<Map<String, Double>> getParameterCombinations() {
+		List<Map<String, Double>> combinations = new ArrayList<Map<String, Double>>();
+		combinations.add(new LinkedHashMap<String, Double>());
+
+		for(Map.Entry<String, List<Double>> parameter : parameterGrid.entrySet()) {
+			List<Map<String, Double>> expanded = new ArrayList<Map<String, Double>>();
+
+			for(Map<String, Double> combination : combinations) {
+				for(Double value : parameter.getValue()) {
+					Map<String, Double> newCombination = new LinkedHashMap<String, Double>(combination);
+					newCombination.put(parameter.getKey(), value);
+					expanded.add(newCombination);
+				}
+			}
+
+			combinations = expanded;
+		}
+
+		return combinations;
+	}
+
+	/**
+	 * Writes the results as a comma separated table, one line per run
+	 * @param results Results to write
+	 */
+	private void writeResults(List<BacktestResult> results) {
+		CcfeaFileWriter ccfeaFileWriter = new CcfeaFileWriter(reportPath, reportBaseName, "csv");
+		StringBuilder line = new StringBuilder();
+
+		for(String parameter : parameterGrid.keySet())
+			line.append(parameter).append(',');
+		line.append("startDateTime,endDateTime,events,totalBoughtAmount,totalBoughtPrice,")
+			.append("totalSoldAmount,totalSoldPrice,fills,profit");
+		ccfeaFileWriter.addLine(line.toString());
+
+		for(BacktestResult result : results) {
+			line.setLength(0);
+
+			for(String parameter : parameterGrid.keySet())
+				line.append(result.getParameters().get(parameter)).append(',');
+			line.append(result.getStartDateTime()).append(',')
+				.append(result.getEndDateTime()).append(',')
+				.append(result.getReplayedEvents()).append(',')
+				.append(result.getTotalBoughtAmount()).append(',')
+				.append(result.getTotalBoughtPrice()).append(',')
+				.append(result.getTotalSoldAmount()).append(',')
+				.append(result.getTotalSoldPrice()).append(',')
+				.append(result.getFillCount()).append(',')
+				.append(result.getProfit());
+
+			ccfeaFileWriter.addLine(line.toString());
+		}
+
+		ccfeaFileWriter.close();
+	}
+
+	/**
+	 * Fork/join task running a range of backtest runs, split in halves until
+	 * each task holds a single run.
+	 * @author Daniel Schiermer
+	 */
+	private static class RunTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final BacktestRun[] runs;
+		private final int start;
+		private final int end;
+
+		/**
+		 * Creates a task for the runs from start (inclusive) to end (exclusive)
+		 * @param runs All runs of the sweep
+		 * @param start Index of the first run of the task
+		 * @param end Index after the last run of the task
+		 */
+		RunTask(BacktestRun[] runs, int start, int end) {
+			this.runs = runs;
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * Runs the range, or splits it in two subtasks
+		 */
+		@Override
+		protected void compute() {
+			if(end - start <= RUNS_PER_TASK) {
+				for(int i = start; i < end; i++)
+					runs[i].run();
+			}
+			else {
+				int middle = (start + end) >>> 1;
+				invokeAll(new RunTask(runs, start, middle), new RunTask(runs, middle, end));
+			}
+		}
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.backtesting;
+
+/**
+ * Waits between replayed market events according to a {@link ReplayPacing} policy.
+ * 
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+class ReplayPacer {
+	private final ReplayPacing pacing;
+	private final double speed;
+	private final int simulationDelay;
+	private long replayStartNanos;
+	private long replayStartDateTime;
+	private long nextDelaySecond;
+
+	/**
+	 * Creates a pacer for the given policy
+	 * @param pacing Pacing policy of the replay
+	 * @param speed Speed multiplier, only used by {@link ReplayPacing#SCALED}
+	 * @param simulationDelay Delay per simulated second in milliseconds, only used by
+	 * {@link ReplayPacing#DELAY_PER_SECOND}
+	 */
+	ReplayPacer(ReplayPacing pacing, double speed, int simulationDelay) {
+		if(pacing == ReplayPacing.SCALED && speed <= 0)
+			throw new IllegalArgumentException("Replay speed must be positive: " + speed);
+
+		this.pacing = pacing;
+		this.speed = pacing == ReplayPacing.SCALED ? speed : 1;
+		this.simulationDelay = simulationDelay;
+	}
+
+	/**
+	 * Starts the replay clock
+	 * @param startDateTime Simulated date time the replay starts at, in milliseconds
+	 */
+	void start(long startDateTime) {
+		replayStartNanos = System.nanoTime();
+		replayStartDateTime = startDateTime;
+		nextDelaySecond = startDateTime / 1000 + 1;
+	}
+
+	/**
+	 * Waits until the market event with the given date time is due.
+	 * @param dateTime Date time of the next market event in milliseconds
+	 * @throws InterruptedException If the thread is interrupted while waiting
+	 */
+	void pace(long dateTime) throws InterruptedException {
+		switch (pacing)
+		{
+		case DELAY_PER_SECOND:
+			long second = dateTime / 1000;
+			if(second >= nextDelaySecond) {
+				Thread.sleep(simulationDelay);
+				nextDelaySecond = second + 1;
+			}
+			break;
+		case REAL_TIME:
+		case SCALED:
+			long dueNanos = replayStartNanos
+				+ (long)((dateTime - replayStartDateTime) * 1000000L / speed);
+			long waitMillis = (dueNanos - System.nanoTime()) / 1000000L;
+			if(waitMillis > 0)
+				Thread.sleep(waitMillis);
+			break;
+		default:
+			//As fast as possible
+			break;
+		}
+	}
+
+	/**
+	 * Get the pacing policy
+	 * @return The pacing policy
+	 */
+	ReplayPacing getPacing() {
+		return pacing;
+	}
+}
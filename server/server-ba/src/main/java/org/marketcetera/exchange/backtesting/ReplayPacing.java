@@ -0,0 +1,44 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.backtesting;
+
+/**
+ * Pacing policies for replaying the market events in the {@link CcfeaOrderBookSimulator}.
+ *
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+public enum ReplayPacing {
+	/**
+	 * Sleeps a fixed delay for each simulated second that contains market events.
+	 */
+	DELAY_PER_SECOND,
+	/**
+	 * Replays the market events at the pace they happened.
+	 */
+	REAL_TIME,
+	/**
+	 * Replays the market events at the pace they happened, sped up by a multiplier.
+	 */
+	SCALED,
+	/**
+	 * Replays the market events without waiting.
+	 */
+	AS_FAST_AS_POSSIBLE
+}
@@ -0,0 +1,101 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.backtesting;
+
+import quickfix.field.OrdType;
+import org.marketcetera.exchange.marketEvents.Fill;
+import org.marketcetera.exchange.marketEvents.MarketEvent;
+
+/**
+ * Moving average crossing strategy for the {@link ParameterSweepRunner}. Keeps a
+ * short and a long simple moving average of the market trade prices, buys at
+ * market when the short average crosses above the long average and sells the
+ * position at market when it crosses below.
+ * 
+ * Parameters: shortWindow, longWindow and quantity.
+ * 
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+public class SampleMACrossingStrategy implements IBacktestStrategy {
+	private final BacktestRun backtestRun;
+	private final double[] shortPrices;
+	private final double[] longPrices;
+	private final int quantity;
+	private double shortSum;
+	private double longSum;
+	private long priceCount;
+	private int lastSign;
+	private boolean inPosition;
+
+	/**
+	 * Creates the strategy
+	 * @param backtestRun Run the strategy trades in
+	 * @param shortWindow Number of trades in the short moving average
+	 * @param longWindow Number of trades in the long moving average
+	 * @param quantity Quantity of each order
+	 */
+	public SampleMACrossingStrategy(BacktestRun backtestRun, int shortWindow,
+			int longWindow, int quantity) {
+		if(shortWindow < 1 || longWindow <= shortWindow)
+			throw new IllegalArgumentException("Short window must be positive and less than long window");
+
+		this.backtestRun = backtestRun;
+		this.shortPrices = new double[shortWindow];
+		this.longPrices = new double[longWindow];
+		this.quantity = quantity;
+	}
+
+	/**
+	 * Updates the averages on market trades and trades on crossings
+	 * @see {@link IBacktestStrategy#onMarketEvent(MarketEvent)}
+	 */
+	@Override
+	public void onMarketEvent(MarketEvent marketEvent) {
+		if(!(marketEvent instanceof Fill)
+				|| backtestRun.getClientID().equals(marketEvent.getClientID()))
+			return;
+
+		double price = ((Fill)marketEvent).getExecPrice();
+
+		shortSum += price - shortPrices[(int)(priceCount % shortPrices.length)];
+		shortPrices[(int)(priceCount % shortPrices.length)] = price;
+		longSum += price - longPrices[(int)(priceCount % longPrices.length)];
+		longPrices[(int)(priceCount % longPrices.length)] = price;
+		priceCount++;
+
+		if(priceCount < longPrices.length)
+			return;
+
+		double difference = shortSum / shortPrices.length - longSum / longPrices.length;
+		int sign = difference > 0 ? 1 : (difference < 0 ? -1 : 0);
+
+		if(sign > 0 && lastSign <= 0 && !inPosition) {
+			backtestRun.submitOrder(backtestRun.newBid(quantity, 0, OrdType.MARKET));
+			inPosition = true;
+		}
+		else if(sign < 0 && lastSign >= 0 && inPosition) {
+			backtestRun.submitOrder(backtestRun.newOffer(quantity, 0, OrdType.MARKET));
+			inPosition = false;
+		}
+
+		if(sign != 0)
+			lastSign = sign;
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.backtesting;
+
+import java.util.Map;
+
+/**
+ * Creates {@link SampleMACrossingStrategy} instances from the parameters
+ * shortWindow, longWindow and quantity.
+ * 
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+public class SampleMACrossingStrategyFactory implements IBacktestStrategyFactory {
+
+	/**
+	 * Creates a moving average crossing strategy
+	 * @see {@link IBacktestStrategyFactory#createStrategy(Map, BacktestRun)}
+	 */
+	@Override
+	public IBacktestStrategy createStrategy(Map<String, Double> parameters,
+			BacktestRun backtestRun) {
+		return new SampleMACrossingStrategy(backtestRun,
+				getParameter(parameters, "shortWindow"),
+				getParameter(parameters, "longWindow"),
+				getParameter(parameters, "quantity"));
+	}
+
+	/**
+	 * Get a parameter as integer
+	 * @param parameters Parameters of the run
+	 * @param name Name of the parameter
+	 * @return The parameter value
+	 */
+	private int getParameter(Map<String, Double> parameters, String name) {
+		Double value = parameters.get(name);
+
+		if(value == null)
+			throw new IllegalArgumentException("Missing parameter '" + name + "'");
+
+		return value.intValue();
+	}
+}
@@ -70,6 +70,14 @@ public class SimulationTime {
 	public void setTime(Date dateTime) {
 		time.setTime(dateTime);
 	}
+
+	/**
+	 * Sets the simulation time
+	 * @param millis Date-time the simulation should be set to, in milliseconds
+	 */
+	public void setTime(long millis) {
+		time.setTimeInMillis(millis);
+	}
 	
 	/**
 	 * Get the time used for client event time stamps.
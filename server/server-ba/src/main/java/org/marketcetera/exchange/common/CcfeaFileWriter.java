@@ -38,6 +38,10 @@ public class CcfeaFileWriter {
 	private String fileAbsolutePath;
 	private FileWriter fileWriter;
 	private BufferedWriter bufferedWriter;
+	/**
+	 * Size of the write buffer, lines are written to the file in blocks of this size
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
 	private static final Logger LOG = LoggerFactory.getLogger(CcfeaFileWriter.class);
 	private final String fileBaseName;
 	private final String fileExtension;
@@ -55,7 +59,7 @@ public class CcfeaFileWriter {
 
 		try {
 			fileWriter = new FileWriter(this.fileAbsolutePath);
-			bufferedWriter = new BufferedWriter(fileWriter);
+			bufferedWriter = new BufferedWriter(fileWriter, BUFFER_SIZE);
 		} catch (IOException e) {
 			LOG.error("Problem creating file buffers for the '" + fileBaseName
 					+ "' report: " + e.toString());
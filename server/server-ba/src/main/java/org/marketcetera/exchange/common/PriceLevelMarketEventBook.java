@@ -0,0 +1,246 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.common;
+
+import java.util.AbstractCollection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+import org.marketcetera.exchange.common.OrderedMarketEventList.Order;
+import org.marketcetera.exchange.marketEvents.MarketEvent;
+
+/**
+ * One side of an order book, holding {@link MarketEvent}s grouped by price level.
+ *
+ * The price levels are kept in a sorted map, either ascending (offers) or descending
+ * (bids), so the best price is always the first level. Each level is a FIFO queue,
+ * hence iteration follows price-time priority in the same way as
+ * {@link OrderedMarketEventList}. All events are also indexed by client order id,
+ * which makes lookups and removals by id O(1) and additions O(log levels).
+ *
+ * NOTE: The order price of an event must not be changed while it is held by the book,
+ * as the event would then be filed under the wrong price level.
+ *
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ * @param <M> MarketEvent type of the book
+ */
+public class PriceLevelMarketEventBook<M extends MarketEvent> extends AbstractCollection<M> {
+	private final TreeMap<Double, LinkedHashMap<String, M>> levels;
+	private final Map<String, M> index;
+
+	/**
+	 * Create an empty book with the price levels sorted according to the given order.
+	 * @param order ASC for offers (lowest price on top), DESC for bids (highest price on top)
+	 */
+	public PriceLevelMarketEventBook(Order order) {
+		if(order == Order.ASC)
+			this.levels = new TreeMap<Double, LinkedHashMap<String, M>>();
+		else
+			this.levels = new TreeMap<Double, LinkedHashMap<String, M>>(Collections.<Double>reverseOrder());
+
+		this.index = new HashMap<String, M>();
+	}
+
+	/**
+	 * Adds a market event to the end of the queue at its price level.
+	 * If an event with the same client order id is already in the book it is
+	 * replaced.
+	 * @param marketEvent The market event that is added to the book
+	 * @return Always true
+	 */
+	@Override
+	public boolean add(M marketEvent) {
+		remove(marketEvent.getClientOrderID());
+
+		Double price = marketEvent.getOrderPrice();
+		LinkedHashMap<String, M> level = levels.get(price);
+
+		if(level == null) {
+			level = new LinkedHashMap<String, M>();
+			levels.put(price, level);
+		}
+
+		level.put(marketEvent.getClientOrderID(), marketEvent);
+		index.put(marketEvent.getClientOrderID(), marketEvent);
+
+		return true;
+	}
+
+	/**
+	 * Get the market event with the given client order id.
+	 * @param clientOrderID Client order id of the event
+	 * @return The market event, NULL if it is not in the book
+	 */
+	public M get(String clientOrderID) {
+		return index.get(clientOrderID);
+	}
+
+	/**
+	 * Removes the market event with the given client order id. Empty price levels
+	 * are dropped.
+	 * @param clientOrderID Client order id of the event to remove
+	 * @return The removed market event, NULL if it was not in the book
+	 */
+	public M remove(String clientOrderID) {
+		M marketEvent = index.remove(clientOrderID);
+
+		if(marketEvent != null) {
+			Double price = marketEvent.getOrderPrice();
+			LinkedHashMap<String, M> level = levels.get(price);
+
+			level.remove(clientOrderID);
+			if(level.isEmpty())
+				levels.remove(price);
+		}
+
+		return marketEvent;
+	}
+
+	/**
+	 * Removes the given market event, matched by client order id.
+	 * @see #remove(String)
+	 */
+	@Override
+	public boolean remove(Object o) {
+		if(!(o instanceof MarketEvent))
+			return false;
+
+		return remove(((MarketEvent)o).getClientOrderID()) != null;
+	}
+
+	/**
+	 * Checks whether the given market event, matched by client order id, is in the book.
+	 */
+	@Override
+	public boolean contains(Object o) {
+		if(!(o instanceof MarketEvent))
+			return false;
+
+		return index.containsKey(((MarketEvent)o).getClientOrderID());
+	}
+
+	/**
+	 * Get the first market event at the best price level.
+	 * @return The market event on top of the book
+	 * @throws NoSuchElementException if the book is empty
+	 */
+	public M getFirst() {
+		if(levels.isEmpty())
+			throw new NoSuchElementException();
+
+		return levels.firstEntry().getValue().values().iterator().next();
+	}
+
+	/**
+	 * Get the best price in the book.
+	 * @return The best price, -1 if the book is empty
+	 */
+	public double getBestPrice() {
+		if(levels.isEmpty())
+			return -1;
+
+		return levels.firstKey();
+	}
+
+	/**
+	 * Get the number of price levels in the book
+	 * @return Number of distinct prices
+	 */
+	public int getLevelCount() {
+		return levels.size();
+	}
+
+	/**
+	 * Get the total remaining quantity at the given price.
+	 * @param price Price of the level
+	 * @return The remaining quantity, 0 if no level exists at the price
+	 */
+	public int getLevelQty(double price) {
+		LinkedHashMap<String, M> level = levels.get(price);
+		int qty = 0;
+
+		if(level != null) {
+			for(M marketEvent : level.values())
+				qty += marketEvent.getRemainingQty();
+		}
+
+		return qty;
+	}
+
+	@Override
+	public int size() {
+		return index.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return index.isEmpty();
+	}
+
+	@Override
+	public void clear() {
+		levels.clear();
+		index.clear();
+	}
+
+	/**
+	 * Iterates the market events in price-time priority, best price first.
+	 */
+	@Override
+	public Iterator<M> iterator() {
+		return new PriceLevelIterator();
+	}
+
+	/**
+	 * Iterator walking the price levels in order and each level in arrival order.
+	 * Removal through the iterator is not supported, use {@link PriceLevelMarketEventBook#remove(String)}.
+	 * @author Daniel Schiermer
+	 */
+	private class PriceLevelIterator implements Iterator<M> {
+		private final Iterator<LinkedHashMap<String, M>> levelIterator = levels.values().iterator();
+		private Iterator<M> eventIterator = Collections.<M>emptyList().iterator();
+
+		@Override
+		public boolean hasNext() {
+			while(!eventIterator.hasNext() && levelIterator.hasNext())
+				eventIterator = levelIterator.next().values().iterator();
+
+			return eventIterator.hasNext();
+		}
+
+		@Override
+		public M next() {
+			if(!hasNext())
+				throw new NoSuchElementException();
+
+			return eventIterator.next();
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,278 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.databaseAdapter;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.marketcetera.exchange.common.Configuration;
+
+/**
+ * Database adapter storing the market events in append-only, memory-mapped
+ * columnar files instead of a SQL database.
+ * 
+ * The market events are partitioned by symbol and (UTC) day, one directory per
+ * partition: <code>&lt;directory&gt;/&lt;SYMBOL&gt;/&lt;yyyyMMdd&gt;/</code>. Inserted market
+ * events are buffered per partition and every commit appends one sorted
+ * {@link ColumnarSegment} to each partition touched. Published segments are
+ * never changed.
+ * 
+ * The simulator reads the market events through {@link #getMarketEventCursor(Date, Date, int)},
+ * which reads primitives straight from the mapped segments. There is no JDBC
+ * {@link ResultSet} for this adapter.
+ * 
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+public class ColumnarFileAdapter implements IDatabaseAdapter {
+	private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+	private static final int INITIAL_PARTITION_CAPACITY = 1 << 14;
+	private final File symbolDirectory;
+	private final Map<Long, ColumnarRows> pendingPartitions;
+	private final DateFormat partitionFormat;
+	private static final Logger LOG = LoggerFactory.getLogger(ColumnarFileAdapter.class);
+
+	/**
+	 * Creates an adapter storing the market events of the configured symbol
+	 * under the given directory.
+	 * @param directory Root directory of the columnar store
+	 */
+	public ColumnarFileAdapter(String directory) {
+		this(directory, Configuration.getInstance().getSymbol());
+	}
+
+	/**
+	 * Creates an adapter storing the market events of the given symbol
+	 * under the given directory.
+	 * @param directory Root directory of the columnar store
+	 * @param symbol Symbol of the market events
+	 */
+	public ColumnarFileAdapter(String directory, String symbol) {
+		this.symbolDirectory = new File(directory, symbol.toUpperCase());
+		this.pendingPartitions = new TreeMap<Long, ColumnarRows>();
+		this.partitionFormat = new SimpleDateFormat("yyyyMMdd");
+		this.partitionFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+	}
+
+	/**
+	 * Removes all stored market events of the symbol, similar to re-creating
+	 * the market events table.
+	 * @see {@link IDatabaseAdapter#initializeMarketDataDatabase()}
+	 */
+	public void initializeMarketDataDatabase() {
+		pendingPartitions.clear();
+
+		File[] partitionDirectories = symbolDirectory.listFiles();
+		if(partitionDirectories != null) {
+			for(File partitionDirectory : partitionDirectories) {
+				File[] files = partitionDirectory.listFiles();
+				if(files != null) {
+					for(File file : files) {
+						if(!file.delete())
+							LOG.error("Could not delete market event segment: " + file);
+					}
+				}
+				partitionDirectory.delete();
+			}
+		}
+
+		if(!symbolDirectory.isDirectory() && !symbolDirectory.mkdirs())
+			LOG.error("Could not create the market event directory: " + symbolDirectory);
+	}
+
+	/**
+	 * Buffers the market event until the next commit.
+	 * @see {@link IDatabaseAdapter#insertMarketEvent(String, char, int, double, char, int, Date)}
+	 */
+	public void insertMarketEvent(String orderID, char orderActionType,
+			int orderQty, double price, char buySellInd, int messageSequenceNumber,
+			Date dateTime) throws SQLException {
+		long millis = dateTime.getTime();
+		Long day = dayOf(millis);
+		ColumnarRows rows = pendingPartitions.get(day);
+
+		if(rows == null) {
+			rows = new ColumnarRows(INITIAL_PARTITION_CAPACITY);
+			pendingPartitions.put(day, rows);
+		}
+
+		rows.add(orderID, orderActionType, orderQty, price, buySellInd,
+				messageSequenceNumber, millis);
+	}
+
+	/**
+	 * Appends one sorted segment per partition with buffered market events.
+	 * @see {@link IDatabaseAdapter#commitMarketEventInserts()}
+	 */
+	public void commitMarketEventInserts() throws SQLException {
+		try {
+			for(Map.Entry<Long, ColumnarRows> partition : pendingPartitions.entrySet()) {
+				File partitionDirectory = getPartitionDirectory(partition.getKey());
+
+				if(!partitionDirectory.isDirectory() && !partitionDirectory.mkdirs())
+					throw new IOException("Could not create partition directory: " + partitionDirectory);
+
+				ColumnarRows rows = partition.getValue();
+				File segmentFile = new File(partitionDirectory,
+						String.format("segment-%05d%s", listSegmentFiles(partitionDirectory).length,
+								ColumnarSegment.EXTENSION));
+
+				ColumnarSegment.write(segmentFile, rows, rows.sortedRowOrder());
+			}
+		} catch (IOException e) {
+			throw new SQLException("Error writing market event segments: " + e.toString(), e);
+		} finally {
+			pendingPartitions.clear();
+		}
+	}
+
+	/**
+	 * Not supported, the columnar store is read through {@link #getMarketEventCursor(Date, Date, int)}.
+	 * @see {@link IDatabaseAdapter#getMarketEvents(Date, Date)}
+	 */
+	public ResultSet getMarketEvents(Date startDateTime, Date endDateTime) throws SQLException {
+		throw new SQLFeatureNotSupportedException(
+				"The columnar market event store is read through getMarketEventCursor");
+	}
+
+	/**
+	 * Maps the segments of the partitions in the interval and returns a cursor over them.
+	 * The chunk size is not used, the market events are read straight from the mapped files.
+	 * @see {@link IDatabaseAdapter#getMarketEventCursor(Date, Date, int)}
+	 */
+	public MarketEventCursor getMarketEventCursor(Date startDateTime, Date endDateTime, int chunkSize)
+	throws SQLException {
+		long start = startDateTime.getTime(), end = endDateTime.getTime();
+		List<List<ColumnarSegment>> partitions = new ArrayList<List<ColumnarSegment>>();
+
+		try {
+			for(long day = dayOf(start); day <= dayOf(end); day++) {
+				File[] segmentFiles = listSegmentFiles(getPartitionDirectory(day));
+
+				if(segmentFiles.length == 0)
+					continue;
+
+				List<ColumnarSegment> segments = new ArrayList<ColumnarSegment>(segmentFiles.length);
+				for(File segmentFile : segmentFiles)
+					segments.add(new ColumnarSegment(segmentFile));
+
+				partitions.add(segments);
+			}
+		} catch (IOException e) {
+			throw new SQLException("Error mapping market event segments: " + e.toString(), e);
+		}
+
+		return new ColumnarMarketEventCursor(partitions, start, end);
+	}
+
+	/**
+	 * Copies all the market events of the interval from another adapter into this
+	 * store, e.g. to convert an existing SQLite database without reloading the
+	 * CSV files. The events are committed once per partition.
+	 * @param source Adapter to read the market events from
+	 * @param startDateTime Start date time
+	 * @param endDateTime End date time
+	 * @return Number of copied market events
+	 * @throws SQLException If reading or writing the market events fails
+	 */
+	public long importMarketEvents(IDatabaseAdapter source, Date startDateTime, Date endDateTime)
+	throws SQLException {
+		MarketEventCursor cursor = source.getMarketEventCursor(startDateTime, endDateTime, 4096);
+		long count = 0;
+		long currentDay = Long.MIN_VALUE;
+
+		try {
+			while(cursor.next()) {
+				long dateTime = cursor.getDateTime();
+
+				if(dayOf(dateTime) != currentDay) {
+					commitMarketEventInserts();
+					currentDay = dayOf(dateTime);
+				}
+
+				insertMarketEvent(cursor.getOrderID(), cursor.getOrderActionType(),
+						cursor.getOrderQty(), cursor.getPrice(), cursor.getBuySellInd(),
+						cursor.getMessageSequenceNumber(), new Date(dateTime));
+				count++;
+			}
+			commitMarketEventInserts();
+		} finally {
+			cursor.close();
+		}
+
+		LOG.info("Imported " + count + " market events into " + symbolDirectory);
+
+		return count;
+	}
+
+	/**
+	 * Gets the day number (days since the epoch, UTC) of the given date time
+	 * @param millis Date time in milliseconds
+	 * @return The day number
+	 */
+	private static long dayOf(long millis) {
+		long day = millis / DAY_MILLIS;
+		return (millis % DAY_MILLIS < 0) ? day - 1 : day;
+	}
+
+	/**
+	 * Gets the directory of the partition of the given day
+	 * @param day Day number
+	 * @return Directory of the partition
+	 */
+	private File getPartitionDirectory(long day) {
+		return new File(symbolDirectory, partitionFormat.format(new java.util.Date(day * DAY_MILLIS)));
+	}
+
+	/**
+	 * Lists the published segments of a partition, in the order they were written.
+	 * @param partitionDirectory Directory of the partition
+	 * @return The segment files, empty if the partition does not exist
+	 */
+	private static File[] listSegmentFiles(File partitionDirectory) {
+		File[] files = partitionDirectory.listFiles(new FilenameFilter() {
+			@Override
+			public boolean accept(File directory, String name) {
+				return name.endsWith(ColumnarSegment.EXTENSION);
+			}
+		});
+
+		if(files == null)
+			return new File[0];
+
+		Arrays.sort(files);
+		return files;
+	}
+}
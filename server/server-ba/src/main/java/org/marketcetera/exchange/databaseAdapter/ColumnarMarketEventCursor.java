@@ -0,0 +1,199 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.databaseAdapter;
+
+import java.util.List;
+
+/**
+ * {@link MarketEventCursor} reading market events straight from mapped
+ * {@link ColumnarSegment}s.
+ * 
+ * The partitions are walked in day order. Within a partition the segments are
+ * merged by date time and message sequence number, each segment being bounded to
+ * the requested interval through its time index.
+ * 
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+public class ColumnarMarketEventCursor implements MarketEventCursor {
+	private final List<List<ColumnarSegment>> partitions;
+	private final long startDateTime;
+	private final long endDateTime;
+	private int partition = -1;
+	private ColumnarSegment[] segments = new ColumnarSegment[0];
+	private int[] positions = new int[0];
+	private int[] ends = new int[0];
+	private ColumnarSegment segment;
+	private int row;
+	private byte[] scratch = new byte[32];
+
+	/**
+	 * Creates a cursor over the given partitions, limited to the given interval.
+	 * @param partitions Segments per partition, partitions in day order
+	 * @param startDateTime Start date time in milliseconds, inclusive
+	 * @param endDateTime End date time in milliseconds, inclusive
+	 */
+	public ColumnarMarketEventCursor(List<List<ColumnarSegment>> partitions,
+			long startDateTime, long endDateTime) {
+		this.partitions = partitions;
+		this.startDateTime = startDateTime;
+		this.endDateTime = endDateTime;
+	}
+
+	/**
+	 * @see {@link MarketEventCursor#next()}
+	 */
+	@Override
+	public boolean next() {
+		while(true) {
+			int next = -1;
+
+			for(int i = 0; i < segments.length; i++) {
+				if(positions[i] < ends[i]
+						&& (next < 0 || isBefore(segments[i], positions[i], segments[next], positions[next])))
+					next = i;
+			}
+
+			if(next >= 0) {
+				segment = segments[next];
+				row = positions[next]++;
+				return true;
+			}
+
+			if(!openNextPartition()) {
+				segment = null;
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Positions the segments of the next partition on the requested interval.
+	 * @return False if there are no more partitions
+	 */
+	private boolean openNextPartition() {
+		if(++partition >= partitions.size())
+			return false;
+
+		List<ColumnarSegment> partitionSegments = partitions.get(partition);
+		int count = partitionSegments.size();
+
+		segments = partitionSegments.toArray(new ColumnarSegment[count]);
+		positions = new int[count];
+		ends = new int[count];
+
+		for(int i = 0; i < count; i++) {
+			ColumnarSegment candidate = segments[i];
+
+			if(candidate.getMaxDateTime() < startDateTime || candidate.getMinDateTime() > endDateTime)
+				continue;
+
+			positions[i] = candidate.lowerBound(startDateTime);
+			ends[i] = candidate.upperBound(endDateTime);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Checks whether the first row comes before the second, by date time and
+	 * message sequence number.
+	 */
+	private static boolean isBefore(ColumnarSegment segment1, int row1,
+			ColumnarSegment segment2, int row2) {
+		long dateTime1 = segment1.getDateTime(row1), dateTime2 = segment2.getDateTime(row2);
+
+		if(dateTime1 != dateTime2)
+			return dateTime1 < dateTime2;
+
+		return segment1.getMessageSequenceNumber(row1) < segment2.getMessageSequenceNumber(row2);
+	}
+
+	/**
+	 * @see {@link MarketEventCursor#getOrderID()}
+	 */
+	@Override
+	public String getOrderID() {
+		int length = segment.getOrderIDLength(row);
+
+		if(scratch.length < length)
+			scratch = new byte[length];
+
+		return segment.getOrderID(row, scratch);
+	}
+
+	/**
+	 * @see {@link MarketEventCursor#getOrderActionType()}
+	 */
+	@Override
+	public char getOrderActionType() {
+		return segment.getOrderActionType(row);
+	}
+
+	/**
+	 * @see {@link MarketEventCursor#getOrderQty()}
+	 */
+	@Override
+	public int getOrderQty() {
+		return segment.getOrderQty(row);
+	}
+
+	/**
+	 * @see {@link MarketEventCursor#getPrice()}
+	 */
+	@Override
+	public double getPrice() {
+		return segment.getPrice(row);
+	}
+
+	/**
+	 * @see {@link MarketEventCursor#getBuySellInd()}
+	 */
+	@Override
+	public char getBuySellInd() {
+		return segment.getBuySellInd(row);
+	}
+
+	/**
+	 * @see {@link MarketEventCursor#getMessageSequenceNumber()}
+	 */
+	@Override
+	public int getMessageSequenceNumber() {
+		return segment.getMessageSequenceNumber(row);
+	}
+
+	/**
+	 * @see {@link MarketEventCursor#getDateTime()}
+	 */
+	@Override
+	public long getDateTime() {
+		return segment.getDateTime(row);
+	}
+
+	/**
+	 * @see {@link MarketEventCursor#close()}
+	 */
+	@Override
+	public void close() {
+		//The mappings are released when the segments are collected
+		partition = partitions.size();
+		segments = new ColumnarSegment[0];
+		segment = null;
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.databaseAdapter;
+
+/**
+ * Growable, column-wise buffer of market events waiting to be written as a
+ * {@link ColumnarSegment}.
+ * 
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+class ColumnarRows {
+	String[] orderIDs;
+	char[] orderActionTypes;
+	int[] orderQtys;
+	double[] prices;
+	char[] buySellInds;
+	int[] messageSequenceNumbers;
+	long[] dateTimes;
+	int size;
+
+	/**
+	 * Create an empty buffer with the given initial capacity
+	 * @param capacity Initial number of rows
+	 */
+	ColumnarRows(int capacity) {
+		orderIDs = new String[capacity];
+		orderActionTypes = new char[capacity];
+		orderQtys = new int[capacity];
+		prices = new double[capacity];
+		buySellInds = new char[capacity];
+		messageSequenceNumbers = new int[capacity];
+		dateTimes = new long[capacity];
+	}
+
+	/**
+	 * Appends a market event to the buffer
+	 */
+	void add(String orderID, char orderActionType, int orderQty, double price,
+			char buySellInd, int messageSequenceNumber, long dateTime) {
+		if(size == dateTimes.length)
+			grow();
+
+		orderIDs[size] = orderID;
+		orderActionTypes[size] = orderActionType;
+		orderQtys[size] = orderQty;
+		prices[size] = price;
+		buySellInds[size] = buySellInd;
+		messageSequenceNumbers[size] = messageSequenceNumber;
+		dateTimes[size] = dateTime;
+		size++;
+	}
+
+	/**
+	 * Doubles the capacity of all columns
+	 */
+	private void grow() {
+		int capacity = Math.max(16, dateTimes.length * 2);
+
+		String[] newOrderIDs = new String[capacity];
+		System.arraycopy(orderIDs, 0, newOrderIDs, 0, size);
+		orderIDs = newOrderIDs;
+
+		char[] newOrderActionTypes = new char[capacity];
+		System.arraycopy(orderActionTypes, 0, newOrderActionTypes, 0, size);
+		orderActionTypes = newOrderActionTypes;
+
+		int[] newOrderQtys = new int[capacity];
+		System.arraycopy(orderQtys, 0, newOrderQtys, 0, size);
+		orderQtys = newOrderQtys;
+
+		double[] newPrices = new double[capacity];
+		System.arraycopy(prices, 0, newPrices, 0, size);
+		prices = newPrices;
+
+		char[] newBuySellInds = new char[capacity];
+		System.arraycopy(buySellInds, 0, newBuySellInds, 0, size);
+		buySellInds = newBuySellInds;
+
+		int[] newMessageSequenceNumbers = new int[capacity];
+		System.arraycopy(messageSequenceNumbers, 0, newMessageSequenceNumbers, 0, size);
+		messageSequenceNumbers = newMessageSequenceNumbers;
+
+		long[] newDateTimes = new long[capacity];
+		System.arraycopy(dateTimes, 0, newDateTimes, 0, size);
+		dateTimes = newDateTimes;
+	}
+
+	/**
+	 * Gets the row indexes sorted by date time and message sequence number.
+	 * Equal keys keep their insertion order.
+	 * @return Sorted row indexes
+	 */
+	int[] sortedRowOrder() {
+		int[] order = new int[size];
+		int[] scratch = new int[size];
+
+		for(int i = 0; i < size; i++)
+			order[i] = i;
+
+		mergeSort(order, scratch, 0, size);
+
+		return order;
+	}
+
+	/**
+	 * Stable merge sort of the row indexes in [from, to)
+	 */
+	private void mergeSort(int[] order, int[] scratch, int from, int to) {
+		if(to - from < 2)
+			return;
+
+		int mid = (from + to) >>> 1;
+		mergeSort(order, scratch, from, mid);
+		mergeSort(order, scratch, mid, to);
+
+		if(compare(order[mid - 1], order[mid]) <= 0)
+			return;
+
+		System.arraycopy(order, from, scratch, from, to - from);
+
+		int left = from, right = mid;
+		for(int i = from; i < to; i++) {
+			if(right >= to || (left < mid && compare(scratch[left], scratch[right]) <= 0))
+				order[i] = scratch[left++];
+			else
+				order[i] = scratch[right++];
+		}
+	}
+
+	/**
+	 * Compares two rows by date time and message sequence number
+	 */
+	private int compare(int row1, int row2) {
+		if(dateTimes[row1] != dateTimes[row2])
+			return dateTimes[row1] < dateTimes[row2] ? -1 : 1;
+
+		int sequence1 = messageSequenceNumbers[row1], sequence2 = messageSequenceNumbers[row2];
+		return sequence1 < sequence2 ? -1 : (sequence1 == sequence2 ? 0 : 1);
+	}
+}
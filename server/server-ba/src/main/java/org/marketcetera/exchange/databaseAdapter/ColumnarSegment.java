@@ -0,0 +1,328 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.databaseAdapter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Immutable, memory-mapped segment of market events stored column by column.
+ *
+ * A segment holds the market events of one symbol and one day, sorted by date time
+ * and message sequence number, so the date time column doubles as the time index
+ * of the segment. The layout is a fixed header followed by the columns:
+ *
+ * <pre>
+ * header:  magic, version, rowCount, orderIDBytes (int), minDateTime, maxDateTime (long)
+ * columns: dateTime long[rowCount], messageSequenceNumber int[rowCount],
+ *          orderQty int[rowCount], price double[rowCount], buySellInd byte[rowCount],
+ *          orderActionType byte[rowCount], orderIDOffset int[rowCount + 1],
+ *          orderID byte[orderIDBytes]
+ * </pre>
+ *
+ * Values are read straight from the mapped buffer, only the order id is turned
+ * into an object when requested.
+ *
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+public class ColumnarSegment {
+	/**
+	 * File extension of published segments
+	 */
+	public static final String EXTENSION = ".mev";
+	static final Charset CHARSET = Charset.forName("UTF-8");
+	private static final int MAGIC = 0x4D455653;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 32;
+	private final File file;
+	private final ByteBuffer buffer;
+	private final int rowCount;
+	private final long minDateTime;
+	private final long maxDateTime;
+	private final int dateTimeOffset;
+	private final int sequenceOffset;
+	private final int orderQtyOffset;
+	private final int priceOffset;
+	private final int buySellIndOffset;
+	private final int actionTypeOffset;
+	private final int orderIDOffsetOffset;
+	private final int orderIDOffset;
+
+	/**
+	 * Maps the given segment file read-only.
+	 * @param file Segment file
+	 * @throws IOException If the file cannot be mapped or is not a segment
+	 */
+	public ColumnarSegment(File file) throws IOException {
+		this.file = file;
+
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} finally {
+			randomAccessFile.close();
+		}
+
+		if(buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+			throw new IOException("Not a market event segment: " + file);
+		if(buffer.getInt(4) != VERSION)
+			throw new IOException("Unsupported market event segment version " + buffer.getInt(4) + ": " + file);
+
+		this.rowCount = buffer.getInt(8);
+		this.minDateTime = buffer.getLong(16);
+		this.maxDateTime = buffer.getLong(24);
+
+		this.dateTimeOffset = HEADER_SIZE;
+		this.sequenceOffset = dateTimeOffset + rowCount * 8;
+		this.orderQtyOffset = sequenceOffset + rowCount * 4;
+		this.priceOffset = orderQtyOffset + rowCount * 4;
+		this.buySellIndOffset = priceOffset + rowCount * 8;
+		this.actionTypeOffset = buySellIndOffset + rowCount;
+		this.orderIDOffsetOffset = actionTypeOffset + rowCount;
+		this.orderIDOffset = orderIDOffsetOffset + (rowCount + 1) * 4;
+
+		if(orderIDOffset + buffer.getInt(12) != buffer.capacity())
+			throw new IOException("Truncated market event segment: " + file);
+	}
+
+	/**
+	 * Writes the given market events as a new segment. The rows are written in the
+	 * order given by the row order, which must sort them by date time and message
+	 * sequence number. The segment is written under a temporary name and renamed
+	 * when complete, so readers never see a partial segment.
+	 * @param file Segment file to create
+	 * @param rows Market events to write
+	 * @param rowOrder Indexes into the rows, in the order to write them
+	 * @throws IOException If writing the segment fails
+	 */
+	static void write(File file, ColumnarRows rows, int[] rowOrder) throws IOException {
+		int rowCount = rowOrder.length;
+		byte[][] orderIDs = new byte[rowCount][];
+		int orderIDBytes = 0;
+
+		for(int i = 0; i < rowCount; i++) {
+			orderIDs[i] = rows.orderIDs[rowOrder[i]].getBytes(CHARSET);
+			orderIDBytes += orderIDs[i].length;
+		}
+
+		int size = HEADER_SIZE + rowCount * (8 + 4 + 4 + 8 + 1 + 1 + 4) + 4 + orderIDBytes;
+		ByteBuffer out = ByteBuffer.allocate(size);
+
+		out.putInt(MAGIC).putInt(VERSION).putInt(rowCount).putInt(orderIDBytes);
+		out.putLong(rowCount > 0 ? rows.dateTimes[rowOrder[0]] : 0);
+		out.putLong(rowCount > 0 ? rows.dateTimes[rowOrder[rowCount - 1]] : 0);
+
+		for(int i = 0; i < rowCount; i++)
+			out.putLong(rows.dateTimes[rowOrder[i]]);
+		for(int i = 0; i < rowCount; i++)
+			out.putInt(rows.messageSequenceNumbers[rowOrder[i]]);
+		for(int i = 0; i < rowCount; i++)
+			out.putInt(rows.orderQtys[rowOrder[i]]);
+		for(int i = 0; i < rowCount; i++)
+			out.putDouble(rows.prices[rowOrder[i]]);
+		for(int i = 0; i < rowCount; i++)
+			out.put((byte)rows.buySellInds[rowOrder[i]]);
+		for(int i = 0; i < rowCount; i++)
+			out.put((byte)rows.orderActionTypes[rowOrder[i]]);
+
+		int offset = 0;
+		for(int i = 0; i < rowCount; i++) {
+			out.putInt(offset);
+			offset += orderIDs[i].length;
+		}
+		out.putInt(offset);
+
+		for(int i = 0; i < rowCount; i++)
+			out.put(orderIDs[i]);
+
+		out.flip();
+
+		File tempFile = new File(file.getPath() + ".tmp");
+		RandomAccessFile randomAccessFile = new RandomAccessFile(tempFile, "rw");
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			channel.truncate(0);
+			while(out.hasRemaining())
+				channel.write(out);
+			channel.force(true);
+		} finally {
+			randomAccessFile.close();
+		}
+
+		if(!tempFile.renameTo(file))
+			throw new IOException("Could not publish market event segment: " + file);
+	}
+
+	/**
+	 * Finds the first row with a date time at or after the given date time.
+	 * @param dateTime Date time in milliseconds
+	 * @return Index of the first such row, the row count if there is none
+	 */
+	public int lowerBound(long dateTime) {
+		int low = 0, high = rowCount;
+
+		while(low < high) {
+			int mid = (low + high) >>> 1;
+			if(getDateTime(mid) < dateTime)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+
+		return low;
+	}
+
+	/**
+	 * Finds the first row with a date time after the given date time.
+	 * @param dateTime Date time in milliseconds
+	 * @return Index of the first such row, the row count if there is none
+	 */
+	public int upperBound(long dateTime) {
+		int low = 0, high = rowCount;
+
+		while(low < high) {
+			int mid = (low + high) >>> 1;
+			if(getDateTime(mid) <= dateTime)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+
+		return low;
+	}
+
+	/**
+	 * Get the date time of the given row
+	 * @param row Row index
+	 * @return Date time in milliseconds
+	 */
+	public long getDateTime(int row) {
+		return buffer.getLong(dateTimeOffset + row * 8);
+	}
+
+	/**
+	 * Get the message sequence number of the given row
+	 * @param row Row index
+	 * @return Message sequence number
+	 */
+	public int getMessageSequenceNumber(int row) {
+		return buffer.getInt(sequenceOffset + row * 4);
+	}
+
+	/**
+	 * Get the order quantity of the given row
+	 * @param row Row index
+	 * @return Order quantity
+	 */
+	public int getOrderQty(int row) {
+		return buffer.getInt(orderQtyOffset + row * 4);
+	}
+
+	/**
+	 * Get the price of the given row
+	 * @param row Row index
+	 * @return Price
+	 */
+	public double getPrice(int row) {
+		return buffer.getDouble(priceOffset + row * 8);
+	}
+
+	/**
+	 * Get the buy sell indicator of the given row
+	 * @param row Row index
+	 * @return 'B' for buy, 'S' for sell
+	 */
+	public char getBuySellInd(int row) {
+		return (char)(buffer.get(buySellIndOffset + row) & 0xFF);
+	}
+
+	/**
+	 * Get the order action type of the given row
+	 * @param row Row index
+	 * @return Order action type
+	 */
+	public char getOrderActionType(int row) {
+		return (char)(buffer.get(actionTypeOffset + row) & 0xFF);
+	}
+
+	/**
+	 * Get the length of the encoded order id of the given row.
+	 * @param row Row index
+	 * @return Number of bytes of the encoded order id
+	 */
+	public int getOrderIDLength(int row) {
+		return buffer.getInt(orderIDOffsetOffset + (row + 1) * 4)
+			- buffer.getInt(orderIDOffsetOffset + row * 4);
+	}
+
+	/**
+	 * Decodes the order id of the given row.
+	 * @param row Row index
+	 * @param scratch Buffer to copy the encoded id into, at least
+	 * {@link #getOrderIDLength(int)} long
+	 * @return The order id
+	 */
+	public String getOrderID(int row, byte[] scratch) {
+		int start = orderIDOffset + buffer.getInt(orderIDOffsetOffset + row * 4);
+		int length = getOrderIDLength(row);
+
+		for(int i = 0; i < length; i++)
+			scratch[i] = buffer.get(start + i);
+
+		return new String(scratch, 0, length, CHARSET);
+	}
+
+	/**
+	 * Get the number of market events in the segment
+	 * @return Number of market events
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Get the date time of the first market event
+	 * @return Earliest date time in the segment
+	 */
+	public long getMinDateTime() {
+		return minDateTime;
+	}
+
+	/**
+	 * Get the date time of the last market event
+	 * @return Latest date time in the segment
+	 */
+	public long getMaxDateTime() {
+		return maxDateTime;
+	}
+
+	/**
+	 * Get the segment file
+	 * @return The segment file
+	 */
+	public File getFile() {
+		return file;
+	}
+}
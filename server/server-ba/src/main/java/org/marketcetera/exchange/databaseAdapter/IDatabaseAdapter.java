@@ -63,4 +63,16 @@ public interface IDatabaseAdapter {
 	 * @throws SQLException If anything goes wrong with the fetch.
 	 */
 	ResultSet getMarketEvents(Date startDateTime, Date endDateTime) throws SQLException;
+	
+	/**
+	 * Gets a cursor over the market events in the given date time interval, ordered
+	 * by date time and message sequence number.
+	 * @param startDateTime Start date time
+	 * @param endDateTime End date time
+	 * @param chunkSize Number of market events the cursor may decode at a time
+	 * @return Cursor over all the market events from the given interval.
+	 * @throws SQLException If anything goes wrong with the fetch.
+	 */
+	MarketEventCursor getMarketEventCursor(Date startDateTime, Date endDateTime, int chunkSize)
+	throws SQLException;
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.databaseAdapter;
+
+import java.sql.SQLException;
+
+/**
+ * Forward-only cursor over market events, ordered by date time and message
+ * sequence number.
+ * 
+ * The cursor acts as a flyweight: after a successful {@link #next()} the getters
+ * return the values of the current market event.
+ * 
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+public interface MarketEventCursor {
+	/**
+	 * Moves to the next market event.
+	 * @return True if there is a current market event, false when all are read
+	 * @throws SQLException If reading the market events fails
+	 */
+	boolean next() throws SQLException;
+
+	/**
+	 * Gets the order id of the current market event
+	 * @return The order id
+	 */
+	String getOrderID();
+
+	/**
+	 * Gets the order action type of the current market event
+	 * @return The order action type, 0 if not set
+	 */
+	char getOrderActionType();
+
+	/**
+	 * Gets the order quantity of the current market event
+	 * @return The order quantity
+	 */
+	int getOrderQty();
+
+	/**
+	 * Gets the price of the current market event
+	 * @return The price
+	 */
+	double getPrice();
+
+	/**
+	 * Gets the buy sell indicator of the current market event
+	 * @return 'B' for buy, 'S' for sell
+	 */
+	char getBuySellInd();
+
+	/**
+	 * Gets the message sequence number of the current market event
+	 * @return The message sequence number
+	 */
+	int getMessageSequenceNumber();
+
+	/**
+	 * Gets the date time of the current market event
+	 * @return The date time in milliseconds
+	 */
+	long getDateTime();
+
+	/**
+	 * Releases the resources held by the cursor
+	 * @throws SQLException If closing the underlying source fails
+	 */
+	void close() throws SQLException;
+}
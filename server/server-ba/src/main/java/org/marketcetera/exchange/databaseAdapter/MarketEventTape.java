@@ -0,0 +1,232 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.databaseAdapter;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Decoded market events held in memory, column by column, in replay order.
+ * 
+ * The tape is read once from a {@link MarketEventCursor} and is immutable
+ * afterwards, so any number of threads can replay it at the same time through
+ * their own cursors, without reading the database again.
+ * 
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+public class MarketEventTape {
+	private final long[] dateTimes;
+	private final int[] messageSequenceNumbers;
+	private final int[] orderQtys;
+	private final double[] prices;
+	private final char[] buySellInds;
+	private final char[] orderActionTypes;
+	private final String[] orderIDs;
+	private final int size;
+
+	private MarketEventTape(long[] dateTimes, int[] messageSequenceNumbers, int[] orderQtys,
+			double[] prices, char[] buySellInds, char[] orderActionTypes, String[] orderIDs, int size) {
+		this.dateTimes = dateTimes;
+		this.messageSequenceNumbers = messageSequenceNumbers;
+		this.orderQtys = orderQtys;
+		this.prices = prices;
+		this.buySellInds = buySellInds;
+		this.orderActionTypes = orderActionTypes;
+		this.orderIDs = orderIDs;
+		this.size = size;
+	}
+
+	/**
+	 * Reads all market events of the cursor into a tape and closes the cursor.
+	 * @param cursor Cursor over the market events, in replay order
+	 * @return The tape
+	 * @throws SQLException If reading the market events fails
+	 */
+	public static MarketEventTape read(MarketEventCursor cursor) throws SQLException {
+		int capacity = 1024;
+		long[] dateTimes = new long[capacity];
+		int[] messageSequenceNumbers = new int[capacity];
+		int[] orderQtys = new int[capacity];
+		double[] prices = new double[capacity];
+		char[] buySellInds = new char[capacity];
+		char[] orderActionTypes = new char[capacity];
+		String[] orderIDs = new String[capacity];
+		int size = 0;
+
+		try {
+			while(cursor.next()) {
+				if(size == capacity) {
+					capacity *= 2;
+					dateTimes = Arrays.copyOf(dateTimes, capacity);
+					messageSequenceNumbers = Arrays.copyOf(messageSequenceNumbers, capacity);
+					orderQtys = Arrays.copyOf(orderQtys, capacity);
+					prices = Arrays.copyOf(prices, capacity);
+					buySellInds = Arrays.copyOf(buySellInds, capacity);
+					orderActionTypes = Arrays.copyOf(orderActionTypes, capacity);
+					orderIDs = Arrays.copyOf(orderIDs, capacity);
+				}
+
+				dateTimes[size] = cursor.getDateTime();
+				messageSequenceNumbers[size] = cursor.getMessageSequenceNumber();
+				orderQtys[size] = cursor.getOrderQty();
+				prices[size] = cursor.getPrice();
+				buySellInds[size] = cursor.getBuySellInd();
+				orderActionTypes[size] = cursor.getOrderActionType();
+				orderIDs[size] = cursor.getOrderID();
+				size++;
+			}
+		} finally {
+			cursor.close();
+		}
+
+		return new MarketEventTape(dateTimes, messageSequenceNumbers, orderQtys, prices,
+				buySellInds, orderActionTypes, orderIDs, size);
+	}
+
+	/**
+	 * Opens a new cursor over the market events in the given interval.
+	 * @param startDateTime Start of the interval in milliseconds, inclusive
+	 * @param endDateTime End of the interval in milliseconds, inclusive
+	 * @return Cursor positioned before the first market event in the interval
+	 */
+	public MarketEventCursor newCursor(long startDateTime, long endDateTime) {
+		return new TapeCursor(lowerBound(startDateTime), lowerBound(endDateTime + 1));
+	}
+
+	/**
+	 * Finds the first market event at or after the given date time
+	 * @param dateTime Date time in milliseconds
+	 * @return Index of the market event, the size if there is none
+	 */
+	private int lowerBound(long dateTime) {
+		int low = 0, high = size;
+
+		while(low < high) {
+			int mid = (low + high) >>> 1;
+			if(dateTimes[mid] < dateTime)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+
+		return low;
+	}
+
+	/**
+	 * Get the number of market events on the tape
+	 * @return Number of market events
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Cursor over a range of the tape
+	 * @author Daniel Schiermer
+	 */
+	private class TapeCursor implements MarketEventCursor {
+		private final int end;
+		private int row;
+
+		/**
+		 * Creates a cursor over the given rows
+		 * @param start First row, inclusive
+		 * @param end Last row, exclusive
+		 */
+		public TapeCursor(int start, int end) {
+			this.row = start - 1;
+			this.end = end;
+		}
+
+		/**
+		 * @see {@link MarketEventCursor#next()}
+		 */
+		@Override
+		public boolean next() {
+			if(row < end)
+				row++;
+
+			return row < end;
+		}
+
+		/**
+		 * @see {@link MarketEventCursor#getOrderID()}
+		 */
+		@Override
+		public String getOrderID() {
+			return orderIDs[row];
+		}
+
+		/**
+		 * @see {@link MarketEventCursor#getOrderActionType()}
+		 */
+		@Override
+		public char getOrderActionType() {
+			return orderActionTypes[row];
+		}
+
+		/**
+		 * @see {@link MarketEventCursor#getOrderQty()}
+		 */
+		@Override
+		public int getOrderQty() {
+			return orderQtys[row];
+		}
+
+		/**
+		 * @see {@link MarketEventCursor#getPrice()}
+		 */
+		@Override
+		public double getPrice() {
+			return prices[row];
+		}
+
+		/**
+		 * @see {@link MarketEventCursor#getBuySellInd()}
+		 */
+		@Override
+		public char getBuySellInd() {
+			return buySellInds[row];
+		}
+
+		/**
+		 * @see {@link MarketEventCursor#getMessageSequenceNumber()}
+		 */
+		@Override
+		public int getMessageSequenceNumber() {
+			return messageSequenceNumbers[row];
+		}
+
+		/**
+		 * @see {@link MarketEventCursor#getDateTime()}
+		 */
+		@Override
+		public long getDateTime() {
+			return dateTimes[row];
+		}
+
+		/**
+		 * @see {@link MarketEventCursor#close()}
+		 */
+		@Override
+		public void close() {
+		}
+	}
+}
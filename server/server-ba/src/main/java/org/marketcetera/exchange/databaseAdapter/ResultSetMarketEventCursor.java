@@ -0,0 +1,204 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.databaseAdapter;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link MarketEventCursor} over the market events returned by
+ * {@link IDatabaseAdapter#getMarketEvents(java.sql.Date, java.sql.Date)}.
+ *
+ * The rows are read in fixed-size chunks into primitive columns that are reused
+ * for every chunk, so walking the cursor does not create any objects per row
+ * apart from the order id. The cursor acts as a flyweight: after a successful
+ * {@link #next()} the getters return the values of the current row.
+ *
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+public class ResultSetMarketEventCursor implements MarketEventCursor {
+	private final ResultSet results;
+	private final int chunkSize;
+	private final String[] orderIDs;
+	private final char[] orderActionTypes;
+	private final int[] orderQtys;
+	private final double[] prices;
+	private final char[] buySellInds;
+	private final int[] messageSequenceNumbers;
+	private final long[] dateTimes;
+	private final int orderIDColumn;
+	private final int orderActionTypeColumn;
+	private final int orderQtyColumn;
+	private final int priceColumn;
+	private final int buySellIndColumn;
+	private final int messageSequenceNumberColumn;
+	private final int dateTimeColumn;
+	private int size;
+	private int position;
+	private boolean exhausted;
+
+	/**
+	 * Creates a cursor reading the given result set in chunks of the given size.
+	 * The column indexes are resolved once, up front.
+	 * @param results Market events as fetched from the database
+	 * @param chunkSize Number of rows to decode per chunk
+	 * @throws SQLException If the result set does not have the market event columns
+	 */
+	public ResultSetMarketEventCursor(ResultSet results, int chunkSize) throws SQLException {
+		if(chunkSize <= 0)
+			throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+
+		this.results = results;
+		this.chunkSize = chunkSize;
+		this.orderIDs = new String[chunkSize];
+		this.orderActionTypes = new char[chunkSize];
+		this.orderQtys = new int[chunkSize];
+		this.prices = new double[chunkSize];
+		this.buySellInds = new char[chunkSize];
+		this.messageSequenceNumbers = new int[chunkSize];
+		this.dateTimes = new long[chunkSize];
+
+		this.orderIDColumn = results.findColumn("orderID");
+		this.orderActionTypeColumn = results.findColumn("orderActionType");
+		this.orderQtyColumn = results.findColumn("orderQty");
+		this.priceColumn = results.findColumn("price");
+		this.buySellIndColumn = results.findColumn("buySellInd");
+		this.messageSequenceNumberColumn = results.findColumn("messageSequenceNumber");
+		this.dateTimeColumn = results.findColumn("dateTime");
+
+		results.setFetchSize(chunkSize);
+	}
+
+	/**
+	 * @see {@link MarketEventCursor#next()}
+	 */
+	@Override
+	public boolean next() throws SQLException {
+		if(++position < size)
+			return true;
+
+		if(exhausted)
+			return false;
+
+		readChunk();
+
+		return position < size;
+	}
+
+	/**
+	 * Decodes up to chunk size rows into the column buffers.
+	 * @throws SQLException If reading the result set fails
+	 */
+	private void readChunk() throws SQLException {
+		size = 0;
+		position = 0;
+
+		while(size < chunkSize && results.next()) {
+			orderIDs[size] = results.getString(orderIDColumn);
+			orderActionTypes[size] = toChar(results.getString(orderActionTypeColumn));
+			orderQtys[size] = results.getInt(orderQtyColumn);
+			prices[size] = results.getDouble(priceColumn);
+			buySellInds[size] = toChar(results.getString(buySellIndColumn));
+			messageSequenceNumbers[size] = results.getInt(messageSequenceNumberColumn);
+			dateTimes[size] = results.getLong(dateTimeColumn);
+			size++;
+		}
+
+		if(size < chunkSize)
+			exhausted = true;
+
+		//Let the previous order ids be collected
+		for(int i = size; i < chunkSize && orderIDs[i] != null; i++)
+			orderIDs[i] = null;
+	}
+
+	/**
+	 * Gets the first character of a CHAR(1) column
+	 * @param value Column value
+	 * @return The first character, 0 if the value is NULL or empty
+	 */
+	private static char toChar(String value) {
+		return (value == null || value.isEmpty()) ? 0 : value.charAt(0);
+	}
+
+	/**
+	 * @see {@link MarketEventCursor#getOrderID()}
+	 */
+	@Override
+	public String getOrderID() {
+		return orderIDs[position];
+	}
+
+	/**
+	 * @see {@link MarketEventCursor#getOrderActionType()}
+	 */
+	@Override
+	public char getOrderActionType() {
+		return orderActionTypes[position];
+	}
+
+	/**
+	 * @see {@link MarketEventCursor#getOrderQty()}
+	 */
+	@Override
+	public int getOrderQty() {
+		return orderQtys[position];
+	}
+
+	/**
+	 * @see {@link MarketEventCursor#getPrice()}
+	 */
+	@Override
+	public double getPrice() {
+		return prices[position];
+	}
+
+	/**
+	 * @see {@link MarketEventCursor#getBuySellInd()}
+	 */
+	@Override
+	public char getBuySellInd() {
+		return buySellInds[position];
+	}
+
+	/**
+	 * @see {@link MarketEventCursor#getMessageSequenceNumber()}
+	 */
+	@Override
+	public int getMessageSequenceNumber() {
+		return messageSequenceNumbers[position];
+	}
+
+	/**
+	 * @see {@link MarketEventCursor#getDateTime()}
+	 */
+	@Override
+	public long getDateTime() {
+		return dateTimes[position];
+	}
+
+	/**
+	 * @see {@link MarketEventCursor#close()}
+	 */
+	@Override
+	public void close() throws SQLException {
+		results.close();
+	}
+}
@@ -46,8 +46,18 @@ public class SQLiteAdapter implements IDatabaseAdapter {
 	 * Creates an instance and gets the connection and database name
 	 */
 	public SQLiteAdapter() {
+		this(Configuration.getInstance().getMarketDataTableName());
+	}
+
+	/**
+	 * Creates an instance reading and writing the market events of the given
+	 * table of the database. Used to keep the market events of each symbol in
+	 * its own table.
+	 * @param tableName Name of the market event table
+	 */
+	public SQLiteAdapter(String tableName) {
 		this.connection = SQLiteConnection.getInstance().getConnection();
-		dbNameMarketEvents = Configuration.getInstance().getMarketDataTableName();
+		dbNameMarketEvents = tableName;
 	}
 
 	/**
@@ -66,8 +76,11 @@ public class SQLiteAdapter implements IDatabaseAdapter {
 					+ "price DOUBLE, buySellInd CHAR(1), messageSequenceNumber INTEGER, "
 					+ "dateTime DATE);");
 
-			statement.execute("CREATE INDEX orderDateTimeIndex ON " + dbNameMarketEvents + "(dateTime);");
-			statement.execute("CREATE INDEX orderMessageSeqIndex ON " + dbNameMarketEvents + "(messageSequenceNumber);");
+			//Index names are database wide, so they are prefixed by the table name
+			statement.execute("CREATE INDEX " + dbNameMarketEvents + "DateTimeIndex ON "
+					+ dbNameMarketEvents + "(dateTime);");
+			statement.execute("CREATE INDEX " + dbNameMarketEvents + "MessageSeqIndex ON "
+					+ dbNameMarketEvents + "(messageSequenceNumber);");
 
 			insertMarketEvent = connection.prepareStatement(
 					"insert into " + dbNameMarketEvents + " values (?, ?, ?, ?, ?, ?, ?);");
@@ -117,4 +130,12 @@ public class SQLiteAdapter implements IDatabaseAdapter {
 
 		return selectStatement.executeQuery(query);
 	}
+	
+	/**
+	 * @see {@link IDatabaseAdapter#getMarketEventCursor(Date, Date, int)}
+	 */
+	public MarketEventCursor getMarketEventCursor(Date startDateTime, Date endDateTime, int chunkSize)
+	throws SQLException {
+		return new ResultSetMarketEventCursor(getMarketEvents(startDateTime, endDateTime), chunkSize);
+	}
 }
\ No newline at end of file
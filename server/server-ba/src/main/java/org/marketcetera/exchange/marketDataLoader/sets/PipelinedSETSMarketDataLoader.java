@@ -0,0 +1,425 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.marketDataLoader.sets;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.sql.SQLException;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.marketcetera.exchange.databaseAdapter.IDatabaseAdapter;
+import org.marketcetera.exchange.marketDataLoader.IMarketDataLoader;
+import org.marketcetera.util.common.csv.CSVParser;
+
+/**
+ * SETS market data loader that parses the CSV files in parallel.
+ * @see {@link IMarketDataLoader}.
+ * 
+ * Each CSV file is split into line aligned byte ranges which are parsed by a pool of
+ * parser threads into columnar {@link SETSRecordBatch}es. The batches are handed over
+ * through bounded queues, one per range, to the calling thread, which is the only
+ * thread using the SQLite connection. It drains the ranges in file order and commits
+ * each batch as one transaction, so the temp tables end up with the rows in the
+ * same order as with the serial {@link SETSMarketDataLoader}.
+ * 
+ * If the writer fails, the parsers stop handing over batches and end without the
+ * end marker, so none of them stays blocked on a queue nobody drains.
+ * 
+ * NOTE: The files are split on line breaks, so the CSV values must not contain
+ * line breaks.
+ * 
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+public class PipelinedSETSMarketDataLoader extends SETSMarketDataLoader {
+	private static final Logger LOG = LoggerFactory.getLogger(PipelinedSETSMarketDataLoader.class);
+	//Time a parser waits on a full queue before checking whether the writer failed
+	private static final long OFFER_TIMEOUT_MILLIS = 100;
+	private final int parserThreads;
+	private final int queueCapacity;
+	private final int batchSize;
+
+	/**
+	 * Creates an instance of the pipelined SETS market data loader
+	 * @param dateformat Used to parse the csv date times
+	 * @param detailsFilePath File path to the SETS order details CSV file 
+	 * @param historyFilePath File path to the SETS order history CSV file
+	 * @param tradeReportsFilePath File path to the SETS trade reports CSV file
+	 * @param databaseAdapter The database adapter to use in the data loader
+	 * @param parserThreads Number of threads parsing the CSV files
+	 * @param queueCapacity Number of parsed batches each range may buffer ahead of the writer
+	 * @param batchSize Number of records in each batch committed to the temp tables
+	 * @throws ClassNotFoundException If the SQLite JDBC driver cannot be loaded
+	 */
+	public PipelinedSETSMarketDataLoader(DateFormat dateformat, String detailsFilePath,
+			String historyFilePath, String tradeReportsFilePath, IDatabaseAdapter databaseAdapter,
+			int parserThreads, int queueCapacity, int batchSize)
+	throws ClassNotFoundException {
+		super(dateformat, detailsFilePath, historyFilePath, tradeReportsFilePath, databaseAdapter);
+
+		if(parserThreads < 1 || queueCapacity < 1 || batchSize < 1)
+			throw new IllegalArgumentException("Parser threads, queue capacity and batch size must be positive");
+
+		this.parserThreads = parserThreads;
+		this.queueCapacity = queueCapacity;
+		this.batchSize = batchSize;
+	}
+
+	//Set when the writer failed, the parsers then abandon their queues
+	private volatile boolean writerFailed;
+
+	/**
+	 * Populate the temporary tables, parsing the CSV files in parallel
+	 * @see {@link SETSMarketDataLoader#populateTempTables()}
+	 */
+	@Override
+	protected void populateTempTables()
+	throws NumberFormatException, SQLException, IOException, ParseException, ClassNotFoundException {
+		LOG.info("Populating temp tables with " + parserThreads + " parser threads...");
+
+		ExecutorService executor = Executors.newFixedThreadPool(parserThreads);
+		List<RangeParser> parsers = new ArrayList<RangeParser>();
+		writerFailed = false;
+		try {
+			List<Future<Long>> futures = new ArrayList<Future<Long>>();
+
+			submitFile(SETSFile.TRADE_REPORTS, tradeReportsFilePath, executor, parsers, futures);
+			submitFile(SETSFile.ORDER_DETAILS, detailsFilePath, executor, parsers, futures);
+			submitFile(SETSFile.ORDER_HISTORY, historyFilePath, executor, parsers, futures);
+
+			long startNanos = System.nanoTime();
+			long rows = 0;
+
+			try {
+				for(RangeParser parser : parsers)
+					rows += writeBatches(parser.queue);
+			} catch (Exception e) {
+				//Releases the parsers waiting on a full queue before rethrowing
+				writerFailed = true;
+				for(RangeParser parser : parsers)
+					parser.queue.clear();
+				throw e;
+			}
+
+			logThroughput("Wrote temp table rows", rows, startNanos);
+
+			for(Future<Long> future : futures)
+				getResult(future);
+
+			startNanos = System.nanoTime();
+			setsSqliteAdapter.updatePrices();
+			logThroughput("Updated prices of temp table rows", rows, startNanos);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while populating temp tables: " + e.toString());
+		} finally {
+			//Stops parsers still blocked on a full queue if the writer failed
+			executor.shutdownNow();
+		}
+
+		LOG.info("Populated temp tables!");
+	}
+
+	/**
+	 * Splits the file into ranges and submits a parser for each range
+	 * @param file The SETS file type
+	 * @param filepath File path of the CSV file
+	 * @param executor Executor running the parsers
+	 * @param parsers List the parsers are added to, in file order
+	 * @param futures List the parser results are added to
+	 * @throws IOException If the file cannot be split
+	 */
+	private void submitFile(SETSFile file, String filepath, ExecutorService executor,
+			List<RangeParser> parsers, List<Future<Long>> futures) throws IOException {
+		if(checkFileExists(filepath) == false)
+			return;
+
+		long[] bounds = splitFile(new File(filepath), parserThreads);
+
+		for(int i = 0; i < bounds.length - 1; i++) {
+			if(bounds[i] == bounds[i + 1])
+				continue;
+
+			RangeParser parser = new RangeParser(file, filepath, bounds[i], bounds[i + 1]);
+			parsers.add(parser);
+			futures.add(executor.submit(parser));
+		}
+	}
+
+	/**
+	 * Inserts and commits the batches of a range until its end marker is received
+	 * @param queue Queue of the range
+	 * @return Number of rows written
+	 * @throws InterruptedException If interrupted while waiting for a batch
+	 * @throws SQLException If inserting the rows fails
+	 */
+	private long writeBatches(BlockingQueue<SETSRecordBatch> queue)
+	throws InterruptedException, SQLException {
+		long rows = 0;
+		SETSRecordBatch batch;
+
+		while((batch = queue.take()) != SETSRecordBatch.END) {
+			for(int i = 0; i < batch.size; i++)
+				batch.file.insert(setsSqliteAdapter, batch, i);
+
+			batch.file.commit(setsSqliteAdapter);
+			rows += batch.size;
+		}
+
+		return rows;
+	}
+
+	/**
+	 * Hands a batch over to the writer, waiting while the queue is full
+	 * @param queue Queue of the range
+	 * @param batch The batch, or the end marker
+	 * @return True if the batch was queued, false if the writer failed
+	 * @throws InterruptedException If interrupted while waiting
+	 */
+	private boolean offer(BlockingQueue<SETSRecordBatch> queue, SETSRecordBatch batch)
+	throws InterruptedException {
+		while(!writerFailed) {
+			if(queue.offer(batch, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Waits for a parser and rethrows its failure
+	 * @param future Result of the parser
+	 * @return Number of rows parsed
+	 * @throws IOException If the parser failed to read the file
+	 * @throws ParseException If the parser failed to parse a date time
+	 * @throws InterruptedException If interrupted while waiting
+	 */
+	private long getResult(Future<Long> future)
+	throws IOException, ParseException, InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+
+			if(cause instanceof IOException)
+				throw (IOException)cause;
+			if(cause instanceof ParseException)
+				throw (ParseException)cause;
+			if(cause instanceof RuntimeException)
+				throw (RuntimeException)cause;
+
+			throw new IOException("Parsing failed: " + cause.toString());
+		}
+	}
+
+	/**
+	 * Splits the file into the given number of ranges. Each bound is moved forward
+	 * to the start of the next line.
+	 * @param file The file to split
+	 * @param ranges Number of ranges
+	 * @return The range bounds, ranges + 1 offsets starting at 0 and ending at the file size
+	 * @throws IOException If the file cannot be read
+	 */
+	static long[] splitFile(File file, int ranges) throws IOException {
+		long[] bounds = new long[ranges + 1];
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+
+		try {
+			long size = randomAccessFile.length();
+			bounds[ranges] = size;
+
+			for(int i = 1; i < ranges; i++) {
+				long position = Math.max(bounds[i - 1], size / ranges * i);
+
+				if(position > 0 && position < size) {
+					randomAccessFile.seek(position - 1);
+					int b;
+					while((b = randomAccessFile.read()) != -1 && b != '\n');
+					position = randomAccessFile.getFilePointer();
+				}
+
+				bounds[i] = Math.min(position, size);
+			}
+		} finally {
+			randomAccessFile.close();
+		}
+
+		return bounds;
+	}
+
+	/**
+	 * Parses one range of a CSV file into batches
+	 * @author Daniel Schiermer
+	 */
+	private class RangeParser implements Callable<Long> {
+		private final SETSFile file;
+		private final String filepath;
+		private final long start;
+		private final long end;
+		private final BlockingQueue<SETSRecordBatch> queue;
+
+		/**
+		 * Creates a parser of the given range
+		 * @param file The SETS file type
+		 * @param filepath File path of the CSV file
+		 * @param start Offset of the first line of the range
+		 * @param end Offset after the last line of the range
+		 */
+		public RangeParser(SETSFile file, String filepath, long start, long end) {
+			this.file = file;
+			this.filepath = filepath;
+			this.start = start;
+			this.end = end;
+			this.queue = new ArrayBlockingQueue<SETSRecordBatch>(queueCapacity);
+		}
+
+		/**
+		 * Parses the range, ending the queue with the end marker unless the parser
+		 * was interrupted or the writer failed
+		 * @return Number of rows parsed
+		 */
+		@Override
+		public Long call() throws IOException, ParseException, InterruptedException {
+			long startNanos = System.nanoTime();
+			long rows = 0;
+			boolean interrupted = false;
+
+			try {
+				SETSDateParser dateParser = new SETSDateParser(dateformat);
+				CSVParser reader = new CSVParser(new InputStreamReader(new RangeInputStream(filepath, start, end)));
+
+				try {
+					SETSRecordBatch batch = new SETSRecordBatch(file, batchSize);
+					String [] line;
+
+					while ((line = reader.getLine()) != null) {
+						file.parse(line, batch, dateParser);
+
+						if(batch.isFull()) {
+							if(!offer(queue, batch))
+								return rows;
+							rows += batch.size;
+							batch = new SETSRecordBatch(file, batchSize);
+						}
+					}
+
+					if(batch.size > 0) {
+						if(!offer(queue, batch))
+							return rows;
+						rows += batch.size;
+					}
+				} finally {
+					reader.close();
+				}
+			} catch (InterruptedException e) {
+				interrupted = true;
+				throw e;
+			} finally {
+				//The writer waits for the end marker, also when parsing failed
+				if(!interrupted)
+					offer(queue, SETSRecordBatch.END);
+			}
+
+			logThroughput("Parsed " + file + " [" + start + ", " + end + ")", rows, startNanos);
+
+			return rows;
+		}
+	}
+
+	/**
+	 * Input stream reading the bytes of a file between two offsets
+	 * @author Daniel Schiermer
+	 */
+	private static class RangeInputStream extends FilterInputStream {
+		private long remaining;
+
+		/**
+		 * Opens the file positioned at the start offset
+		 * @param filepath File path of the file
+		 * @param start Offset of the first byte to read
+		 * @param end Offset after the last byte to read
+		 * @throws IOException If the file cannot be opened
+		 */
+		public RangeInputStream(String filepath, long start, long end) throws IOException {
+			super(open(filepath, start));
+			this.remaining = end - start;
+		}
+
+		private static InputStream open(String filepath, long start) throws IOException {
+			FileInputStream in = new FileInputStream(filepath);
+			in.getChannel().position(start);
+			return in;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if(remaining <= 0)
+				return -1;
+
+			int b = super.read();
+			if(b != -1)
+				remaining--;
+
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if(remaining <= 0)
+				return -1;
+
+			int n = super.read(b, off, (int)Math.min(len, remaining));
+			if(n > 0)
+				remaining -= n;
+
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(Math.min(n, remaining));
+			remaining -= skipped;
+			return skipped;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return (int)Math.min(super.available(), remaining);
+		}
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.marketDataLoader.sets;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+
+/**
+ * Date parser for the SETS date and time columns. Each instance holds its own copy
+ * of the configured {@link DateFormat}, as the format is not thread-safe, and must
+ * only be used by one thread.
+ * 
+ * Consecutive records mostly share the same date and time, so the last parsed
+ * value is cached.
+ * 
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+class SETSDateParser {
+	private final DateFormat dateFormat;
+	private String lastDate;
+	private String lastTime;
+	private long lastDateTime;
+
+	/**
+	 * Creates a parser with a private copy of the given format
+	 * @param dateFormat Format of the date and time, separated by a space
+	 */
+	SETSDateParser(DateFormat dateFormat) {
+		this.dateFormat = (DateFormat)dateFormat.clone();
+	}
+
+	/**
+	 * Parses the given date and time
+	 * @param date Date column value
+	 * @param time Time column value
+	 * @return The date time in milliseconds
+	 * @throws ParseException If the date time cannot be parsed
+	 */
+	long parse(String date, String time) throws ParseException {
+		if(!date.equals(lastDate) || !time.equals(lastTime)) {
+			lastDateTime = dateFormat.parse(date + " " + time).getTime();
+			lastDate = date;
+			lastTime = time;
+		}
+
+		return lastDateTime;
+	}
+}
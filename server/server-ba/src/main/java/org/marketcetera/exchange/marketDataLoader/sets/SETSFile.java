@@ -0,0 +1,128 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.marketDataLoader.sets;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.text.ParseException;
+
+/**
+ * The SETS CSV files, with the mapping of their columns to the SETS temp tables.
+ * The mappings are the same as in the serial {@link SETSMarketDataLoader}.
+ * 
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+enum SETSFile {
+	TRADE_REPORTS {
+		@Override
+		void parse(String[] line, SETSRecordBatch batch, SETSDateParser dateParser) {
+			int i = batch.size++;
+			batch.tradeCodes[i] = line[5];
+			batch.prices[i] = Double.parseDouble(line[6]);
+		}
+
+		@Override
+		void insert(SETSSQLiteAdapter adapter, SETSRecordBatch batch, int i) throws SQLException {
+			adapter.insertTradeReport(batch.tradeCodes[i], batch.prices[i]);
+		}
+
+		@Override
+		void commit(SETSSQLiteAdapter adapter) throws SQLException {
+			adapter.commitTradeReports();
+		}
+	},
+	ORDER_DETAILS {
+		@Override
+		void parse(String[] line, SETSRecordBatch batch, SETSDateParser dateParser)
+		throws ParseException {
+			int i = batch.size++;
+			batch.orderIDs[i] = line[0];
+			batch.buySellInds[i] = line[7].charAt(0);
+			batch.prices[i] = Double.parseDouble(line[10]);
+			batch.orderQtys[i] = Integer.parseInt(line[11]);
+			batch.dateTimes[i] = dateParser.parse(line[14], line[15]);
+			batch.messageSequenceNumbers[i] = Integer.parseInt(line[16]);
+		}
+
+		@Override
+		void insert(SETSSQLiteAdapter adapter, SETSRecordBatch batch, int i) throws SQLException {
+			adapter.insertOrderDetail(batch.orderIDs[i], batch.buySellInds[i], batch.prices[i],
+					batch.orderQtys[i], new Date(batch.dateTimes[i]), batch.messageSequenceNumbers[i]);
+		}
+
+		@Override
+		void commit(SETSSQLiteAdapter adapter) throws SQLException {
+			adapter.commitOrderDetails();
+		}
+	},
+	ORDER_HISTORY {
+		@Override
+		void parse(String[] line, SETSRecordBatch batch, SETSDateParser dateParser)
+		throws ParseException {
+			int i = batch.size++;
+			batch.orderIDs[i] = line[0];
+			batch.tradeCodes[i] = line[4];
+			batch.orderActionTypes[i] = line[1].charAt(0);
+			batch.orderQtys[i] = Integer.parseInt(line[3]);
+			batch.buySellInds[i] = line[10].charAt(0);
+			batch.messageSequenceNumbers[i] = Integer.parseInt(line[12]);
+			batch.dateTimes[i] = dateParser.parse(line[13], line[14]);
+			batch.marketMechanismTypes[i] = line[11];
+		}
+
+		@Override
+		void insert(SETSSQLiteAdapter adapter, SETSRecordBatch batch, int i) throws SQLException {
+			adapter.insertOrderHistory(batch.orderIDs[i], batch.tradeCodes[i], batch.orderActionTypes[i],
+					batch.orderQtys[i], batch.buySellInds[i], batch.messageSequenceNumbers[i],
+					new Date(batch.dateTimes[i]), batch.marketMechanismTypes[i]);
+		}
+
+		@Override
+		void commit(SETSSQLiteAdapter adapter) throws SQLException {
+			adapter.commitOrderHistory();
+		}
+	};
+
+	/**
+	 * Parses a CSV line and appends the record to the batch
+	 * @param line The CSV values of the line
+	 * @param batch Batch to append the record to
+	 * @param dateParser Date parser owned by the calling thread
+	 * @throws ParseException If the date time cannot be parsed
+	 */
+	abstract void parse(String[] line, SETSRecordBatch batch, SETSDateParser dateParser)
+	throws ParseException;
+
+	/**
+	 * Adds the record at the given index to the insert batch of the temp table
+	 * @param adapter SETS adapter holding the temp tables
+	 * @param batch Batch of records
+	 * @param i Index of the record
+	 * @throws SQLException If the insert fails
+	 */
+	abstract void insert(SETSSQLiteAdapter adapter, SETSRecordBatch batch, int i) throws SQLException;
+
+	/**
+	 * Commits the insert batch of the temp table
+	 * @param adapter SETS adapter holding the temp tables
+	 * @throws SQLException If the commit fails
+	 */
+	abstract void commit(SETSSQLiteAdapter adapter) throws SQLException;
+}
@@ -46,11 +46,11 @@ import org.marketcetera.util.common.csv.CSVParser;
  */
 public class SETSMarketDataLoader extends AbstractMarketDataLoader {
 
-	private DateFormat dateformat;
-	private String detailsFilePath;
-	private String historyFilePath;
-	private final String tradeReportsFilePath;
-	private SETSSQLiteAdapter setsSqliteAdapter;
+	protected final DateFormat dateformat;
+	protected final String detailsFilePath;
+	protected final String historyFilePath;
+	protected final String tradeReportsFilePath;
+	protected SETSSQLiteAdapter setsSqliteAdapter;
 	private static final Logger LOG = LoggerFactory.getLogger(SETSMarketDataLoader.class);
 
 	/**
@@ -109,7 +109,7 @@ public class SETSMarketDataLoader extends AbstractMarketDataLoader {
 	 * @throws ParseException
 	 * @throws ClassNotFoundException
 	 */
-	private void populateTempTables()
+	protected void populateTempTables()
 	throws NumberFormatException, SQLException, IOException, ParseException, ClassNotFoundException {
 		LOG.info("Populating temp tables...");
 
@@ -149,6 +149,9 @@ public class SETSMarketDataLoader extends AbstractMarketDataLoader {
 	 * @throws SQLException
 	 */
 	private void insertMarketEvents(ResultSet results, boolean hasActionType) throws SQLException {
+		long startNanos = System.nanoTime();
+		long count = 0;
+
 		while(results.next()) {
 			String orderID = results.getString("orderID");
 			char buySellInd = results.getString("buySellInd").charAt(0);
@@ -165,9 +168,25 @@ public class SETSMarketDataLoader extends AbstractMarketDataLoader {
 
 			addMarketEvent(orderID, orderActionType, orderQty, price,
 					buySellInd, messageSequenceNumber, dateTime);
+			count++;
 		}
 		results.close();
 		commitMarketEventBatch();
+
+		logThroughput("Copied market events", count, startNanos);
+	}
+
+	/**
+	 * Logs the number of rows handled by a stage and the rate in rows per second.
+	 * @param stage Name of the stage
+	 * @param rows Number of rows handled
+	 * @param startNanos Start time of the stage, as given by {@link System#nanoTime()}
+	 */
+	protected static void logThroughput(String stage, long rows, long startNanos) {
+		long elapsedNanos = Math.max(1, System.nanoTime() - startNanos);
+
+		LOG.info(stage + ": " + rows + " rows in " + (elapsedNanos / 1000000L) + " ms ("
+				+ (long)(rows * 1e9 / elapsedNanos) + " rows/s)");
 	}
 
 	/**
@@ -263,7 +282,7 @@ public class SETSMarketDataLoader extends AbstractMarketDataLoader {
 	 * @param filepath Filepath of the file to check for existence.
 	 * @return boolean indicating whether or not the file exists.
 	 */
-	private boolean checkFileExists(String filepath) {
+	protected boolean checkFileExists(String filepath) {
 		if(filepath != null) {
 			File file = new File(filepath);
 			if (file.exists())
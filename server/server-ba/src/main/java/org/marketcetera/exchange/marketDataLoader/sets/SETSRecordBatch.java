@@ -0,0 +1,71 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.marketDataLoader.sets;
+
+/**
+ * Batch of parsed SETS CSV records, stored column-wise. Each {@link SETSFile}
+ * only uses the columns of its own record type.
+ * 
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+class SETSRecordBatch {
+	/**
+	 * Batch marking the end of the records of one parser
+	 */
+	static final SETSRecordBatch END = new SETSRecordBatch(null, 0);
+
+	final SETSFile file;
+	final String[] orderIDs;
+	final String[] tradeCodes;
+	final String[] marketMechanismTypes;
+	final char[] orderActionTypes;
+	final char[] buySellInds;
+	final int[] orderQtys;
+	final int[] messageSequenceNumbers;
+	final double[] prices;
+	final long[] dateTimes;
+	int size;
+
+	/**
+	 * Creates an empty batch
+	 * @param file The file the records are parsed from
+	 * @param capacity Maximum number of records in the batch
+	 */
+	SETSRecordBatch(SETSFile file, int capacity) {
+		this.file = file;
+		this.orderIDs = new String[capacity];
+		this.tradeCodes = new String[capacity];
+		this.marketMechanismTypes = new String[capacity];
+		this.orderActionTypes = new char[capacity];
+		this.buySellInds = new char[capacity];
+		this.orderQtys = new int[capacity];
+		this.messageSequenceNumbers = new int[capacity];
+		this.prices = new double[capacity];
+		this.dateTimes = new long[capacity];
+	}
+
+	/**
+	 * Checks whether the batch is full
+	 * @return True if no more records fit in the batch
+	 */
+	boolean isFull() {
+		return size == dateTimes.length;
+	}
+}
@@ -17,7 +17,9 @@
  */
 package org.marketcetera.exchange.marketDataServer;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,8 +43,8 @@ import quickfix.field.Symbol;
 import quickfix.fix44.MarketDataRequest;
 import quickfix.fix44.ResendRequest;
 import org.marketcetera.exchange.backtesting.OrderBook;
+import org.marketcetera.exchange.backtesting.OrderBookRegistry;
 import org.marketcetera.exchange.backtesting.OrderBookSimulator;
-import org.marketcetera.exchange.common.Configuration;
 
 /**
  * Quickfixj Application implementation for the market data server.
@@ -60,7 +62,7 @@ implements quickfix.Application
 	private OrderBookSimulator orderBookSimulator;
 	private Thread orderBookPlaybackThread;
 	private boolean isSimulationRunning = false;
-	private MarketDataReporter marketDataReporter;
+	private Map<String, MarketDataReporter> marketDataReporters;
 	private static final Logger LOG = LoggerFactory.getLogger(MarketDataApplication.class);
 
 	/**
@@ -74,6 +76,7 @@ implements quickfix.Application
 	public MarketDataApplication(SessionSettings settings, OrderBookSimulator orderBookSimulator)
 	throws ConfigError, FieldConvertError {
 		this.orderBookSimulator = orderBookSimulator;
+		this.marketDataReporters = new HashMap<String, MarketDataReporter>();
 		LOG.info("Market Data Server is starting...");
 	}
 
@@ -95,8 +98,10 @@ implements quickfix.Application
 	 * Stops a running simulation (if any) if it the subscription request
 	 * is of type
 	 * {@link quickfix.field.SubscriptionRequestType.DISABLE_PREVIOUS_SNAPSHOT_PLUS_UPDATE_REQUEST}.
-	 * Requests are only accepted if the symbol corresponds to the one configured.
-	 * Other request are ignored.
+	 * Requests are only accepted for symbols with an order book in the
+	 * {@link OrderBookRegistry}, requests without symbol subscribe the
+	 * configured symbol. Each symbol is subscribed once, and the simulation
+	 * is started by the first subscription. Other request are ignored.
 	 */
 	public void onMessage(quickfix.fix44.MarketDataRequest request,
 			SessionID sessionID)
@@ -110,8 +115,10 @@ implements quickfix.Application
 		if(groups.size() > 0)
 			symbol = new Symbol(groups.get(0).getString(Symbol.FIELD));
 
-		if(symbol != null &&
-				!symbol.getValue().toUpperCase().equals(Configuration.getInstance().getSymbol())) {
+		OrderBook orderBook = symbol == null ? OrderBook.getInstance()
+				: OrderBookRegistry.getInstance().getOrderBook(symbol.getValue());
+
+		if(orderBook == null) {
 			LOG.info("Ignored market data request due to illegal symbol.");
 			return;
 		}
@@ -120,16 +127,22 @@ implements quickfix.Application
 		if(subscriptionRequestType.getValue() ==
 			SubscriptionRequestType.SNAPSHOT_PLUS_UPDATES) {
 
+			// requests without symbol share the reporter of the configured symbol
+			String symbolKey = OrderBookRegistry.getInstance().getKey(
+					symbol == null ? null : symbol.getValue());
+
+			if(!marketDataReporters.containsKey(symbolKey)) {
+				MDReqID mdReqID = request.getMDReqID();
+
+				marketDataReporters.put(symbolKey,
+						new MarketDataReporter(sessionID, symbol, mdReqID, orderBook));
+			}
+
 			if(!isSimulationRunning) {
 				isSimulationRunning = true;
 				
 				LOG.info("Starting Simulation");
 				
-				MDReqID mdReqID = request.getMDReqID();
-				
-				marketDataReporter = new MarketDataReporter(sessionID, symbol, mdReqID);
-				OrderBook.getInstance().addObserver(marketDataReporter);
-				
 				orderBookPlaybackThread = new Thread(orderBookSimulator);
 				orderBookPlaybackThread.start();
 			}
@@ -49,17 +49,31 @@ public class MarketDataReporter implements Observer {
 
 	/**
 	 * Creates a reporter instance with for the given session,
-	 * with the given symbol and Market Data Request ID
+	 * with the given symbol and Market Data Request ID, observing
+	 * the order book of the configured symbol
 	 * @param sessionID ID of the session to report to
 	 * @param symbol Symbol to report market data about
 	 * @param mdReqID Market Data Request ID
 	 */
 	public MarketDataReporter(SessionID sessionID, Symbol symbol, MDReqID mdReqID) {
+		this(sessionID, symbol, mdReqID, OrderBook.getInstance());
+	}
+
+	/**
+	 * Creates a reporter instance with for the given session,
+	 * with the given symbol and Market Data Request ID
+	 * @param sessionID ID of the session to report to
+	 * @param symbol Symbol to report market data about
+	 * @param mdReqID Market Data Request ID
+	 * @param orderBook Order book of the symbol to observe
+	 */
+	public MarketDataReporter(SessionID sessionID, Symbol symbol, MDReqID mdReqID,
+			OrderBook orderBook) {
 		this.sessionID = sessionID;
 		this.mdReqID = mdReqID;
 		this.symbol = symbol;
 
-		OrderBook.getInstance().addObserver(this);
+		orderBook.addObserver(this);
 	}
 
 	/**
@@ -18,7 +18,6 @@
 package org.marketcetera.exchange.orderExecutionStrategy;
 
 import quickfix.field.OrdType;
-import org.marketcetera.exchange.common.OrderedMarketEventList;
 import org.marketcetera.exchange.marketEvents.Bid;
 import org.marketcetera.exchange.marketEvents.Fill;
 import org.marketcetera.exchange.marketEvents.MarketEvent;
@@ -69,7 +68,7 @@ public class CcfeaOrderExecutionStrategy implements IOrderExecutionStrategy {
 	 * @return A {@link Fill} or {@link PartialFill} if the order is filled or partially
 	 * fill. If not NULL is returned
 	 */
-	public Fill checkBidForExecution(Bid inBid, OrderedMarketEventList<Offer> offers) {
+	public Fill checkBidForExecution(Bid inBid, Iterable<Offer> offers) {
 		double bidPrice =
 			inBid.getOrderType() != OrdType.MARKET ? inBid.getOrderPrice() : Double.POSITIVE_INFINITY;
 			
@@ -115,7 +114,7 @@ public class CcfeaOrderExecutionStrategy implements IOrderExecutionStrategy {
 	 * @return A {@link Fill} or {@link PartialFill} if the order is filled or partially
 	 * fill. If not NULL is returned
 	 */
-	public Fill checkOfferForExecution(Offer inOffer, OrderedMarketEventList<Bid> bids) {
+	public Fill checkOfferForExecution(Offer inOffer, Iterable<Bid> bids) {
 		boolean isMarketOrder = inOffer.getOrderType() == OrdType.MARKET ? true : false;
 		
 		double offerPrice =	isMarketOrder ? Double.NEGATIVE_INFINITY : inOffer.getOrderPrice();
@@ -17,7 +17,6 @@
  */
 package org.marketcetera.exchange.orderExecutionStrategy;
 
-import org.marketcetera.exchange.common.OrderedMarketEventList;
 import org.marketcetera.exchange.marketEvents.Bid;
 import org.marketcetera.exchange.marketEvents.Fill;
 import org.marketcetera.exchange.marketEvents.Offer;
@@ -35,16 +34,16 @@ public interface IOrderExecutionStrategy {
 	/**
 	 * Check the bid for execution (match) against the given list of offers.
 	 * @param inBid Bid to check for execution
-	 * @param offers Offers to check for execution against
+	 * @param offers Offers to check for execution against, lowest price first
 	 * @return The fill (NULL if it was not filled).
 	 */
-	public Fill checkBidForExecution(Bid inBid, OrderedMarketEventList<Offer> offers);
+	public Fill checkBidForExecution(Bid inBid, Iterable<Offer> offers);
 	
 	/**
 	 * Check the offer for execution (match) against the given list of bids.
 	 * @param inOffer Offer to check for execution
-	 * @param bids Bids to check for execution against
+	 * @param bids Bids to check for execution against, highest price first
 	 * @return The fill (NULL if it was not filled).
 	 */
-	public Fill checkOfferForExecution(Offer inOffer, OrderedMarketEventList<Bid> bids);
+	public Fill checkOfferForExecution(Offer inOffer, Iterable<Bid> bids);
 }
\ No newline at end of file
@@ -50,6 +50,7 @@ import quickfix.fix44.NewOrderSingle;
 import quickfix.fix44.OrderCancelReject;
 import org.marketcetera.exchange.backtesting.ClientPortfolio;
 import org.marketcetera.exchange.backtesting.OrderBook;
+import org.marketcetera.exchange.backtesting.OrderBookRegistry;
 import org.marketcetera.exchange.backtesting.SimulationTime;
 import org.marketcetera.exchange.common.Configuration;
 import org.marketcetera.exchange.marketEvents.Bid;
@@ -102,9 +103,12 @@ implements quickfix.Application
 	/**
 	 * Called when a FIX message of type {@link NewOrderSingle} is received
 	 * from a client. Only orders of type Good Till Cancel are accepted, and
-	 * only for the symbol defined in the configuration file.
+	 * only for symbols with an order book in the {@link OrderBookRegistry}.
 	 * Orders that do not comply with this are rejected.
 	 * 
+	 * The order is matched while holding the lock of the order book of its
+	 * symbol, so the replay of the book cannot change it during the match.
+	 * 
 	 * An execution report is sent either confirming the fill, partial fill
 	 * or placement of new order.
 	 */
@@ -114,9 +118,11 @@ implements quickfix.Application
 		MarketEvent marketEvent = getMarketEventFromMessage(order);
 		String symbol = marketEvent.getSymbol();
 
+		OrderBook orderBook = OrderBookRegistry.getInstance().getOrderBook(symbol);
+
 		boolean isIllegalSymbol = false;
-		//Check that the order comply with the configured symbol and is of type 'GTC'
-		if((isIllegalSymbol = !symbol.equals(Configuration.getInstance().getSymbol()))
+		//Check that the order has a book for its symbol and is of type 'GTC'
+		if((isIllegalSymbol = orderBook == null)
 				|| order.getTimeInForce().getValue() != TimeInForce.GOOD_TILL_CANCEL) {
 			//1 = Unknown symbol, 5 = unknown order
 			int ordRejReason = isIllegalSymbol ? OrdRejReason.UNKNOWN_SYMBOL : OrdRejReason.UNKNOWN_ORDER;
@@ -132,20 +138,22 @@ implements quickfix.Application
 
 		Fill fill = null;
 
-		if(side == Side.BUY)
-			fill = orderExecutionStrategy.checkBidForExecution((Bid)marketEvent, OrderBook.getInstance().getOffers());
-		else if(side == Side.SELL || side == Side.SELL_SHORT)
-			fill = orderExecutionStrategy.checkOfferForExecution((Offer)marketEvent, OrderBook.getInstance().getBids());
-
-		//If it was filled or partially filled add to client portfolio
-		if(fill != null) {
-			if(fill instanceof PartialFill) {
-				clientPortfolio.addPartialFill((PartialFill)fill);
-			}else if(fill instanceof Fill) {
-				clientPortfolio.addFill(fill);
+		synchronized (orderBook) {
+			if(side == Side.BUY)
+				fill = orderExecutionStrategy.checkBidForExecution((Bid)marketEvent, orderBook.getOffers());
+			else if(side == Side.SELL || side == Side.SELL_SHORT)
+				fill = orderExecutionStrategy.checkOfferForExecution((Offer)marketEvent, orderBook.getBids());
+
+			//If it was filled or partially filled add to client portfolio
+			if(fill != null) {
+				if(fill instanceof PartialFill) {
+					clientPortfolio.addPartialFill((PartialFill)fill);
+				}else if(fill instanceof Fill) {
+					clientPortfolio.addFill(fill);
+				}
+			} else {
+				clientPortfolio.addOpenPosition(marketEvent);
 			}
-		} else {
-			clientPortfolio.addOpenPosition(marketEvent);
 		}
 	}
 
@@ -0,0 +1,290 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.report;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Observable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.marketcetera.exchange.backtesting.OrderBook;
+import org.marketcetera.exchange.backtesting.OrderBookRegistry;
+import org.marketcetera.exchange.events.ClientCancelEvent;
+import org.marketcetera.exchange.events.ClientFilledEvent;
+import org.marketcetera.exchange.events.ClientNewPositionEvent;
+import org.marketcetera.exchange.events.SimulationStartedEvent;
+import org.marketcetera.exchange.marketEvents.MarketEvent;
+import org.marketcetera.exchange.marketEvents.MarketEventFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Report that hands the events to another report on a background thread, so
+ * formatting and file I/O of the report no longer run on the simulator or order
+ * server threads.
+ * 
+ * Events are put in a bounded queue (ring buffer) and the writer thread hands them
+ * to the wrapped report in batches, in the order they were observed. When the queue
+ * is full the {@link ReportBackpressure} policy decides whether to wait or to drop
+ * the event. Only the market events of the order books are ever dropped, client
+ * events such as fills always wait for room. {@link #stop()} waits until all queued
+ * events are written before it stops the wrapped report.
+ * 
+ * New positions may still be matched after they are queued, so they are handed to
+ * the wrapped report as a copy taken when the event was observed.
+ * 
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ * 
+ * @see Report
+ */
+public class AsyncReport extends Report {
+	/**
+	 * Maximum number of events the writer takes from the queue at a time
+	 */
+	private static final int BATCH_SIZE = 256;
+	private static final Logger LOG = LoggerFactory.getLogger(AsyncReport.class);
+	private final ReportEvent stopEvent = new ReportEvent(null, null);
+	private final Report report;
+	private final BlockingQueue<ReportEvent> queue;
+	private final ReportBackpressure backpressure;
+	private final Thread writerThread;
+	private final AtomicLong droppedEvents = new AtomicLong();
+
+	/**
+	 * Creates an asynchronous report around the given report and starts the writer
+	 * thread. If the given report observes the order books itself, it is replaced
+	 * by this report as observer of every book of the {@link OrderBookRegistry},
+	 * including books registered later, so the order book events pass the queue too.
+	 * @param report The report to write on the background thread
+	 * @param queueCapacity Number of events the queue can hold
+	 * @param backpressure Policy used when the queue is full
+	 */
+	public AsyncReport(Report report, int queueCapacity, ReportBackpressure backpressure) {
+		super(report.getReportPath(), report.getReportBaseName(), report.getFileExtension());
+
+		this.report = report;
+		this.queue = new ArrayBlockingQueue<ReportEvent>(queueCapacity);
+		this.backpressure = backpressure;
+
+		OrderBookRegistry registry = OrderBookRegistry.getInstance();
+		OrderBook orderBook = OrderBook.getInstance();
+		int observers = orderBook.countObservers();
+		orderBook.deleteObserver(report);
+		boolean observing = orderBook.countObservers() < observers;
+		if(registry.removeObserver(report) || observing) {
+			registry.addObserver(this);
+			//The book of the configured symbol may not be registered yet
+			orderBook.addObserver(this);
+		}
+
+		this.writerThread = new Thread(new Writer(), "AsyncReport-" + report.getReportBaseName());
+		this.writerThread.setDaemon(true);
+		this.writerThread.start();
+	}
+
+	/**
+	 * Queues the event for the wrapped report
+	 */
+	@Override
+	public void update(Observable o, Object arg) {
+		if(arg instanceof ClientNewPositionEvent)
+			arg = new ClientNewPositionEvent(copy(((ClientNewPositionEvent)arg).getMarketEvent()));
+
+		ReportEvent reportEvent = new ReportEvent(o, arg);
+
+		//Fills and the other client events are never dropped
+		if(backpressure == ReportBackpressure.DROP && arg instanceof MarketEvent) {
+			if(!queue.offer(reportEvent))
+				droppedEvents.incrementAndGet();
+		}
+		else
+			put(reportEvent);
+	}
+
+	/**
+	 * Queues a start of the wrapped report
+	 */
+	@Override
+	public void start() {
+		update(null, new SimulationStartedEvent());
+	}
+
+	/**
+	 * Waits until all queued events are written, then stops the wrapped report
+	 * on the writer thread.
+	 */
+	@Override
+	public void stop() {
+		if(!writerThread.isAlive())
+			return;
+
+		put(stopEvent);
+
+		try {
+			writerThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOG.error("Interrupted while waiting for the '" + getReportBaseName()
+					+ "' report to be written: " + e.toString());
+		}
+
+		if(droppedEvents.get() > 0)
+			LOG.warn("The '" + getReportBaseName() + "' report dropped "
+					+ droppedEvents.get() + " events because its queue was full");
+	}
+
+	/**
+	 * Queues the event for the wrapped report
+	 * @see Report#onClientFilledEvent(ClientFilledEvent)
+	 */
+	@Override
+	public void onClientFilledEvent(ClientFilledEvent clientFilledEvent) {
+		update(null, clientFilledEvent);
+	}
+
+	/**
+	 * Queues the event for the wrapped report
+	 * @see Report#onClientCancelPositionEvent(ClientCancelEvent)
+	 */
+	@Override
+	public void onClientCancelPositionEvent(ClientCancelEvent clientCancelEvent) {
+		update(null, clientCancelEvent);
+	}
+
+	/**
+	 * Queues the event for the wrapped report
+	 * @see Report#onClientNewPositionEvent(ClientNewPositionEvent)
+	 */
+	@Override
+	public void onClientNewPositionEvent(ClientNewPositionEvent clientNewPositionEvent) {
+		update(null, clientNewPositionEvent);
+	}
+
+	/**
+	 * Get the wrapped report
+	 * @return The report written on the background thread
+	 */
+	public Report getReport() {
+		return report;
+	}
+
+	/**
+	 * Get the number of events dropped because the queue was full
+	 * @return Number of dropped events
+	 */
+	public long getDroppedEvents() {
+		return droppedEvents.get();
+	}
+
+	/**
+	 * Puts the event in the queue, waiting for room if necessary
+	 * @param reportEvent Event to queue
+	 */
+	private void put(ReportEvent reportEvent) {
+		try {
+			queue.put(reportEvent);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOG.error("Interrupted while queuing an event for the '" + getReportBaseName()
+					+ "' report: " + e.toString());
+		}
+	}
+
+	/**
+	 * Copies the given position with its current quantities and prices
+	 * @param marketEvent Position to copy
+	 * @return The copy
+	 */
+	private static MarketEvent copy(MarketEvent marketEvent) {
+		MarketEvent copy = MarketEventFactory.getMarketEvent(marketEvent, marketEvent.getSide());
+
+		if(copy == null)
+			return marketEvent;
+
+		copy.setCumQty(marketEvent.getCumQty());
+		copy.setAvgPrice(marketEvent.getAvgPrice());
+		copy.setExecPrice(marketEvent.getExecPrice());
+		copy.setExecQty(marketEvent.getExecQty());
+
+		return copy;
+	}
+
+	/**
+	 * Event observed by the report, together with its source
+	 * @author Daniel Schiermer
+	 */
+	private static class ReportEvent {
+		private final Observable observable;
+		private final Object event;
+
+		/**
+		 * Creates the event
+		 * @param observable The observed object
+		 * @param event The event
+		 */
+		ReportEvent(Observable observable, Object event) {
+			this.observable = observable;
+			this.event = event;
+		}
+	}
+
+	/**
+	 * Writer thread taking the events from the queue and handing them to the
+	 * wrapped report until the stop event is taken.
+	 * @author Daniel Schiermer
+	 */
+	private class Writer implements Runnable {
+		/**
+		 * Takes the events in batches and hands them to the wrapped report
+		 */
+		@Override
+		public void run() {
+			List<ReportEvent> batch = new ArrayList<ReportEvent>(BATCH_SIZE);
+
+			try {
+				while(true) {
+					batch.add(queue.take());
+					queue.drainTo(batch, BATCH_SIZE - 1);
+
+					for(ReportEvent reportEvent : batch) {
+						if(reportEvent == stopEvent) {
+							report.stop();
+							return;
+						}
+
+						try {
+							report.update(reportEvent.observable, reportEvent.event);
+						} catch (RuntimeException e) {
+							//Keep draining the queue, a stuck writer would block the simulation
+							LOG.error("Problem writing an event to the '" + getReportBaseName()
+									+ "' report: " + e.toString());
+						}
+					}
+
+					batch.clear();
+				}
+			} catch (InterruptedException e) {
+				LOG.error("Writer of the '" + getReportBaseName()
+						+ "' report interrupted: " + e.toString());
+			}
+		}
+	}
+}
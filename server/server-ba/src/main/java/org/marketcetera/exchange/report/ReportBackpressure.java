@@ -0,0 +1,40 @@
+/*
+ * CATSBF CCFEA Algorithmic Trading Strategy Backtesting Framework
+ * Copyright (C) 2011 Daniel Schiermer
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.marketcetera.exchange.report;
+
+/**
+ * Policies for an {@link AsyncReport} whose queue is full.
+ *
+ * @author <a href="mailto:catsbf@dasch.dk">Daniel Schiermer</a>
+ * @version 0.1
+ *
+ */
+public enum ReportBackpressure {
+	/**
+	 * Waits until the report writer has made room for the event. No events are lost,
+	 * but the simulation is slowed down to the pace of the writer.
+	 */
+	BLOCK,
+	/**
+	 * Discards the market event of an order book. The simulation is not held up by
+	 * the order book events, but the report misses some of them. Client events such
+	 * as fills are never discarded, they wait as with {@link #BLOCK}. The number of
+	 * discarded events is logged when the report is stopped.
+	 */
+	DROP
+}
@@ -0,0 +1,73 @@
+package org.marketcetera.server.ba;
+
+/**
+ * MBean interface exposing the queue metrics of the message
+ * processor of one broker.
+ */
+public interface MessageProcessorMBean {
+
+    /**
+     * Returns the number of workers of each lane.
+     *
+     * @return an <code>int</code> value
+     */
+	public int getPartitions();
+
+    /**
+     * Returns the capacity of the queue of each worker.
+     *
+     * @return an <code>int</code> value
+     */
+	public int getQueueCapacity();
+
+    /**
+     * Returns the number of messages queued in the order lane.
+     *
+     * @return an <code>int</code> value
+     */
+	public int getOrderQueueDepth();
+
+    /**
+     * Returns the number of messages queued in the market data lane.
+     *
+     * @return an <code>int</code> value
+     */
+	public int getMarketDataQueueDepth();
+
+    /**
+     * Returns the largest depth reached by a queue of the order lane.
+     *
+     * @return an <code>int</code> value
+     */
+	public int getMaxOrderQueueDepth();
+
+    /**
+     * Returns the largest depth reached by a queue of the market data lane.
+     *
+     * @return an <code>int</code> value
+     */
+	public int getMaxMarketDataQueueDepth();
+
+    /**
+     * Returns the number of messages processed since start.
+     *
+     * @return a <code>long</code> value
+     */
+	public long getProcessedMessages();
+
+    /**
+     * Returns the number of messages which had to wait for room in a
+     * full queue.
+     *
+     * @return a <code>long</code> value
+     */
+	public long getBlockedMessages();
+
+    /**
+     * Returns the number of market data requests dropped because their
+     * queue was full.
+     *
+     * @return a <code>long</code> value
+     */
+	public long getDroppedMessages();
+}
@@ -170,4 +170,7 @@ public interface Messages
     
     static final I18NMessage0P CLIENT_ERROR_CONNECTION=
             new I18NMessage0P(LOGGER,"client_error_connection"); //$NON-NLS-1$
+    
+    static final I18NMessage1P QF_MARKET_DATA_DROPPED=
+            new I18NMessage1P(LOGGER,"qf_market_data_dropped"); //$NON-NLS-1$
 }
@@ -2,9 +2,11 @@ package org.marketcetera.server.ba;
 
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.BlockingDeque;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.marketcetera.server.ba.brokers.Broker;
@@ -31,6 +33,11 @@ public class QuickFIXApplication
     // CLASS DATA
     private static final String HEARTBEAT_CATEGORY=
     		QuickFIXApplication.class.getName()+".HEARTBEATS"; //$NON-NLS-1$
+    private static final String PARTITIONS_PROPERTY="ProcessorPartitions"; //$NON-NLS-1$
+    private static final String QUEUE_CAPACITY_PROPERTY="ProcessorQueueCapacity"; //$NON-NLS-1$
+    private static final int DEFAULT_PARTITIONS=4;
+    private static final int DEFAULT_QUEUE_CAPACITY=10000;
+    private static final int ROOT_ID_CAPACITY=100000;
     
     // INSTANCE DATA.
     private final SystemInfo mSystemInfo;
@@ -73,6 +80,17 @@ public class QuickFIXApplication
         return mSupportedMessages;
     }
 
+    /**
+     * Gets the message processor metrics of the given broker.
+     *
+     * @param b the broker
+     * @return a <code>MessageProcessorMBean</code> value
+     */
+    public MessageProcessorMBean getMessageProcessor(Broker b)
+    {
+        return messageProcessors.get(b);
+    }
+
     private Object getCategory
         (Message msg)
     {
@@ -304,121 +322,431 @@ public class QuickFIXApplication
         private static final AtomicLong counter = new AtomicLong(0);
     }
     /**
-     * Processes incoming messages.
+     * Processes the given incoming message.
+     *
+     * @param message the message
+     * @throws FieldNotFound if a required field is missing
      */
-    private class MessageProcessor
-            implements Runnable
+    private void processMessage(MessagePackage message)
+            throws FieldNotFound
     {
-        /* (non-Javadoc)
-         * @see java.lang.Runnable#run()
-         */
-        @Override
-        public void run()
-        {
-            try {
-                while(true) {
-                    MessagePackage message = messagesToProcess.take();
-                    SessionID session = message.getSessionId();
-                    Message msg = message.getMessage();
-                    Broker b = getBrokers().getBroker(session);
-                    
-                	// Convert reply to FIX Agnostic message (unless it's a heartbeat)
-            		if(FIXMessageUtil.isHeartbeat(msg)) {
-            			continue;
-            		}
-            		
-                    // Report trading session status in a human-readable format.
-                    if (FIXMessageUtil.isTradingSessionStatus(msg)) {
-                        Messages.QF_TRADE_SESSION_STATUS.info(getCategory(msg),
-                                                              b.getFIXDataDictionary().getHumanFieldValue(TradSesStatus.FIELD,
-                                                              msg.getString(TradSesStatus.FIELD)));
-                        continue;
+        SessionID session = message.getSessionId();
+        Message msg = message.getMessage();
+        Broker b = getBrokers().getBroker(session);
+
+        // Convert reply to FIX Agnostic message (unless it's a heartbeat)
+        if(FIXMessageUtil.isHeartbeat(msg)) {
+            return;
+        }
+
+        // Report trading session status in a human-readable format.
+        if (FIXMessageUtil.isTradingSessionStatus(msg)) {
+            Messages.QF_TRADE_SESSION_STATUS.info(getCategory(msg),
+                                                  b.getFIXDataDictionary().getHumanFieldValue(TradSesStatus.FIELD,
+                                                  msg.getString(TradSesStatus.FIELD)));
+            return;
+        }
+
+        // Record unknown data received
+        if (FIXMessageUtil.isMarketDataIncrementalRefresh(msg)) {
+            Messages.QF_RECEIVE_UNKNOWN_DATA.info(getCategory(msg),msg);
+            return;
+        }
+
+        switch(message.getMessageType()) {
+            case FROM_APP: {
+                try {
+                    // OpenFIX certification: we reject all DeliverToCompID since we don't re-deliver.
+                    if (msg.getHeader().isSetField(DeliverToCompID.FIELD)) {
+                        try {
+                            Message reject = b.getFIXMessageFactory().createSessionReject(msg,
+                                                                                          SessionRejectReason.COMPID_PROBLEM);
+                            reject.setString(Text.FIELD,
+                                             Messages.QF_COMP_ID_REJECT.getText(msg.getHeader().getString(DeliverToCompID.FIELD)));
+                            b.sendToTarget(reject);
+                        } catch (SessionNotFound ex) {
+                            Messages.QF_COMP_ID_REJECT_FAILED.error(getCategory(msg),
+                                                                    ex, b.toString());
+                        }
+                        break;
                     }
-                    
-            		// Record unknown data received
-                	if (FIXMessageUtil.isMarketDataIncrementalRefresh(msg)) {
-                    	Messages.QF_RECEIVE_UNKNOWN_DATA.info(getCategory(msg),msg);
-                    	continue;
+
+                    // FIX Send Requests
+                    if (FIXMessageUtil.isOrderSingle(msg) ||
+                            FIXMessageUtil.isCancelReplaceRequest(msg) ||
+                            FIXMessageUtil.isCancelRequest(msg) ||
+                            FIXMessageUtil.isMarketDataRequest(msg)) {
+                        // Send message to broker API.
+                        b.receiveMessage(msg, session);
+                        break;
                     }
-                    
-                    switch(message.getMessageType()) {
-                        case FROM_APP: {
-                            try {
-                                // OpenFIX certification: we reject all DeliverToCompID since we don't re-deliver.
-                                if (msg.getHeader().isSetField(DeliverToCompID.FIELD)) {
-                                    try {
-                                        Message reject = b.getFIXMessageFactory().createSessionReject(msg,
-                                                                                                      SessionRejectReason.COMPID_PROBLEM);
-                                        reject.setString(Text.FIELD,
-                                                         Messages.QF_COMP_ID_REJECT.getText(msg.getHeader().getString(DeliverToCompID.FIELD)));
-                                        b.sendToTarget(reject);
-                                    } catch (SessionNotFound ex) {
-                                        Messages.QF_COMP_ID_REJECT_FAILED.error(getCategory(msg),
-                                                                                ex, b.toString());
-                                    }
-                                    break;
-                                }
-                                
-                                // FIX Send Requests
-                                if (FIXMessageUtil.isOrderSingle(msg) ||
-                                		FIXMessageUtil.isCancelReplaceRequest(msg) ||
-                                		FIXMessageUtil.isCancelRequest(msg) ||
-                                		FIXMessageUtil.isMarketDataRequest(msg)) {
-                                    // Send message to broker API.
-                                    b.receiveMessage(msg, session);
-                                    break;
-                                }
-                                
-                                // API Send Requests
-                                if(FIXMessageUtil.isXMLMessage(msg)){
-                                    // Send message to broker API.
-                                    b.receiveMessage(msg, session);
-	                                break;
-                                }
-                                
-                                Messages.QF_RECEIVE_UNKNOWN_DATA.error(this, msg);
-                                break;
-                            } catch (FieldNotFound e) {
-                                SLF4JLoggerProxy.error(QuickFIXApplication.class, e);
-                            }
-                            break;
-                        }
-                        case FROM_ADMIN: {
-                            Messages.QF_FROM_ADMIN.info(getCategory(msg), msg, b);
-                            b.logMessage(msg);
-                            
-                            // Send message to broker API.
-                            b.receiveMessage(msg, session);
-                            break;
-                        }
-                        default:
-                            throw new UnsupportedOperationException();
+
+                    // API Send Requests
+                    if(FIXMessageUtil.isXMLMessage(msg)){
+                        // Send message to broker API.
+                        b.receiveMessage(msg, session);
+                        break;
                     }
+
+                    Messages.QF_RECEIVE_UNKNOWN_DATA.error(this, msg);
+                    break;
+                } catch (FieldNotFound e) {
+                    SLF4JLoggerProxy.error(QuickFIXApplication.class, e);
                 }
-            } catch (Exception ignored) {}
+                break;
+            }
+            case FROM_ADMIN: {
+                Messages.QF_FROM_ADMIN.info(getCategory(msg), msg, b);
+                b.logMessage(msg);
+
+                // Send message to broker API.
+                b.receiveMessage(msg, session);
+                break;
+            }
+            default:
+                throw new UnsupportedOperationException();
         }
+    }
+    /**
+     * Processes the incoming messages of one broker.
+     *
+     * Market data requests and order messages are processed in separate
+     * lanes, each served by a pool of workers with a bounded queue. Order
+     * messages are partitioned by the root ClOrdID of their order chain
+     * and market data requests by request ID, so the messages of one order
+     * chain or one data request are processed in sequence by the same
+     * worker. Admin messages are not queued, as
+     * {@link QuickFIXApplication#fromAdmin(Message, SessionID)} only
+     * checks the logon on the session thread.
+     *
+     * A full order queue blocks the session thread until the worker
+     * catches up, so no order message is lost. A full market data queue
+     * never blocks it, so market data requests cannot hold up the orders:
+     * the request is dropped and counted instead.
+     *
+     * The lanes are configured by the broker descriptor properties
+     * <code>ProcessorPartitions</code> and <code>ProcessorQueueCapacity</code>.
+     */
+    private class MessageProcessor
+            implements MessageProcessorMBean
+    {
         /**
          * Create a new MessageProcessor instance.
          */
         private MessageProcessor(Broker b)
         {
-        	messagesToProcess = new LinkedBlockingDeque<>();
-            thread = new Thread(this, "QFJ Broker: " + b.getName()); //$NON-NLS-1$
-            thread.start();
+            partitions = getIntProperty(b, PARTITIONS_PROPERTY, DEFAULT_PARTITIONS);
+            queueCapacity = getIntProperty(b, QUEUE_CAPACITY_PROPERTY, DEFAULT_QUEUE_CAPACITY);
+            orderWorkers = new Worker[partitions];
+            marketDataWorkers = new Worker[partitions];
+            for(int i = 0; i < partitions; i++) {
+                orderWorkers[i] = new Worker(b.getName() + " orders-" + i, true); //$NON-NLS-1$
+                marketDataWorkers[i] = new Worker(b.getName() + " data-" + i, false); //$NON-NLS-1$
+            }
         }
         /**
-         * Add the message to the queue.
+         * Add the message to the queue of its partition, waiting for
+         * room if the order queue is full.
          */
         private void add(MessagePackage message){
-        	messagesToProcess.add(message);
+            Message msg = message.getMessage();
+            try {
+                if(FIXMessageUtil.isMarketDataRequest(msg)) {
+                    marketDataWorkers[partition(getMarketDataKey(msg))].add(message);
+                } else {
+                    orderWorkers[partition(getOrderChainKey(msg))].add(message);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        /**
+         * Returns the partition of the given key.
+         */
+        private int partition(String key)
+        {
+            if(key == null) {
+                return 0;
+            }
+            return (key.hashCode() & Integer.MAX_VALUE) % partitions;
+        }
+        /**
+         * Returns the partition key of a market data request: its
+         * request ID, or its symbol if it has none.
+         */
+        private String getMarketDataKey(Message msg)
+        {
+            try {
+                if(msg.isSetField(MDReqID.FIELD)) {
+                    return msg.getString(MDReqID.FIELD);
+                }
+                if(msg.isSetField(Symbol.FIELD)) {
+                    return msg.getString(Symbol.FIELD);
+                }
+            } catch (FieldNotFound ignore) {}
+            return null;
+        }
+        /**
+         * Returns the partition key of an order message: the root
+         * ClOrdID of its order chain, as far as the chain was seen by
+         * this processor, else the order ID or symbol.
+         */
+        private String getOrderChainKey(Message msg)
+        {
+            try {
+                if(msg.isSetField(ClOrdID.FIELD)) {
+                    String clOrdID = msg.getString(ClOrdID.FIELD);
+                    String parentID = msg.isSetField(OrigClOrdID.FIELD) ?
+                        msg.getString(OrigClOrdID.FIELD) : clOrdID;
+                    synchronized(rootIDs) {
+                        String rootID = rootIDs.get(parentID);
+                        if(rootID == null) {
+                            rootID = parentID;
+                        }
+                        rootIDs.put(clOrdID, rootID);
+                        return rootID;
+                    }
+                }
+                if(msg.isSetField(OrderID.FIELD)) {
+                    return msg.getString(OrderID.FIELD);
+                }
+                if(msg.isSetField(Symbol.FIELD)) {
+                    return msg.getString(Symbol.FIELD);
+                }
+            } catch (FieldNotFound ignore) {}
+            return null;
+        }
+        /* (non-Javadoc)
+         * @see org.marketcetera.server.ba.MessageProcessorMBean#getPartitions()
+         */
+        @Override
+        public int getPartitions()
+        {
+            return partitions;
+        }
+        /* (non-Javadoc)
+         * @see org.marketcetera.server.ba.MessageProcessorMBean#getQueueCapacity()
+         */
+        @Override
+        public int getQueueCapacity()
+        {
+            return queueCapacity;
+        }
+        /* (non-Javadoc)
+         * @see org.marketcetera.server.ba.MessageProcessorMBean#getOrderQueueDepth()
+         */
+        @Override
+        public int getOrderQueueDepth()
+        {
+            int depth = 0;
+            for(Worker worker:orderWorkers) {
+                depth += worker.queue.size();
+            }
+            return depth;
+        }
+        /* (non-Javadoc)
+         * @see org.marketcetera.server.ba.MessageProcessorMBean#getMarketDataQueueDepth()
+         */
+        @Override
+        public int getMarketDataQueueDepth()
+        {
+            int depth = 0;
+            for(Worker worker:marketDataWorkers) {
+                depth += worker.queue.size();
+            }
+            return depth;
+        }
+        /* (non-Javadoc)
+         * @see org.marketcetera.server.ba.MessageProcessorMBean#getMaxOrderQueueDepth()
+         */
+        @Override
+        public int getMaxOrderQueueDepth()
+        {
+            int depth = 0;
+            for(Worker worker:orderWorkers) {
+                depth = Math.max(depth, worker.maxDepth.get());
+            }
+            return depth;
+        }
+        /* (non-Javadoc)
+         * @see org.marketcetera.server.ba.MessageProcessorMBean#getMaxMarketDataQueueDepth()
+         */
+        @Override
+        public int getMaxMarketDataQueueDepth()
+        {
+            int depth = 0;
+            for(Worker worker:marketDataWorkers) {
+                depth = Math.max(depth, worker.maxDepth.get());
+            }
+            return depth;
+        }
+        /* (non-Javadoc)
+         * @see org.marketcetera.server.ba.MessageProcessorMBean#getProcessedMessages()
+         */
+        @Override
+        public long getProcessedMessages()
+        {
+            return processed.get();
+        }
+        /* (non-Javadoc)
+         * @see org.marketcetera.server.ba.MessageProcessorMBean#getBlockedMessages()
+         */
+        @Override
+        public long getBlockedMessages()
+        {
+            return blocked.get();
+        }
+        /* (non-Javadoc)
+         * @see org.marketcetera.server.ba.MessageProcessorMBean#getDroppedMessages()
+         */
+        @Override
+        public long getDroppedMessages()
+        {
+            return dropped.get();
         }
         /**
-         * thread on which the messages are processed
+         * number of workers of each lane
+         */
+        private final int partitions;
+        /**
+         * capacity of the queue of each worker
          */
-        private final Thread thread;
+        private final int queueCapacity;
         /**
-         * the list of messages to be processed
+         * the workers of the order lane
          */
-        private final BlockingDeque<MessagePackage> messagesToProcess;
+        private final Worker[] orderWorkers;
+        /**
+         * the workers of the market data lane
+         */
+        private final Worker[] marketDataWorkers;
+        /**
+         * the root ClOrdID of the most recently seen ClOrdIDs
+         */
+        @SuppressWarnings("serial")
+        private final Map<String,String> rootIDs = new LinkedHashMap<String,String>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String,String> eldest)
+            {
+                return size() > ROOT_ID_CAPACITY;
+            }
+        };
+        /**
+         * number of messages processed
+         */
+        private final AtomicLong processed = new AtomicLong();
+        /**
+         * number of messages which waited for room in a full queue
+         */
+        private final AtomicLong blocked = new AtomicLong();
+        /**
+         * number of market data requests dropped by a full queue
+         */
+        private final AtomicLong dropped = new AtomicLong();
+        /**
+         * Processes the messages of one partition in queue order.
+         */
+        private class Worker
+                implements Runnable
+        {
+            /**
+             * Create a new Worker instance.
+             */
+            private Worker(String name,
+                           boolean inBlocking)
+            {
+                blocking = inBlocking;
+                queue = new ArrayBlockingQueue<>(queueCapacity);
+                thread = new Thread(this, "QFJ Broker: " + name); //$NON-NLS-1$
+                thread.start();
+            }
+            /**
+             * Add the message to the queue. If the queue is full, a
+             * blocking worker waits for room and any other worker drops
+             * the message.
+             */
+            private void add(MessagePackage message)
+                    throws InterruptedException
+            {
+                if(!queue.offer(message)) {
+                    if(!blocking) {
+                        dropped.incrementAndGet();
+                        if(!dropping) {
+                            dropping = true;
+                            Messages.QF_MARKET_DATA_DROPPED.warn(QuickFIXApplication.class,
+                                                                 thread.getName());
+                        }
+                        return;
+                    }
+                    blocked.incrementAndGet();
+                    queue.put(message);
+                }
+                dropping = false;
+                int depth = queue.size();
+                int max = maxDepth.get();
+                while(depth > max && !maxDepth.compareAndSet(max, depth)) {
+                    max = maxDepth.get();
+                }
+            }
+            /* (non-Javadoc)
+             * @see java.lang.Runnable#run()
+             */
+            @Override
+            public void run()
+            {
+                while(true) {
+                    MessagePackage message;
+                    try {
+                        message = queue.take();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    try {
+                        processMessage(message);
+                    } catch (Exception e) {
+                        SLF4JLoggerProxy.error(QuickFIXApplication.class, e);
+                    }
+                    processed.incrementAndGet();
+                }
+            }
+            /**
+             * whether a full queue blocks the caller rather than dropping
+             * the message
+             */
+            private final boolean blocking;
+            /**
+             * whether messages are being dropped since the queue was last
+             * found with room, only accessed from the session thread
+             */
+            private boolean dropping;
+            /**
+             * thread on which the messages are processed
+             */
+            private final Thread thread;
+            /**
+             * the messages to be processed
+             */
+            private final BlockingQueue<MessagePackage> queue;
+            /**
+             * the largest depth reached by the queue
+             */
+            private final AtomicInteger maxDepth = new AtomicInteger();
+        }
+    }
+    /**
+     * Returns the integer value of the given broker descriptor property.
+     *
+     * @param b the broker
+     * @param name the property name
+     * @param defaultValue the value if the property is not set
+     * @return an <code>int</code> value
+     */
+    private static int getIntProperty(Broker b, String name, int defaultValue)
+    {
+        String value = b.getDescriptor().getProperty(name);
+        if(value == null) {
+            return defaultValue;
+        }
+        return Math.max(1, Integer.parseInt(value.trim()));
     }
 }
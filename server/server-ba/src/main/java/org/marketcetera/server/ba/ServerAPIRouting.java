@@ -1,8 +1,13 @@
 package org.marketcetera.server.ba;
 
 import java.io.File;
+import java.lang.management.ManagementFactory;
 import java.util.Date;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
 import org.apache.log4j.PropertyConfigurator;
 import org.marketcetera.server.ba.brokers.Broker;
 import org.marketcetera.server.ba.brokers.Brokers;
@@ -42,6 +47,7 @@ public class ServerAPIRouting
     // CLASS DATA.
     private static final Class<?> LOGGER_CATEGORY = ServerAPIRouting.class;
     private static final String APP_CONTEXT_CFG_BASE = "file:" + CONF_DIR + "properties.xml"; //$NON-NLS-1$ //$NON-NLS-2$
+    private static final String PROCESSOR_JMX_NAME = "org.marketcetera.server.ba:type=MessageProcessor,name="; //$NON-NLS-1$
     
     // INSTANCE DATA.
     private ApplicationContainer mApplication;
@@ -108,6 +114,14 @@ public class ServerAPIRouting
         		acceptorSettings.getQLogFactory(),
         		new DefaultMessageFactory());
         mAcceptor.start();
+
+        // Initiate JMX (for application MBeans).
+        MBeanServer mbeanServer=ManagementFactory.getPlatformMBeanServer();
+        for(Broker b:getBrokers().getBrokers()){
+            mbeanServer.registerMBean(new StandardMBean(mQFApp.getMessageProcessor(b),
+                                                        MessageProcessorMBean.class),
+                                      new ObjectName(PROCESSOR_JMX_NAME+ObjectName.quote(b.getName())));
+        }
     }
 
     // INSTANCE METHODS.    
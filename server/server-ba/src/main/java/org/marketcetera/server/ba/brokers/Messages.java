@@ -79,6 +79,8 @@ public interface Messages
             new I18NMessage1P(LOGGER,"dk_error_response_trade"); //$NON-NLS-1$
     static final I18NMessage1P DK_ERROR_TRADE_NOTFOUND=
             new I18NMessage1P(LOGGER,"dk_error_trade_notfound"); //$NON-NLS-1$
+    static final I18NMessage1P DK_COMMAND_TIMEOUT=
+            new I18NMessage1P(LOGGER,"dk_command_timeout"); //$NON-NLS-1$
     
     static final I18NMessage0P NO_ID_FACTORY=
             new I18NMessage0P(LOGGER,"no_id_factory"); //$NON-NLS-1$
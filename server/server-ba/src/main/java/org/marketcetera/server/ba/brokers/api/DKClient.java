@@ -1,5 +1,6 @@
 package org.marketcetera.server.ba.brokers.api;
 
+import java.lang.management.ManagementFactory;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Date;
@@ -7,9 +8,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 import javax.persistence.Transient;
 
 import org.marketcetera.core.CoreException;
@@ -108,7 +110,7 @@ public class DKClient implements ClientKernel, Runnable
 	private IClient mDKClient;
 	
 	@Transient
-	private DKStrategy mDKStrategy;
+	private volatile DKStrategy mDKStrategy;
 	
 	@Transient
 	private Map<SessionID,Broker> mSessionIDMap=Maps.newConcurrentMap();
@@ -118,6 +120,13 @@ public class DKClient implements ClientKernel, Runnable
      */
     private static final long BROKER_CHECK_FREQUENCY = 45000;
     
+    /**
+     * how long a command may wait for the API to run it (in ms)
+     */
+    private static final long COMMAND_TIMEOUT = 30000;
+    
+    private static final String PIPELINE_JMX_NAME = "org.marketcetera.server.ba:type=DKPipeline,name="; //$NON-NLS-1$
+    
     /**
      * The label of the execution
      */
@@ -143,6 +152,33 @@ public class DKClient implements ClientKernel, Runnable
 	 */
 	private final InMemoryIDFactory mIDFactory = new InMemoryIDFactory(100, "dk");
 	
+	/**
+	 * The submission pipeline to the API
+	 */
+	private final DKPipeline mPipeline = new DKPipeline(new DKPipeline.Handler() {
+		@Override
+		public void execute(Callable<Void> task)
+				throws Exception
+		{
+			getDKStrategy().getContext().executeTask(task);
+		}
+
+		@Override
+		public void process(Message msg)
+				throws Exception
+		{
+			requestFIXToAPI(msg);
+		}
+
+		@Override
+		public void reject(Message msg, SessionID sessionID, Throwable cause)
+		{
+			Session session = Session.lookupSession(sessionID);
+			Message reject = session.getMessageFactory().create(MsgType.REJECT, Messages.ERROR_REQUEST_PROCESS.getText(msg, cause));
+			session.send(reject);
+		}
+	});
+	
     // INSTANCE METHODS.   
 	/**
      * Sets the broker's url to the given value.
@@ -320,6 +356,16 @@ public class DKClient implements ClientKernel, Runnable
         return mIDFactory;
     }
     
+    /**
+     * Returns the receiver's submission pipeline.
+     *
+     * @return The pipeline.
+     */
+    private DKPipeline getPipeline()
+    {
+        return mPipeline;
+    }
+    
 	/**
 	 * Receive a message to the broker's session.
 	 *  
@@ -345,22 +391,8 @@ public class DKClient implements ClientKernel, Runnable
  			session.send(reject);
  		}
  		
- 		//Process the FIX message
- 		synchronized (lock()) {
- 			try {
-	 			Future<Void> future = getDKStrategy().getContext().executeTask(new Callable<Void>() {
-		            public Void call() throws Exception {
-		            	requestFIXToAPI(msg);
-		            	return null;
-		            }
-			    });
-			    future.get();
- 			} catch (Throwable t) {
- 				Session session = Session.lookupSession(sessionID);
- 	 			Message reject = session.getMessageFactory().create(MsgType.REJECT, Messages.ERROR_REQUEST_PROCESS.getText(msg, t));
- 	 			session.send(reject);
-			}
- 		}
+ 		//Process the FIX message, rejecting it once processed if it fails
+ 		getPipeline().submit(msg, sessionID);
  	}
     
     // InitializingBean.
@@ -386,6 +418,14 @@ public class DKClient implements ClientKernel, Runnable
         
         mSessionIDMap.put(getDataBroker().getSessionID(),getDataBroker());
         mSessionIDMap.put(getTradeBroker().getSessionID(),getTradeBroker());
+        
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(
+                    new StandardMBean(getPipeline(), DKPipelineMBean.class),
+                    new ObjectName(PIPELINE_JMX_NAME + ObjectName.quote(getTradeBroker().getName())));
+        } catch (Exception e) {
+            SLF4JLoggerProxy.warn(DKClient.class, e);
+        }
     }
 
     /**
@@ -460,6 +500,8 @@ public class DKClient implements ClientKernel, Runnable
 		        }
 			}catch(Throwable ignore){}	
 		}
+		//Release the commands the API did not run
+		getPipeline().expire(COMMAND_TIMEOUT);
 	}
 
 	/**
@@ -813,6 +855,7 @@ public class DKClient implements ClientKernel, Runnable
 			String orderID = message.getOrder().getId();
 			String execID = getIDFactory().getNext();
 			String clOrderID = message.getOrder().getLabel().replaceFirst(DK_LABEL, "");
+			getPipeline().acknowledged(clOrderID);
 			String inAccount = getDKStrategy().getAccount().getAccountId();		
 			
 			char ordStatus = 0;
@@ -0,0 +1,521 @@
+package org.marketcetera.server.ba.brokers.api;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.marketcetera.quickfix.FIXMessageUtil;
+import org.marketcetera.server.ba.brokers.Messages;
+import org.marketcetera.util.except.I18NException;
+import org.marketcetera.util.log.I18NBoundMessage1P;
+import org.marketcetera.util.log.SLF4JLoggerProxy;
+import org.marketcetera.util.misc.ClassVersion;
+
+import quickfix.FieldNotFound;
+import quickfix.Message;
+import quickfix.SessionID;
+import quickfix.field.ClOrdID;
+import quickfix.field.MDReqID;
+import quickfix.field.OrigClOrdID;
+
+/**
+ * Submits the requests of a DK broker client to the API without waiting
+ * for them to complete.
+ * <p>
+ * The commands of one order chain, keyed by the root ClOrdID, and of one
+ * market data request, keyed by MDReqID, are handed to the API one at a
+ * time, each once the previous one has run, so they keep their order.
+ * Commands of different chains are handed over together. Failures are
+ * reported to the {@link Handler} on a thread of the pipeline, never on
+ * the caller's nor on the API's thread.
+ * <p>
+ * The latency from submission to acknowledgment is recorded per command
+ * type. Orders, cancels and replaces are acknowledged by the first
+ * broker message of their ClOrdID; the other commands when the API has
+ * run them.
+ */
+@ClassVersion("$Id$")
+class DKPipeline
+        implements DKPipelineMBean
+{
+    /**
+     * The kinds of commands, by which latencies are recorded.
+     */
+    enum CommandType {
+        NEW_ORDER,
+        CANCEL,
+        REPLACE,
+        MARKET_DATA,
+        HISTORY,
+        OTHER
+    }
+
+    /**
+     * Runs the commands of a pipeline.
+     */
+    interface Handler
+    {
+        /**
+         * Hands the given task to the API, to be run on its thread.
+         *
+         * @param task the task.
+         *
+         * @throws Exception if the task cannot be handed over.
+         */
+        void execute(Callable<Void> task)
+                throws Exception;
+
+        /**
+         * Sends the given request to the API. This is called on the
+         * thread of the API.
+         *
+         * @param msg the request.
+         *
+         * @throws Exception if the request fails.
+         */
+        void process(Message msg)
+                throws Exception;
+
+        /**
+         * Rejects the given request.
+         *
+         * @param msg the request.
+         * @param sessionID the session the request came from.
+         * @param cause the failure.
+         */
+        void reject(Message msg,
+                    SessionID sessionID,
+                    Throwable cause);
+    }
+
+    /**
+     * Create a new DKPipeline instance.
+     *
+     * @param inHandler the handler which runs the commands.
+     */
+    DKPipeline(Handler inHandler)
+    {
+        mHandler = inHandler;
+        for(CommandType type : CommandType.values()) {
+            mLatencies.put(type, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Submits the given request. It is handed to the API at once unless
+     * an earlier request of the same order chain or data request has not
+     * run yet.
+     *
+     * @param msg the request.
+     * @param sessionID the session the request came from.
+     */
+    void submit(Message msg,
+                SessionID sessionID)
+    {
+        CommandType type = getCommandType(msg);
+        Command command = new Command(msg, sessionID, type, getKey(type, msg),
+                getAckID(type, msg), System.nanoTime());
+        mSubmitted.incrementAndGet();
+        if(command.mAckID != null) {
+            synchronized(mPendingAcks) {
+                mPendingAcks.put(command.mAckID, command);
+            }
+        }
+        if(command.mKey != null) {
+            synchronized(mLanes) {
+                ArrayDeque<Command> lane = mLanes.get(command.mKey);
+                if(lane != null) {
+                    lane.add(command);
+                    mQueued++;
+                    return;
+                }
+                lane = new ArrayDeque<Command>();
+                lane.add(command);
+                mLanes.put(command.mKey, lane);
+            }
+        }
+        dispatch(command);
+    }
+
+    /**
+     * Records the acknowledgment of the order, cancel or replace with the
+     * given ClOrdID, if it is still waiting for one.
+     *
+     * @param clOrdID the ClOrdID.
+     */
+    void acknowledged(String clOrdID)
+    {
+        Command command;
+        synchronized(mPendingAcks) {
+            command = mPendingAcks.remove(clOrdID);
+        }
+        if(command != null) {
+            mLatencies.get(command.mType).record(System.nanoTime() - command.mStart);
+        }
+    }
+
+    /**
+     * Rejects the commands handed to the API more than the given time ago
+     * which it has not started to run, so the commands queued behind them
+     * can proceed. The expired commands are not run if the API gets to
+     * them later.
+     *
+     * @param timeoutMillis the time in ms.
+     */
+    void expire(long timeoutMillis)
+    {
+        long now = System.nanoTime();
+        for(Command command : mInFlight) {
+            if(now - command.mDispatched > timeoutMillis * 1000000L &&
+               command.mState.compareAndSet(PENDING, DONE)) {
+                mExpired.incrementAndGet();
+                complete(command,
+                         new I18NException(new I18NBoundMessage1P(Messages.DK_COMMAND_TIMEOUT,
+                                                                  command.mType)));
+            }
+        }
+    }
+
+    /**
+     * Hands the given command to the API.
+     */
+    private void dispatch(final Command command)
+    {
+        command.mDispatched = System.nanoTime();
+        mInFlight.add(command);
+        try {
+            mHandler.execute(new Callable<Void>() {
+                @Override
+                public Void call()
+                {
+                    if(!command.mState.compareAndSet(PENDING, RUNNING)) {
+                        // expired
+                        return null;
+                    }
+                    Throwable failure = null;
+                    try {
+                        mHandler.process(command.mMessage);
+                    } catch (Throwable t) {
+                        failure = t;
+                    }
+                    command.mState.set(DONE);
+                    complete(command, failure);
+                    return null;
+                }
+            });
+        } catch (Throwable t) {
+            if(command.mState.compareAndSet(PENDING, DONE)) {
+                complete(command, t);
+            }
+        }
+    }
+
+    /**
+     * Completes the given command on the thread of the pipeline.
+     */
+    private void complete(final Command command,
+                          final Throwable failure)
+    {
+        mInFlight.remove(command);
+        mCallbacks.execute(new Runnable() {
+            @Override
+            public void run()
+            {
+                finish(command, failure);
+            }
+        });
+    }
+
+    /**
+     * Reports the outcome of the given command and hands the next command
+     * of its lane to the API.
+     */
+    private void finish(Command command,
+                        Throwable failure)
+    {
+        if(failure != null) {
+            mFailed.incrementAndGet();
+            if(command.mAckID != null) {
+                synchronized(mPendingAcks) {
+                    mPendingAcks.remove(command.mAckID);
+                }
+            }
+            try {
+                mHandler.reject(command.mMessage, command.mSessionID, failure);
+            } catch (RuntimeException e) {
+                SLF4JLoggerProxy.warn(DKPipeline.class, e);
+            }
+        } else if(command.mAckID == null) {
+            mLatencies.get(command.mType).record(System.nanoTime() - command.mStart);
+        }
+        if(command.mKey == null) {
+            return;
+        }
+        Command next;
+        synchronized(mLanes) {
+            ArrayDeque<Command> lane = mLanes.get(command.mKey);
+            lane.poll();
+            next = lane.peek();
+            if(next == null) {
+                mLanes.remove(command.mKey);
+            } else {
+                mQueued--;
+            }
+        }
+        if(next != null) {
+            dispatch(next);
+        }
+    }
+
+    /**
+     * Returns the type of the given request.
+     */
+    private static CommandType getCommandType(Message msg)
+    {
+        if(FIXMessageUtil.isOrderSingle(msg)) {
+            return CommandType.NEW_ORDER;
+        }
+        if(FIXMessageUtil.isCancelRequest(msg)) {
+            return CommandType.CANCEL;
+        }
+        if(FIXMessageUtil.isCancelReplaceRequest(msg)) {
+            return CommandType.REPLACE;
+        }
+        if(FIXMessageUtil.isMarketDataRequest(msg)) {
+            return CommandType.MARKET_DATA;
+        }
+        if(FIXMessageUtil.isXMLMessage(msg)) {
+            return CommandType.HISTORY;
+        }
+        return CommandType.OTHER;
+    }
+
+    /**
+     * Returns the key of the lane of the given request: the root
+     * ClOrdID of its order chain, as far as the chain was seen by this
+     * pipeline, or its MDReqID. Requests without a key are independent.
+     */
+    private String getKey(CommandType type,
+                          Message msg)
+    {
+        try {
+            switch(type) {
+                case NEW_ORDER:
+                case CANCEL:
+                case REPLACE:
+                    String clOrdID = msg.getString(ClOrdID.FIELD);
+                    String parentID = msg.isSetField(OrigClOrdID.FIELD) ?
+                        msg.getString(OrigClOrdID.FIELD) : clOrdID;
+                    synchronized(mRootIDs) {
+                        String rootID = mRootIDs.get(parentID);
+                        if(rootID == null) {
+                            rootID = parentID;
+                        }
+                        mRootIDs.put(clOrdID, rootID);
+                        return rootID;
+                    }
+                case MARKET_DATA:
+                    return MARKET_DATA_KEY + msg.getString(MDReqID.FIELD);
+                default:
+                    return null;
+            }
+        } catch (FieldNotFound ignore) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the ClOrdID by which the broker acknowledges the given
+     * request, or null if the request is acknowledged once run.
+     */
+    private static String getAckID(CommandType type,
+                                   Message msg)
+    {
+        if(type != CommandType.NEW_ORDER &&
+           type != CommandType.CANCEL &&
+           type != CommandType.REPLACE) {
+            return null;
+        }
+        try {
+            return msg.getString(ClOrdID.FIELD);
+        } catch (FieldNotFound ignore) {
+            return null;
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ba.brokers.api.DKPipelineMBean#getInFlightCommands()
+     */
+    @Override
+    public int getInFlightCommands()
+    {
+        return mInFlight.size();
+    }
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ba.brokers.api.DKPipelineMBean#getQueuedCommands()
+     */
+    @Override
+    public int getQueuedCommands()
+    {
+        synchronized(mLanes) {
+            return mQueued;
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ba.brokers.api.DKPipelineMBean#getSubmittedCommands()
+     */
+    @Override
+    public long getSubmittedCommands()
+    {
+        return mSubmitted.get();
+    }
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ba.brokers.api.DKPipelineMBean#getFailedCommands()
+     */
+    @Override
+    public long getFailedCommands()
+    {
+        return mFailed.get();
+    }
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ba.brokers.api.DKPipelineMBean#getExpiredCommands()
+     */
+    @Override
+    public long getExpiredCommands()
+    {
+        return mExpired.get();
+    }
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ba.brokers.api.DKPipelineMBean#getLatencies()
+     */
+    @Override
+    public String[] getLatencies()
+    {
+        List<String> latencies = new ArrayList<String>();
+        for(Map.Entry<CommandType,LatencyHistogram> entry : mLatencies.entrySet()) {
+            latencies.add(entry.getKey() + " " + entry.getValue()); //$NON-NLS-1$
+        }
+        return latencies.toArray(new String[latencies.size()]);
+    }
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ba.brokers.api.DKPipelineMBean#resetLatencies()
+     */
+    @Override
+    public void resetLatencies()
+    {
+        for(LatencyHistogram histogram : mLatencies.values()) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * A submitted request.
+     */
+    private static class Command
+    {
+        private Command(Message inMessage,
+                        SessionID inSessionID,
+                        CommandType inType,
+                        String inKey,
+                        String inAckID,
+                        long inStart)
+        {
+            mMessage = inMessage;
+            mSessionID = inSessionID;
+            mType = inType;
+            mKey = inKey;
+            mAckID = inAckID;
+            mStart = inStart;
+        }
+        private final Message mMessage;
+        private final SessionID mSessionID;
+        private final CommandType mType;
+        private final String mKey;
+        private final String mAckID;
+        private final long mStart;
+        private volatile long mDispatched;
+        private final AtomicInteger mState = new AtomicInteger(PENDING);
+    }
+
+    private static final int PENDING = 0;
+    private static final int RUNNING = 1;
+    private static final int DONE = 2;
+    /**
+     * number of order chains and pending acknowledgments remembered
+     */
+    private static final int ID_CAPACITY = 10000;
+    private static final String MARKET_DATA_KEY = "MD:"; //$NON-NLS-1$
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final Handler mHandler;
+    /**
+     * the commands of each lane, the head being handed to the API
+     */
+    private final Map<String,ArrayDeque<Command>> mLanes = new HashMap<String,ArrayDeque<Command>>();
+    /**
+     * number of commands waiting in a lane, guarded by {@link #mLanes}
+     */
+    private int mQueued;
+    /**
+     * the commands handed to the API and not completed
+     */
+    private final Set<Command> mInFlight = Collections.newSetFromMap(new ConcurrentHashMap<Command,Boolean>());
+    /**
+     * the root ClOrdID of the most recently seen ClOrdIDs
+     */
+    @SuppressWarnings("serial")
+    private final Map<String,String> mRootIDs = new LinkedHashMap<String,String>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String,String> eldest)
+        {
+            return size() > ID_CAPACITY;
+        }
+    };
+    /**
+     * the commands waiting for their acknowledgment, by ClOrdID
+     */
+    @SuppressWarnings("serial")
+    private final Map<String,Command> mPendingAcks = new LinkedHashMap<String,Command>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String,Command> eldest)
+        {
+            return size() > ID_CAPACITY;
+        }
+    };
+    private final Map<CommandType,LatencyHistogram> mLatencies =
+        new EnumMap<CommandType,LatencyHistogram>(CommandType.class);
+    private final AtomicLong mSubmitted = new AtomicLong();
+    private final AtomicLong mFailed = new AtomicLong();
+    private final AtomicLong mExpired = new AtomicLong();
+    /**
+     * the thread completions are reported on
+     */
+    private final ExecutorService mCallbacks = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r)
+        {
+            Thread thread = new Thread(r, "DK pipeline-" + THREAD_COUNT.incrementAndGet()); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+}
@@ -0,0 +1,63 @@
+package org.marketcetera.server.ba.brokers.api;
+
+import org.marketcetera.util.misc.ClassVersion;
+
+/**
+ * MBean interface exposing the submission pipeline metrics of a DK
+ * broker client.
+ */
+@ClassVersion("$Id$")
+public interface DKPipelineMBean {
+
+    /**
+     * Returns the number of commands handed to the API and not completed
+     * yet.
+     *
+     * @return an <code>int</code> value
+     */
+    public int getInFlightCommands();
+
+    /**
+     * Returns the number of commands waiting for an earlier command of
+     * the same order chain or data request to complete.
+     *
+     * @return an <code>int</code> value
+     */
+    public int getQueuedCommands();
+
+    /**
+     * Returns the number of commands submitted since start.
+     *
+     * @return a <code>long</code> value
+     */
+    public long getSubmittedCommands();
+
+    /**
+     * Returns the number of commands which failed and were rejected,
+     * including the expired ones.
+     *
+     * @return a <code>long</code> value
+     */
+    public long getFailedCommands();
+
+    /**
+     * Returns the number of commands rejected because the API did not
+     * run them in time.
+     *
+     * @return a <code>long</code> value
+     */
+    public long getExpiredCommands();
+
+    /**
+     * Returns the submit-to-acknowledgment latency histogram of each
+     * command type, one line per type, in microseconds.
+     *
+     * @return a <code>String[]</code> value
+     */
+    public String[] getLatencies();
+
+    /**
+     * Clears the latency histograms.
+     */
+    public void resetLatencies();
+}
@@ -0,0 +1,123 @@
+package org.marketcetera.server.ba.brokers.api;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.marketcetera.util.misc.ClassVersion;
+
+/**
+ * A histogram of latencies in power of two buckets of microseconds:
+ * bucket 0 counts latencies below 1us, and bucket <i>i</i> the ones from
+ * 2<sup>i-1</sup>us included to 2<sup>i</sup>us excluded. Recording is
+ * lock free.
+ */
+@ClassVersion("$Id$")
+class LatencyHistogram
+{
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency in nanoseconds.
+     */
+    void record(long nanos)
+    {
+        long micros = Math.max(0, nanos) / 1000;
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        mBuckets.incrementAndGet(bucket);
+        mCount.incrementAndGet();
+        mTotal.addAndGet(micros);
+        long max = mMax.get();
+        while(micros > max && !mMax.compareAndSet(max, micros)) {
+            max = mMax.get();
+        }
+    }
+
+    /**
+     * Returns the number of recorded latencies.
+     *
+     * @return a <code>long</code> value
+     */
+    long getCount()
+    {
+        return mCount.get();
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the given percentile.
+     *
+     * @param percentile the percentile, between 0 and 100.
+     *
+     * @return the bound in microseconds, or 0 if nothing was recorded.
+     */
+    long getPercentile(double percentile)
+    {
+        long count = 0;
+        long[] buckets = new long[BUCKETS];
+        for(int i = 0; i < BUCKETS; i++) {
+            buckets[i] = mBuckets.get(i);
+            count += buckets[i];
+        }
+        if(count == 0) {
+            return 0;
+        }
+        long rank = (long)Math.ceil(count * percentile / 100);
+        long seen = 0;
+        for(int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i];
+            if(seen >= rank && buckets[i] > 0) {
+                return 1L << i;
+            }
+        }
+        return 1L << (BUCKETS - 1);
+    }
+
+    /**
+     * Clears the recorded latencies.
+     */
+    void reset()
+    {
+        for(int i = 0; i < BUCKETS; i++) {
+            mBuckets.set(i, 0);
+        }
+        mCount.set(0);
+        mTotal.set(0);
+        mMax.set(0);
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString()
+    {
+        long count = mCount.get();
+        StringBuilder builder = new StringBuilder();
+        builder.append("count=").append(count) //$NON-NLS-1$
+               .append(" mean=").append(count == 0 ? 0 : mTotal.get() / count) //$NON-NLS-1$
+               .append(" p50<").append(getPercentile(50)) //$NON-NLS-1$
+               .append(" p99<").append(getPercentile(99)) //$NON-NLS-1$
+               .append(" p999<").append(getPercentile(99.9)) //$NON-NLS-1$
+               .append(" max=").append(mMax.get()) //$NON-NLS-1$
+               .append(" buckets=["); //$NON-NLS-1$
+        int last = BUCKETS - 1;
+        while(last > 0 && mBuckets.get(last) == 0) {
+            last--;
+        }
+        for(int i = 0; i <= last; i++) {
+            if(i > 0) {
+                builder.append(',');
+            }
+            builder.append(mBuckets.get(i));
+        }
+        return builder.append(']').toString();
+    }
+
+    /**
+     * number of buckets, enough for latencies up to about 12 days
+     */
+    private static final int BUCKETS = 40;
+    private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong mCount = new AtomicLong();
+    private final AtomicLong mTotal = new AtomicLong();
+    private final AtomicLong mMax = new AtomicLong();
+}
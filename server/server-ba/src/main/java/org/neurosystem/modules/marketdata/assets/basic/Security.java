@@ -1,11 +1,11 @@
 package org.neurosystem.modules.marketdata.assets.basic;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.neurosystem.modules.marketdata.quote.IQuote;
+import org.neurosystem.util.basic.RingBuffer;
 import org.neurosystem.util.common.annotations.javax.Nonnull;
 import org.neurosystem.util.common.annotations.javax.concurrent.Immutable;
 import org.neurosystem.util.common.base.Preconditions;
@@ -22,7 +22,7 @@ public final class Security implements ISecurity {
 	
 	private final Set<ISecurity> p_securities;
 	private final Map<ISecurity, Double> p_deltas;
-	public final List<IQuote> p_values;
+	private final RingBuffer<IQuote> p_values;
 	
 	private final int p_hashUID;
 	
@@ -36,7 +36,7 @@ public final class Security implements ISecurity {
 		
 		this.p_securities = ImmutableSet.of(this);
 		this.p_deltas = ImmutableMap.of(this, amount);
-		this.p_values = new ArrayList<>();
+		this.p_values = new RingBuffer<>(easybites);
 		
 		//Fast access UID
 		this.p_hashUID = getHashUID();
@@ -66,9 +66,6 @@ public final class Security implements ISecurity {
 	public IQuote onValue(Map<ISecurity, IQuote> secPrices) {
 		Preconditions.checkArgument(secPrices.containsKey(this), "Security missing: %s", this);
 		
-		if(this.p_values.size() >= easybites){
-			this.p_values.remove(0);
-		}
 		this.p_values.add(secPrices.get(this));
 		
 		return lastValue();
@@ -5,12 +5,122 @@ import java.util.List;
 
 import org.neurosystem.util.basic.HasValues;
 import org.neurosystem.util.common.annotations.j2objc.WeakOuter;
+import org.neurosystem.util.misc.Pair;
 
 @SuppressWarnings("unchecked")
 public interface IIndicator<V> extends HasValues<ITimedValue<V>> {
 
 	public V calculate();
 	
+	/**
+	 * Returns the time of the value <code>nb</code> bars back.
+	 */
+	public default long timeBack(int nb) {
+		return valueBack(nb).getTime();
+	}
+	
+	/**
+	 * Returns the value <code>nb</code> bars back of a single value indicator.
+	 */
+	public default double doubleBack(int nb) {
+		return doubleBack(nb, 0);
+	}
+	
+	/**
+	 * Returns a column of the value <code>nb</code> bars back: 0 for a single
+	 * value, 0 for the key and 1 for the value of a pair. Indicators backed by
+	 * a {@link ValueLayout} read it without boxing.
+	 */
+	public default double doubleBack(int nb, int column) {
+		Object value = valueBack(nb).getValue();
+		if(value instanceof Pair<?, ?>){
+			Pair<?, ?> pair = (Pair<?, ?>) value;
+			if(pair.getKey() instanceof Object[]){
+				Object[] keys = (Object[]) pair.getKey();
+				value = (column < keys.length) ? keys[column] : ((Object[]) pair.getValue())[column - keys.length];
+			}else{
+				value = (column == 0) ? pair.getKey() : pair.getValue();
+			}
+		}
+		return ((Number) value).doubleValue();
+	}
+	
+	/**
+	 * Returns the number of columns read by {@link #doubleBack(int, int)}: 1
+	 * for a single value, 2 for a pair, twice the length for a pair of arrays.
+	 */
+	public default int width() {
+		Object value = lastValue().getValue();
+		if(value instanceof Pair<?, ?>){
+			Object key = ((Pair<?, ?>) value).getKey();
+			return (key instanceof Object[]) ? 2 * ((Object[]) key).length : 2;
+		}
+		return 1;
+	}
+	
+	/**
+	 * Returns true if both indicators hold the same times and values, compared
+	 * column by column so no value is materialized.
+	 */
+	public static boolean sameValues(IIndicator<?> a, IIndicator<?> b) {
+		int size = a.size();
+		if(size != b.size()){
+			return false;
+		}
+		if(size == 0){
+			return true;
+		}
+		int width = a.width();
+		if(width != b.width()){
+			return false;
+		}
+		for(int nb = 0; nb < size; nb++){
+			if(a.timeBack(nb) != b.timeBack(nb)){
+				return false;
+			}
+			for(int column = 0; column < width; column++){
+				if(Double.doubleToLongBits(a.doubleBack(nb, column)) != Double.doubleToLongBits(b.doubleBack(nb, column))){
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Returns a hash code of the times and values of the indicator, consistent
+	 * with {@link #sameValues(IIndicator, IIndicator)}.
+	 */
+	public static int valuesHashCode(IIndicator<?> indicator) {
+		int size = indicator.size();
+		int width = (size == 0) ? 0 : indicator.width();
+		int hash = 1;
+		
+		for(int nb = 0; nb < size; nb++){
+			hash = 31 * hash + Long.hashCode(indicator.timeBack(nb));
+			for(int column = 0; column < width; column++){
+				hash = 31 * hash + Double.hashCode(indicator.doubleBack(nb, column));
+			}
+		}
+		return hash;
+	}
+	
+	/**
+	 * Formats the values of the indicator as {@link HasValues#formatedValues(List)},
+	 * one value at a time rather than through a copy of the list.
+	 */
+	public static String formatedValues(IIndicator<?> indicator) {
+		final StringBuilder builder = new StringBuilder("[");
+		
+		for(int index = 0; index < indicator.size(); index++){
+			if(index > 0){
+				builder.append(", ");
+			}
+			builder.append(indicator.get(index));
+		}
+		return builder.append(']').toString();
+	}
+	
 	public default <M> IIndicator<M> keySplit() {
 		
 		final IIndicator<V> indicator = this;
@@ -39,6 +149,21 @@ public interface IIndicator<V> extends HasValues<ITimedValue<V>> {
 				return sub;
 			}
 
+			@Override
+			public long timeBack(int nb) {
+				return indicator.timeBack(nb);
+			}
+
+			@Override
+			public double doubleBack(int nb, int column) {
+				return indicator.doubleBack(nb, column);
+			}
+
+			@Override
+			public int width() {
+				return indicator.width() / 2;
+			}
+
 			@Override
 			public M calculate() {
 				return (M) indicator.lastValue().keySplit().getValue();
@@ -76,6 +201,21 @@ public interface IIndicator<V> extends HasValues<ITimedValue<V>> {
 				return sub;
 			}
 
+			@Override
+			public long timeBack(int nb) {
+				return indicator.timeBack(nb);
+			}
+
+			@Override
+			public double doubleBack(int nb, int column) {
+				return indicator.doubleBack(nb, indicator.width() / 2 + column);
+			}
+
+			@Override
+			public int width() {
+				return indicator.width() / 2;
+			}
+
 			@Override
 			public M calculate() {
 				return (M) indicator.lastValue().valueSplit().getValue();
@@ -4,16 +4,24 @@ import java.util.*;
 
 import org.neurosystem.modules.marketdata.AppliedPrice;
 import org.neurosystem.modules.marketdata.IQuoteServer;
+import org.neurosystem.util.basic.DoubleRingBuffer;
 import org.neurosystem.util.basic.HasValues;
+import org.neurosystem.util.basic.RingBuffer;
 import org.neurosystem.util.common.annotations.javax.Nonnull;
-import org.neurosystem.util.common.base.Objects;
 
 /**
  * Base class for all classes implementing technical indicators.
+ * 
+ * The last {@link HasValues#easybites} values are kept in a ring buffer: of
+ * doubles when the subclass gives the {@link ValueLayout} of its values, of
+ * timed values otherwise.
  */
 public abstract class Indicator<V> implements IIndicator<V> {
 	
-	private final List<ITimedValue<V>> p_values;
+	private final RingBuffer<ITimedValue<V>> p_values;
+	private final DoubleRingBuffer p_series;
+	private final ValueLayout<V> p_layout;
+	private ITimedValue<V> p_last;// last value read from the series, until a value is added
 	private final IQuoteServer p_qs;
 	private final AppliedPrice p_appliedPrice;
 	
@@ -24,31 +32,89 @@ public abstract class Indicator<V> implements IIndicator<V> {
     }
 	
 	public Indicator(@Nonnull IQuoteServer qs, @Nonnull AppliedPrice appliedPrice) {
-		this.p_values = new ArrayList<>();
+		this.p_values = new RingBuffer<>(easybites);
+		this.p_series = null;
+		this.p_layout = null;
+        this.p_qs = qs;
+		this.p_appliedPrice = appliedPrice;
+    }
+	
+	public Indicator(@Nonnull IQuoteServer qs, @Nonnull ValueLayout<V> layout) {
+		this(qs, AppliedPrice.CLOSE, layout);
+    }
+	
+	public Indicator(@Nonnull IQuoteServer qs, @Nonnull AppliedPrice appliedPrice, @Nonnull ValueLayout<V> layout) {
+		this.p_values = null;
+		this.p_series = new DoubleRingBuffer(easybites, layout.width());
+		this.p_layout = layout;
         this.p_qs = qs;
 		this.p_appliedPrice = appliedPrice;
     }
 	
 	@Override
 	public ITimedValue<V> get(int index) {
+		if(this.p_series != null){
+			if(index != this.p_series.size() - 1){
+				return new TimedValue<V>(this.p_series.getTime(index), this.p_layout.read(this.p_series, index));
+			}
+			if(this.p_last == null){
+				this.p_last = new TimedValue<V>(this.p_series.getTime(index), this.p_layout.read(this.p_series, index));
+			}
+			return this.p_last;
+		}
 		return this.p_values.get(index);
 	}
 
 	@Override
 	public int size() {
-		return this.p_values.size();
+		return (this.p_series != null) ? this.p_series.size() : this.p_values.size();
 	}
 
 	@Override
 	public List<ITimedValue<V>> subList(int from, int to) {
+		if(this.p_series != null){
+			final List<ITimedValue<V>> values = new ArrayList<>(to - from);
+			
+			for(int index = from; index < to; index++){
+				values.add(get(index));
+			}
+			return values;
+		}
 		return this.p_values.subList(from, to);
 	}
 	
-	private void addTimedValue(Long time, V value) {
-		if(this.p_values.size() >= easybites){
-			this.p_values.remove(0);
+	@Override
+	public long timeBack(int nb) {
+		if(this.p_series != null){
+			return this.p_series.timeBack(nb);
+		}
+		return IIndicator.super.timeBack(nb);
+	}
+	
+	@Override
+	public double doubleBack(int nb, int column) {
+		if(this.p_series != null){
+			return this.p_series.valueBack(nb, column);
+		}
+		return IIndicator.super.doubleBack(nb, column);
+	}
+	
+	@Override
+	public int width() {
+		if(this.p_series != null){
+			return this.p_layout.width();
+		}
+		return IIndicator.super.width();
+	}
+	
+	private void addTimedValue(long time, V value) {
+		if(this.p_series != null){
+			this.p_series.add(time);
+			this.p_layout.write(value, this.p_series);
+			this.p_last = null;
+		}else{
+			this.p_values.add(new TimedValue<V>(time, value));
 		}
-		this.p_values.add(new TimedValue<V>(time, value));
     }
 	
 	protected void addValue(V value) {
@@ -59,7 +125,7 @@ public abstract class Indicator<V> implements IIndicator<V> {
 		return this.p_qs;
 	}
 
-	protected AppliedPrice appliedPrice(){
+	public AppliedPrice appliedPrice(){
 		return this.p_appliedPrice;
 	}
 	
@@ -71,7 +137,7 @@ public abstract class Indicator<V> implements IIndicator<V> {
 		if (obj instanceof Indicator) {
 			Indicator<?> that = (Indicator<?>) obj;
 			return (this.p_appliedPrice.equals(that.p_appliedPrice)) 
-					&& Objects.equal(this.p_values, that.p_values);
+					&& IIndicator.sameValues(this, that);
 		}
         
 		return false;
@@ -83,7 +149,7 @@ public abstract class Indicator<V> implements IIndicator<V> {
 	@Override
 	public int hashCode() {
 		return (this.p_appliedPrice.hashCode()) ^ 
-				 ((this.p_values == null) ? 0 : this.p_values.hashCode());
+				 IIndicator.valuesHashCode(this);
 	}
 	
 	 /* (non-Javadoc)
@@ -91,6 +157,6 @@ public abstract class Indicator<V> implements IIndicator<V> {
      */
 	@Override
 	public String toString() {
-        return String.format("%s", HasValues.formatedValues(this.p_values));
+        return IIndicator.formatedValues(this);
 	}
 }
@@ -0,0 +1,98 @@
+package org.neurosystem.modules.marketdata.indicator;
+
+import org.neurosystem.util.basic.DoubleRingBuffer;
+import org.neurosystem.util.misc.Pair;
+
+/**
+ * How the values of an indicator are laid out in the columns of a
+ * {@link DoubleRingBuffer}.
+ */
+public interface ValueLayout<V> {
+
+	/**
+	 * A single double: column 0.
+	 */
+	public static final ValueLayout<Double> SCALAR = new ValueLayout<Double>() {
+
+		@Override
+		public int width() {
+			return 1;
+		}
+
+		@Override
+		public void write(Double value, DoubleRingBuffer buffer) {
+			buffer.set(0, value);
+		}
+
+		@Override
+		public Double read(DoubleRingBuffer buffer, int index) {
+			return buffer.get(index, 0);
+		}
+	};
+
+	/**
+	 * A pair of doubles: the key in column 0, the value in column 1.
+	 */
+	public static final ValueLayout<Pair<Double, Double>> PAIR = new ValueLayout<Pair<Double, Double>>() {
+
+		@Override
+		public int width() {
+			return 2;
+		}
+
+		@Override
+		public void write(Pair<Double, Double> value, DoubleRingBuffer buffer) {
+			buffer.set(0, value.getKey());
+			buffer.set(1, value.getValue());
+		}
+
+		@Override
+		public Pair<Double, Double> read(DoubleRingBuffer buffer, int index) {
+			return new Pair<Double, Double>(buffer.get(index, 0), buffer.get(index, 1));
+		}
+	};
+
+	public int width();
+
+	/**
+	 * Writes the value in the last row of the buffer.
+	 */
+	public void write(V value, DoubleRingBuffer buffer);
+
+	public V read(DoubleRingBuffer buffer, int index);
+
+	/**
+	 * A pair of arrays of the given length: the keys in columns
+	 * <code>0</code> to <code>length-1</code>, the values in the next
+	 * <code>length</code> columns.
+	 */
+	public static ValueLayout<Pair<Double[], Double[]>> arrayPair(final int length) {
+		return new ValueLayout<Pair<Double[], Double[]>>() {
+
+			@Override
+			public int width() {
+				return 2 * length;
+			}
+
+			@Override
+			public void write(Pair<Double[], Double[]> value, DoubleRingBuffer buffer) {
+				for(int column = 0; column < length; column++){
+					buffer.set(column, value.getKey()[column]);
+					buffer.set(length + column, value.getValue()[column]);
+				}
+			}
+
+			@Override
+			public Pair<Double[], Double[]> read(DoubleRingBuffer buffer, int index) {
+				Double[] keys = new Double[length];
+				Double[] values = new Double[length];
+
+				for(int column = 0; column < length; column++){
+					keys[column] = buffer.get(index, column);
+					values[column] = buffer.get(index, length + column);
+				}
+				return new Pair<Double[], Double[]>(keys, values);
+			}
+		};
+	}
+}
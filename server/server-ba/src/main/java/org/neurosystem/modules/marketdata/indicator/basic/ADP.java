@@ -2,6 +2,7 @@ package org.neurosystem.modules.marketdata.indicator.basic;
 
 import org.neurosystem.modules.marketdata.IQuoteServer;
 import org.neurosystem.modules.marketdata.indicator.Indicator;
+import org.neurosystem.modules.marketdata.indicator.ValueLayout;
 import org.neurosystem.modules.marketdata.quote.IQuote;
 import org.neurosystem.util.misc.Pair;
 
@@ -13,7 +14,7 @@ public class ADP extends Indicator<Pair<Double,Double>> {
 	private final double p_multiplier;
 	
     public ADP(IQuoteServer qs, int length) {
-		 super(qs);
+		 super(qs, ValueLayout.PAIR);
 	     this.p_multiplier = 2. / (length + 1.);
     }
 	
@@ -30,8 +31,8 @@ public class ADP extends Indicator<Pair<Double,Double>> {
 			adCum = ad;
 			adEMA = ad;
 		} else {
-			adCum = lastValue().getValue().getKey() + ad;
-			adEMA = lastValue().getValue().getValue();
+			adCum = doubleBack(0, 0) + ad;
+			adEMA = doubleBack(0, 1);
 			adEMA += (adCum - adEMA) * this.p_multiplier;
 		}
 		value = new Pair<Double, Double>(adCum, adEMA);
@@ -2,6 +2,7 @@ package org.neurosystem.modules.marketdata.indicator.basic;
 
 import org.neurosystem.modules.marketdata.IQuoteServer;
 import org.neurosystem.modules.marketdata.indicator.Indicator;
+import org.neurosystem.modules.marketdata.indicator.ValueLayout;
 
 /**
  * Average True Range:  http://en.wikipedia.org/wiki/Average_true_range
@@ -24,7 +25,7 @@ public class ATR extends Indicator<Double> {
 	private final double p_multiplier;
 
 	public ATR(IQuoteServer qs, int length) {
-		 super(qs);
+		 super(qs, ValueLayout.SCALAR);
 	     this.p_multiplier = 2. / (length + 1.);
     }
 	
@@ -42,7 +43,7 @@ public class ATR extends Indicator<Double> {
     		value += trueRange;
 		}else{
 			trueRange = Math.max(high, last) - Math.min(low, last);
-			value = lastValue().getValue();
+			value = doubleBack(0);
 			value += (trueRange - value) * this.p_multiplier;
 		}
     	
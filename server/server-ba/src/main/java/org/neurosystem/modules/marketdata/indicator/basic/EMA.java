@@ -3,6 +3,7 @@ package org.neurosystem.modules.marketdata.indicator.basic;
 import org.neurosystem.modules.marketdata.AppliedPrice;
 import org.neurosystem.modules.marketdata.IQuoteServer;
 import org.neurosystem.modules.marketdata.indicator.Indicator;
+import org.neurosystem.modules.marketdata.indicator.ValueLayout;
 
 /**
  * Exponential Moving Average.
@@ -16,7 +17,7 @@ public class EMA extends Indicator<Double> {
     }
 
 	public EMA(IQuoteServer qs, int length, AppliedPrice appliedPrice) {
-		 super(qs, appliedPrice);
+		 super(qs, appliedPrice, ValueLayout.SCALAR);
 	     this.p_multiplier = 2. / (length + 1.);
     }
 	
@@ -28,7 +29,7 @@ public class EMA extends Indicator<Double> {
     	if(size() == 0){
     		value = price;
 		}else{
-			value = lastValue().getValue();
+			value = doubleBack(0);
 			value += (price - value) * this.p_multiplier;
 		}
 
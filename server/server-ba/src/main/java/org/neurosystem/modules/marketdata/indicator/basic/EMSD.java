@@ -3,6 +3,8 @@ package org.neurosystem.modules.marketdata.indicator.basic;
 import org.neurosystem.modules.marketdata.AppliedPrice;
 import org.neurosystem.modules.marketdata.IQuoteServer;
 import org.neurosystem.modules.marketdata.indicator.Indicator;
+import org.neurosystem.modules.marketdata.indicator.ValueLayout;
+import org.neurosystem.util.basic.SlidingSum;
 import org.neurosystem.util.misc.Pair;
 
 /**
@@ -10,29 +12,31 @@ import org.neurosystem.util.misc.Pair;
  */
 public class EMSD extends Indicator<Pair<Double, Double>> {
 	
-	private final int p_length;
+	private final SlidingSum p_window;
     
     public EMSD(IQuoteServer qs, int length) {
     	this(qs, length, AppliedPrice.CLOSE);
     }
 
     public EMSD(IQuoteServer qs, int length, AppliedPrice appliedPrice) {
-    	super(qs, appliedPrice);
-        this.p_length = length;
+    	super(qs, appliedPrice, ValueLayout.PAIR);
+        this.p_window = new SlidingSum(Math.max(1, Math.min(length, easybites)));
     }
     
     @Override
     public Pair<Double, Double> calculate() {
         Pair<Double, Double> value;
     	
-        int nbBar = Math.min(quoteServer().size(), this.p_length);
-    	
-    	double meanSquare = 0, mean = 0;
-        for (int bar = 0; bar < nbBar; bar++) {
-        	double price = quoteServer().valueBack(bar).getPrice(appliedPrice());
-        	mean += price / nbBar;
-        	meanSquare += price * price / nbBar;
+        if(this.p_window.size() == 0){
+        	int nbBar = Math.min(quoteServer().size(), this.p_window.window());
+        	for (int bar = nbBar - 1; bar > 0; bar--) {
+        		this.p_window.add(quoteServer().valueBack(bar).getPrice(appliedPrice()));
+        	}
         }
+        this.p_window.add(quoteServer().lastValue().getPrice(appliedPrice()));
+    	
+    	double mean = this.p_window.mean();
+    	double meanSquare = this.p_window.meanSquare();
         
         double stDev = 0.001;
         if(meanSquare > mean * mean){
@@ -2,6 +2,7 @@ package org.neurosystem.modules.marketdata.indicator.basic;
 
 import org.neurosystem.modules.marketdata.IQuoteServer;
 import org.neurosystem.modules.marketdata.indicator.Indicator;
+import org.neurosystem.modules.marketdata.indicator.ValueLayout;
 import org.neurosystem.util.misc.Pair;
 
 /**
@@ -14,7 +15,7 @@ public class HLS extends Indicator<Pair<Double,Double>> {
 	private final double p_multiplier;
 	
     public HLS(IQuoteServer qs, int length) {
-    	 super(qs);
+    	 super(qs, ValueLayout.PAIR);
          this.p_multiplier = 2. / (length + 1.);
     }
 
@@ -28,10 +29,10 @@ public class HLS extends Indicator<Pair<Double,Double>> {
     	if(size() == 0){
         	value =  new Pair<Double, Double>(low, high);
 		}else{
-			double keyL = lastValue().getValue().getKey();
+			double keyL = doubleBack(0, 0);
 			keyL += (low - keyL) * this.p_multiplier;
 			
-			double keyH = lastValue().getValue().getValue();
+			double keyH = doubleBack(0, 1);
 			keyH += (high - keyH) * this.p_multiplier;
 			
 			value =  new Pair<Double, Double>(keyL, keyH);
@@ -3,6 +3,7 @@ package org.neurosystem.modules.marketdata.indicator.basic;
 import org.neurosystem.modules.marketdata.AppliedPrice;
 import org.neurosystem.modules.marketdata.IQuoteServer;
 import org.neurosystem.modules.marketdata.indicator.Indicator;
+import org.neurosystem.modules.marketdata.indicator.ValueLayout;
 import org.neurosystem.util.misc.Pair;
 
 /**
@@ -18,7 +19,7 @@ public class MACD extends Indicator<Pair<Double,Double>> {
     }
 
     public MACD(IQuoteServer qs, int fastLength, int slowLength, int trigger, AppliedPrice appliedPrice) {
-    	super(qs, appliedPrice);
+    	super(qs, appliedPrice, ValueLayout.PAIR);
         
         this.p_fastMultip = 2. / (fastLength + 1.);
         this.p_slowMultip = 2. / (slowLength + 1.);
@@ -2,6 +2,9 @@ package org.neurosystem.modules.marketdata.indicator.basic;
 
 import org.neurosystem.modules.marketdata.IQuoteServer;
 import org.neurosystem.modules.marketdata.indicator.Indicator;
+import org.neurosystem.modules.marketdata.indicator.ValueLayout;
+import org.neurosystem.modules.marketdata.quote.IQuote;
+import org.neurosystem.util.basic.SlidingMinMax;
 import org.neurosystem.util.misc.Pair;
 
 /**
@@ -9,26 +12,28 @@ import org.neurosystem.util.misc.Pair;
  */
 public class MMX extends Indicator<Pair<Double, Double>> {
 
-	private final int p_length;
+	private final SlidingMinMax p_window;
 
     public MMX(IQuoteServer qs, int length) {
-    	 super(qs);
-         this.p_length = length;
+    	 super(qs, ValueLayout.PAIR);
+         this.p_window = new SlidingMinMax(Math.max(1, Math.min(length, easybites)));
     }
 
     @Override
     public Pair<Double, Double> calculate() {
     	Pair<Double, Double> value;
     	
-    	int nbBar = Math.min(quoteServer().size(), this.p_length);
+    	if(this.p_window.size() == 0){
+    		int nbBar = Math.min(quoteServer().size(), this.p_window.window());
+    		for (int bar = nbBar - 1; bar > 0; bar--) {
+    			IQuote quote = quoteServer().valueBack(bar);
+    			this.p_window.add(quote.getLow(), quote.getHigh());
+    		}
+    	}
+    	IQuote quote = quoteServer().lastValue();
+    	this.p_window.add(quote.getLow(), quote.getHigh());
     	
-    	double min = quoteServer().lastValue().getLow();
-    	double max = quoteServer().lastValue().getHigh();
-        for (int bar = 0; bar < nbBar; bar++) {
-        	min = Math.min(min, quoteServer().valueBack(bar).getLow());
-        	max = Math.max(max, quoteServer().valueBack(bar).getHigh());
-        }
-        value = new Pair<Double, Double>(min, max);
+        value = new Pair<Double, Double>(this.p_window.min(), this.p_window.max());
         
 		addValue(value);
         return value;
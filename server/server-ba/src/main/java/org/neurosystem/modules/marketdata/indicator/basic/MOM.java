@@ -1,11 +1,10 @@
 package org.neurosystem.modules.marketdata.indicator.basic;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import org.neurosystem.modules.marketdata.IQuoteServer;
 import org.neurosystem.modules.marketdata.indicator.Indicator;
+import org.neurosystem.modules.marketdata.indicator.ValueLayout;
 import org.neurosystem.modules.marketdata.quote.IQuote;
+import org.neurosystem.util.basic.RingBuffer;
 import org.neurosystem.util.misc.Pair;
 
 /**
@@ -14,13 +13,13 @@ import org.neurosystem.util.misc.Pair;
 public class MOM extends Indicator<Pair<Double[], Double[]>> {
 
 	private final int p_length, p_perMinMax;
-	private final List<IQuote> p_bars;
+	private final RingBuffer<IQuote> p_bars;
 
     public MOM(IQuoteServer qs, int length, int perMinMax) {
-    	 super(qs);
+    	 super(qs, ValueLayout.arrayPair(length));
          this.p_length = length;
          this.p_perMinMax = perMinMax;
-         this.p_bars = new ArrayList<>();
+         this.p_bars = new RingBuffer<>(length * perMinMax);
     }
 	
     @Override
@@ -45,7 +44,6 @@ public class MOM extends Indicator<Pair<Double[], Double[]>> {
 			}
 		} else {
 			this.p_bars.add(quoteServer().lastValue());
-			this.p_bars.remove(0);
 
 			for (int index = 0; index < this.p_length; index++) {
 				int k0 = index * this.p_perMinMax;
@@ -2,6 +2,7 @@ package org.neurosystem.modules.marketdata.indicator.basic;
 
 import org.neurosystem.modules.marketdata.IQuoteServer;
 import org.neurosystem.modules.marketdata.indicator.Indicator;
+import org.neurosystem.modules.marketdata.indicator.ValueLayout;
 
 /**
 * Open Close Stick
@@ -13,7 +14,7 @@ public class OCS extends Indicator<Double> {
 	private final double p_multiplier;
 	
     public OCS(IQuoteServer qs, int length) {
-    	 super(qs);
+    	 super(qs, ValueLayout.SCALAR);
          this.p_multiplier = 2. / (length + 1.);
     }
 
@@ -25,7 +26,7 @@ public class OCS extends Indicator<Double> {
         if(size() == 0){
         	value = diff;
 		}else{
-			value = lastValue().getValue();
+			value = doubleBack(0);
 			value += (diff - value) * this.p_multiplier;
 		}
 
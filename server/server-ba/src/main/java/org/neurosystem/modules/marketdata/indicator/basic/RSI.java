@@ -3,6 +3,7 @@ package org.neurosystem.modules.marketdata.indicator.basic;
 import org.neurosystem.modules.marketdata.AppliedPrice;
 import org.neurosystem.modules.marketdata.IQuoteServer;
 import org.neurosystem.modules.marketdata.indicator.Indicator;
+import org.neurosystem.modules.marketdata.indicator.ValueLayout;
 
 /**
  * Relative Strength Index. Implemented up to this specification:
@@ -43,7 +44,7 @@ public class RSI extends Indicator<Double> {
     }
 
     public RSI(IQuoteServer qs, int length, AppliedPrice appliedPrice) {
-    	super(qs, appliedPrice);
+    	super(qs, appliedPrice, ValueLayout.SCALAR);
     	this.p_multiplier = 2. / (length + 1.);
     }
 	
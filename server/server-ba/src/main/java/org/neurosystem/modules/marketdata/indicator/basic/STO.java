@@ -2,6 +2,9 @@ package org.neurosystem.modules.marketdata.indicator.basic;
 
 import org.neurosystem.modules.marketdata.IQuoteServer;
 import org.neurosystem.modules.marketdata.indicator.Indicator;
+import org.neurosystem.modules.marketdata.indicator.ValueLayout;
+import org.neurosystem.modules.marketdata.quote.IQuote;
+import org.neurosystem.util.basic.SlidingMinMax;
 
 /**
  * Stochastic oscillator %K
@@ -9,26 +12,30 @@ import org.neurosystem.modules.marketdata.indicator.Indicator;
  */
 public class STO extends Indicator<Double> {
 
-	private final int p_length;
+	private final SlidingMinMax p_window;
 
     public STO(IQuoteServer qs, int length) {
-    	 super(qs);
-         this.p_length = length;
+    	 super(qs, ValueLayout.SCALAR);
+         this.p_window = new SlidingMinMax(Math.max(1, Math.min(length, easybites)));
     }
     
     @Override
     public Double calculate() {
     	double value = 0;
 
-        int nbBar = Math.min(quoteServer().size(), this.p_length);
-        
-        double max = quoteServer().lastValue().getHigh();
-        double min = quoteServer().lastValue().getLow();
-        double last = quoteServer().lastValue().getClose();
-        for (int bar = 0; bar < nbBar; bar++) {
-        	max = Math.max(quoteServer().valueBack(bar).getHigh(), max);
-        	min = Math.min(quoteServer().valueBack(bar).getLow(), min);
+        if(this.p_window.size() == 0){
+        	int nbBar = Math.min(quoteServer().size(), this.p_window.window());
+        	for (int bar = nbBar - 1; bar > 0; bar--) {
+        		IQuote quote = quoteServer().valueBack(bar);
+        		this.p_window.add(quote.getLow(), quote.getHigh());
+        	}
         }
+        IQuote quote = quoteServer().lastValue();
+        this.p_window.add(quote.getLow(), quote.getHigh());
+        
+        double max = this.p_window.max();
+        double min = this.p_window.min();
+        double last = quote.getClose();
         value = ((last-min) / (max-min)) * 100.;
         
         addValue(value);
@@ -3,6 +3,7 @@ package org.neurosystem.modules.marketdata.indicator.basic;
 import org.neurosystem.modules.marketdata.AppliedPrice;
 import org.neurosystem.modules.marketdata.IQuoteServer;
 import org.neurosystem.modules.marketdata.indicator.Indicator;
+import org.neurosystem.modules.marketdata.indicator.ValueLayout;
 import org.neurosystem.util.misc.Pair;
 
 /**
@@ -18,7 +19,7 @@ public class UDS extends Indicator<Pair<Double,Double>> {
     }
     
     public UDS(IQuoteServer qs, int length, int smooth, AppliedPrice appliedPrice) {
-   	 	super(qs);
+   	 	super(qs, ValueLayout.PAIR);
         this.p_length = length;
         this.p_multiplier = 2. / (smooth + 1.);
    }
@@ -48,7 +49,7 @@ public class UDS extends Indicator<Pair<Double,Double>> {
         if(size() == 0){
         	smoothEMA = hg;
 		}else{
-			smoothEMA = lastValue().getValue().getValue();
+			smoothEMA = doubleBack(0, 1);
 			smoothEMA += (hg - smoothEMA) * this.p_multiplier;
 		}
         value =  new Pair<Double, Double>(hg, smoothEMA);
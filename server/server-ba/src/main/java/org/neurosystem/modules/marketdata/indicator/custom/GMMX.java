@@ -1,6 +1,8 @@
 package org.neurosystem.modules.marketdata.indicator.custom;
 
 import org.neurosystem.modules.marketdata.indicator.IIndicator;
+import org.neurosystem.modules.marketdata.indicator.ValueLayout;
+import org.neurosystem.util.basic.SlidingMinMax;
 import org.neurosystem.util.misc.Pair;
 
 /**
@@ -9,29 +11,29 @@ import org.neurosystem.util.misc.Pair;
 public class GMMX extends IndComp<Pair<Double, Double>> {
 
 	private final IIndicator<Double> p_ind;
-	private final int p_length;
+	private final SlidingMinMax p_window;
 
     public GMMX(IIndicator<Double> ind, int length) {
-    	 super();
+    	 super(ValueLayout.PAIR);
     	 this.p_ind = ind;
-         this.p_length = length;
+         this.p_window = new SlidingMinMax(Math.max(1, Math.min(length, easybites)));
     }	
 	
     @Override
     public Pair<Double, Double> calculate() {
     	Pair<Double, Double> value;
     	
-    	int nbBar = Math.min(this.p_ind.size(), this.p_length);
+    	if(this.p_window.size() == 0){
+    		int nbBar = Math.min(this.p_ind.size(), this.p_window.window());
+    		for (int bar = nbBar - 1; bar > 0; bar--) {
+    			this.p_window.add(this.p_ind.doubleBack(bar));
+    		}
+    	}
+    	this.p_window.add(this.p_ind.doubleBack(0));
     	
-    	double min = this.p_ind.lastValue().getValue();
-    	double max = min;
-        for (int bar = 0; bar < nbBar; bar++) {
-        	min = Math.min(min, this.p_ind.valueBack(bar).getValue());
-        	max = Math.max(max, this.p_ind.valueBack(bar).getValue());
-        }
-        value = new Pair<Double, Double>(min, max);
+        value = new Pair<Double, Double>(this.p_window.min(), this.p_window.max());
         
-		addTimedValue(this.p_ind.lastValue().getTime(), value);
+		addTimedValue(this.p_ind.timeBack(0), value);
         return value;
     }
 }
\ No newline at end of file
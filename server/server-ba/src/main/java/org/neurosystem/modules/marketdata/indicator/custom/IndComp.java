@@ -6,42 +6,99 @@ import java.util.List;
 import org.neurosystem.modules.marketdata.indicator.IIndicator;
 import org.neurosystem.modules.marketdata.indicator.ITimedValue;
 import org.neurosystem.modules.marketdata.indicator.TimedValue;
-import org.neurosystem.util.basic.HasValues;
-import org.neurosystem.util.common.base.Objects;
+import org.neurosystem.modules.marketdata.indicator.ValueLayout;
+import org.neurosystem.util.basic.DoubleRingBuffer;
+import org.neurosystem.util.basic.RingBuffer;
 
 /**
- * Base class for all classes implementing composite technical indicators.
+ * Base class for all classes implementing composite technical indicators,
+ * storing their values as {@link org.neurosystem.modules.marketdata.indicator.Indicator}.
  */
 public abstract class IndComp<V> implements IIndicator<V> {
 	
-	private final List<ITimedValue<V>> p_values;
+	private final RingBuffer<ITimedValue<V>> p_values;
+	private final DoubleRingBuffer p_series;
+	private final ValueLayout<V> p_layout;
+	private ITimedValue<V> p_last;// last value read from the series, until a value is added
 	
 	public abstract V calculate();// must be implemented in subclasses.
 	
 	public IndComp() {
-		this.p_values = new ArrayList<>();
+		this.p_values = new RingBuffer<>(easybites);
+		this.p_series = null;
+		this.p_layout = null;
+    }
+	
+	public IndComp(ValueLayout<V> layout) {
+		this.p_values = null;
+		this.p_series = new DoubleRingBuffer(easybites, layout.width());
+		this.p_layout = layout;
     }
 	
 	@Override
 	public ITimedValue<V> get(int index) {
+		if(this.p_series != null){
+			if(index != this.p_series.size() - 1){
+				return new TimedValue<V>(this.p_series.getTime(index), this.p_layout.read(this.p_series, index));
+			}
+			if(this.p_last == null){
+				this.p_last = new TimedValue<V>(this.p_series.getTime(index), this.p_layout.read(this.p_series, index));
+			}
+			return this.p_last;
+		}
 		return this.p_values.get(index);
 	}
 
 	@Override
 	public int size() {
-		return this.p_values.size();
+		return (this.p_series != null) ? this.p_series.size() : this.p_values.size();
 	}
 
 	@Override
 	public List<ITimedValue<V>> subList(int from, int to) {
+		if(this.p_series != null){
+			final List<ITimedValue<V>> values = new ArrayList<>(to - from);
+			
+			for(int index = from; index < to; index++){
+				values.add(get(index));
+			}
+			return values;
+		}
 		return this.p_values.subList(from, to);
 	}
 	
+	@Override
+	public long timeBack(int nb) {
+		if(this.p_series != null){
+			return this.p_series.timeBack(nb);
+		}
+		return IIndicator.super.timeBack(nb);
+	}
+	
+	@Override
+	public double doubleBack(int nb, int column) {
+		if(this.p_series != null){
+			return this.p_series.valueBack(nb, column);
+		}
+		return IIndicator.super.doubleBack(nb, column);
+	}
+	
+	@Override
+	public int width() {
+		if(this.p_series != null){
+			return this.p_layout.width();
+		}
+		return IIndicator.super.width();
+	}
+	
 	protected void addTimedValue(long time, V value) {
-		if(this.p_values.size() >= easybites){
-			this.p_values.remove(0);
+		if(this.p_series != null){
+			this.p_series.add(time);
+			this.p_layout.write(value, this.p_series);
+			this.p_last = null;
+		}else{
+			this.p_values.add(new TimedValue<V>(time, value));
 		}
-		this.p_values.add(new TimedValue<V>(time, value));
     }
 	
 	/* (non-Javadoc)
@@ -51,7 +108,7 @@ public abstract class IndComp<V> implements IIndicator<V> {
 	public boolean equals(Object obj){
 		if (obj instanceof IndComp) {
 			IndComp<?> that = (IndComp<?>) obj;
-			return Objects.equal(this.p_values, that.p_values);
+			return IIndicator.sameValues(this, that);
 		}
         
 		return false;
@@ -62,7 +119,7 @@ public abstract class IndComp<V> implements IIndicator<V> {
      */
 	@Override
 	public int hashCode() {
-		return ((this.p_values == null) ? 0 : this.p_values.hashCode());
+		return IIndicator.valuesHashCode(this);
 	}
 	
 	 /* (non-Javadoc)
@@ -70,6 +127,6 @@ public abstract class IndComp<V> implements IIndicator<V> {
      */
 	@Override
 	public String toString() {
-        return String.format("%s", HasValues.formatedValues(this.p_values));
+        return IIndicator.formatedValues(this);
 	}
 }
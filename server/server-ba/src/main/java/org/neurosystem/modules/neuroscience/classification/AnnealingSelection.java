@@ -0,0 +1,59 @@
+package org.neurosystem.modules.neuroscience.classification;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.neurosystem.modules.riskmetric.metric.IMetricKey;
+import org.neurosystem.util.common.annotations.javax.Nonnull;
+import org.neurosystem.util.common.base.Preconditions;
+
+/**
+ * Simulated annealing: a random single gene toggle is accepted when it
+ * improves the result, or otherwise with a probability falling with its
+ * loss of total P&amp;L and with the temperature, which cools linearly to
+ * zero over the given number of steps. The best result seen is returned.
+ */
+public final class AnnealingSelection implements ISelection {
+
+	private final int p_steps;
+	private final double p_temperature;
+	private final long p_seed;
+
+	public AnnealingSelection(int steps, double temperature, long seed) {
+		Preconditions.checkArgument(steps > 0, "Steps must be positive: %s", steps);
+		Preconditions.checkArgument(temperature > 0., "Temperature must be positive: %s", temperature);
+		this.p_steps = steps;
+		this.p_temperature = temperature;
+		this.p_seed = seed;
+	}
+
+	@Override
+	public IHeuristic select(@Nonnull FeatureSearch search, @Nonnull BitSet deleted) {
+		Random random = new Random(this.p_seed);
+
+		BitSet current = deleted;
+		IMetricKey curResult = search.evaluate(current);
+		BitSet bestSet = current;
+		IMetricKey bestResult = curResult;
+
+		for(int step = 0; step < this.p_steps; step++){
+			double temperature = this.p_temperature * (1. - (double) step / this.p_steps);
+
+			BitSet candidate = (BitSet) current.clone();
+			candidate.flip(random.nextInt(search.getGeneSZ()));
+			IMetricKey newResult = search.evaluate(candidate);
+
+			if(FeatureSearch.compare(newResult, curResult)
+					|| random.nextDouble() < Math.exp((newResult.getTPL() - curResult.getTPL()) / temperature)){
+				current = candidate;
+				curResult = newResult;
+
+				if(FeatureSearch.compare(curResult, bestResult)){
+					bestSet = current;
+					bestResult = curResult;
+				}
+			}
+		}
+		return search.heuristic(bestSet);
+	}
+}
@@ -0,0 +1,69 @@
+package org.neurosystem.modules.neuroscience.classification;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.neurosystem.modules.riskmetric.metric.IMetricKey;
+import org.neurosystem.util.common.annotations.javax.Nonnull;
+import org.neurosystem.util.common.base.Preconditions;
+
+/**
+ * Beam search: the single gene toggles of the <code>width</code> best sets
+ * are evaluated together and the best <code>width</code> of them all kept,
+ * until the best result stops improving.
+ */
+public final class BeamSelection implements ISelection {
+
+	private final int p_width;
+
+	public BeamSelection(int width) {
+		Preconditions.checkArgument(width > 0, "Beam width must be positive: %s", width);
+		this.p_width = width;
+	}
+
+	@Override
+	public IHeuristic select(@Nonnull FeatureSearch search, @Nonnull BitSet deleted) {
+		List<BitSet> beam = new ArrayList<>();
+		beam.add(deleted);
+		BitSet prvSet = deleted;
+		IMetricKey prvResult = search.evaluate(deleted);
+
+		while(true){
+			Set<BitSet> expanded = new LinkedHashSet<>(beam);
+			for(BitSet current:beam){
+				expanded.addAll(search.toggles(current));
+			}
+
+			final List<BitSet> candidates = new ArrayList<>(expanded);
+			final List<IMetricKey> results = search.evaluate(candidates);
+
+			List<Integer> order = new ArrayList<>();
+			for(int index = 0; index < candidates.size(); index++){
+				order.add(index);
+			}
+			Collections.sort(order, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer a, Integer b) {
+					return Double.compare(results.get(b).getTPL(), results.get(a).getTPL());
+				}
+			});
+
+			IMetricKey newResult = results.get(order.get(0));
+			if(!FeatureSearch.compare(newResult, prvResult)){
+				return search.heuristic(prvSet);
+			}
+			prvSet = candidates.get(order.get(0));
+			prvResult = newResult;
+
+			beam = new ArrayList<>();
+			for(int index = 0; index < Math.min(this.p_width, order.size()); index++){
+				beam.add(candidates.get(order.get(index)));
+			}
+		}
+	}
+}
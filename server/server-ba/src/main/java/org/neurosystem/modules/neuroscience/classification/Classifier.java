@@ -1,6 +1,7 @@
 package org.neurosystem.modules.neuroscience.classification;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -11,17 +12,14 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.FutureTask;
 
 import org.neurosystem.modules.neuroscience.dna.INucleic;
-import org.neurosystem.modules.neuroscience.mutation.Deletion;
 import org.neurosystem.modules.neuroscience.mutation.IMorphism;
-import org.neurosystem.modules.neuroscience.mutation.Morphism;
-import org.neurosystem.modules.neuroscience.statistics.IMetric;
 import org.neurosystem.modules.neuroscience.statistics.Metric;
-import org.neurosystem.modules.riskmetric.metric.IMetricKey;
 import org.neurosystem.modules.riskmetric.trade.ITradeKey;
 import org.neurosystem.modules.riskmetric.win.IWinKey;
 import org.neurosystem.util.basic.HasSide.Side;
 import org.neurosystem.util.basic.HasTime;
 import org.neurosystem.util.common.annotations.javax.Nonnull;
+import org.neurosystem.util.common.annotations.javax.Nullable;
 import org.neurosystem.util.common.collect.Maps;
 import org.neurosystem.util.misc.Pair;
 
@@ -30,7 +28,10 @@ public class Classifier implements IClassifier {
 	private final int p_geneSZ;
 	private final ExecutorService p_executor;
 	
-	private final Map<Integer, Map<INucleic, Pair<IMetric, IMetric>>> p_metrics;
+	private final Map<Integer, MetricTable> p_metrics;
+	
+	private volatile long p_evaluations;
+	private volatile double p_evaluationRate;
 	
 	public Classifier(@Nonnull int geneSZ, @Nonnull ExecutorService executor) {
 		this.p_geneSZ = geneSZ;
@@ -44,7 +45,7 @@ public class Classifier implements IClassifier {
 		return getMetrics().size();
 	}
 
-	private Map<Integer, Map<INucleic, Pair<IMetric, IMetric>>> getMetrics() {
+	private Map<Integer, MetricTable> getMetrics() {
 		return this.p_metrics;
 	}
 
@@ -62,117 +63,72 @@ public class Classifier implements IClassifier {
 		ITradeKey trade = entry.getValue();
 		Integer tzValue = HasTime.timeZone(trade.getTime());
 		
-		Map<INucleic, Pair<IMetric, IMetric>> metrics;
+		MetricTable metrics;
 		if(!this.p_metrics.containsKey(tzValue)){
-			metrics = new HashMap<>();
+			metrics = new MetricTable(getGeneSZ());
 			this.p_metrics.put(tzValue, metrics);
 		}else{
 			metrics = this.p_metrics.get(tzValue);
 		}
 		
-		Pair<IMetric, IMetric> pair;
-		if(!metrics.containsKey(key)){
-			pair = new Pair<>(new Metric(), new Metric());
-			metrics.put(key, pair);
-		}else{
-			pair = metrics.get(key);
-		}
-		
-		if(trade.getSide().isLong()) {
-			pair.getKey().addEntry(trade);
-		}else {
-			pair.getValue().addEntry(trade);
-		}
+		metrics.addEntry(key, trade);
 	}
 
 	@Override
 	public IHeuristic classification(IWinKey winKey) {
-		IMorphism morphism = new Morphism();
-
-		List<Integer> prvSureKeys = new ArrayList<>(), deletedValues = new ArrayList<>();
-		for(Integer idx = 0; idx < getGeneSZ(); idx++){
-			if(idx < getGeneSZ() / 3.){
-				prvSureKeys.add(idx);
-			}else{
-				deletedValues.add(idx);
+		return classification(winKey, new GreedySelection());
+	}
+	
+	@Override
+	public IHeuristic classification(@Nonnull IWinKey winKey, @Nonnull ISelection selection) {
+		BitSet deleted = new BitSet(getGeneSZ());
+		for(int idx = 0; idx < getGeneSZ(); idx++){
+			if(idx >= getGeneSZ() / 3.){
+				deleted.set(idx);
 			}
 		}
-		if(deletedValues.size() != 0){
-			morphism.addMutation(new Deletion(deletedValues));
-		}
 		
-		IHeuristic prvResult = training(morphism, winKey);
+		FeatureSearch search = new FeatureSearch(this, winKey, executor());
+		IHeuristic result = selection.select(search, deleted);
 		
-		/*log("");
-		log(String.format("I: %s, Mutation: %s", prvResults, morphism));*/
+		this.p_evaluations = search.getEvaluations();
+		this.p_evaluationRate = search.getEvaluationRate();
 		
-		//Selection
-		boolean sucess = false;
-		for(Integer idx = 0; idx < getGeneSZ(); idx++){
-			if(prvSureKeys.contains(idx)){
-				prvSureKeys.remove(idx);
-				deletedValues.add(idx);
-				
-				morphism = new Morphism();
-				if(deletedValues.size() != 0){
-					morphism.addMutation(new Deletion(deletedValues));
-				}
-				
-				IHeuristic newResult = training(morphism, winKey);
-				if(compare(newResult, prvResult)){
-					prvResult = newResult;
-					sucess = true;
-					
-					/*log("");
-					log(String.format("D: %s, Mutation: %s", prvResults, morphism));*/
-				}else{
-					prvSureKeys.add(idx);
-					deletedValues.remove(idx);
-				}
-			}else{
-				prvSureKeys.add(idx);
-				deletedValues.remove(idx);
-				
-				morphism = new Morphism();
-				if(deletedValues.size() != 0){
-					morphism.addMutation(new Deletion(deletedValues));
-				}
-				
-				IHeuristic newResult = training(morphism, winKey);
-				if(compare(newResult, prvResult)){
-					prvResult = newResult;
-					sucess = true;
-					
-					/*log("");
-					log(String.format("A: %s, Mutation: %s", prvResults, morphism));*/
-				}else{
-					prvSureKeys.remove(idx);
-					deletedValues.add(idx);
-				}
-			}
-			
-			if(idx.equals(getGeneSZ() - 1) && sucess){
-				sucess = false;
-				idx = 0;
-			}
-		}
-	
-		/*log("");
-		log(String.format("A: %s, Mutation: %s", prvResult, morphism));*/
+		log(String.format("A: %s, Mutation: %s, %s evaluations, %s evaluations/s", result, result.getMorphism(),
+				this.p_evaluations, this.p_evaluationRate));
 		
-		return prvResult;
+		return result;
+	}
+	
+	@Override
+	public long getEvaluations() {
+		return this.p_evaluations;
+	}
+	
+	@Override
+	public double getEvaluationRate() {
+		return this.p_evaluationRate;
 	}
 	
 	@Override
 	public IHeuristic training(@Nonnull IMorphism morphism, @Nonnull IWinKey winKey) {
-		Map<Integer, Map<INucleic, Pair<IMetric, IMetric>>> metrics =  deCodeInput(executor(), morphism, getMetrics());
+		return training(morphism, winKey, executor());
+	}
+	
+	/**
+	 * Trains decoding the time zones on the given executor, or in turn
+	 * without one.
+	 */
+	IHeuristic training(@Nonnull IMorphism morphism, @Nonnull IWinKey winKey, @Nullable ExecutorService executor) {
+		Map<Integer, MetricTable> metrics =  deCodeInput(executor, morphism, getGeneSZ(), getMetrics());
 		
 		Map<Integer, Map<INucleic, Side>> keys = new HashMap<>();
-		IMetric keyMetric = new Metric();
+		Metric keyMetric = new Metric();
 
-		for (Iterator<Entry<Integer, Map<INucleic, Pair<IMetric, IMetric>>>> itz = metrics.entrySet().iterator(); itz.hasNext();) {
-			Entry<Integer, Map<INucleic, Pair<IMetric, IMetric>>> entrytz = itz.next();
+		for (Iterator<Entry<Integer, MetricTable>> itz = metrics.entrySet().iterator(); itz.hasNext();) {
+			Entry<Integer, MetricTable> entrytz = itz.next();
 			Integer tzValue = entrytz.getKey();
+			MetricTable table = entrytz.getValue();
 			
 			Map<INucleic, Side> sides;
 			if(!keys.containsKey(tzValue)){
@@ -182,20 +138,20 @@ public class Classifier implements IClassifier {
 				sides = keys.get(tzValue);
 			}
 			
-			for (Iterator<Entry<INucleic, Pair<IMetric, IMetric>>> itn = entrytz.getValue().entrySet().iterator(); itn.hasNext();) {
-				Entry<INucleic, Pair<IMetric, IMetric>> entryn = itn.next();
-				INucleic key = entryn.getKey();
-				Pair<IMetric, IMetric> pair = entryn.getValue();
+			for (int slot = 0; slot < table.capacity(); slot++) {
+				if(!table.isUsed(slot)){
+					continue;
+				}
 				
-				if (pair.getKey().compare(winKey)) {
-					if (!pair.getValue().compare(winKey)) {
-						sides.put(key, Side.LONG);
-						keyMetric.addMetric(pair.getKey());
+				if (table.compare(slot, MetricTable.LONG, winKey)) {
+					if (!table.compare(slot, MetricTable.SHORT, winKey)) {
+						sides.put(table.getNucleic(slot), Side.LONG);
+						table.addTo(keyMetric, slot, MetricTable.LONG);
 					}
 				}else{
-					if (pair.getValue().compare(winKey)) {
-						sides.put(key, Side.SHORT);
-						keyMetric.addMetric(pair.getValue());
+					if (table.compare(slot, MetricTable.SHORT, winKey)) {
+						sides.put(table.getNucleic(slot), Side.SHORT);
+						table.addTo(keyMetric, slot, MetricTable.SHORT);
 					}
 				}
 			}
@@ -204,48 +160,37 @@ public class Classifier implements IClassifier {
 		return new Heuristic(morphism, keys, keyMetric);
 	}
 	
-	private static final Map<Integer, Map<INucleic, Pair<IMetric, IMetric>>> deCodeInput(ExecutorService executor, IMorphism morphism,
-			Map<Integer, Map<INucleic, Pair<IMetric, IMetric>>> input) {
+	private static final Map<Integer, MetricTable> deCodeInput(ExecutorService executor, IMorphism morphism, int geneSZ,
+			Map<Integer, MetricTable> input) {
 		
-		List<FutureTask<Entry<Integer, Map<INucleic, Pair<IMetric, IMetric>>>>> taskList = new ArrayList<>();
-		for (Iterator<Entry<Integer, Map<INucleic, Pair<IMetric, IMetric>>>> itr = input.entrySet().iterator(); itr.hasNext();) {
-			Entry<Integer, Map<INucleic, Pair<IMetric, IMetric>>> entry = itr.next();
+		final long[] mask = morphism.deletionMask(geneSZ);
+		
+		List<FutureTask<Entry<Integer, MetricTable>>> taskList = new ArrayList<>();
+		for (Iterator<Entry<Integer, MetricTable>> itr = input.entrySet().iterator(); itr.hasNext();) {
+			Entry<Integer, MetricTable> entry = itr.next();
 			Integer tzValue = entry.getKey();
-			Map<INucleic, Pair<IMetric, IMetric>> entryMap = entry.getValue();
+			MetricTable table = entry.getValue();
 			
-			FutureTask<Entry<Integer, Map<INucleic, Pair<IMetric, IMetric>>>> task = new FutureTask<>(
-					new Callable<Entry<Integer, Map<INucleic, Pair<IMetric, IMetric>>>>() {
+			FutureTask<Entry<Integer, MetricTable>> task = new FutureTask<>(
+					new Callable<Entry<Integer, MetricTable>>() {
 						@Override
-						public Entry<Integer, Map<INucleic, Pair<IMetric, IMetric>>> call() {
-							Map<INucleic, Pair<IMetric, IMetric>> decodMap = new HashMap<>();
-							Pair<IMetric, IMetric> pair;
-
-							for (Iterator<Entry<INucleic, Pair<IMetric, IMetric>>> it = entryMap.entrySet()
-									.iterator(); it.hasNext();) {
-								Entry<INucleic, Pair<IMetric, IMetric>> entry = it.next();
-
-								INucleic newKey = morphism.morph(entry.getKey());
-								if (!decodMap.containsKey(newKey)) {
-									pair = new Pair<>(new Metric(), new Metric());
-									decodMap.put(newKey, pair);
-								} else {
-									pair = decodMap.get(newKey);
-								}
-
-								pair.getKey().addMetric(entry.getValue().getKey());
-								pair.getValue().addMetric(entry.getValue().getValue());
-							}
-							return Maps.immutableEntry(tzValue, decodMap);
+						public Entry<Integer, MetricTable> call() {
+							MetricTable decoded = (mask != null) ? table.morph(mask) : table.morph(morphism);
+							return Maps.immutableEntry(tzValue, decoded);
 						}
 					});
 			taskList.add(task);
-			executor.execute(task);
+			if(executor != null){
+				executor.execute(task);
+			}else{
+				task.run();
+			}
 		}
 
-		Map<Integer, Map<INucleic, Pair<IMetric, IMetric>>> output = new HashMap<>();
+		Map<Integer, MetricTable> output = new HashMap<>();
 		try {
-			for (FutureTask<Entry<Integer, Map<INucleic, Pair<IMetric, IMetric>>>> task : taskList) {
-				Entry<Integer, Map<INucleic, Pair<IMetric, IMetric>>> entry = task.get();
+			for (FutureTask<Entry<Integer, MetricTable>> task : taskList) {
+				Entry<Integer, MetricTable> entry = task.get();
 				output.put(entry.getKey(), entry.getValue());
 			}
 		} catch (Exception e) {
@@ -257,18 +202,6 @@ public class Classifier implements IClassifier {
 		return output;
 	}
 	
-	private boolean compare(IMetricKey newSum, IMetricKey prvSum) {
-		double epsilon = 1., omega = 0.01;
-		if((newSum.getPWP() > prvSum.getPWP() + epsilon) && (newSum.getTPL() > prvSum.getTPL() + epsilon)){
-			return true;
-		}
-		if((newSum.getPWP() > prvSum.getPWP() - epsilon) && (newSum.getTPL() > prvSum.getTPL() + omega)){
-			return true;
-		}
-
-		return false;
-	}
-
 	protected static void log(String message) {
 		System.out.println(message);
 		System.err.println(message);
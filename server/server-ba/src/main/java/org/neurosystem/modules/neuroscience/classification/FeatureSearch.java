@@ -0,0 +1,200 @@
+package org.neurosystem.modules.neuroscience.classification;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neurosystem.modules.neuroscience.mutation.Deletion;
+import org.neurosystem.modules.neuroscience.mutation.IMorphism;
+import org.neurosystem.modules.neuroscience.mutation.Morphism;
+import org.neurosystem.modules.riskmetric.metric.IMetricKey;
+import org.neurosystem.modules.riskmetric.metric.MetricKey;
+import org.neurosystem.modules.riskmetric.win.IWinKey;
+import org.neurosystem.util.common.annotations.javax.Nonnull;
+import org.neurosystem.util.common.annotations.javax.Nullable;
+import org.neurosystem.util.common.base.Throwables;
+
+/**
+ * Evaluation of the deleted gene sets of one classification for the
+ * {@link ISelection} strategies: each set is trained once, its metric
+ * summary being kept by set, and the sets of a batch are trained in
+ * parallel on the executor, each one decoding its time zones in turn.
+ * Only the heuristic of the best set trained is kept, the one of another
+ * set being trained again when asked for.
+ */
+public final class FeatureSearch {
+
+	private final Classifier p_classifier;
+	private final IWinKey p_winKey;
+	private final ExecutorService p_executor;
+
+	private final ConcurrentMap<BitSet, IMetricKey> p_results;
+	private final AtomicLong p_evaluations;
+	private final long p_start;
+
+	private BitSet p_bestSet;
+	private IHeuristic p_bestResult;
+
+	FeatureSearch(@Nonnull Classifier classifier, @Nonnull IWinKey winKey, @Nullable ExecutorService executor) {
+		this.p_classifier = classifier;
+		this.p_winKey = winKey;
+		this.p_executor = executor;
+
+		this.p_results = new ConcurrentHashMap<>();
+		this.p_evaluations = new AtomicLong();
+		this.p_start = System.nanoTime();
+	}
+
+	public int getGeneSZ() {
+		return this.p_classifier.getGeneSZ();
+	}
+
+	/**
+	 * Returns the metric summary of the heuristic trained without the given
+	 * genes.
+	 */
+	public IMetricKey evaluate(@Nonnull BitSet deleted) {
+		IMetricKey result = this.p_results.get(deleted);
+		if(result == null){
+			result = new MetricKey(train(deleted));
+
+			IMetricKey previous = this.p_results.putIfAbsent((BitSet) deleted.clone(), result);
+			if(previous != null){
+				result = previous;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the metric summaries of the heuristics trained without each of
+	 * the given gene sets, in their order.
+	 */
+	public List<IMetricKey> evaluate(@Nonnull List<BitSet> candidates) {
+		if(this.p_executor == null || candidates.size() < 2){
+			final List<IMetricKey> results = new ArrayList<>();
+			for(BitSet deleted:candidates){
+				results.add(evaluate(deleted));
+			}
+			return results;
+		}
+
+		List<FutureTask<IMetricKey>> taskList = new ArrayList<>();
+		for(final BitSet deleted:candidates){
+			FutureTask<IMetricKey> task = new FutureTask<>(new Callable<IMetricKey>() {
+				@Override
+				public IMetricKey call() {
+					return evaluate(deleted);
+				}
+			});
+			taskList.add(task);
+			if(this.p_results.containsKey(deleted)){
+				task.run();
+			}else{
+				this.p_executor.execute(task);
+			}
+		}
+
+		final List<IMetricKey> results = new ArrayList<>();
+		try {
+			for(FutureTask<IMetricKey> task:taskList){
+				results.add(task.get());
+			}
+		} catch (ExecutionException e) {
+			throw Throwables.propagate(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw Throwables.propagate(e);
+		}
+		return results;
+	}
+
+	/**
+	 * Returns the heuristic trained without the given genes, training it
+	 * again unless it is the best one trained so far.
+	 */
+	public IHeuristic heuristic(@Nonnull BitSet deleted) {
+		synchronized(this){
+			if(deleted.equals(this.p_bestSet)){
+				return this.p_bestResult;
+			}
+		}
+		return train(deleted);
+	}
+
+	private IHeuristic train(BitSet deleted) {
+		IHeuristic result = this.p_classifier.training(morphism(deleted), this.p_winKey, null);
+		this.p_evaluations.incrementAndGet();
+
+		synchronized(this){
+			if(this.p_bestResult == null || result.getTPL() > this.p_bestResult.getTPL()){
+				this.p_bestSet = (BitSet) deleted.clone();
+				this.p_bestResult = result;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the gene sets differing from the given one by a single gene.
+	 */
+	public List<BitSet> toggles(@Nonnull BitSet deleted) {
+		final List<BitSet> toggles = new ArrayList<>();
+
+		for(int index = 0; index < getGeneSZ(); index++){
+			BitSet toggle = (BitSet) deleted.clone();
+			toggle.flip(index);
+			toggles.add(toggle);
+		}
+		return toggles;
+	}
+
+	/**
+	 * Returns the number of trainings run, the sets already evaluated not
+	 * counting.
+	 */
+	public long getEvaluations() {
+		return this.p_evaluations.get();
+	}
+
+	public double getEvaluationRate() {
+		double seconds = (System.nanoTime() - this.p_start) / 1e9;
+		return (seconds > 0) ? getEvaluations() / seconds : 0.;
+	}
+
+	/**
+	 * Returns whether a result improves on another one, as the greedy
+	 * search always accepted it.
+	 */
+	public static boolean compare(@Nonnull IMetricKey newSum, @Nonnull IMetricKey prvSum) {
+		double epsilon = 1., omega = 0.01;
+		if((newSum.getPWP() > prvSum.getPWP() + epsilon) && (newSum.getTPL() > prvSum.getTPL() + epsilon)){
+			return true;
+		}
+		if((newSum.getPWP() > prvSum.getPWP() - epsilon) && (newSum.getTPL() > prvSum.getTPL() + omega)){
+			return true;
+		}
+
+		return false;
+	}
+
+	static IMorphism morphism(BitSet deleted) {
+		IMorphism morphism = new Morphism();
+
+		List<Integer> deletedValues = new ArrayList<>();
+		for(int index = deleted.nextSetBit(0); index >= 0; index = deleted.nextSetBit(index + 1)){
+			deletedValues.add(index);
+		}
+		if(deletedValues.size() != 0){
+			morphism.addMutation(new Deletion(deletedValues));
+		}
+		return morphism;
+	}
+}
@@ -0,0 +1,41 @@
+package org.neurosystem.modules.neuroscience.classification;
+
+import java.util.BitSet;
+import java.util.List;
+
+import org.neurosystem.modules.riskmetric.metric.IMetricKey;
+import org.neurosystem.util.common.annotations.javax.Nonnull;
+
+/**
+ * Steepest ascent: all the single gene toggles of the current set are
+ * evaluated together and the best improving one is kept, until none
+ * improves.
+ */
+public final class GreedySelection implements ISelection {
+
+	@Override
+	public IHeuristic select(@Nonnull FeatureSearch search, @Nonnull BitSet deleted) {
+		BitSet current = deleted;
+		IMetricKey prvResult = search.evaluate(current);
+
+		while(true){
+			List<BitSet> toggles = search.toggles(current);
+			List<IMetricKey> results = search.evaluate(toggles);
+
+			int best = -1;
+			for(int index = 0; index < results.size(); index++){
+				IMetricKey newResult = results.get(index);
+				if(FeatureSearch.compare(newResult, prvResult)
+						&& (best < 0 || newResult.getTPL() > results.get(best).getTPL())){
+					best = index;
+				}
+			}
+			if(best < 0){
+				return search.heuristic(current);
+			}
+
+			current = toggles.get(best);
+			prvResult = results.get(best);
+		}
+	}
+}
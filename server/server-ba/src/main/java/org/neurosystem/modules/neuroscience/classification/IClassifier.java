@@ -15,5 +15,20 @@ public interface IClassifier {
 	
 	public IHeuristic classification(IWinKey winKey);
 	
+	/**
+	 * Classifies keeping the genes chosen by the given selection strategy.
+	 */
+	public IHeuristic classification(@Nonnull IWinKey winKey, @Nonnull ISelection selection);
+	
 	public IHeuristic training(@Nonnull IMorphism morphism, @Nonnull IWinKey winKey);
+	
+	/**
+	 * Returns the number of trainings the last classification ran.
+	 */
+	public long getEvaluations();
+	
+	/**
+	 * Returns the trainings per second of the last classification.
+	 */
+	public double getEvaluationRate();
 }
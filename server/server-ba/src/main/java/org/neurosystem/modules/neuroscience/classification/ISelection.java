@@ -0,0 +1,17 @@
+package org.neurosystem.modules.neuroscience.classification;
+
+import java.util.BitSet;
+
+import org.neurosystem.util.common.annotations.javax.Nonnull;
+
+/**
+ * Strategy selecting the genes a classification keeps, the others being
+ * deleted.
+ */
+public interface ISelection {
+
+	/**
+	 * Returns the best heuristic found from the given deleted genes.
+	 */
+	public IHeuristic select(@Nonnull FeatureSearch search, @Nonnull BitSet deleted);
+}
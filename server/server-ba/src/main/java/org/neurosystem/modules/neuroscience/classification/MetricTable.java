@@ -0,0 +1,206 @@
+package org.neurosystem.modules.neuroscience.classification;
+
+import java.util.Arrays;
+
+import org.neurosystem.modules.neuroscience.dna.INucleic;
+import org.neurosystem.modules.neuroscience.dna.Nucleic;
+import org.neurosystem.modules.neuroscience.mutation.IMorphism;
+import org.neurosystem.modules.neuroscience.statistics.Metric;
+import org.neurosystem.modules.riskmetric.trade.ITradeKey;
+import org.neurosystem.modules.riskmetric.win.IWinKey;
+import org.neurosystem.util.common.annotations.javax.Nonnull;
+import org.neurosystem.util.common.base.Preconditions;
+
+/**
+ * Long and short metrics of packed nucleics, in an open addressing table:
+ * the keys in one <code>long[]</code>, the sums of each metric field and
+ * side in one <code>double[]</code>. The sums start as a {@link Metric}
+ * does, so both give the same figures.
+ */
+final class MetricTable {
+
+	static final int LONG = 0;
+	static final int SHORT = 1;
+
+	private static final int TNB = 0, WNB = 1, PNL = 2, MAE = 3, MFE = 4;
+	private static final int FIELDS = 5;
+
+	private final int p_length;
+	private final int p_words;
+
+	private long[] p_keys;
+	private boolean[] p_used;
+	private double[][] p_sums;
+	private int p_size;
+
+	MetricTable(int length) {
+		this(length, 16);
+	}
+
+	private MetricTable(int length, int capacity) {
+		this.p_length = length;
+		this.p_words = Nucleic.words(length);
+		allocate(capacity);
+	}
+
+	private void allocate(int capacity) {
+		this.p_keys = new long[capacity * this.p_words];
+		this.p_used = new boolean[capacity];
+		this.p_sums = new double[2 * FIELDS][capacity];
+		this.p_size = 0;
+	}
+
+	int size() {
+		return this.p_size;
+	}
+
+	int capacity() {
+		return this.p_used.length;
+	}
+
+	boolean isUsed(int slot) {
+		return this.p_used[slot];
+	}
+
+	void addEntry(@Nonnull INucleic dna, @Nonnull ITradeKey trade) {
+		Preconditions.checkArgument(dna.size() == this.p_length, "Nucleic of %s genes instead of %s", dna.size(), this.p_length);
+		long[] bits = (dna instanceof Nucleic) ? ((Nucleic) dna).getBits() : Nucleic.pack(dna.getGenes());
+
+		int base = trade.getSide().isLong() ? LONG * FIELDS : SHORT * FIELDS;
+		int slot = slot(bits, 0);
+		this.p_sums[base + TNB][slot]++;
+		if(trade.getPNL() > 0){
+			this.p_sums[base + WNB][slot]++;
+		}
+		this.p_sums[base + PNL][slot] += trade.getPNL();
+		this.p_sums[base + MAE][slot] += trade.getMAE();
+		this.p_sums[base + MFE][slot] += trade.getMFE();
+	}
+
+	/**
+	 * Returns the table of the keys and-ed with the mask, the metrics of
+	 * the keys becoming equal summed.
+	 */
+	MetricTable morph(@Nonnull long[] mask) {
+		MetricTable table = new MetricTable(this.p_length, capacity());
+		long[] key = new long[this.p_words];
+
+		for(int slot = 0; slot < capacity(); slot++){
+			if(this.p_used[slot]){
+				int offset = slot * this.p_words;
+				for(int word = 0; word < this.p_words; word++){
+					key[word] = this.p_keys[offset + word] & mask[word];
+				}
+				table.merge(table.slot(key, 0), this, slot);
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Returns the table of the morphed keys, for the morphisms having no
+	 * mask.
+	 */
+	MetricTable morph(@Nonnull IMorphism morphism) {
+		MetricTable table = new MetricTable(this.p_length, capacity());
+
+		for(int slot = 0; slot < capacity(); slot++){
+			if(this.p_used[slot]){
+				INucleic morphed = morphism.morph(getNucleic(slot));
+				Preconditions.checkArgument(morphed.size() == this.p_length, "Morphism changing the nucleic size: %s", morphism);
+				long[] bits = (morphed instanceof Nucleic) ? ((Nucleic) morphed).getBits() : Nucleic.pack(morphed.getGenes());
+				table.merge(table.slot(bits, 0), this, slot);
+			}
+		}
+		return table;
+	}
+
+	INucleic getNucleic(int slot) {
+		int offset = slot * this.p_words;
+		return new Nucleic(Arrays.copyOfRange(this.p_keys, offset, offset + this.p_words), this.p_length);
+	}
+
+	/**
+	 * Compares the metric of a side as {@link IWinKey#compare(IWinKey)}.
+	 */
+	boolean compare(int slot, int side, @Nonnull IWinKey winKey) {
+		int base = side * FIELDS;
+		double tnb = this.p_sums[base + TNB][slot];
+
+		return (this.p_sums[base + PNL][slot] / tnb >= winKey.getPNL())
+				&& (this.p_sums[base + WNB][slot] / tnb >= winKey.getPWP())
+				&& (tnb >= winKey.getTNB());
+	}
+
+	void addTo(@Nonnull Metric metric, int slot, int side) {
+		int base = side * FIELDS;
+
+		metric.addSums(this.p_sums[base + TNB][slot], this.p_sums[base + WNB][slot],
+				this.p_sums[base + PNL][slot], this.p_sums[base + MAE][slot], this.p_sums[base + MFE][slot]);
+	}
+
+	private void merge(int slot, MetricTable from, int fromSlot) {
+		for(int field = 0; field < 2 * FIELDS; field++){
+			this.p_sums[field][slot] += from.p_sums[field][fromSlot];
+		}
+	}
+
+	/**
+	 * Returns the slot of the key, inserting it if it is new.
+	 */
+	private int slot(long[] key, int keyOffset) {
+		if(2 * (this.p_size + 1) > capacity()){
+			grow();
+		}
+
+		int mask = capacity() - 1;
+		int slot = hash(key, keyOffset) & mask;
+		while(this.p_used[slot]){
+			if(equal(slot, key, keyOffset)){
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		System.arraycopy(key, keyOffset, this.p_keys, slot * this.p_words, this.p_words);
+		this.p_used[slot] = true;
+		this.p_sums[LONG * FIELDS + TNB][slot] = Metric.INITIAL_TNB;
+		this.p_sums[SHORT * FIELDS + TNB][slot] = Metric.INITIAL_TNB;
+		this.p_size++;
+		return slot;
+	}
+
+	private void grow() {
+		long[] keys = this.p_keys;
+		boolean[] used = this.p_used;
+		double[][] sums = this.p_sums;
+
+		allocate(2 * used.length);
+		for(int slot = 0; slot < used.length; slot++){
+			if(used[slot]){
+				int newSlot = slot(keys, slot * this.p_words);
+				for(int field = 0; field < 2 * FIELDS; field++){
+					this.p_sums[field][newSlot] = sums[field][slot];
+				}
+			}
+		}
+	}
+
+	private boolean equal(int slot, long[] key, int keyOffset) {
+		int offset = slot * this.p_words;
+		for(int word = 0; word < this.p_words; word++){
+			if(this.p_keys[offset + word] != key[keyOffset + word]){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int hash(long[] key, int keyOffset) {
+		long hash = 0;
+		for(int word = 0; word < this.p_words; word++){
+			hash = (hash ^ key[keyOffset + word]) * 0x9E3779B97F4A7C15L;
+		}
+		return (int) (hash ^ (hash >>> 32));
+	}
+}
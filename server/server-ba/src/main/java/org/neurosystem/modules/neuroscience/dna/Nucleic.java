@@ -1,47 +1,80 @@
 package org.neurosystem.modules.neuroscience.dna;
 
 import java.util.Arrays;
+import java.util.List;
 
 import org.neurosystem.util.common.annotations.javax.Nonnull;
 import org.neurosystem.util.common.annotations.javax.concurrent.Immutable;
 
+/**
+ * Genes packed 2 bits each in <code>long</code> words, 32 genes per word:
+ * F is 00, U is 01 and D is 10.
+ */
 @Immutable
 public final class Nucleic implements INucleic {
 
+	public static final int GENES_PER_WORD = 32;
+
+	private static final IGene[] CODES = { IGene.F, IGene.U, IGene.D };
+	private static final long LOW_BITS = 0x5555555555555555L;
+
 	private final int length;
-	private final IGene[] p_genes;
-	
+	private final long[] p_bits;
+
 	private final int p_hashUID;
-	
+
 	public Nucleic(@Nonnull IGene[] genes) {
-		this.p_genes = genes;
-		
+		this(pack(genes), genes.length);
+	}
+
+	/**
+	 * Builds a nucleic of the given length from its packed genes, which are
+	 * not copied.
+	 */
+	public Nucleic(@Nonnull long[] bits, int length) {
+		this.p_bits = bits;
+
 		//Fast access UID
-		this.length = genes.length;
+		this.length = length;
 		this.p_hashUID = getHashUID();
 	}
-	
+
 	private int getHashUID(){
         final int prime = 31;
         int hash = 1;
-		
-		for (int i = 0; i < this.length; i++) {
-			hash = prime * hash + this.p_genes[i].code();
-		}
-		
+
+        hash = prime * hash + this.length;
+        hash = prime * hash + Arrays.hashCode(this.p_bits);
+
 		return hash;
     }
-	
+
 	@Override
 	public IGene[] getGenes() {
-		return this.p_genes;
+		IGene[] genes = new IGene[this.length];
+
+		for (int i = 0; i < this.length; i++) {
+			genes[i] = getGene(i);
+		}
+		return genes;
+	}
+
+	public IGene getGene(int index) {
+		return CODES[(int) (this.p_bits[index / GENES_PER_WORD] >>> (2 * (index % GENES_PER_WORD))) & 3];
 	}
-	
+
+	/**
+	 * Returns the packed genes, which must not be modified.
+	 */
+	public long[] getBits() {
+		return this.p_bits;
+	}
+
 	@Override
 	public int size() {
 		return this.length;
 	}
-	
+
 	/* (non-Javadoc)
      * @see java.lang.Object#equals(java.lang.Object)
      */
@@ -56,14 +89,14 @@ public final class Nucleic implements INucleic {
 	    if (getClass() != obj.getClass()){
             return false;
 	    }
-	    
+
 	    Nucleic other = (Nucleic) obj;
 	    if(this.length != other.length)
     		return false;
-	    
-	    return Arrays.equals(this.p_genes, other.p_genes);
+
+	    return Arrays.equals(this.p_bits, other.p_bits);
 	}
-	
+
 	/* (non-Javadoc)
      * @see java.lang.Object#hashCode()
      */
@@ -71,37 +104,76 @@ public final class Nucleic implements INucleic {
 	public int hashCode() {
 	    return this.p_hashUID;
 	}
-	
+
 	 /* (non-Javadoc)
     * @see java.lang.Object#toString()
     */
 	@Override
 	public String toString() {
 		StringBuilder str = new StringBuilder(size());
-		for(IGene gene:this.p_genes){
-			str.append(gene.code());
+		for(int index = 0; index < this.length; index++){
+			str.append(getGene(index).code());
 		}
-		
+
 		return str.toString();
 	}
-		
+
+	public static int words(int length) {
+		return (length + GENES_PER_WORD - 1) / GENES_PER_WORD;
+	}
+
+	public static long[] pack(@Nonnull IGene[] genes) {
+		long[] bits = new long[words(genes.length)];
+
+		for(int index = 0; index < genes.length; index++){
+			long code = (genes[index] == IGene.U) ? 1L : (genes[index] == IGene.D) ? 2L : 0L;
+			bits[index / GENES_PER_WORD] |= code << (2 * (index % GENES_PER_WORD));
+		}
+		return bits;
+	}
+
+	/**
+	 * Returns the mask clearing the genes at the given indexes, which sets
+	 * them to F when and-ed with the packed genes.
+	 */
+	public static long[] deletionMask(int length, @Nonnull List<Integer> indexes) {
+		long[] mask = new long[words(length)];
+		Arrays.fill(mask, -1L);
+
+		for(Integer index:indexes){
+			mask[index / GENES_PER_WORD] &= ~(3L << (2 * (index % GENES_PER_WORD)));
+		}
+		return mask;
+	}
+
+	public static INucleic mask(@Nonnull Nucleic dna, @Nonnull long[] mask) {
+		long[] bits = new long[dna.p_bits.length];
+
+		for(int word = 0; word < bits.length; word++){
+			bits[word] = dna.p_bits[word] & mask[word];
+		}
+		return new Nucleic(bits, dna.length);
+	}
+
 	public static INucleic valueOf(String regex){
 		IGene[] genes = new IGene[regex.length()];
-		
+
 		for(int index = 0; index < regex.length(); index++){
 			genes[index] = IGene.fromCode(regex.charAt(index));
 		}
-		
+
 		return new Nucleic(genes);
 	}
-	
+
 	public static INucleic flipsyde(INucleic dna){
-		IGene[] genes = new IGene[dna.size()];
-		
-		for(int index = 0; index < dna.size(); index++){
-			genes[index] = IGene.fromValue(-dna.getGenes()[index].value());
+		long[] bits = (dna instanceof Nucleic) ? ((Nucleic) dna).p_bits : pack(dna.getGenes());
+		long[] flipped = new long[bits.length];
+
+		//U and D swap their two bits, F stays 00
+		for(int word = 0; word < bits.length; word++){
+			flipped[word] = ((bits[word] & LOW_BITS) << 1) | ((bits[word] >>> 1) & LOW_BITS);
 		}
-		
-		return new Nucleic(genes);
+
+		return new Nucleic(flipped, dna.size());
 	}
 }
@@ -14,4 +14,12 @@ public interface IMorphism {
 	public List<IMutation> getMutations();
 	
 	public INucleic morph(@Nonnull INucleic dna);
+	
+	/**
+	 * Returns the mask applying the morphism to packed genes of the given
+	 * length, or null if it does more than deleting genes.
+	 */
+	public default long[] deletionMask(int length) {
+		return null;
+	}
 }
@@ -10,6 +10,7 @@ import org.neurosystem.modules.neuroscience.dna.Nucleic;
 import org.neurosystem.util.basic.HasValues;
 import org.neurosystem.util.common.annotations.javax.Nonnull;
 import org.neurosystem.util.common.base.Objects;
+import org.neurosystem.util.misc.Pair;
 
 public final class Morphism implements IMorphism {
 
@@ -17,6 +18,11 @@ public final class Morphism implements IMorphism {
 	
 	private int p_size;
 	
+	/**
+	 * Deletion mask of the last length asked for, reset on each change
+	 */
+	private volatile Pair<Integer, long[]> p_mask;
+	
 	public Morphism(){
 		this.p_mutations = new ArrayList<>();
 		
@@ -33,12 +39,14 @@ public final class Morphism implements IMorphism {
 	public void addMutation(@Nonnull IMutation mutation) {
 		this.p_mutations.add(mutation);
 		this.p_size++;
+		this.p_mask = null;
 	}
 
 	@Override
 	public void reversion() {
 		this.p_mutations.remove(this.p_size-1);
 		this.p_size--;
+		this.p_mask = null;
 	}	
 
 	@Override
@@ -47,18 +55,10 @@ public final class Morphism implements IMorphism {
 			return dna;
 		}
 		
-		if((this.p_size == 1) && (this.p_mutations.get(0) instanceof Deletion)) {
-			List<Integer> deleted = this.p_mutations.get(0).getIndexes();
-			
-			IGene[] genes = new IGene[dna.size() - deleted.size()];
-			int counter = 0;
-			for(int index = 0; index < dna.size(); index++){
-				if(!deleted.contains(index)){
-					genes[counter] = dna.getGenes()[index];
-					counter++;
-				}
-			}
-			return new Nucleic(genes);
+		long[] mask = deletionMask(dna.size());
+		if(mask != null) {
+			Nucleic nucleic = (dna instanceof Nucleic) ? (Nucleic) dna : new Nucleic(dna.getGenes());
+			return Nucleic.mask(nucleic, mask);
 		}
 		
 		IGene[] genes = Arrays.copyOf(dna.getGenes(), dna.size());		
@@ -70,6 +70,27 @@ public final class Morphism implements IMorphism {
 
 	}
 	
+	@Override
+	public long[] deletionMask(int length) {
+		Pair<Integer, long[]> mask = this.p_mask;
+		if(mask != null && mask.getKey() == length){
+			return mask.getValue();
+		}
+		
+		List<Integer> deleted = new ArrayList<>();
+		for (int i = 0; i < this.p_size; i++) {
+			IMutation mutation = this.p_mutations.get(i);
+			if(!(mutation instanceof Deletion)){
+				return null;
+			}
+			deleted.addAll(mutation.getIndexes());
+		}
+		
+		mask = new Pair<>(length, Nucleic.deletionMask(length, deleted));
+		this.p_mask = mask;
+		return mask.getValue();
+	}
+	
 	/* (non-Javadoc)
      * @see java.lang.Object#equals(java.lang.Object)
      */
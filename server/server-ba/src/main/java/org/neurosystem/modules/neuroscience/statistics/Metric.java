@@ -6,7 +6,12 @@ import org.neurosystem.util.common.annotations.javax.Nonnull;
 
 public class Metric implements IMetric {
 	
-	private double p_tnb = 0.001;
+	/**
+	 * Number of trades a metric starts with, keeping its ratios defined
+	 */
+	public static final double INITIAL_TNB = 0.001;
+	
+	private double p_tnb = INITIAL_TNB;
 	private double p_wnb = 0.0;
 	
 	private double p_pnl = 0.0;
@@ -45,6 +50,19 @@ public class Metric implements IMetric {
 		this.p_mfe += mfe;
 	}
 	
+	/**
+	 * Adds raw sums, the ones {@link #addMetric(IMetricKey)} gets back from
+	 * the ratios of a metric.
+	 */
+	public void addSums(double tnb, double wnb, double pnl, double mae, double mfe) {
+		this.p_tnb += tnb;
+		this.p_wnb += wnb;
+		
+		this.p_pnl += pnl;
+		this.p_mae += mae;
+		this.p_mfe += mfe;
+	}
+	
 	@Override
 	public double getTNB() {
 		return this.p_tnb;
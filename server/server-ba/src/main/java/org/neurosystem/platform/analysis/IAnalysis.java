@@ -18,4 +18,9 @@ public interface IAnalysis {
 	public ITrendKey getTrendKey();
 	
 	public List<Pair<INucleic, ITradeKey>> getClosedTrades();
+	
+	/**
+	 * Returns the mean calculation time of each indicator, in nanoseconds.
+	 */
+	public List<Pair<String, Long>> getComputeTimes();
 }
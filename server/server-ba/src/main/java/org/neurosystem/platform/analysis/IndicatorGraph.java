@@ -0,0 +1,300 @@
+package org.neurosystem.platform.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+
+import org.neurosystem.modules.marketdata.AppliedPrice;
+import org.neurosystem.modules.marketdata.indicator.IIndicator;
+import org.neurosystem.modules.marketdata.indicator.Indicator;
+import org.neurosystem.util.common.annotations.javax.Nonnull;
+import org.neurosystem.util.common.annotations.javax.Nullable;
+import org.neurosystem.util.common.base.Preconditions;
+import org.neurosystem.util.common.base.Throwables;
+import org.neurosystem.util.misc.Pair;
+
+/**
+ * Dependency graph of the indicators an analysis computes on each bar.
+ *
+ * An indicator is added with the source it reads, an asset or another
+ * indicator of the graph, and the parameters it was built with: adding an
+ * identical (type, source, parameters, applied price) indicator returns the
+ * one already in the graph, so an indicator the analysis declares more than
+ * once is computed once. On each bar the indicators of an asset are
+ * calculated level by level, those of a level in parallel on the executor
+ * when there is one.
+ *
+ * The graph is private to its analysis: the analysis appends each bar to its
+ * asset and then calculates the graph once for that bar.
+ */
+final class IndicatorGraph {
+
+	private final ExecutorService p_executor;
+
+	private final Map<Key, Node> p_nodes;
+	private final Map<IIndicator<?>, Node> p_indicators;
+	private final Map<Object, Root> p_roots;
+
+	IndicatorGraph(@Nullable ExecutorService executor) {
+		this.p_executor = executor;
+		this.p_nodes = new HashMap<>();
+		this.p_indicators = new IdentityHashMap<>();
+		this.p_roots = new IdentityHashMap<>();
+	}
+
+	/**
+	 * Adds an indicator reading the given source, or returns the identical
+	 * indicator already in the graph.
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized <I extends IIndicator<?>> I add(@Nonnull I indicator, @Nonnull Object source, Object... params) {
+		AppliedPrice appliedPrice = (indicator instanceof Indicator) ? ((Indicator<?>) indicator).appliedPrice() : null;
+		Key key = new Key(indicator.getClass(), source, appliedPrice, params);
+
+		Node node = this.p_nodes.get(key);
+		if(node == null){
+			node = newNode(indicator, source, label(indicator.getClass().getSimpleName(), source, appliedPrice, params), true);
+			this.p_nodes.put(key, node);
+		}
+		return (I) node.p_indicator;
+	}
+
+	/**
+	 * Returns the view of the keys of a pair indicator of the graph, the
+	 * same one for all its consumers.
+	 */
+	public synchronized <M> IIndicator<M> keySplit(@Nonnull IIndicator<?> source) {
+		return split(source, true);
+	}
+
+	/**
+	 * Returns the view of the values of a pair indicator of the graph, the
+	 * same one for all its consumers.
+	 */
+	public synchronized <M> IIndicator<M> valueSplit(@Nonnull IIndicator<?> source) {
+		return split(source, false);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <M> IIndicator<M> split(IIndicator<?> source, boolean key) {
+		Preconditions.checkArgument(this.p_indicators.containsKey(source), "Indicator not in the graph: %s", source);
+		String name = key ? "keySplit" : "valueSplit";
+		Key splitKey = new Key(name, source, null, new Object[0]);
+
+		Node node = this.p_nodes.get(splitKey);
+		if(node == null){
+			IIndicator<M> view = key ? source.<M>keySplit() : source.<M>valueSplit();
+			node = newNode(view, source, label(name, source, null, new Object[0]), false);
+			this.p_nodes.put(splitKey, node);
+		}
+		return (IIndicator<M>) node.p_indicator;
+	}
+
+	private Node newNode(IIndicator<?> indicator, Object source, String label, boolean calculated) {
+		Node input = this.p_indicators.get(source);
+		Object root = (input != null) ? input.p_root : source;
+		int level = (input != null) ? input.p_level + (calculated ? 1 : 0) : 0;
+
+		Node node = new Node(indicator, label, root, level);
+		this.p_indicators.put(indicator, node);
+		if(calculated){
+			Root nodes = this.p_roots.get(root);
+			if(nodes == null){
+				nodes = new Root();
+				this.p_roots.put(root, nodes);
+			}
+			nodes.add(node);
+		}
+		return node;
+	}
+
+	private String label(String name, Object source, AppliedPrice appliedPrice, Object[] params) {
+		StringBuilder label = new StringBuilder(name);
+		if(params.length > 0){
+			label.append(Arrays.deepToString(params));
+		}
+		if(appliedPrice != null){
+			label.append(' ').append(appliedPrice);
+		}
+		Node input = this.p_indicators.get(source);
+		if(input != null){
+			label.append(" of ").append(input.p_label);
+		}
+		return label.toString();
+	}
+
+	/**
+	 * Calculates the indicators of the given asset for the given bar, the
+	 * sequence number of the bars appended to the asset. A bar already
+	 * calculated is skipped.
+	 */
+	public void calculate(@Nonnull Object root, long bar) {
+		Root nodes;
+		synchronized(this){
+			nodes = this.p_roots.get(root);
+		}
+		if(nodes != null){
+			nodes.calculate(this.p_executor, bar);
+		}
+	}
+
+	/**
+	 * Returns the mean calculation time of each indicator, in nanoseconds.
+	 */
+	public synchronized List<Pair<String, Long>> getComputeTimes() {
+		final List<Pair<String, Long>> times = new ArrayList<>();
+
+		for(Root nodes:this.p_roots.values()){
+			for(List<Node> level:nodes.p_levels){
+				for(Node node:level){
+					long count = node.p_count;
+					times.add(new Pair<>(node.p_label, (count == 0) ? 0L : node.p_nanos / count));
+				}
+			}
+		}
+		return times;
+	}
+
+	/**
+	 * Indicators of an asset, by level: each level only reads the asset and
+	 * the levels before it.
+	 */
+	private static final class Root {
+
+		private final List<List<Node>> p_levels = new ArrayList<>();
+		private long p_bar = Long.MIN_VALUE;
+
+		synchronized void add(Node node) {
+			while(this.p_levels.size() <= node.p_level){
+				this.p_levels.add(new ArrayList<Node>());
+			}
+			this.p_levels.get(node.p_level).add(node);
+		}
+
+		synchronized void calculate(ExecutorService executor, long bar) {
+			if(bar <= this.p_bar){
+				return;
+			}
+			this.p_bar = bar;
+
+			for(List<Node> level:this.p_levels){
+				if(executor == null || level.size() < 2){
+					for(Node node:level){
+						node.calculate();
+					}
+				}else{
+					calculate(executor, level);
+				}
+			}
+		}
+
+		private static void calculate(ExecutorService executor, List<Node> level) {
+			List<FutureTask<Void>> taskList = new ArrayList<>();
+			for(final Node node:level){
+				FutureTask<Void> task = new FutureTask<>(new Callable<Void>() {
+					@Override
+					public Void call() {
+						node.calculate();
+						return null;
+					}
+				});
+				taskList.add(task);
+				executor.execute(task);
+			}
+
+			try {
+				for(FutureTask<Void> task:taskList){
+					task.get();
+				}
+			} catch (ExecutionException e) {
+				throw Throwables.propagate(e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw Throwables.propagate(e);
+			}
+		}
+	}
+
+	private static final class Node {
+
+		private final IIndicator<?> p_indicator;
+		private final String p_label;
+		private final Object p_root;
+		private final int p_level;
+
+		private volatile long p_nanos;
+		private volatile long p_count;
+
+		Node(IIndicator<?> indicator, String label, Object root, int level) {
+			this.p_indicator = indicator;
+			this.p_label = label;
+			this.p_root = root;
+			this.p_level = level;
+		}
+
+		void calculate() {
+			long start = System.nanoTime();
+			this.p_indicator.calculate();
+			this.p_nanos += System.nanoTime() - start;
+			this.p_count++;
+		}
+	}
+
+	/**
+	 * Identity of an indicator: its type, the instance of its source, its
+	 * applied price and parameters.
+	 */
+	private static final class Key {
+
+		private final Object p_type;
+		private final Object p_source;
+		private final AppliedPrice p_appliedPrice;
+		private final Object[] p_params;
+
+		Key(Object type, Object source, AppliedPrice appliedPrice, Object[] params) {
+			this.p_type = type;
+			this.p_source = source;
+			this.p_appliedPrice = appliedPrice;
+			this.p_params = params;
+		}
+
+		/* (non-Javadoc)
+	     * @see java.lang.Object#equals(java.lang.Object)
+	     */
+		@Override
+		public boolean equals(Object obj){
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+
+			Key that = (Key) obj;
+			return this.p_type.equals(that.p_type)
+					&& (this.p_source == that.p_source)
+					&& (this.p_appliedPrice == that.p_appliedPrice)
+					&& Arrays.deepEquals(this.p_params, that.p_params);
+		}
+
+		/* (non-Javadoc)
+	     * @see java.lang.Object#hashCode()
+	     */
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+	        int hash = 1;
+
+	        hash = prime * hash + this.p_type.hashCode();
+	        hash = prime * hash + System.identityHashCode(this.p_source);
+	        hash = prime * hash + ((this.p_appliedPrice == null) ? 0 : this.p_appliedPrice.hashCode());
+	        hash = prime * hash + Arrays.deepHashCode(this.p_params);
+
+		    return hash;
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package org.neurosystem.util.basic;
+
+import org.neurosystem.util.common.base.Preconditions;
+
+/**
+ * Fixed-capacity history of timed rows of doubles, kept in a
+ * <code>long[]</code> time column and one <code>double[]</code> column
+ * per value. Once full, each new row overwrites the oldest one in place,
+ * so adding never shifts nor allocates, and values are read without
+ * boxing.
+ */
+public final class DoubleRingBuffer {
+
+	private final long[] p_times;
+	private final double[][] p_columns;
+	private int p_start;
+	private int p_size;
+
+	public DoubleRingBuffer(int capacity, int width) {
+		Preconditions.checkArgument(capacity > 0, "Capacity must be positive: %s", capacity);
+		Preconditions.checkArgument(width > 0, "Width must be positive: %s", width);
+		this.p_times = new long[capacity];
+		this.p_columns = new double[width][capacity];
+	}
+
+	/**
+	 * Starts a new row at the given time, its values to be set by
+	 * {@link #set(int, double)}.
+	 */
+	public void add(long time) {
+		int capacity = this.p_times.length;
+		if(this.p_size < capacity){
+			this.p_size++;
+		}else{
+			this.p_start = (this.p_start + 1 == capacity) ? 0 : this.p_start + 1;
+		}
+		this.p_times[slot(this.p_size - 1)] = time;
+	}
+
+	public void add(long time, double value) {
+		add(time);
+		set(0, value);
+	}
+
+	public void add(long time, double key, double value) {
+		add(time);
+		set(0, key);
+		set(1, value);
+	}
+
+	/**
+	 * Sets a value of the last row.
+	 */
+	public void set(int column, double value) {
+		this.p_columns[column][slot(this.p_size - 1)] = value;
+	}
+
+	public long getTime(int index) {
+		Preconditions.checkElementIndex(index, this.p_size);
+		return this.p_times[slot(index)];
+	}
+
+	public double get(int index, int column) {
+		Preconditions.checkElementIndex(index, this.p_size);
+		return this.p_columns[column][slot(index)];
+	}
+
+	/**
+	 * Returns the time <code>nb</code> rows before the last one, or of the
+	 * first row if there are not as many, as {@link HasValues#valueBack(int)}.
+	 */
+	public long timeBack(int nb) {
+		return getTime(Math.max(this.p_size - nb - 1, 0));
+	}
+
+	/**
+	 * Returns the value <code>nb</code> rows before the last one, or of the
+	 * first row if there are not as many, as {@link HasValues#valueBack(int)}.
+	 */
+	public double valueBack(int nb, int column) {
+		return get(Math.max(this.p_size - nb - 1, 0), column);
+	}
+
+	public int size() {
+		return this.p_size;
+	}
+
+	public int width() {
+		return this.p_columns.length;
+	}
+
+	public int capacity() {
+		return this.p_times.length;
+	}
+
+	public void clear() {
+		this.p_start = 0;
+		this.p_size = 0;
+	}
+
+	private int slot(int index) {
+		int slot = this.p_start + index;
+		return (slot >= this.p_times.length) ? slot - this.p_times.length : slot;
+	}
+}
@@ -0,0 +1,124 @@
+package org.neurosystem.util.basic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neurosystem.util.common.base.Objects;
+import org.neurosystem.util.common.base.Preconditions;
+
+/**
+ * Fixed-capacity history of values. Once full, each new value overwrites
+ * the oldest one in place, so adding never shifts nor allocates.
+ */
+public final class RingBuffer<V> implements HasValues<V> {
+
+	private final Object[] p_values;
+	private int p_start;
+	private int p_size;
+
+	public RingBuffer(int capacity) {
+		Preconditions.checkArgument(capacity > 0, "Capacity must be positive: %s", capacity);
+		this.p_values = new Object[capacity];
+	}
+
+	public void add(V value) {
+		int capacity = this.p_values.length;
+		if(this.p_size < capacity){
+			this.p_values[slot(this.p_size)] = value;
+			this.p_size++;
+		}else{
+			this.p_values[this.p_start] = value;
+			this.p_start = (this.p_start + 1 == capacity) ? 0 : this.p_start + 1;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V get(int index) {
+		Preconditions.checkElementIndex(index, this.p_size);
+		return (V) this.p_values[slot(index)];
+	}
+
+	@Override
+	public int size() {
+		return this.p_size;
+	}
+
+	public int capacity() {
+		return this.p_values.length;
+	}
+
+	/**
+	 * Returns a copy of the values between the given indexes, as the
+	 * buffer overwrites its oldest values in place.
+	 */
+	@Override
+	public List<V> subList(int from, int to) {
+		Preconditions.checkPositionIndexes(from, to, this.p_size);
+		final List<V> values = new ArrayList<>(to - from);
+
+		for(int index = from; index < to; index++){
+			values.add(get(index));
+		}
+		return values;
+	}
+
+	public void clear() {
+		for(int index = 0; index < this.p_values.length; index++){
+			this.p_values[index] = null;
+		}
+		this.p_start = 0;
+		this.p_size = 0;
+	}
+
+	private int slot(int index) {
+		int slot = this.p_start + index;
+		return (slot >= this.p_values.length) ? slot - this.p_values.length : slot;
+	}
+
+	/* (non-Javadoc)
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+	@Override
+	public boolean equals(Object obj){
+		if (obj == this){
+	        return true;
+	    }
+		if (!(obj instanceof RingBuffer)) {
+			return false;
+		}
+
+		RingBuffer<?> that = (RingBuffer<?>) obj;
+		if (this.p_size != that.p_size){
+			return false;
+		}
+		for(int index = 0; index < this.p_size; index++){
+			if(!Objects.equal(get(index), that.get(index))){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/* (non-Javadoc)
+     * @see java.lang.Object#hashCode()
+     */
+	@Override
+	public int hashCode() {
+		int hash = 1;
+
+		for(int index = 0; index < this.p_size; index++){
+			V value = get(index);
+			hash = 31 * hash + ((value == null) ? 0 : value.hashCode());
+		}
+		return hash;
+	}
+
+	/* (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+	@Override
+	public String toString() {
+		return HasValues.formatedValues(subList(0, this.p_size));
+	}
+}
@@ -0,0 +1,118 @@
+package org.neurosystem.util.basic;
+
+import org.neurosystem.util.common.base.Preconditions;
+
+/**
+ * Minimum and maximum of the last <code>window</code> values, kept in two
+ * monotonic deques: each value is pushed and popped at most once, so
+ * adding costs O(1) amortized whatever the window length.
+ */
+public final class SlidingMinMax {
+
+	private final int p_window;
+	private final Deque p_min;
+	private final Deque p_max;
+	private long p_count;
+
+	public SlidingMinMax(int window) {
+		Preconditions.checkArgument(window > 0, "Window must be positive: %s", window);
+		this.p_window = window;
+		this.p_min = new Deque(window, true);
+		this.p_max = new Deque(window, false);
+	}
+
+	public void add(double value) {
+		add(value, value);
+	}
+
+	/**
+	 * Adds a bar, its low to the minimum and its high to the maximum.
+	 */
+	public void add(double low, double high) {
+		long expired = this.p_count - this.p_window;
+		this.p_min.add(this.p_count, low, expired);
+		this.p_max.add(this.p_count, high, expired);
+		this.p_count++;
+	}
+
+	public double min() {
+		return this.p_min.first();
+	}
+
+	public double max() {
+		return this.p_max.first();
+	}
+
+	/**
+	 * Returns the number of values in the window.
+	 */
+	public int size() {
+		return (int) Math.min(this.p_count, this.p_window);
+	}
+
+	public int window() {
+		return this.p_window;
+	}
+
+	public void clear() {
+		this.p_min.clear();
+		this.p_max.clear();
+		this.p_count = 0;
+	}
+
+	/**
+	 * Deque of the candidates for the extreme, the oldest first, in a ring
+	 * of <code>window</code> slots.
+	 */
+	private static final class Deque {
+
+		private final long[] p_indexes;
+		private final double[] p_values;
+		private final boolean p_min;
+		private int p_head;
+		private int p_size;
+
+		Deque(int capacity, boolean min) {
+			this.p_indexes = new long[capacity];
+			this.p_values = new double[capacity];
+			this.p_min = min;
+		}
+
+		void add(long index, double value, long expired) {
+			while(this.p_size > 0 && this.p_indexes[this.p_head] <= expired){
+				this.p_head = next(this.p_head);
+				this.p_size--;
+			}
+			while(this.p_size > 0 && dominates(value, this.p_values[slot(this.p_size - 1)])){
+				this.p_size--;
+			}
+			int slot = slot(this.p_size);
+			this.p_indexes[slot] = index;
+			this.p_values[slot] = value;
+			this.p_size++;
+		}
+
+		double first() {
+			Preconditions.checkState(this.p_size > 0, "No value in the window");
+			return this.p_values[this.p_head];
+		}
+
+		void clear() {
+			this.p_head = 0;
+			this.p_size = 0;
+		}
+
+		private boolean dominates(double value, double other) {
+			return this.p_min ? value <= other : value >= other;
+		}
+
+		private int next(int slot) {
+			return (slot + 1 == this.p_values.length) ? 0 : slot + 1;
+		}
+
+		private int slot(int index) {
+			int slot = this.p_head + index;
+			return (slot >= this.p_values.length) ? slot - this.p_values.length : slot;
+		}
+	}
+}
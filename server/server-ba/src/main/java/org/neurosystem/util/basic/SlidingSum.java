@@ -0,0 +1,82 @@
+package org.neurosystem.util.basic;
+
+import org.neurosystem.util.common.base.Preconditions;
+
+/**
+ * Running sums of the last <code>window</code> values and of their squares:
+ * each new value is added and the one leaving the window subtracted, with
+ * Neumaier compensation so that the sums do not drift however long they
+ * run. Adding costs O(1) whatever the window length.
+ */
+public final class SlidingSum {
+
+	private final double[] p_values;
+	private int p_next;
+	private int p_size;
+
+	private double p_sum, p_sumError;
+	private double p_squares, p_squaresError;
+
+	public SlidingSum(int window) {
+		Preconditions.checkArgument(window > 0, "Window must be positive: %s", window);
+		this.p_values = new double[window];
+	}
+
+	public void add(double value) {
+		if(this.p_size == this.p_values.length){
+			double old = this.p_values[this.p_next];
+			addToSum(-old);
+			addToSquares(-old * old);
+		}else{
+			this.p_size++;
+		}
+		this.p_values[this.p_next] = value;
+		this.p_next = (this.p_next + 1 == this.p_values.length) ? 0 : this.p_next + 1;
+		addToSum(value);
+		addToSquares(value * value);
+	}
+
+	public double sum() {
+		return this.p_sum + this.p_sumError;
+	}
+
+	public double mean() {
+		return (this.p_size == 0) ? 0. : sum() / this.p_size;
+	}
+
+	public double meanSquare() {
+		return (this.p_size == 0) ? 0. : (this.p_squares + this.p_squaresError) / this.p_size;
+	}
+
+	/**
+	 * Returns the number of values in the window.
+	 */
+	public int size() {
+		return this.p_size;
+	}
+
+	public int window() {
+		return this.p_values.length;
+	}
+
+	public void clear() {
+		this.p_next = 0;
+		this.p_size = 0;
+		this.p_sum = this.p_sumError = 0.;
+		this.p_squares = this.p_squaresError = 0.;
+	}
+
+	private void addToSum(double value) {
+		double sum = this.p_sum + value;
+		this.p_sumError += (Math.abs(this.p_sum) >= Math.abs(value)) ?
+				(this.p_sum - sum) + value : (value - sum) + this.p_sum;
+		this.p_sum = sum;
+	}
+
+	private void addToSquares(double value) {
+		double sum = this.p_squares + value;
+		this.p_squaresError += (Math.abs(this.p_squares) >= Math.abs(value)) ?
+				(this.p_squares - sum) + value : (value - sum) + this.p_squares;
+		this.p_squares = sum;
+	}
+}
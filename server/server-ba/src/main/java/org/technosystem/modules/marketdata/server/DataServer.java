@@ -7,11 +7,12 @@ import org.technosystem.modules.marketdata.indicator.IIndicator;
 import org.technosystem.modules.marketdata.quote.IQuote;
 import org.technosystem.modules.marketdata.quote.Quote;
 import org.neurosystem.util.basic.HasValues;
+import org.neurosystem.util.basic.RingBuffer;
 import org.neurosystem.util.common.annotations.javax.concurrent.Immutable;
 import org.neurosystem.util.time.IPeriod;
 
 @Immutable
-public final class DataServer extends ArrayList<IQuote> implements IDataServer {
+public final class DataServer implements IDataServer {
 
 	private final IPeriod p_barPeriod;
 	private final int p_serverSize;
@@ -20,18 +21,18 @@ public final class DataServer extends ArrayList<IQuote> implements IDataServer {
 	private volatile IQuote p_lastValue = null;
 	
 	/**
-	 * History of tick & bar quotes
+	 * History of bar quotes, the oldest overwritten once full
 	 */
-	private static final long serialVersionUID = 1L;
+	private final RingBuffer<IQuote> p_quotes;
 	
 	public DataServer(IPeriod barPeriod) {
 		this(barPeriod, easybites);
 	}
 	
 	public DataServer(IPeriod barPeriod, int serverSize) {
-		super();
 		this.p_barPeriod = barPeriod;
 		this.p_serverSize = serverSize;
+		this.p_quotes = new RingBuffer<>(serverSize);
 		
 		//Indicators
 		this.p_indicators =  new ArrayList<>();
@@ -49,10 +50,7 @@ public final class DataServer extends ArrayList<IQuote> implements IDataServer {
 					quote.getClose());
 		}
 		if(isNewPeriod(period, quote.getTime())){
-			if(size() >= this.p_serverSize){
-				remove(0);
-			}
-			add(this.p_lastValue);
+			this.p_quotes.add(this.p_lastValue);
 			this.p_lastValue = null;
 			
 			for(IIndicator<?> indicator:this.p_indicators){
@@ -61,6 +59,21 @@ public final class DataServer extends ArrayList<IQuote> implements IDataServer {
 		}
 	}
 
+	@Override
+	public IQuote get(int index) {
+		return this.p_quotes.get(index);
+	}
+
+	@Override
+	public int size() {
+		return this.p_quotes.size();
+	}
+
+	@Override
+	public List<IQuote> subList(int from, int to) {
+		return this.p_quotes.subList(from, to);
+	}
+
 	@Override
 	public void subscribe(IIndicator<?> indicator) {
 		this.p_indicators.add(indicator);
@@ -103,7 +116,7 @@ public final class DataServer extends ArrayList<IQuote> implements IDataServer {
         if (this.p_serverSize != other.p_serverSize)
             return false;
 
-		return super.equals(obj);
+		return this.p_quotes.equals(other.p_quotes);
 	}
 	
 	/* (non-Javadoc)
@@ -116,7 +129,7 @@ public final class DataServer extends ArrayList<IQuote> implements IDataServer {
         
         hash = prime * hash + this.p_barPeriod.hashCode();
         hash = prime * hash + Integer.hashCode(this.p_serverSize);
-        hash = prime * hash + super.hashCode();
+        hash = prime * hash + this.p_quotes.hashCode();
         
 	    return hash;
 	}
@@ -127,6 +140,6 @@ public final class DataServer extends ArrayList<IQuote> implements IDataServer {
 	@Override
 	public String toString() {
 		return String.format("Period: %s, %s", this.p_barPeriod, 
-				HasValues.formatedValues(this));
+				HasValues.formatedValues(subList(0, size())));
 	}
 }
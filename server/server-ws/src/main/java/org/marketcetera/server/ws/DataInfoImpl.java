@@ -1,6 +1,7 @@
 package org.marketcetera.server.ws;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -27,9 +28,9 @@ public class DataInfoImpl implements DataInfo {
 	private final Map<RequestID, MarketDataRequest> mDataMap = Maps.newConcurrentMap();
 	
 	/**
-     * Mapping the client quote recorders. 
+     * The client quote recorder, recording all requested periods. 
      */
-    private final Map<Period, QuoteRecorder> mQuoteMap = Maps.newConcurrentMap();
+    private volatile QuoteRecorder mRecorder;
     
     /**
      * Mapping the user IDs
@@ -54,16 +55,6 @@ public class DataInfoImpl implements DataInfo {
         return mDataMap;
     }
     
-    /**
-     * Returns the receiver's in-memory map of client quote recorders.
-     *
-     * @return The map.
-     */
-    private Map<Period, QuoteRecorder> getQuoteMap()
-    {
-        return mQuoteMap;
-    }
-    
     /**
      * Returns the receiver's in-memory map of user IDs
      *
@@ -125,12 +116,10 @@ public class DataInfoImpl implements DataInfo {
 		getReqIDMap().put(request.getRequestID(), request);
 		
 		for(Period period:request.getPeriods()){
-			QuoteRecorder recorder = getQuoteMap().get(period);
-			if(recorder == null){
-				recorder = new QuoteRecorderImpl(request.getBrokerID(), request.getInstrument(), request.getExchange(), period);
-				getQuoteMap().put(period, recorder);
+			if(mRecorder == null){
+				mRecorder = new QuoteRecorderImpl(request.getBrokerID(), request.getInstrument(), request.getExchange());
 			}
-			recorder.addRequest(request.getRequestID(), actorID);
+			mRecorder.addRequest(period, request.getRequestID(), actorID);
 		}
 		
 		List<RequestID> requests = getUserMap().get(actorID);
@@ -149,14 +138,14 @@ public class DataInfoImpl implements DataInfo {
 		Validate.noNullElements(new Object[]{requestID, actorID});
 		MarketDataRequest request = getReqIDMap().remove(requestID);
 		
-		if(request != null){
+		QuoteRecorder recorder = mRecorder;
+		if(request != null && recorder != null){
 			for(Period period:request.getPeriods()){
-				QuoteRecorder recorder = getQuoteMap().get(period);
-				recorder.removeRequest(request.getRequestID(), actorID);
-				if(recorder.isEmpty()){
-					getQuoteMap().remove(period);
-	    		}
+				recorder.removeRequest(period, request.getRequestID(), actorID);
 			}
+			if(recorder.isEmpty()){
+				mRecorder = null;
+    		}
 		}
 		
 		List<RequestID> requests = getUserMap().get(actorID);
@@ -181,7 +170,11 @@ public class DataInfoImpl implements DataInfo {
      */
 	@Override
 	public Collection<QuoteRecorder> getRecorders() {
-		return getQuoteMap().values();
+		QuoteRecorder recorder = mRecorder;
+		if(recorder == null){
+			return Collections.emptyList();
+		}
+		return Collections.singletonList(recorder);
 	}
 	
     /* (non-Javadoc)
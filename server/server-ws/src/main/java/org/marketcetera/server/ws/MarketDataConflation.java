@@ -0,0 +1,17 @@
+package org.marketcetera.server.ws;
+
+/**
+ * Policies for conflating the market data snapshots of a broker
+ * which are queued but not yet processed.
+ */
+public enum MarketDataConflation {
+    /**
+     * Processes every snapshot.
+     */
+    NONE,
+    /**
+     * Replaces a queued snapshot by a newer snapshot of the same
+     * market data request, so only the latest one is processed.
+     */
+    LATEST_PER_REQUEST
+}
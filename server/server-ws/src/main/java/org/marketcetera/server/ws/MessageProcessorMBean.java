@@ -0,0 +1,88 @@
+package org.marketcetera.server.ws;
+
+/**
+ * MBean interface exposing the queue metrics of the message
+ * processor of one broker.
+ */
+public interface MessageProcessorMBean {
+
+    /**
+     * Returns the number of workers of each lane.
+     *
+     * @return an <code>int</code> value
+     */
+	public int getPartitions();
+
+    /**
+     * Returns the capacity of the queue of each worker.
+     *
+     * @return an <code>int</code> value
+     */
+	public int getQueueCapacity();
+
+    /**
+     * Returns the conflation policy of the market data lane.
+     *
+     * @return a <code>String</code> value
+     */
+	public String getMarketDataConflation();
+
+    /**
+     * Returns the number of messages queued in the order lane.
+     *
+     * @return an <code>int</code> value
+     */
+	public int getOrderQueueDepth();
+
+    /**
+     * Returns the number of messages queued in the market data lane.
+     *
+     * @return an <code>int</code> value
+     */
+	public int getMarketDataQueueDepth();
+
+    /**
+     * Returns the largest depth reached by a queue of the order lane.
+     *
+     * @return an <code>int</code> value
+     */
+	public int getMaxOrderQueueDepth();
+
+    /**
+     * Returns the largest depth reached by a queue of the market data lane.
+     *
+     * @return an <code>int</code> value
+     */
+	public int getMaxMarketDataQueueDepth();
+
+    /**
+     * Returns the number of messages processed since start.
+     *
+     * @return a <code>long</code> value
+     */
+	public long getProcessedMessages();
+
+    /**
+     * Returns the number of market data snapshots replaced by a newer
+     * one before being processed.
+     *
+     * @return a <code>long</code> value
+     */
+	public long getConflatedMessages();
+
+    /**
+     * Returns the number of messages which had to wait for room in a
+     * full queue.
+     *
+     * @return a <code>long</code> value
+     */
+	public long getBlockedMessages();
+
+    /**
+     * Returns the number of market data messages dropped because their
+     * queue was full.
+     *
+     * @return a <code>long</code> value
+     */
+	public long getDroppedMessages();
+}
@@ -164,4 +164,5 @@ public interface Messages
     static final I18NMessage2P CANNOT_DELETE_QUOTE = new I18NMessage2P(LOGGER,"cannot_delete_quote"); //$NON-NLS-1$
     static final I18NMessage2P QF_EVENT_FAILED = new I18NMessage2P(LOGGER,"qf_event_failed"); //$NON-NLS-1$
     static final I18NMessage1P QF_RECEIVE_UNKNOWN_DATA=new I18NMessage1P(LOGGER,"qf_receive_unknown_data"); //$NON-NLS-1$
+    static final I18NMessage1P QF_MARKET_DATA_DROPPED=new I18NMessage1P(LOGGER,"qf_market_data_dropped"); //$NON-NLS-1$
 }
@@ -3,11 +3,13 @@ package org.marketcetera.server.ws;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.BlockingDeque;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang.exception.ExceptionUtils;
@@ -42,6 +44,12 @@ public class QuickFIXApplication
     // CLASS DATA
     private static final String HEARTBEAT_CATEGORY=
     		QuickFIXApplication.class.getName()+".HEARTBEATS"; //$NON-NLS-1$
+    private static final String PARTITIONS_PROPERTY="ProcessorPartitions"; //$NON-NLS-1$
+    private static final String QUEUE_CAPACITY_PROPERTY="ProcessorQueueCapacity"; //$NON-NLS-1$
+    private static final String CONFLATION_PROPERTY="MarketDataConflation"; //$NON-NLS-1$
+    private static final int DEFAULT_PARTITIONS=4;
+    private static final int DEFAULT_QUEUE_CAPACITY=10000;
+    private static final int ROOT_ID_CAPACITY=100000;
     
     // INSTANCE DATA.
     private final SystemInfo mSystemInfo;
@@ -110,6 +118,17 @@ public class QuickFIXApplication
         return mServerManager;
     }
 
+    /**
+     * Gets the message processor metrics of the given broker.
+     *
+     * @param b the broker
+     * @return a <code>MessageProcessorMBean</code> value
+     */
+    public MessageProcessorMBean getMessageProcessor(Broker b)
+    {
+        return messageProcessors.get(b);
+    }
+
     private Object getCategory
         (Message msg)
     {
@@ -240,57 +259,21 @@ public class QuickFIXApplication
         	actorIDs=getServerManager().getUserIDs();
         }
         
+        // Market data snapshots are decoded once for all actors
+        if (FIXMessageUtil.isMarketDataSnapshotFullRefresh(msg)) {
+        	distributeMarketData(b, msg, originator, actorIDs);
+        	return;
+        }
+        
         for(UserID actorID:actorIDs){
         	// Apply message modifiers.
     	    if (b.getResponseModifiers()!=null) {
-    	        try {	            
-                    SessionInfo sessionInfo=new SessionInfoImpl(getSystemInfo());
-                    sessionInfo.setValue(SessionInfo.ACTOR_ID,actorID);
-                    RequestInfo requestInfo=new RequestInfoImpl(sessionInfo);
-    	            requestInfo.setValue(RequestInfo.BROKER,b);
-    	            requestInfo.setValue(RequestInfo.BROKER_ID,b.getBrokerID());
-    	            requestInfo.setValue(RequestInfo.ORIGINATOR,originator);
-    	            requestInfo.setValue(RequestInfo.FIX_MESSAGE_FACTORY,b.getFIXMessageFactory());
-    	            requestInfo.setValue(RequestInfo.CURRENT_MESSAGE,msg);
-    	            b.getResponseModifiers().modifyMessage(requestInfo);
-    	            msg=requestInfo.getValueIfInstanceOf(RequestInfo.CURRENT_MESSAGE,Message.class);
-    	        } catch (I18NException ex) {
-    	            Messages.QF_MODIFICATION_FAILED.error(getCategory(msg),ex,msg,b.toString());
+    	        msg=modifyMessage(b, msg, originator, actorID);
+    	        if (msg==null) {
     	            return;
     	        }
     	    }
     	    
-    		// Convert and replay Market data events
-    	    if (FIXMessageUtil.isMarketDataSnapshotFullRefresh(msg)) {
-    	    	if(msg.isSetField(MDReqID.FIELD)){
-    				try {
-    					RequestID reqID=new RequestID(msg.getString(MDReqID.FIELD));
-    					DataInfo dataInfo=getServerPersister().get(reqID);
-    					if(dataInfo != null){
-    						List<ResponseMessage> replies = FIXConverter.fromQMessage(msg, dataInfo.getKey().getValue());    						
-    						
-    						// Send replies.
-					        for(ResponseMessage reply:replies){
-						        Messages.QF_SENDING_REPLY.info(getCategory(msg),reply);
-						        getServerManager().convertAndSend(reply, actorID);
-
-						        // Update quote recorders
-    							if(reply instanceof TickEvent){
-    								for(QuoteRecorder recorder:dataInfo.getRecorders()){
-    									recorder.onTick((TickEvent)reply);
-    								}
-    							}
-    						}
-    					}
-    				}catch(FieldNotFound ex) {
-    					Messages.QF_EVENT_FAILED.error
-    		            	(getCategory(msg),ex,msg,b.toString());
-    					return;
-    				}
-    			}
-    	    	return;
-    	    }
-    	    
     	    // The QuickFIX/J engine is sending a reject 
     	    if (FIXMessageUtil.isReject(msg) ||
     	    		FIXMessageUtil.isMarketDataReject(msg)) {
@@ -326,6 +309,101 @@ public class QuickFIXApplication
         }
     }
     
+    /**
+     * Applies the broker's response modifiers to the given message
+     * for the given actor.
+     *
+     * @param b The broker.
+     * @param msg The message.
+     * @param originator The message originator.
+     * @param actorID The actor ID.
+     *
+     * @return The modified message, null if the modification failed.
+     */
+    private Message modifyMessage
+    (Broker b, Message msg, Originator originator, UserID actorID)
+    {
+        try {
+            SessionInfo sessionInfo=new SessionInfoImpl(getSystemInfo());
+            sessionInfo.setValue(SessionInfo.ACTOR_ID,actorID);
+            RequestInfo requestInfo=new RequestInfoImpl(sessionInfo);
+            requestInfo.setValue(RequestInfo.BROKER,b);
+            requestInfo.setValue(RequestInfo.BROKER_ID,b.getBrokerID());
+            requestInfo.setValue(RequestInfo.ORIGINATOR,originator);
+            requestInfo.setValue(RequestInfo.FIX_MESSAGE_FACTORY,b.getFIXMessageFactory());
+            requestInfo.setValue(RequestInfo.CURRENT_MESSAGE,msg);
+            b.getResponseModifiers().modifyMessage(requestInfo);
+            return requestInfo.getValueIfInstanceOf(RequestInfo.CURRENT_MESSAGE,Message.class);
+        } catch (I18NException ex) {
+            Messages.QF_MODIFICATION_FAILED.error(getCategory(msg),ex,msg,b.toString());
+            return null;
+        }
+    }
+    
+    /**
+     * Distributes a market data snapshot to the given actors. The
+     * snapshot is decoded once, the quote recorders see each tick
+     * once and all actors receive the same events. Only when the
+     * broker has response modifiers, the snapshot is modified and
+     * decoded for each actor, starting from a copy of the original.
+     *
+     * @param b The broker.
+     * @param msg The market data snapshot.
+     * @param originator The message originator.
+     * @param actorIDs The actors to send the events to.
+     */
+    private void distributeMarketData
+    (Broker b, Message msg, Originator originator, Collection<UserID> actorIDs)
+    {
+    	if(!msg.isSetField(MDReqID.FIELD)){
+    		return;
+    	}
+    	try {
+    		RequestID reqID=new RequestID(msg.getString(MDReqID.FIELD));
+    		DataInfo dataInfo=getServerPersister().get(reqID);
+    		if(dataInfo == null){
+    			return;
+    		}
+    		List<ResponseMessage> replies = FIXConverter.fromQMessage(msg, dataInfo.getKey().getValue());
+    		
+    		// Update quote recorders, once per tick
+    		Collection<QuoteRecorder> recorders = dataInfo.getRecorders();
+    		for(ResponseMessage reply:replies){
+    			if(reply instanceof TickEvent){
+    				for(QuoteRecorder recorder:recorders){
+    					recorder.onTick((TickEvent)reply);
+    				}
+    			}
+    		}
+    		
+    		if (b.getResponseModifiers()==null) {
+    			// Send the same replies to all actors.
+    			for(ResponseMessage reply:replies){
+    				Messages.QF_SENDING_REPLY.info(getCategory(msg),reply);
+    			}
+    			for(UserID actorID:actorIDs){
+    				getServerManager().convertAndSend(replies, actorID);
+    			}
+    			return;
+    		}
+    		
+    		for(UserID actorID:actorIDs){
+    			Message actorMsg=modifyMessage(b, (Message)msg.clone(), originator, actorID);
+    			if(actorMsg == null){
+    				continue;
+    			}
+    			List<ResponseMessage> actorReplies = FIXConverter.fromQMessage(actorMsg, dataInfo.getKey().getValue());
+    			for(ResponseMessage reply:actorReplies){
+    				Messages.QF_SENDING_REPLY.info(getCategory(actorMsg),reply);
+    			}
+    			getServerManager().convertAndSend(actorReplies, actorID);
+    		}
+    	} catch(FieldNotFound ex) {
+    		Messages.QF_EVENT_FAILED.error
+    			(getCategory(msg),ex,msg,b.toString());
+    	}
+    }
+    
     // Application.
     @Override
     public void onCreate(SessionID session) {
@@ -402,8 +480,10 @@ public class QuickFIXApplication
     public void fromAdmin(Message msg, SessionID session)
     		throws FieldNotFound, RejectLogon
     {
-		messageProcessors.get(getBrokers().getBroker(session)).add(
-    		new MessagePackage(msg, MessageType.FROM_ADMIN, session));
+        // processed inline rather than queued: an admin message belongs to
+        // no order chain, so no worker would keep it in sequence with the
+        // application messages anyway
+        processMessage(new MessagePackage(msg, MessageType.FROM_ADMIN, session));
     }
 	
     @Override
@@ -541,133 +621,556 @@ public class QuickFIXApplication
         private static final AtomicLong counter = new AtomicLong(0);
     }
     /**
-     * Processes incoming messages.
+     * Processes the given incoming message.
+     *
+     * @param message the message
+     * @throws FieldNotFound if a required field is missing
+     */
+    private void processMessage(MessagePackage message)
+            throws FieldNotFound
+    {
+        SessionID session = message.getSessionId();
+        Message msg = message.getMessage();
+        Broker b = getBrokers().getBroker(session);
+
+        // Convert reply to FIX Agnostic message (unless it's a heartbeat)
+        if(FIXMessageUtil.isHeartbeat(msg)) {
+            return;
+        }
+
+        // Report trading session status in a human-readable format.
+        if (FIXMessageUtil.isTradingSessionStatus(msg)) {
+            Messages.QF_TRADE_SESSION_STATUS.info(getCategory(msg),
+                                                  b.getFIXDataDictionary().getHumanFieldValue(TradSesStatus.FIELD,
+                                                  msg.getString(TradSesStatus.FIELD)));
+            return;
+        }
+
+        // Record unknown data received
+        if (FIXMessageUtil.isMarketDataIncrementalRefresh(msg)) {
+            Messages.QF_RECEIVE_UNKNOWN_DATA.info(getCategory(msg),msg);
+            return;
+        }
+
+        switch(message.getMessageType()) {
+            case FROM_APP: {
+                try {
+                    // OpenFIX certification: we reject all DeliverToCompID since we don't re-deliver.
+                    if (msg.getHeader().isSetField(DeliverToCompID.FIELD)) {
+                        try {
+                            Message reject = b.getFIXMessageFactory().createSessionReject(msg,
+                                                                                          SessionRejectReason.COMPID_PROBLEM);
+                            reject.setString(Text.FIELD,
+                                             Messages.QF_COMP_ID_REJECT.getText(msg.getHeader().getString(DeliverToCompID.FIELD)));
+                            b.sendToTarget(reject);
+                        } catch (SessionNotFound ex) {
+                            Messages.QF_COMP_ID_REJECT_FAILED.error(getCategory(msg),
+                                                                    ex, b.toString());
+                        }
+                        break;
+                    }
+
+                    // Send Trade Response
+                    if (FIXMessageUtil.isExecutionReport(msg) ||
+                            FIXMessageUtil.isCancelReject(msg)) {
+                        // Record filled (partially or totally) execution reports.
+                        char ordStatus=msg.getChar(OrdStatus.FIELD);
+                        if ((ordStatus==OrdStatus.FILLED) ||
+                            (ordStatus==OrdStatus.PARTIALLY_FILLED)) {
+                            Messages.QF_SENDING_TRADE_RECORD.info(getCategory(msg),msg);
+                        }
+                        // Send message to client.
+                        sendToClient(b, msg, Originator.Broker);
+                        break;
+                    }
+
+                    // Send Data Response
+                    if(FIXMessageUtil.isMarketDataSnapshotFullRefresh(msg) ||
+                            FIXMessageUtil.isMarketDataReject(msg)){
+                        // Send message to client.
+                        sendToClient(b, msg, Originator.Broker);
+                        break;
+                    }
+
+                    if(FIXMessageUtil.isXMLMessage(msg)){
+                        // Send message to Job managers
+                        ServerFIXRouting.getInstance().getJobSession()
+                            .convertAndSend(msg);
+                        break;
+                    }
+
+                    Messages.QF_RECEIVE_UNKNOWN_DATA.error(this, msg);
+                    break;
+                } catch (FieldNotFound e) {
+                    SLF4JLoggerProxy.error(QuickFIXApplication.class, e);
+                }
+                break;
+            }
+            case FROM_ADMIN: {
+                Messages.QF_FROM_ADMIN.info(getCategory(msg), msg, b);
+                b.logMessage(msg);
+
+                // Send message to client.
+                sendToClient(b, msg, Originator.Broker);
+                break;
+            }
+            default:
+                throw new UnsupportedOperationException();
+        }
+    }
+    /**
+     * Processes the incoming messages of one broker.
+     *
+     * Market data and order messages are processed in separate lanes,
+     * each served by a pool of workers with a bounded queue. Order
+     * messages are partitioned by the root ClOrdID of their order chain
+     * and market data by request ID, so the messages of one order chain
+     * or one data request are processed in sequence by the same worker.
+     * Admin messages are not queued, they are processed on the session
+     * thread by {@link QuickFIXApplication#fromAdmin(Message, SessionID)}.
+     *
+     * A full order queue blocks the session thread until the worker
+     * catches up, so no order message is lost. A full market data queue
+     * never blocks it, so market data cannot hold up the execution
+     * reports: the message is dropped and counted instead, after the
+     * snapshots had a chance to be conflated.
+     *
+     * The lanes are configured by the broker descriptor properties
+     * <code>ProcessorPartitions</code>, <code>ProcessorQueueCapacity</code>
+     * and <code>MarketDataConflation</code>.
      */
     private class MessageProcessor
-            implements Runnable
+            implements MessageProcessorMBean
     {
-        /* (non-Javadoc)
-         * @see java.lang.Runnable#run()
+        /**
+         * Create a new MessageProcessor instance.
          */
-        @Override
-        public void run()
+        private MessageProcessor(Broker b)
         {
+            partitions = getIntProperty(b, PARTITIONS_PROPERTY, DEFAULT_PARTITIONS);
+            queueCapacity = getIntProperty(b, QUEUE_CAPACITY_PROPERTY, DEFAULT_QUEUE_CAPACITY);
+            String conflation = b.getDescriptor().getProperty(CONFLATION_PROPERTY);
+            marketDataConflation = (conflation == null) ? MarketDataConflation.NONE :
+                MarketDataConflation.valueOf(conflation.trim());
+            orderWorkers = new Worker[partitions];
+            marketDataWorkers = new Worker[partitions];
+            for(int i = 0; i < partitions; i++) {
+                orderWorkers[i] = new Worker(b.getName() + " orders-" + i, //$NON-NLS-1$
+                                             MarketDataConflation.NONE,
+                                             true);
+                marketDataWorkers[i] = new Worker(b.getName() + " data-" + i, //$NON-NLS-1$
+                                                  marketDataConflation,
+                                                  false);
+            }
+        }
+        /**
+         * Add the message to the queue of its partition, waiting for
+         * room if the order queue is full.
+         */
+        private void add(MessagePackage message){
+            Message msg = message.getMessage();
             try {
-                while(true) {
-                    MessagePackage message = messagesToProcess.take();
-                    SessionID session = message.getSessionId();
-                    Message msg = message.getMessage();
-                    Broker b = getBrokers().getBroker(session);
-                    
-                	// Convert reply to FIX Agnostic message (unless it's a heartbeat)
-            		if(FIXMessageUtil.isHeartbeat(msg)) {
-            			continue;
-            		}
-            		
-                    // Report trading session status in a human-readable format.
-                    if (FIXMessageUtil.isTradingSessionStatus(msg)) {
-                        Messages.QF_TRADE_SESSION_STATUS.info(getCategory(msg),
-                                                              b.getFIXDataDictionary().getHumanFieldValue(TradSesStatus.FIELD,
-                                                              msg.getString(TradSesStatus.FIELD)));
-                        continue;
+                if(FIXMessageUtil.isMarketDataSnapshotFullRefresh(msg)) {
+                    String key = getMarketDataKey(msg);
+                    marketDataWorkers[partition(key)].add(message, key, true);
+                } else if(FIXMessageUtil.isMarketDataIncrementalRefresh(msg) ||
+                        FIXMessageUtil.isMarketDataReject(msg)) {
+                    String key = getMarketDataKey(msg);
+                    marketDataWorkers[partition(key)].add(message, key, false);
+                } else {
+                    String key = getOrderChainKey(msg);
+                    orderWorkers[partition(key)].add(message, key, false);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        /**
+         * Returns the partition of the given key.
+         */
+        private int partition(String key)
+        {
+            if(key == null) {
+                return 0;
+            }
+            return (key.hashCode() & Integer.MAX_VALUE) % partitions;
+        }
+        /**
+         * Returns the partition key of a market data message: its
+         * request ID, or its symbol if it has none.
+         */
+        private String getMarketDataKey(Message msg)
+        {
+            try {
+                if(msg.isSetField(MDReqID.FIELD)) {
+                    return msg.getString(MDReqID.FIELD);
+                }
+                if(msg.isSetField(Symbol.FIELD)) {
+                    return msg.getString(Symbol.FIELD);
+                }
+            } catch (FieldNotFound ignore) {}
+            return null;
+        }
+        /**
+         * Returns the partition key of an order message: the root
+         * ClOrdID of its order chain, as far as the chain was seen by
+         * this processor, else the order ID or symbol.
+         */
+        private String getOrderChainKey(Message msg)
+        {
+            try {
+                if(msg.isSetField(ClOrdID.FIELD)) {
+                    String clOrdID = msg.getString(ClOrdID.FIELD);
+                    String parentID = msg.isSetField(OrigClOrdID.FIELD) ?
+                        msg.getString(OrigClOrdID.FIELD) : clOrdID;
+                    synchronized(rootIDs) {
+                        String rootID = rootIDs.get(parentID);
+                        if(rootID == null) {
+                            rootID = parentID;
+                        }
+                        rootIDs.put(clOrdID, rootID);
+                        return rootID;
                     }
-                    
-            		// Record unknown data received
-                	if (FIXMessageUtil.isMarketDataIncrementalRefresh(msg)) {
-                    	Messages.QF_RECEIVE_UNKNOWN_DATA.info(getCategory(msg),msg);
-                    	continue;
+                }
+                if(msg.isSetField(quickfix.field.OrderID.FIELD)) {
+                    return msg.getString(quickfix.field.OrderID.FIELD);
+                }
+                if(msg.isSetField(Symbol.FIELD)) {
+                    return msg.getString(Symbol.FIELD);
+                }
+            } catch (FieldNotFound ignore) {}
+            return null;
+        }
+        /* (non-Javadoc)
+         * @see org.marketcetera.server.ws.MessageProcessorMBean#getPartitions()
+         */
+        @Override
+        public int getPartitions()
+        {
+            return partitions;
+        }
+        /* (non-Javadoc)
+         * @see org.marketcetera.server.ws.MessageProcessorMBean#getQueueCapacity()
+         */
+        @Override
+        public int getQueueCapacity()
+        {
+            return queueCapacity;
+        }
+        /* (non-Javadoc)
+         * @see org.marketcetera.server.ws.MessageProcessorMBean#getMarketDataConflation()
+         */
+        @Override
+        public String getMarketDataConflation()
+        {
+            return marketDataConflation.name();
+        }
+        /* (non-Javadoc)
+         * @see org.marketcetera.server.ws.MessageProcessorMBean#getOrderQueueDepth()
+         */
+        @Override
+        public int getOrderQueueDepth()
+        {
+            int depth = 0;
+            for(Worker worker:orderWorkers) {
+                depth += worker.queue.size();
+            }
+            return depth;
+        }
+        /* (non-Javadoc)
+         * @see org.marketcetera.server.ws.MessageProcessorMBean#getMarketDataQueueDepth()
+         */
+        @Override
+        public int getMarketDataQueueDepth()
+        {
+            int depth = 0;
+            for(Worker worker:marketDataWorkers) {
+                depth += worker.queue.size();
+            }
+            return depth;
+        }
+        /* (non-Javadoc)
+         * @see org.marketcetera.server.ws.MessageProcessorMBean#getMaxOrderQueueDepth()
+         */
+        @Override
+        public int getMaxOrderQueueDepth()
+        {
+            int depth = 0;
+            for(Worker worker:orderWorkers) {
+                depth = Math.max(depth, worker.maxDepth.get());
+            }
+            return depth;
+        }
+        /* (non-Javadoc)
+         * @see org.marketcetera.server.ws.MessageProcessorMBean#getMaxMarketDataQueueDepth()
+         */
+        @Override
+        public int getMaxMarketDataQueueDepth()
+        {
+            int depth = 0;
+            for(Worker worker:marketDataWorkers) {
+                depth = Math.max(depth, worker.maxDepth.get());
+            }
+            return depth;
+        }
+        /* (non-Javadoc)
+         * @see org.marketcetera.server.ws.MessageProcessorMBean#getProcessedMessages()
+         */
+        @Override
+        public long getProcessedMessages()
+        {
+            return processed.get();
+        }
+        /* (non-Javadoc)
+         * @see org.marketcetera.server.ws.MessageProcessorMBean#getConflatedMessages()
+         */
+        @Override
+        public long getConflatedMessages()
+        {
+            return conflated.get();
+        }
+        /* (non-Javadoc)
+         * @see org.marketcetera.server.ws.MessageProcessorMBean#getBlockedMessages()
+         */
+        @Override
+        public long getBlockedMessages()
+        {
+            return blocked.get();
+        }
+        /* (non-Javadoc)
+         * @see org.marketcetera.server.ws.MessageProcessorMBean#getDroppedMessages()
+         */
+        @Override
+        public long getDroppedMessages()
+        {
+            return dropped.get();
+        }
+        /**
+         * number of workers of each lane
+         */
+        private final int partitions;
+        /**
+         * capacity of the queue of each worker
+         */
+        private final int queueCapacity;
+        /**
+         * conflation policy of the market data lane
+         */
+        private final MarketDataConflation marketDataConflation;
+        /**
+         * the workers of the order lane
+         */
+        private final Worker[] orderWorkers;
+        /**
+         * the workers of the market data lane
+         */
+        private final Worker[] marketDataWorkers;
+        /**
+         * the root ClOrdID of the most recently seen ClOrdIDs
+         */
+        @SuppressWarnings("serial")
+        private final Map<String,String> rootIDs = new LinkedHashMap<String,String>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String,String> eldest)
+            {
+                return size() > ROOT_ID_CAPACITY;
+            }
+        };
+        /**
+         * number of messages processed
+         */
+        private final AtomicLong processed = new AtomicLong();
+        /**
+         * number of market data snapshots replaced before being processed
+         */
+        private final AtomicLong conflated = new AtomicLong();
+        /**
+         * number of messages which waited for room in a full queue
+         */
+        private final AtomicLong blocked = new AtomicLong();
+        /**
+         * number of market data messages dropped by a full queue
+         */
+        private final AtomicLong dropped = new AtomicLong();
+        /**
+         * Processes the messages of one partition in queue order.
+         */
+        private class Worker
+                implements Runnable
+        {
+            /**
+             * Create a new Worker instance.
+             */
+            private Worker(String name,
+                           MarketDataConflation inConflation,
+                           boolean inBlocking)
+            {
+                conflation = inConflation;
+                blocking = inBlocking;
+                queue = new ArrayBlockingQueue<>(queueCapacity);
+                thread = new Thread(this, "QFJ Broker: " + name); //$NON-NLS-1$
+                thread.start();
+            }
+            /**
+             * Add the message to the queue. A conflatable message replaces
+             * a queued message of the same key if the conflation policy
+             * allows, any other message of the key stops it from being
+             * replaced, so the messages of a key stay in sequence. If the
+             * queue is full, a blocking worker waits for room and any
+             * other worker drops the message.
+             */
+            private void add(MessagePackage message, String key, boolean conflatable)
+                    throws InterruptedException
+            {
+                Slot slot = new Slot(message, key);
+                if(key != null && conflation == MarketDataConflation.LATEST_PER_REQUEST) {
+                    synchronized(pending) {
+                        Slot queued = pending.get(key);
+                        if(conflatable && queued != null) {
+                            queued.message = message;
+                            conflated.incrementAndGet();
+                            return;
+                        }
+                        if(conflatable) {
+                            pending.put(key, slot);
+                        } else {
+                            pending.remove(key);
+                        }
                     }
-                    
-                    switch(message.getMessageType()) {
-                        case FROM_APP: {
-                            try {
-                                // OpenFIX certification: we reject all DeliverToCompID since we don't re-deliver.
-                                if (msg.getHeader().isSetField(DeliverToCompID.FIELD)) {
-                                    try {
-                                        Message reject = b.getFIXMessageFactory().createSessionReject(msg,
-                                                                                                      SessionRejectReason.COMPID_PROBLEM);
-                                        reject.setString(Text.FIELD,
-                                                         Messages.QF_COMP_ID_REJECT.getText(msg.getHeader().getString(DeliverToCompID.FIELD)));
-                                        b.sendToTarget(reject);
-                                    } catch (SessionNotFound ex) {
-                                        Messages.QF_COMP_ID_REJECT_FAILED.error(getCategory(msg),
-                                                                                ex, b.toString());
-                                    }
-                                    break;
-                                }
-                                
-                                // Send Trade Response
-                                if (FIXMessageUtil.isExecutionReport(msg) ||
-                                		FIXMessageUtil.isCancelReject(msg)) {
-                                	// Record filled (partially or totally) execution reports.
-                                    char ordStatus=msg.getChar(OrdStatus.FIELD);
-                                    if ((ordStatus==OrdStatus.FILLED) ||
-                                        (ordStatus==OrdStatus.PARTIALLY_FILLED)) {
-                                    	Messages.QF_SENDING_TRADE_RECORD.info(getCategory(msg),msg);
-                                    }
-                                    // Send message to client.
-                                    sendToClient(b, msg, Originator.Broker);
-                                    break;
-                                }
-                             
-                                // Send Data Response
-                                if(FIXMessageUtil.isMarketDataSnapshotFullRefresh(msg) ||
-                                		FIXMessageUtil.isMarketDataReject(msg)){
-                                	// Send message to client.
-                                    sendToClient(b, msg, Originator.Broker);
-                                    break;
-                                }
- 
-                                if(FIXMessageUtil.isXMLMessage(msg)){
-                                	// Send message to Job managers
-	                                ServerFIXRouting.getInstance().getJobSession()
-	                                	.convertAndSend(msg);
-	                                break;
+                }
+                if(!queue.offer(slot)) {
+                    if(!blocking) {
+                        if(key != null) {
+                            synchronized(pending) {
+                                if(pending.get(key) == slot) {
+                                    pending.remove(key);
                                 }
-                                
-                                Messages.QF_RECEIVE_UNKNOWN_DATA.error(this, msg);
-                                break;
-                            } catch (FieldNotFound e) {
-                                SLF4JLoggerProxy.error(QuickFIXApplication.class, e);
                             }
-                            break;
                         }
-                        case FROM_ADMIN: {
-                            Messages.QF_FROM_ADMIN.info(getCategory(msg), msg, b);
-                            b.logMessage(msg);
-                            
-                            // Send message to client.
-                            sendToClient(b, msg, Originator.Broker);
-                            break;
+                        dropped.incrementAndGet();
+                        if(!dropping) {
+                            dropping = true;
+                            Messages.QF_MARKET_DATA_DROPPED.warn(QuickFIXApplication.class,
+                                                                 thread.getName());
                         }
-                        default:
-                            throw new UnsupportedOperationException();
+                        return;
+                    }
+                    blocked.incrementAndGet();
+                    queue.put(slot);
+                }
+                dropping = false;
+                int depth = queue.size();
+                int max = maxDepth.get();
+                while(depth > max && !maxDepth.compareAndSet(max, depth)) {
+                    max = maxDepth.get();
+                }
+            }
+            /**
+             * Returns the message of the given slot taken from the queue.
+             */
+            private MessagePackage take(Slot slot)
+            {
+                if(slot.key == null || conflation == MarketDataConflation.NONE) {
+                    return slot.message;
+                }
+                synchronized(pending) {
+                    if(pending.get(slot.key) == slot) {
+                        pending.remove(slot.key);
+                    }
+                    return slot.message;
+                }
+            }
+            /* (non-Javadoc)
+             * @see java.lang.Runnable#run()
+             */
+            @Override
+            public void run()
+            {
+                while(true) {
+                    MessagePackage message;
+                    try {
+                        message = take(queue.take());
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    try {
+                        processMessage(message);
+                    } catch (Exception e) {
+                        SLF4JLoggerProxy.error(QuickFIXApplication.class, e);
                     }
+                    processed.incrementAndGet();
                 }
-            } catch (Exception ignored) {}
+            }
+            /**
+             * conflation policy of the worker
+             */
+            private final MarketDataConflation conflation;
+            /**
+             * whether a full queue blocks the caller rather than dropping
+             * the message
+             */
+            private final boolean blocking;
+            /**
+             * whether messages are being dropped since the queue was last
+             * found with room, only accessed from the session thread
+             */
+            private boolean dropping;
+            /**
+             * thread on which the messages are processed
+             */
+            private final Thread thread;
+            /**
+             * the messages to be processed
+             */
+            private final BlockingQueue<Slot> queue;
+            /**
+             * the conflatable slots in the queue, by key
+             */
+            private final Map<String,Slot> pending = new HashMap<>();
+            /**
+             * the largest depth reached by the queue
+             */
+            private final AtomicInteger maxDepth = new AtomicInteger();
         }
+    }
+    /**
+     * A queued message, which may be replaced by a newer message of
+     * the same key until it is taken from the queue.
+     */
+    private static class Slot
+    {
         /**
-         * Create a new MessageProcessor instance.
+         * Create a new Slot instance.
          */
-        private MessageProcessor(Broker b)
+        private Slot(MessagePackage inMessage,
+                     String inKey)
         {
-        	messagesToProcess = new LinkedBlockingDeque<>();
-            thread = new Thread(this, "QFJ Broker: " + b.getName()); //$NON-NLS-1$
-            thread.start();
-        }
-        /**
-         * Add the message to the queue.
-         */
-        private void add(MessagePackage message){
-        	messagesToProcess.add(message);
+            message = inMessage;
+            key = inKey;
         }
         /**
-         * thread on which the messages are processed
+         * the queued message
          */
-        private final Thread thread;
+        private MessagePackage message;
         /**
-         * the list of messages to be processed
+         * the partition key of the message
          */
-        private final BlockingDeque<MessagePackage> messagesToProcess;
+        private final String key;
+    }
+    /**
+     * Returns the integer value of the given broker descriptor property.
+     *
+     * @param b the broker
+     * @param name the property name
+     * @param defaultValue the value if the property is not set
+     * @return an <code>int</code> value
+     */
+    private static int getIntProperty(Broker b, String name, int defaultValue)
+    {
+        String value = b.getDescriptor().getProperty(name);
+        if(value == null) {
+            return defaultValue;
+        }
+        return Math.max(1, Integer.parseInt(value.trim()));
     }
 }
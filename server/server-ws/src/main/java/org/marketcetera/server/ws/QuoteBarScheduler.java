@@ -0,0 +1,366 @@
+package org.marketcetera.server.ws;
+
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.marketcetera.event.QuoteEvent;
+import org.marketcetera.trade.UserID;
+import org.marketcetera.util.log.SLF4JLoggerProxy;
+import org.marketcetera.ws.server.CoreExecutors;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Shared scheduler closing the bars of all quote recorders.
+ *
+ * The bars are kept in a hashed timing wheel, filed under the tick of their
+ * next period boundary. One scheduled task advances the wheel every tick and
+ * closes all bars due at that instant in one batch. The quote events of the
+ * batch are then sent in bulk, once per user. Each bar is filed again under its
+ * next boundary after it is closed.
+ *
+ * The delay between a boundary and the close of its bars (jitter) is exposed
+ * through the {@link QuoteBarSchedulerMBean}.
+ */
+public class QuoteBarScheduler implements QuoteBarSchedulerMBean {
+
+	/**
+	 * A bar that is closed at its period boundaries.
+	 */
+	public interface Task {
+
+		/**
+		 * Closes the bar ending at the given boundary.
+		 *
+		 * @param time the period boundary, in ms
+		 * @param batch the batch to add the resulting quote event to
+		 */
+		public void onBarClose(long time, Batch batch);
+	}
+
+	/**
+     * the wheel resolution, in ms
+     */
+	private static final long TICK = 10;
+
+	/**
+     * the number of wheel slots, one minute of ticks
+     */
+	private static final int WHEEL_SIZE = 6000;
+
+	/**
+     * singleton instance reference
+     */
+	private static final QuoteBarScheduler sInstance = new QuoteBarScheduler();
+
+	/**
+     * the wheel slots, created on first use
+     */
+	private final List<Entry>[] mWheel;
+
+	/**
+     * the last tick processed
+     */
+	private long mLastTick;
+
+	/**
+     * the number of scheduled bars
+     */
+	private int mScheduled;
+
+	/**
+     * true once the wheel task is scheduled
+     */
+	private boolean mStarted;
+
+    /**
+     * the wheel lock
+     */
+	private final Object mLock = new Object();
+
+	private volatile long mClosedBars;
+	private volatile long mBatches;
+	private volatile long mLastJitter;
+	private volatile long mMaxJitter;
+	private volatile long mTotalJitter;
+
+	/**
+     * Gets the <code>QuoteBarScheduler</code> value.
+     *
+     * @return an <code>QuoteBarScheduler</code> value
+     */
+	public static QuoteBarScheduler getInstance() {
+		return sInstance;
+	}
+
+	/**
+     * Instance of QuoteBarScheduler
+     */
+	@SuppressWarnings("unchecked")
+	private QuoteBarScheduler() {
+		mWheel = new List[WHEEL_SIZE];
+		mLastTick = currentTimeMillis() / TICK;
+	}
+
+	/**
+	 * Schedules the given bar to be closed at every boundary of the given
+	 * interval, the first being the next boundary from now.
+	 *
+	 * @param interval the period interval, in ms
+	 * @param task the bar to close
+	 * @return The registration, used to cancel it.
+	 */
+	public Registration register(long interval, Task task) {
+		Registration registration = new Registration(interval, task);
+		synchronized (mLock) {
+			if(!mStarted){
+				mStarted = true;
+				CoreExecutors.scheduleAtFixedRate(new Runnable() {
+		            public void run() {
+		        		advance();
+		            }
+		        }, TICK, TICK, TimeUnit.MILLISECONDS);
+			}
+			mScheduled++;
+			schedule(new Entry(registration, nextBoundary(interval, currentTimeMillis())));
+		}
+		return registration;
+	}
+
+	/**
+	 * Cancels the given registration. The bar is no longer closed.
+	 *
+	 * @param registration the registration
+	 */
+	public void cancel(Registration registration) {
+		synchronized (mLock) {
+			if(!registration.mCancelled){
+				registration.mCancelled = true;
+				mScheduled--;
+			}
+		}
+	}
+
+	/**
+	 * Advances the wheel to the current time and closes the bars that are due.
+	 */
+	private void advance() {
+		long time = currentTimeMillis();
+		List<Entry> due = Lists.newArrayList();
+
+		synchronized (mLock) {
+			long tick = time / TICK;
+			long from = Math.max(mLastTick + 1, tick - WHEEL_SIZE + 1);
+			for(long t = from; t <= tick; t++){
+				List<Entry> slot = mWheel[(int)(t % WHEEL_SIZE)];
+				if(slot == null || slot.isEmpty()){
+					continue;
+				}
+				List<Entry> remaining = Lists.newArrayList();
+				for(Entry entry:slot){
+					if(entry.mRegistration.mCancelled){
+						continue;
+					}
+					if(entry.mTick <= tick){
+						due.add(entry);
+					} else {
+						remaining.add(entry);
+					}
+				}
+				mWheel[(int)(t % WHEEL_SIZE)] = remaining;
+			}
+			mLastTick = Math.max(mLastTick, tick);
+		}
+
+		if(due.isEmpty()){
+			return;
+		}
+
+		try {
+			Batch batch = new Batch();
+			for(Entry entry:due){
+				long jitter = time - entry.mTime;
+				mLastJitter = jitter;
+				mMaxJitter = Math.max(mMaxJitter, jitter);
+				mTotalJitter += jitter;
+				mClosedBars++;
+				try {
+					entry.mRegistration.mTask.onBarClose(entry.mTime, batch);
+				} catch (RuntimeException ex) {
+					SLF4JLoggerProxy.error(this,ex,"Bar close failed"); //$NON-NLS-1$
+				}
+			}
+			mBatches++;
+			try {
+				batch.send();
+			} catch (RuntimeException ex) {
+				SLF4JLoggerProxy.error(this,ex,"Sending {} closed bars failed", //$NON-NLS-1$
+						due.size());
+			}
+		} finally {
+			// the due entries left the wheel, whatever happened they go back
+			synchronized (mLock) {
+				for(Entry entry:due){
+					if(!entry.mRegistration.mCancelled){
+						schedule(new Entry(entry.mRegistration,
+								nextBoundary(entry.mRegistration.mInterval, time)));
+					}
+				}
+			}
+		}
+		SLF4JLoggerProxy.debug(this,"Closed {} bars, jitter {} ms", //$NON-NLS-1$
+				due.size(), time - due.get(0).mTime);
+	}
+
+	/**
+	 * Files the given entry under the tick of its boundary, called with the
+	 * wheel lock held.
+	 *
+	 * @param entry the entry
+	 */
+	private void schedule(Entry entry) {
+		if(entry.mTick <= mLastTick){
+			entry.mTick = mLastTick + 1;
+		}
+		int index = (int)(entry.mTick % WHEEL_SIZE);
+		if(mWheel[index] == null){
+			mWheel[index] = Lists.newArrayList();
+		}
+		mWheel[index].add(entry);
+	}
+
+	/**
+	 * Returns the first boundary of the given interval after the given time.
+	 */
+	private static long nextBoundary(long interval, long time) {
+		return time - (time % interval) + interval;
+	}
+
+	/**
+	 * Returns the current time, in ms.
+	 */
+	private static long currentTimeMillis() {
+		return Calendar.getInstance().getTimeInMillis();
+	}
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ws.QuoteBarSchedulerMBean#getClosedBars()
+     */
+	@Override
+	public long getClosedBars() {
+		return mClosedBars;
+	}
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ws.QuoteBarSchedulerMBean#getBatches()
+     */
+	@Override
+	public long getBatches() {
+		return mBatches;
+	}
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ws.QuoteBarSchedulerMBean#getLastJitter()
+     */
+	@Override
+	public long getLastJitter() {
+		return mLastJitter;
+	}
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ws.QuoteBarSchedulerMBean#getMaxJitter()
+     */
+	@Override
+	public long getMaxJitter() {
+		return mMaxJitter;
+	}
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ws.QuoteBarSchedulerMBean#getAverageJitter()
+     */
+	@Override
+	public double getAverageJitter() {
+		long closedBars = mClosedBars;
+		return closedBars == 0 ? 0 : (double)mTotalJitter / closedBars;
+	}
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ws.QuoteBarSchedulerMBean#getScheduledBars()
+     */
+	@Override
+	public int getScheduledBars() {
+		synchronized (mLock) {
+			return mScheduled;
+		}
+	}
+
+	/**
+	 * The registration of a bar.
+	 */
+	public static class Registration {
+		private final long mInterval;
+		private final Task mTask;
+		private volatile boolean mCancelled;
+
+		private Registration(long interval, Task task) {
+			mInterval = interval;
+			mTask = task;
+		}
+	}
+
+	/**
+	 * A bar filed in the wheel under the tick of its boundary.
+	 */
+	private static class Entry {
+		private final Registration mRegistration;
+		private final long mTime;
+		private long mTick;
+
+		private Entry(Registration registration, long time) {
+			mRegistration = registration;
+			mTime = time;
+			mTick = (time + TICK - 1) / TICK;
+		}
+	}
+
+	/**
+	 * The quote events of the bars closed at one instant, grouped by user.
+	 */
+	public static class Batch {
+		private final Map<UserID, List<QuoteEvent>> mEvents = Maps.newLinkedHashMap();
+
+		private Batch() {
+		}
+
+		/**
+		 * Adds the given quote event for the given users.
+		 *
+		 * @param quoteEvent the quote event
+		 * @param userIDs the users to send it to
+		 */
+		public void add(QuoteEvent quoteEvent, Collection<UserID> userIDs) {
+			for(UserID actorID:userIDs){
+				List<QuoteEvent> events = mEvents.get(actorID);
+				if(events == null){
+					events = Lists.newArrayList();
+					mEvents.put(actorID, events);
+				}
+				events.add(quoteEvent);
+			}
+		}
+
+		/**
+		 * Sends the quote events, all events of a user at once.
+		 */
+		private void send() {
+			for(Map.Entry<UserID, List<QuoteEvent>> e:mEvents.entrySet()){
+				ServerFIXRouting.getInstance().getServerManager()
+								.convertAndSend(e.getValue(), e.getKey());
+			}
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package org.marketcetera.server.ws;
+
+/**
+ * MBean interface exposing the bar close metrics of the
+ * {@link QuoteBarScheduler}.
+ */
+public interface QuoteBarSchedulerMBean {
+
+    /**
+     * Returns the number of bars closed since start.
+     *
+     * @return a <code>long</code> value
+     */
+	public long getClosedBars();
+
+    /**
+     * Returns the number of bar close batches run since start.
+     *
+     * @return a <code>long</code> value
+     */
+	public long getBatches();
+
+    /**
+     * Returns the delay, in ms, between the bar boundary and its close, for
+     * the last bar closed.
+     *
+     * @return a <code>long</code> value
+     */
+	public long getLastJitter();
+
+    /**
+     * Returns the largest delay, in ms, between a bar boundary and its close.
+     *
+     * @return a <code>long</code> value
+     */
+	public long getMaxJitter();
+
+    /**
+     * Returns the average delay, in ms, between a bar boundary and its close.
+     *
+     * @return a <code>double</code> value
+     */
+	public double getAverageJitter();
+
+    /**
+     * Returns the number of bars currently scheduled.
+     *
+     * @return an <code>int</code> value
+     */
+	public int getScheduledBars();
+}
@@ -0,0 +1,472 @@
+package org.marketcetera.server.ws;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.marketcetera.core.time.Period;
+import org.marketcetera.event.Quote;
+import org.marketcetera.event.QuoteEvent;
+import org.marketcetera.persist.PersistenceException;
+import org.marketcetera.trade.Instrument;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Size bounded cache of the quote history, one bar series per instrument and
+ * period.
+ *
+ * A series holds all bars from its start time on: it is loaded from the
+ * database up to now on the first request, then kept up to date with the bars
+ * as they are saved. Requests starting at or after the start of the series are
+ * served from memory, earlier ones load the missing bars and extend the series
+ * back.
+ *
+ * The bars are stored column by column in primitive arrays, the prices and
+ * volumes as unscaled values at the scale of the database columns. A range is
+ * found by binary search over the time column. Series are evicted least
+ * recently used first once the memory of all bars exceeds the maximum
+ * footprint. The metrics are exposed through the {@link QuoteHistoryCacheMBean}.
+ */
+public class QuoteHistoryCache implements QuoteHistoryCacheMBean {
+
+	/**
+	 * Loads the bars of a series from the database.
+	 */
+	public interface Loader {
+
+		/**
+		 * Returns the bars within the given dates, both inclusive.
+		 *
+		 * @param from the first date
+		 * @param to the last date
+		 * @return The bars.
+		 * @throws PersistenceException if the bars cannot be loaded
+		 */
+		public List<Quote> load(Date from, Date to) throws PersistenceException;
+	}
+
+	/**
+     * the scale of the price and volume columns in the database
+     */
+	private static final int SCALE = 7;
+
+	/**
+     * the number of columns of a bar: time, open, high, low, close, volume and spread
+     */
+	private static final int COLUMNS = 7;
+
+	/**
+     * the initial number of bars of a series
+     */
+	private static final int INITIAL_CAPACITY = 256;
+
+	/**
+     * singleton instance reference
+     */
+	private static final QuoteHistoryCache sInstance = new QuoteHistoryCache();
+
+	/**
+     * the series in access order, guarded by the cache lock
+     */
+	private final LinkedHashMap<Key, Series> mSeries = new LinkedHashMap<Key, Series>(16, 0.75f, true);
+
+    /**
+     * the cache lock
+     */
+	private final Object mLock = new Object();
+
+	private volatile long mMaxFootprint = 64L << 20;
+	private final AtomicLong mHits = new AtomicLong();
+	private final AtomicLong mMisses = new AtomicLong();
+	private final AtomicLong mEvictions = new AtomicLong();
+
+	/**
+     * Gets the <code>QuoteHistoryCache</code> value.
+     *
+     * @return an <code>QuoteHistoryCache</code> value
+     */
+	public static QuoteHistoryCache getInstance() {
+		return sInstance;
+	}
+
+	/**
+     * Instance of QuoteHistoryCache
+     */
+	private QuoteHistoryCache() {
+	}
+
+	/**
+	 * Returns the bars of the given instrument and period within the given
+	 * dates, both inclusive, loading the bars not cached yet.
+	 *
+	 * @param instrument the instrument
+	 * @param period the period
+	 * @param from the first date
+	 * @param to the last date
+	 * @param loader the loader of the bars not cached yet
+	 * @return The bars, ordered by time.
+	 * @throws PersistenceException if the bars cannot be loaded, the series
+	 * then being loaded again by the next request
+	 */
+	public List<Quote> getQuotes(Instrument instrument, Period period,
+			Date from, Date to, Loader loader) throws PersistenceException {
+		Key key = new Key(instrument, period);
+		Series series;
+		synchronized (mLock) {
+			series = mSeries.get(key);
+			if(series == null){
+				series = new Series();
+				mSeries.put(key, series);
+			}
+		}
+
+		List<Quote> quotes;
+		synchronized (series) {
+			if(series.mLoaded && from.getTime() >= series.mStart){
+				mHits.incrementAndGet();
+			} else {
+				mMisses.incrementAndGet();
+				// writers of this series wait for the load, so no bar is lost
+				long end = series.mLoaded ? series.mStart - 1 : currentTimeMillis();
+				List<Quote> loaded = loader.load(from, new Date(end));
+				// only marked loaded once the load succeeded
+				for(Quote quote:loaded){
+					series.put(quote);
+				}
+				series.mStart = from.getTime();
+				series.mLoaded = true;
+			}
+			quotes = series.get(from.getTime(), to.getTime());
+		}
+		evict();
+		return quotes;
+	}
+
+	/**
+	 * Adds the given saved bar to its series, if cached.
+	 *
+	 * @param quoteEvent the bar
+	 */
+	public void put(QuoteEvent quoteEvent) {
+		Series series = getSeries(quoteEvent);
+		if(series == null){
+			return;
+		}
+		synchronized (series) {
+			if(series.mLoaded && quoteEvent.getQuote().getTime() >= series.mStart){
+				series.put(quoteEvent.getQuote());
+			}
+		}
+		evict();
+	}
+
+	/**
+	 * Removes the given deleted bar from its series, if cached.
+	 *
+	 * @param quoteEvent the bar
+	 */
+	public void remove(QuoteEvent quoteEvent) {
+		Series series = getSeries(quoteEvent);
+		if(series == null){
+			return;
+		}
+		synchronized (series) {
+			series.remove(quoteEvent.getQuote().getTime());
+		}
+	}
+
+	/**
+	 * Returns the cached series of the given bar.
+	 *
+	 * @param quoteEvent the bar
+	 * @return The series, null if not cached.
+	 */
+	private Series getSeries(QuoteEvent quoteEvent) {
+		Key key = new Key(quoteEvent.getInstrument(), quoteEvent.getPeriod());
+		synchronized (mLock) {
+			return mSeries.get(key);
+		}
+	}
+
+	/**
+	 * Evicts the least recently used series until the footprint is within
+	 * the maximum. The most recently used series is kept.
+	 */
+	private void evict() {
+		synchronized (mLock) {
+			long footprint = getFootprint();
+			Iterator<Series> iterator = mSeries.values().iterator();
+			while(footprint > mMaxFootprint && mSeries.size() > 1){
+				Series series = iterator.next();
+				footprint -= series.getFootprint();
+				iterator.remove();
+				mEvictions.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Returns the current time, in ms.
+	 */
+	private static long currentTimeMillis() {
+		return Calendar.getInstance().getTimeInMillis();
+	}
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ws.QuoteHistoryCacheMBean#getHits()
+     */
+	@Override
+	public long getHits() {
+		return mHits.get();
+	}
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ws.QuoteHistoryCacheMBean#getMisses()
+     */
+	@Override
+	public long getMisses() {
+		return mMisses.get();
+	}
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ws.QuoteHistoryCacheMBean#getHitRatio()
+     */
+	@Override
+	public double getHitRatio() {
+		long hits = mHits.get();
+		long requests = hits + mMisses.get();
+		return requests == 0 ? 0 : (double)hits / requests;
+	}
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ws.QuoteHistoryCacheMBean#getEvictions()
+     */
+	@Override
+	public long getEvictions() {
+		return mEvictions.get();
+	}
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ws.QuoteHistoryCacheMBean#getSeriesCount()
+     */
+	@Override
+	public int getSeriesCount() {
+		synchronized (mLock) {
+			return mSeries.size();
+		}
+	}
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ws.QuoteHistoryCacheMBean#getFootprint()
+     */
+	@Override
+	public long getFootprint() {
+		synchronized (mLock) {
+			long footprint = 0;
+			for(Series series:mSeries.values()){
+				footprint += series.getFootprint();
+			}
+			return footprint;
+		}
+	}
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ws.QuoteHistoryCacheMBean#getMaxFootprint()
+     */
+	@Override
+	public long getMaxFootprint() {
+		return mMaxFootprint;
+	}
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ws.QuoteHistoryCacheMBean#setMaxFootprint(long)
+     */
+	@Override
+	public void setMaxFootprint(long maxFootprint) {
+		mMaxFootprint = maxFootprint;
+		evict();
+	}
+
+	/**
+	 * The key of a series.
+	 */
+	private static class Key {
+		private final Instrument mInstrument;
+		private final Period mPeriod;
+
+		private Key(Instrument instrument, Period period) {
+			mInstrument = instrument;
+			mPeriod = period;
+		}
+
+		@Override
+		public int hashCode() {
+			return mInstrument.hashCode() * 31 + mPeriod.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof Key)){
+				return false;
+			}
+			Key other = (Key)obj;
+			return mInstrument.equals(other.mInstrument) && mPeriod.equals(other.mPeriod);
+		}
+	}
+
+	/**
+	 * The bars of one instrument and period from a start time on, sorted by
+	 * time, one primitive array per column.
+	 */
+	private static class Series {
+		/**
+		 * true once the bars from the start time on are loaded
+		 */
+		private boolean mLoaded;
+		/**
+		 * the time from which all bars are held
+		 */
+		private long mStart;
+		private int mSize;
+		private long[] mTime = new long[INITIAL_CAPACITY];
+		private long[] mOpen = new long[INITIAL_CAPACITY];
+		private long[] mHigh = new long[INITIAL_CAPACITY];
+		private long[] mLow = new long[INITIAL_CAPACITY];
+		private long[] mClose = new long[INITIAL_CAPACITY];
+		private long[] mVolume = new long[INITIAL_CAPACITY];
+		private long[] mSpread = new long[INITIAL_CAPACITY];
+		/**
+		 * the capacity, read without the series lock to compute the footprint
+		 */
+		private volatile int mCapacity = INITIAL_CAPACITY;
+
+		/**
+		 * Returns the memory used by the bars, in bytes.
+		 */
+		private long getFootprint() {
+			return (long)mCapacity * COLUMNS * 8;
+		}
+
+		/**
+		 * Inserts the given bar, replacing the bar of the same time.
+		 */
+		private void put(Quote quote) {
+			long time = quote.getTime();
+			int index;
+			if(mSize == 0 || time > mTime[mSize - 1]){
+				// bars mostly come in time order
+				index = mSize;
+			} else {
+				index = Arrays.binarySearch(mTime, 0, mSize, time);
+			}
+			if(index < 0 || index == mSize){
+				index = index < 0 ? -index - 1 : index;
+				if(mSize == mCapacity){
+					grow();
+				}
+				int moved = mSize - index;
+				if(moved > 0){
+					System.arraycopy(mTime, index, mTime, index + 1, moved);
+					System.arraycopy(mOpen, index, mOpen, index + 1, moved);
+					System.arraycopy(mHigh, index, mHigh, index + 1, moved);
+					System.arraycopy(mLow, index, mLow, index + 1, moved);
+					System.arraycopy(mClose, index, mClose, index + 1, moved);
+					System.arraycopy(mVolume, index, mVolume, index + 1, moved);
+					System.arraycopy(mSpread, index, mSpread, index + 1, moved);
+				}
+				mSize++;
+			}
+			mTime[index] = time;
+			mOpen[index] = unscaled(quote.getOpen());
+			mHigh[index] = unscaled(quote.getHigh());
+			mLow[index] = unscaled(quote.getLow());
+			mClose[index] = unscaled(quote.getClose());
+			mVolume[index] = unscaled(quote.getVolume());
+			mSpread[index] = unscaled(quote.getSpread());
+		}
+
+		/**
+		 * Removes the bar of the given time, if any.
+		 */
+		private void remove(long time) {
+			int index = Arrays.binarySearch(mTime, 0, mSize, time);
+			if(index < 0){
+				return;
+			}
+			int moved = mSize - index - 1;
+			System.arraycopy(mTime, index + 1, mTime, index, moved);
+			System.arraycopy(mOpen, index + 1, mOpen, index, moved);
+			System.arraycopy(mHigh, index + 1, mHigh, index, moved);
+			System.arraycopy(mLow, index + 1, mLow, index, moved);
+			System.arraycopy(mClose, index + 1, mClose, index, moved);
+			System.arraycopy(mVolume, index + 1, mVolume, index, moved);
+			System.arraycopy(mSpread, index + 1, mSpread, index, moved);
+			mSize--;
+		}
+
+		/**
+		 * Returns the bars within the given times, both inclusive.
+		 */
+		private List<Quote> get(long from, long to) {
+			int first = lowerBound(from);
+			int last = lowerBound(to + 1);
+			List<Quote> quotes = Lists.newArrayListWithCapacity(Math.max(0, last - first));
+			for(int i = first; i < last; i++){
+				quotes.add(new Quote(mTime[i],
+						scaled(mOpen[i]),
+						scaled(mHigh[i]),
+						scaled(mLow[i]),
+						scaled(mClose[i]),
+						scaled(mVolume[i]),
+						scaled(mSpread[i])));
+			}
+			return quotes;
+		}
+
+		/**
+		 * Returns the index of the first bar at or after the given time.
+		 */
+		private int lowerBound(long time) {
+			int low = 0, high = mSize;
+			while(low < high){
+				int mid = (low + high) >>> 1;
+				if(mTime[mid] < time){
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+
+		/**
+		 * Doubles the capacity of the columns.
+		 */
+		private void grow() {
+			int capacity = mCapacity * 2;
+			mTime = Arrays.copyOf(mTime, capacity);
+			mOpen = Arrays.copyOf(mOpen, capacity);
+			mHigh = Arrays.copyOf(mHigh, capacity);
+			mLow = Arrays.copyOf(mLow, capacity);
+			mClose = Arrays.copyOf(mClose, capacity);
+			mVolume = Arrays.copyOf(mVolume, capacity);
+			mSpread = Arrays.copyOf(mSpread, capacity);
+			mCapacity = capacity;
+		}
+
+		private static long unscaled(BigDecimal value) {
+			return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValue();
+		}
+
+		private static BigDecimal scaled(long value) {
+			return BigDecimal.valueOf(value, SCALE);
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package org.marketcetera.server.ws;
+
+/**
+ * MBean interface exposing the metrics of the {@link QuoteHistoryCache}.
+ */
+public interface QuoteHistoryCacheMBean {
+
+    /**
+     * Returns the number of requests served from the cache since start.
+     *
+     * @return a <code>long</code> value
+     */
+	public long getHits();
+
+    /**
+     * Returns the number of requests which had to load bars from the
+     * database since start.
+     *
+     * @return a <code>long</code> value
+     */
+	public long getMisses();
+
+    /**
+     * Returns the ratio of the requests served from the cache.
+     *
+     * @return a <code>double</code> value
+     */
+	public double getHitRatio();
+
+    /**
+     * Returns the number of bar series evicted since start.
+     *
+     * @return a <code>long</code> value
+     */
+	public long getEvictions();
+
+    /**
+     * Returns the number of bar series currently cached.
+     *
+     * @return an <code>int</code> value
+     */
+	public int getSeriesCount();
+
+    /**
+     * Returns the memory used by the cached bars, in bytes.
+     *
+     * @return a <code>long</code> value
+     */
+	public long getFootprint();
+
+    /**
+     * Returns the memory the cached bars may use, in bytes.
+     *
+     * @return a <code>long</code> value
+     */
+	public long getMaxFootprint();
+
+    /**
+     * Sets the memory the cached bars may use, in bytes. Least recently
+     * used series are evicted beyond it.
+     *
+     * @param maxFootprint a <code>long</code> value
+     */
+	public void setMaxFootprint(long maxFootprint);
+}
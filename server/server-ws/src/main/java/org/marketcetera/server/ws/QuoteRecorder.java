@@ -1,32 +1,38 @@
 package org.marketcetera.server.ws;
 
+import org.marketcetera.core.time.Period;
 import org.marketcetera.event.QuoteEvent;
 import org.marketcetera.event.TickEvent;
 import org.marketcetera.module.RequestID;
 import org.marketcetera.trade.UserID;
 
 /**
- * The quote recorder input: {@link TickEvent}, output: {@link QuoteEvent}
+ * The quote recorder input: {@link TickEvent}, output: {@link QuoteEvent} for
+ * every requested period.
  */
 public interface QuoteRecorder {
 
     /**
-     * Adds the client market data request.
+     * Adds the client market data request for the quotes of the given period.
      *
+     * @param period the quote period
+     * 
      * @param request the market data request
      * 
      * @param UserID the user.
      */
-	public void addRequest(RequestID requestID, UserID actorID);
+	public void addRequest(Period period, RequestID requestID, UserID actorID);
     
 	/**
-     * Removes the client market data request.
+     * Removes the client market data request for the quotes of the given period.
      *
+     * @param period the quote period
+     * 
      * @param RequestID the market data request
      * 
      * @param UserID the user.
      */
-	public void removeRequest(RequestID requestID, UserID actorID);
+	public void removeRequest(Period period, RequestID requestID, UserID actorID);
 	
 	/**
 	 * Recorder the tick event and process the current quote
@@ -4,8 +4,6 @@ import java.math.BigDecimal;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
 import org.marketcetera.core.time.Period;
 import org.marketcetera.event.Quote;
@@ -17,98 +15,65 @@ import org.marketcetera.trade.BrokerID;
 import org.marketcetera.trade.Instrument;
 import org.marketcetera.trade.UserID;
 import org.marketcetera.util.primitives.BigDecimalUtils;
-import org.marketcetera.ws.server.CoreExecutors;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
+/**
+ * Records the quotes of one instrument for all requested periods.
+ *
+ * Every tick updates the bars of all periods in one pass. The bars are kept as
+ * primitives and only converted to <code>BigDecimal</code> when a bar is
+ * published. The bars are closed at their period boundaries by the shared
+ * {@link QuoteBarScheduler}.
+ */
 public class QuoteRecorderImpl implements QuoteRecorder {
-	
+
 	/**
 	 * Moving average of the spread
 	 */
-	private final Double mMultiplier = 2./(10. + 1.);
-	/**
-     * the list or recorder dependent request IDs
-     */
-	private final List<RequestID> mRequests = Lists.newArrayList();
-	
-	/**
-     * the list or recorder dependent request IDs
-     */
-	private final Collection<UserID> mUserIDs = Sets.newHashSet();
-    
+	private final double mMultiplier = 2./(10. + 1.);
+
 	/**
-     * schedules quote timer job
+     * the bars of the recorded periods, replaced on change
      */
-	private final ScheduledFuture<?> mScheduledTask;
-	
+	private volatile List<Bar> mBars = Lists.newArrayList();
+
 	/**
-     * the broker ID from which the price was reported 
+     * the broker ID from which the price was reported
      */
 	private final BrokerID mBrokerID;
-    
+
 	/**
      * the market data instrument
      */
 	private final Instrument mInstrument;
-	
-    /**
-     * the quote period
-     */
-	private final Period mPeriod;
-    
-    /**
-     * the open price for the current period
-	*/
-    private BigDecimal mOpen;
-    /**
-     * the high price for the current period
-     */
-    private BigDecimal mHigh;
+
     /**
-     * the low price for the current period
+     * the moving average of the quote bid-ask
      */
-    private BigDecimal mLow;
+    private double mSpread;
     /**
-     * the close price for the current period
+     * the last ask price, giving the precision of the published prices
      */
-    private BigDecimal mClose;
+    private BigDecimal mAskPrice;
     /**
-     * the volume for the current period
+     * the last bid price, giving the precision of the published prices
      */
-    private BigDecimal mVolume;
+    private BigDecimal mBidPrice;
     /**
-     * the quote bid-ask
+     * the last ask size, giving the precision of the published volume
      */
-    private BigDecimal mSpread = BigDecimal.ZERO;
+    private BigDecimal mAskSize;
     /**
-     * the time stamp of the first tick in the quote period
+     * the last bid size, giving the precision of the published volume
      */
-    private long mTime;
+    private BigDecimal mBidSize;
     /**
-     * the recorder lock
+     * the recorder lock, guarding the bar values and the requests
      */
 	private final Object mLock = new Object();
-    
-	/**
-     * Get the list or request IDs.
-     *
-     * @return a <code>List</code> value
-     */
-	private List<RequestID> getRequests(){
-		return mRequests;
-	}
-	
-	/**
-     * Get the list or user IDs.
-     *
-     * @return a <code>Collection</code> value
-     */
-	private Collection<UserID> getUserIDs(){
-		return mUserIDs;
-	}
-	
+
     /**
      * Get the broker ID value.
      *
@@ -117,7 +82,7 @@ public class QuoteRecorderImpl implements QuoteRecorder {
 	private BrokerID getBrokerID(){
 		return mBrokerID;
 	}
-	
+
     /**
      * Get the instrument value.
      *
@@ -126,84 +91,7 @@ public class QuoteRecorderImpl implements QuoteRecorder {
 	private Instrument getInstrument(){
 		return mInstrument;
 	}
-	
-	/**
-     * Returns the recorder's period.
-     *
-     * @return The period.
-     */
-	private Period getPeriod(){
-		return mPeriod;
-	}
-	
-    /**
-     * Get the openPrice value.
-     *
-     * @return a <code>BigDecimal</code> value
-     */
-	private BigDecimal getOpen()
-    {
-        return mOpen;
-    }
-	
-    /**
-     * Get the highPrice value.
-     *
-     * @return a <code>BigDecimal</code> value
-     */
-	private BigDecimal getHigh()
-    {
-        return mHigh;
-    }
-    
-    /**
-     * Get the lowPrice value.
-     *
-     * @return a <code>BigDecimal</code> value
-     */
-	private BigDecimal getLow()
-    {
-        return mLow;
-    }
-    
-    /**
-     * Get the closePrice value.
-     *
-     * @return a <code>BigDecimal</code> value
-     */
-	private BigDecimal getClose()
-    {
-        return mClose;
-    }
-    
-    /**
-     * Get the volume value.
-     *
-     * @return a <code>BigDecimal</code> value
-     */
-	private BigDecimal getVolume()
-    {
-        return mVolume;
-    }
-	
-    /**
-     * Gets the bid/ask spread value.
-     * 
-     */
-	private BigDecimal getSpread() {
-		return mSpread;
-	}
-	
-    /**
-     * Get the time stamp value.
-     *
-     * @return a <code>long</code> value
-     */
-	private long getTime()
-    {
-        return mTime;
-    }
-	
+
 	/**
      * Returns the recorder lock.
      *
@@ -212,127 +100,248 @@ public class QuoteRecorderImpl implements QuoteRecorder {
 	private Object lock() {
 		return mLock;
 	}
-	
+
     /**
      * Instance of QuoteRecorder
-     * 
+     *
      * @param inBrokerID an <code>BrokerID</code> value
      * @param inInstrument an <code>Instrument</code> value
      * @param inExchange an <code>String</code> the exchange
-     * @param inPeriod an <code>Period</code> value
      */
-	public QuoteRecorderImpl(BrokerID inBrokerID, Instrument inInstrument, String inExchange, Period inPeriod) {
+	public QuoteRecorderImpl(BrokerID inBrokerID, Instrument inInstrument, String inExchange) {
 		mBrokerID = inBrokerID;
 		mInstrument = inInstrument;
-		mPeriod = inPeriod;
-		
-		long delay = inPeriod.getInterval();		
-		long time = Calendar.getInstance().getTimeInMillis();
-		long initialDelay = delay - (time % delay);
-		
-		mTime = time + initialDelay - delay;
-		mScheduledTask = CoreExecutors.scheduleWithFixedDelay(new Runnable() {
-            public void run() {
-        		synchronized (lock()) {
-        			sendQuote();
-        		}
-            }
-        }, initialDelay, delay, TimeUnit.MILLISECONDS);
 	}
-	
+
 	/*
 	 * (non-Javadoc)
-	 * @see org.marketcetera.server.ws.QuoteRecorder#addRequest(org.marketcetera.module.RequestID, org.marketcetera.trade.UserID)
+	 * @see org.marketcetera.server.ws.QuoteRecorder#addRequest(org.marketcetera.core.time.Period, org.marketcetera.module.RequestID, org.marketcetera.trade.UserID)
 	 */
 	@Override
-	public void addRequest(RequestID requestID, UserID actorID) {
+	public void addRequest(Period period, RequestID requestID, UserID actorID) {
 		synchronized (lock()) {
-			getRequests().add(requestID);
-			getUserIDs().add(actorID);
+			Bar bar = getBar(period);
+			if(bar == null){
+				final Bar newBar = new Bar(period, Calendar.getInstance().getTimeInMillis());
+				newBar.mRegistration = QuoteBarScheduler.getInstance().register(period.getInterval(),
+						new QuoteBarScheduler.Task() {
+							public void onBarClose(long time, QuoteBarScheduler.Batch batch) {
+								closeBar(newBar, time, batch);
+							}
+						});
+				List<Bar> bars = Lists.newArrayList(mBars);
+				bars.add(newBar);
+				mBars = bars;
+				bar = newBar;
+			}
+			bar.mRequests.add(requestID);
+			bar.mUserIDs.add(actorID);
 		}
 	}
-	
+
 	/*
 	 * (non-Javadoc)
-	 * @see org.marketcetera.server.ws.QuoteRecorder#removeRequest(org.marketcetera.module.RequestID, org.marketcetera.trade.UserID)
+	 * @see org.marketcetera.server.ws.QuoteRecorder#removeRequest(org.marketcetera.core.time.Period, org.marketcetera.module.RequestID, org.marketcetera.trade.UserID)
 	 */
 	@Override
-	public void removeRequest(RequestID requestID, UserID actorID) {
+	public void removeRequest(Period period, RequestID requestID, UserID actorID) {
 		synchronized (lock()) {
-			getRequests().remove(requestID);
-			getUserIDs().remove(actorID);
-		}
-		if(isEmpty()){
-			synchronized (lock()) {
-				CoreExecutors.cancel(mScheduledTask, true);
+			Bar bar = getBar(period);
+			if(bar == null){
+				return;
+			}
+			bar.mRequests.remove(requestID);
+			bar.mUserIDs.remove(actorID);
+			if(bar.mRequests.isEmpty()){
+				List<Bar> bars = Lists.newArrayList(mBars);
+				bars.remove(bar);
+				mBars = bars;
+				QuoteBarScheduler.getInstance().cancel(bar.mRegistration);
 			}
 		}
 	}
-	
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.marketcetera.server.ws.QuoteRecorder#onTick(org.marketcetera.event.TickEvent)
 	 */
 	@Override
 	public void onTick(TickEvent event) {
+		BigDecimal askPrice = event.getAsk().getPrice();
+		BigDecimal bidPrice = event.getBid().getPrice();
+		BigDecimal askSize = event.getAsk().getSize();
+		BigDecimal bidSize = event.getBid().getSize();
+		double ask = askPrice.doubleValue();
+		double bid = bidPrice.doubleValue();
+		double midPrice = (ask + bid)*0.5;
+		double midSize = (askSize.doubleValue() + bidSize.doubleValue())*0.5;
+
 		synchronized (lock()) {
-			BigDecimal midPrice = BigDecimalUtils.precision(event.getAsk().getPrice(), event.getBid().getPrice(),
-					(event.getAsk().getPrice().doubleValue() + event.getBid().getPrice().doubleValue())*0.5);
-			BigDecimal midSize = BigDecimalUtils.precision(event.getAsk().getSize(), event.getBid().getSize(),
-					(event.getAsk().getSize().doubleValue() + event.getBid().getSize().doubleValue())*0.5);
-			BigDecimal midSpread = BigDecimalUtils.precision(event.getAsk().getPrice(), event.getBid().getPrice(),
-					(event.getAsk().getPrice().doubleValue() - event.getBid().getPrice().doubleValue()-mSpread.doubleValue()) * mMultiplier);
-			
-			if(mOpen == null){
-				mOpen = midPrice;
-				mHigh = midPrice;
-				mLow = midPrice;
-				mClose = midPrice;
-				mVolume = midSize;
-				mSpread = midSpread;
-				return;
+			mAskPrice = askPrice;
+			mBidPrice = bidPrice;
+			mAskSize = askSize;
+			mBidSize = bidSize;
+			mSpread += (ask - bid - mSpread) * mMultiplier;
+
+			for(Bar bar:mBars){
+				bar.onTick(midPrice, midSize, mSpread);
 			}
-			
-			mHigh = mHigh.max(midPrice);
-			mLow = mLow.min(midPrice);
-			mClose = midPrice;
-			mVolume = mVolume.add(midSize);
-			mSpread = mSpread.add(midSpread);
 		}
 	}
-	
-	private void sendQuote() {
+
+	/**
+	 * Closes the given bar at the given period boundary and adds its quote to
+	 * the batch. Only the primitive bar values are copied under the recorder
+	 * lock, the quote is built outside of it.
+	 *
+	 * @param bar the bar to close
+	 * @param time the period boundary
+	 * @param batch the batch of quote events to send
+	 */
+	private void closeBar(Bar bar, long time, QuoteBarScheduler.Batch batch) {
+		long start;
+		double open, high, low, close, volume, spread;
+		BigDecimal askPrice, bidPrice, askSize, bidSize;
+		Collection<UserID> userIDs;
+
 		synchronized (lock()) {
-			Quote quote = new Quote(getTime(), 
-					getOpen(), getHigh(), getLow(), getClose(), getVolume(), getSpread());
-			
-			QuoteEvent quoteEvent = QuoteEventBuilder.quoteEvent()
-                    .withInstrument(getInstrument())
-                    .withBrokerID(getBrokerID())
-                    .withQuote(quote)
-                    .withPeriod(getPeriod())
-                    .create();			
-			for(UserID actorID:getUserIDs()){
-				ServerFIXRouting.getInstance().getServerManager()
-								.convertAndSend(quoteEvent, actorID);
+			if(!bar.mOpened){
+				//No tick yet, nothing to publish
+				bar.close(time);
+				return;
 			}
+			start = bar.mTime;
+			open = bar.mOpen;
+			high = bar.mHigh;
+			low = bar.mLow;
+			close = bar.mClose;
+			volume = bar.mVolume;
+			spread = bar.mSpread;
+			askPrice = mAskPrice;
+			bidPrice = mBidPrice;
+			askSize = mAskSize;
+			bidSize = mBidSize;
+			userIDs = Lists.newArrayList(bar.mUserIDs);
+			bar.close(time);
+		}
+
+		Quote quote = new Quote(start,
+				BigDecimalUtils.precision(askPrice, bidPrice, open),
+				BigDecimalUtils.precision(askPrice, bidPrice, high),
+				BigDecimalUtils.precision(askPrice, bidPrice, low),
+				BigDecimalUtils.precision(askPrice, bidPrice, close),
+				BigDecimalUtils.precision(askSize, bidSize, volume),
+				BigDecimalUtils.precision(askPrice, bidPrice, spread));
 
-			mOpen = quote.getClose();
-			mHigh = quote.getClose();
-			mLow = quote.getClose();
-			mVolume = BigDecimal.ZERO;
-			mSpread = quote.getSpread();
-			mTime = System.currentTimeMillis();
+		QuoteEvent quoteEvent = QuoteEventBuilder.quoteEvent()
+                .withInstrument(getInstrument())
+                .withBrokerID(getBrokerID())
+                .withQuote(quote)
+                .withPeriod(bar.mPeriod)
+                .create();
+		batch.add(quoteEvent, userIDs);
+	}
+
+	/**
+	 * Returns the bar of the given period, called with the recorder lock held.
+	 *
+	 * @param period the quote period
+	 * @return The bar, null if the period is not recorded.
+	 */
+	private Bar getBar(Period period) {
+		for(Bar bar:mBars){
+			if(bar.mPeriod.equals(period)){
+				return bar;
+			}
 		}
+		return null;
 	}
 
     /* (non-Javadoc)
      * @see  org.marketcetera.server.mds.QuoteRecorder#isEmpty()
      */
 	@Override
-	public synchronized boolean isEmpty() {
-		synchronized (lock()) {
-			return getRequests().isEmpty();
+	public boolean isEmpty() {
+		return mBars.isEmpty();
+	}
+
+	/**
+	 * The bar of one period, with its requests.
+	 */
+	private static class Bar {
+		/**
+	     * the quote period
+	     */
+		private final Period mPeriod;
+		/**
+	     * the list or period dependent request IDs
+	     */
+		private final List<RequestID> mRequests = Lists.newArrayList();
+		/**
+	     * the list or period dependent user IDs
+	     */
+		private final Collection<UserID> mUserIDs = Sets.newHashSet();
+		/**
+		 * the registration with the bar close scheduler
+		 */
+		private QuoteBarScheduler.Registration mRegistration;
+		/**
+		 * the time stamp of the start of the bar
+		 */
+		private long mTime;
+		/**
+		 * true once the first tick was recorded
+		 */
+		private boolean mOpened;
+		private double mOpen;
+		private double mHigh;
+		private double mLow;
+		private double mClose;
+		private double mVolume;
+		private double mSpread;
+
+		/**
+		 * Creates the bar of the given period, starting at the period start
+		 * of the given time.
+		 */
+		private Bar(Period period, long time) {
+			mPeriod = period;
+			mTime = time - (time % period.getInterval());
+		}
+
+		/**
+		 * Records a tick.
+		 */
+		private void onTick(double midPrice, double midSize, double spread) {
+			if(!mOpened){
+				mOpened = true;
+				mOpen = midPrice;
+				mHigh = midPrice;
+				mLow = midPrice;
+				mVolume = 0;
+			}
+			if(midPrice > mHigh){
+				mHigh = midPrice;
+			}
+			if(midPrice < mLow){
+				mLow = midPrice;
+			}
+			mClose = midPrice;
+			mVolume += midSize;
+			mSpread = spread;
+		}
+
+		/**
+		 * Starts the next bar at the close of this bar.
+		 *
+		 * @param time the current time
+		 */
+		private void close(long time) {
+			mTime = time - (time % mPeriod.getInterval());
+			mOpen = mClose;
+			mHigh = mClose;
+			mLow = mClose;
+			mVolume = 0;
 		}
 	}
 }
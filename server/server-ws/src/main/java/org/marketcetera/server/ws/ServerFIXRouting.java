@@ -6,6 +6,7 @@ import java.util.Date;
 
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
+import javax.management.StandardMBean;
 
 import org.apache.log4j.PropertyConfigurator;
 import org.marketcetera.server.ws.brokers.Broker;
@@ -68,6 +69,9 @@ public class ServerFIXRouting
     private static final Class<?> LOGGER_CATEGORY = ServerFIXRouting.class;
     private static final String APP_CONTEXT_CFG_BASE = "file:" + CONF_DIR + "properties.xml"; //$NON-NLS-1$ //$NON-NLS-2$
     private static final String JMX_NAME = "org.marketcetera.server.ws.security:type=DBAdmin"; //$NON-NLS-1$
+    private static final String QUOTE_JMX_NAME = "org.marketcetera.server.ws:type=QuoteBarScheduler"; //$NON-NLS-1$
+    private static final String QUOTE_HISTORY_JMX_NAME = "org.marketcetera.server.ws:type=QuoteHistoryCache"; //$NON-NLS-1$
+    private static final String PROCESSOR_JMX_NAME = "org.marketcetera.server.ws:type=MessageProcessor,name="; //$NON-NLS-1$
 
     // INSTANCE DATA.
     private ApplicationContainer mApplication;
@@ -78,6 +82,7 @@ public class ServerFIXRouting
     private final Brokers mBrokers;
     private final QuickFIXApplication mQFApp;
     private final ServerPersister mServerPersister;
+    private final HistoryService mHistoryService;
     private final ServerManager mServerManager;
     private final JobSession mSession;
     
@@ -145,6 +150,7 @@ public class ServerFIXRouting
              cfg.getOutgoingConnectionFactory(), 
              cfg.getContextClassProvider());
         HistoryService historyService=cfg.getHistoryService();
+        mHistoryService=historyService;
         systemInfo.setValue
             (SystemInfo.HISTORY_SERVICES,historyService);
         mBrokers=cfg.getBrokers();
@@ -219,6 +225,15 @@ public class ServerFIXRouting
                                                localIdFactory,
                                                mServerManager),
                                   new ObjectName(JMX_NAME));
+        mbeanServer.registerMBean(QuoteBarScheduler.getInstance(),
+                                  new ObjectName(QUOTE_JMX_NAME));
+        mbeanServer.registerMBean(QuoteHistoryCache.getInstance(),
+                                  new ObjectName(QUOTE_HISTORY_JMX_NAME));
+        for(Broker b:getBrokers().getBrokers()){
+            mbeanServer.registerMBean(new StandardMBean(mQFApp.getMessageProcessor(b),
+                                                        MessageProcessorMBean.class),
+                                      new ObjectName(PROCESSOR_JMX_NAME+ObjectName.quote(b.getName())));
+        }
     }
 
     // INSTANCE METHODS.
@@ -307,6 +322,7 @@ public class ServerFIXRouting
         	mServer.stop();
         	mServer=null;
         }
+        mHistoryService.stop();
     }
 
     /**
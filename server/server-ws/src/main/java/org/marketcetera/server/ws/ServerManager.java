@@ -1,11 +1,16 @@
 package org.marketcetera.server.ws;
 
+import java.lang.management.ManagementFactory;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
 import org.marketcetera.info.SessionInfo;
 import org.marketcetera.persist.PersistenceException;
 import org.marketcetera.trade.UserID;
@@ -21,6 +26,7 @@ import com.google.common.collect.Sets;
 
 import org.marketcetera.server.ws.security.ClientSession;
 import org.marketcetera.server.ws.security.SessionListener;
+import org.marketcetera.server.ws.security.SessionOutboxMBean;
 import org.marketcetera.ws.server.security.SimpleUser;
 import org.marketcetera.ws.server.security.SingleSimpleUserQuery;
 
@@ -31,6 +37,10 @@ import org.marketcetera.ws.server.security.SingleSimpleUserQuery;
 @ClassVersion("$Id: ServerManager.java 16154 2012-07-14 16:34:05Z colin $")
 public class ServerManager extends SessionManager<ClientSession> implements SessionListener
 {
+    // CLASS DATA.
+    private static final String OUTBOX_JMX_NAME=
+        "org.marketcetera.server.ws:type=SessionOutbox,name="; //$NON-NLS-1$
+
     // INSTANCE DATA.
     private final Map<UserID,Set<ClientSession>> mUserIDMap;
 
@@ -118,6 +128,7 @@ public class ServerManager extends SessionManager<ClientSession> implements Sess
             System.out.println("Added Session: " + session);
         }
         sessions.add(session);
+        registerOutbox(session);
         logStatus();
     }
 
@@ -133,6 +144,8 @@ public class ServerManager extends SessionManager<ClientSession> implements Sess
         UserID userID=session.getUser().getUserID();
         Set<ClientSession> sessions=getUserIDMap().get(userID);
         sessions.remove(session);
+        unregisterOutbox(session);
+        session.close();
         if (sessions.size()==0) {
             getUserIDMap().remove(userID);
             System.out.println("Removed Session: " + session);
@@ -191,6 +204,81 @@ public class ServerManager extends SessionManager<ClientSession> implements Sess
         }
     }
     
+    /**
+     * Sends the given messages to the actor's sessions managed by
+     * the receiver. The sessions are looked up once for all the
+     * messages.
+     *
+     * @param msgs The messages.
+     * @param actorID the actor ID
+     */
+    public void convertAndSend
+        (Collection<? extends ResponseMessage> msgs, UserID actorID)
+    {
+        // Sessions for the actor
+        Set<ClientSession> sessions=getUserIDMap().get(actorID);
+        if (sessions!=null) {
+            for (ClientSession s:sessions) {
+                for (ResponseMessage msg:msgs) {
+                    s.convertAndSend(msg);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Exposes the outbound queue metrics of the given session through
+     * JMX, for as long as the session is active.
+     *
+     * @param session The session.
+     */
+    private void registerOutbox
+        (ClientSession session)
+    {
+        if (session.getOutbox()==null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean
+                (new StandardMBean(session.getOutbox(),SessionOutboxMBean.class),
+                 getOutboxName(session));
+        } catch (JMException ex) {
+            SLF4JLoggerProxy.warn
+                (this,"Cannot register the outbox of {}",session,ex); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Removes the outbound queue metrics of the given session from JMX.
+     *
+     * @param session The session.
+     */
+    private void unregisterOutbox
+        (ClientSession session)
+    {
+        if (session.getOutbox()==null) {
+            return;
+        }
+        try {
+            ObjectName name=getOutboxName(session);
+            if (ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            }
+        } catch (JMException ex) {
+            SLF4JLoggerProxy.warn
+                (this,"Cannot unregister the outbox of {}",session,ex); //$NON-NLS-1$
+        }
+    }
+
+    private static ObjectName getOutboxName
+        (ClientSession session)
+        throws JMException
+    {
+        return new ObjectName(OUTBOX_JMX_NAME+ObjectName.quote
+                              (session.getUser().getName()+" "+ //$NON-NLS-1$
+                               session.getSessionId()));
+    }
+
     /**
      * Logs the receiver's status.
      */
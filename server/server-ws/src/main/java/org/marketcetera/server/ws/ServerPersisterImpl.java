@@ -261,6 +261,7 @@ public class ServerPersisterImpl implements ServerPersister {
         		getHistoryService().saveReport((ReportBase)msg);
             }else if(msg instanceof QuoteEvent){
             	getHistoryService().saveQuote((QuoteEvent)msg);
+            	QuoteHistoryCache.getInstance().put((QuoteEvent)msg);
         	}
         } catch (PersistenceException e) {
             Messages.RP_PERSIST_ERROR.error(this, e, msg);
@@ -281,6 +282,7 @@ public class ServerPersisterImpl implements ServerPersister {
         		getHistoryService().deleteReport((ReportBase)msg);
             }else if(msg instanceof QuoteEvent){
             	getHistoryService().deleteQuote((QuoteEvent)msg);
+            	QuoteHistoryCache.getInstance().remove((QuoteEvent)msg);
         	}
         } catch (PersistenceException e) {
             Messages.RP_PERSIST_ERROR.error(this, e, msg);
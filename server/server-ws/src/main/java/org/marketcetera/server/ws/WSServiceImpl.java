@@ -10,7 +10,9 @@ import javax.jws.WebParam;
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.marketcetera.server.ws.brokers.Brokers;
 import org.marketcetera.brokers.BrokersStatus;
+import org.marketcetera.client.ws.OrderSnapshot;
 import org.marketcetera.client.ws.WSService;
+import org.marketcetera.client.ws.jms.WireFormat;
 import org.marketcetera.core.CoreException;
 import org.marketcetera.core.IDFactory;
 import org.marketcetera.core.Util;
@@ -133,6 +135,20 @@ public class WSServiceImpl
     {
         return getHistoryService().getOpenOrders(inSession.getUser());
     }
+
+    /**
+     * Gets the latest report of each open order visible to the given
+     * session, with the highest report ID saved before they were read.
+     *
+     * @param inSession a <code>ClientSession</code> value
+     * @return an <code>OrderSnapshot</code> value
+     * @throws PersistenceException if an error occurs retrieving the order data
+     */
+    private OrderSnapshot getOrderSnapshotImpl(ClientSession inSession)
+            throws PersistenceException
+    {
+        return getHistoryService().getOrderSnapshot(inSession.getUser());
+    }
     
     /**
      * Gets the position for the given instrument.
@@ -311,11 +327,16 @@ public class WSServiceImpl
      * @throws PersistenceException if there were connection errors fetching
      * data from the server.
      */
-	protected List<Quote> getQuoteHistoryImpl(Instrument instrument, Period period, 
+	protected List<Quote> getQuoteHistoryImpl(final Instrument instrument, final Period period, 
 			Date inFrom, Date inTo) 
 			   		 throws PersistenceException 
 	{
-		return getHistoryService().getQuoteHistory(instrument, period, inFrom, inTo);
+		return QuoteHistoryCache.getInstance().getQuotes(instrument, period, inFrom, inTo,
+				new QuoteHistoryCache.Loader() {
+					public List<Quote> load(Date from, Date to) throws PersistenceException {
+						return getHistoryService().getQuoteHistory(instrument, period, from, to);
+					}
+				});
 	}
 	
 	/**
@@ -493,6 +514,24 @@ public class WSServiceImpl
         }}).execute(context);
     }
 
+    /* (non-Javadoc)
+     * @see org.marketcetera.client.ws.WSService#getOrderSnapshot(org.marketcetera.util.ws.stateful.ClientContext)
+     */
+    @Override
+    public OrderSnapshot getOrderSnapshot(
+    		final @WebParam(name="context")ClientContext context)
+    				throws RemoteException
+    {
+        return (new RemoteCaller<ClientSession,OrderSnapshot>(getSessionManager()) {
+            @Override
+            protected OrderSnapshot call(ClientContext context,
+                                         SessionHolder<ClientSession> sessionHolder)
+                    throws PersistenceException
+            {
+                return getOrderSnapshotImpl(sessionHolder.getSession());
+        }}).execute(context);
+    }
+
     /* (non-Javadoc)
      * @see org.marketcetera.client.ws.WSService#getPositionAsOf(org.marketcetera.util.ws.stateful.ClientContext, org.marketcetera.util.ws.wrappers.DateWrapper, org.marketcetera.trade.Instrument)
      */
@@ -879,4 +918,24 @@ public class WSServiceImpl
                      context.getSessionId());
             }}).execute(context);
     }
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.client.ws.WSService#setWireFormat(org.marketcetera.util.ws.stateful.ClientContext, org.marketcetera.client.ws.jms.WireFormat)
+     */
+    @Override
+    public WireFormat setWireFormat(
+    		final @WebParam(name="context")ClientContext context,
+    		final @WebParam(name="wireFormat")WireFormat wireFormat)
+    				throws RemoteException
+    {
+        return (new RemoteCaller<ClientSession,WireFormat>
+                (getSessionManager()) {
+            @Override
+            protected WireFormat call
+                (ClientContext context,
+                 SessionHolder<ClientSession> sessionHolder)
+            {
+                return sessionHolder.getSession().setWireFormat(wireFormat);
+            }}).execute(context);
+    }
 }
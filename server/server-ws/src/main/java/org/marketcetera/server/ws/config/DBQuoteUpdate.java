@@ -14,6 +14,7 @@ import org.marketcetera.marketdata.Content;
 import org.marketcetera.marketdata.MarketDataRequest;
 import org.marketcetera.marketdata.MarketDataRequestBuilder;
 import org.marketcetera.quickfix.FIXMessageUtil;
+import org.marketcetera.server.ws.QuoteHistoryCache;
 import org.marketcetera.server.ws.RequestHandler;
 import org.marketcetera.server.ws.ServerFIXRouting;
 import org.marketcetera.server.ws.brokers.Broker;
@@ -333,6 +334,7 @@ public class DBQuoteUpdate implements BasicJob, InitializingBean {
 				if(getInstruments().contains(quote.getInstrument()))
 				{
 					getHistoryService().saveQuote(quote);
+					QuoteHistoryCache.getInstance().put(quote);
 				}
 			}
 		}
@@ -7,6 +7,7 @@ import java.util.*;
 import javax.persistence.*;
 
 import org.hibernate.annotations.Type;
+import org.marketcetera.client.ws.OrderSnapshot;
 import org.marketcetera.core.position.PositionKey;
 import org.marketcetera.core.position.PositionKeyFactory;
 import org.marketcetera.persist.EntityBase;
@@ -49,6 +50,24 @@ import org.marketcetera.ws.server.security.SimpleUser;
                 @ColumnResult(name = "account"),
                 @ColumnResult(name = "actor"),
                 @ColumnResult(name = "position")
+                   }),
+    @SqlResultSetMapping(name = "lastFamilyReports",
+           columns = {
+                @ColumnResult(name = "rootID"),
+                @ColumnResult(name = "reportID"),
+                @ColumnResult(name = "brokerID"),
+                @ColumnResult(name = "securityType"),
+                @ColumnResult(name = "fullSymbol"),
+                @ColumnResult(name = "account"),
+                @ColumnResult(name = "actor"),
+                @ColumnResult(name = "side"),
+                @ColumnResult(name = "cumQuantity"),
+                @ColumnResult(name = "sendingTime")
+                   }),
+    @SqlResultSetMapping(name = "orderRootIDs",
+           columns = {
+                @ColumnResult(name = "orderID"),
+                @ColumnResult(name = "rootID")
                    })
         })
 // CD 26-Apr-2012 ORS-84
@@ -88,6 +107,24 @@ import org.marketcetera.ws.server.security.SimpleUser;
             "(select max(s.id) from execreports s where s.rootID = e.rootID and s.orderStatus not in (7,11,15)) " +
             "group by brokerID, securityType, fullSymbol, account, actor having position <> 0",
              resultSetMapping = "allPositions"), 
+    @NamedNativeQuery(name = "lastFamilyReports",query = "select " +
+            "e.rootID as rootID, r.report_id as reportID, e.brokerID as brokerID, e.securityType as securityType, e.fullSymbol as fullSymbol, e.account as account, r.actor_id as actor, e.side as side, e.cumQuantity as cumQuantity, e.sendingTime as sendingTime " +
+            "from execreports e " +
+            "join reports r on (e.report_id=r.id) " +
+            "where e.id = " +
+            "(select max(s.id) from execreports s where s.rootID = e.rootID and s.orderStatus not in (7,11,15))",
+             resultSetMapping = "lastFamilyReports"),
+    @NamedNativeQuery(name = "lastFamilyReport",query = "select " +
+            "e.rootID as rootID, r.report_id as reportID, e.brokerID as brokerID, e.securityType as securityType, e.fullSymbol as fullSymbol, e.account as account, r.actor_id as actor, e.side as side, e.cumQuantity as cumQuantity, e.sendingTime as sendingTime " +
+            "from execreports e " +
+            "join reports r on (e.report_id=r.id) " +
+            "where e.rootID = :rootID " +
+            "and e.id = " +
+            "(select max(s.id) from execreports s where s.rootID = e.rootID and s.orderStatus not in (7,11,15))",
+             resultSetMapping = "lastFamilyReports"),
+    @NamedNativeQuery(name = "orderRootIDs",query = "select distinct e.orderID as orderID, e.rootID as rootID from execreports e " +
+            "where e.sendingTime > :windowStart or e.isOpen = true",
+             resultSetMapping = "orderRootIDs"),
     @NamedNativeQuery(name="openOrders",query="select * from execreports e where e.isOpen=true and (:allActors=true or e.actor_id=:actorID)",resultClass=ExecutionReportSummary.class),
     @NamedNativeQuery(name="deleteReportsFor",query="delete from execreports where report_id=:id",resultClass=ExecutionReportSummary.class)
         })
@@ -118,6 +155,43 @@ class ExecutionReportSummary extends EntityBase {
             private static final long serialVersionUID = 1L;
         },null);
     }
+
+    /**
+     * Returns the latest report of each open order visible to the given
+     * user, with the highest report ID saved before they were read. The
+     * watermark is read first, so every report up to it which belongs
+     * to an open order is reflected in the snapshot.
+     *
+     * @param inUser a <code>SimpleUser</code> value
+     * @return an <code>OrderSnapshot</code> value
+     * @throws PersistenceException if an error occurs retrieving the orders
+     */
+    static OrderSnapshot getOrderSnapshot(final SimpleUser inUser)
+            throws PersistenceException
+    {
+        return executeRemote(new Transaction<OrderSnapshot>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public OrderSnapshot execute(EntityManager inEntityManager,
+                                         PersistContext inContext)
+                    throws PersistenceException
+            {
+                Number watermark = (Number)inEntityManager.createNamedQuery("maxReportID").getSingleResult();  //$NON-NLS-1$
+                Query query = inEntityManager.createNamedQuery("openOrders");  //$NON-NLS-1$
+                query.setParameter("actorID",inUser.getUserID().getValue());  //$NON-NLS-1$
+                query.setParameter("allActors",inUser.isSuperuser());  //$NON-NLS-1$
+                List<ExecutionReportSummary> summaries = query.getResultList();
+                ReportBaseImpl[] reports = new ReportBaseImpl[summaries.size()];
+                int i = 0;
+                for(ExecutionReportSummary summary : summaries) {
+                    reports[i++] = (ReportBaseImpl)summary.getReport().toReport();
+                }
+                return new OrderSnapshot(reports,
+                                         watermark == null ? 0 : watermark.longValue());
+            }
+            private static final long serialVersionUID = 1L;
+        },null);
+    }
     
     /**
      * Gets the current aggregate position for the instrument based on
@@ -292,6 +366,103 @@ class ExecutionReportSummary extends EntityBase {
         }, null);
     }
     
+    /**
+     * Loads the root ID of each order seen within the retained window
+     * or still open, and the last non-pending report of each order
+     * family into the given position cache.
+     *
+     * @param inCache the position cache.
+     * @param inWindowStart the start of the retained window.
+     *
+     * @throws PersistenceException if there were errors retrieving the
+     * reports.
+     */
+    static void loadPositions(final PositionCache inCache,
+                              final Date inWindowStart)
+        throws PersistenceException {
+        executeRemote(new Transaction<Integer>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Integer execute(EntityManager em,
+                                   PersistContext context) {
+                Query query = em.createNamedQuery(
+                        "orderRootIDs");  //$NON-NLS-1$
+                query.setParameter("windowStart", inWindowStart,  //$NON-NLS-1$
+                        TemporalType.TIMESTAMP);
+                Object[] columns;
+                for(Object o: query.getResultList()) {
+                    columns = (Object[]) o;
+                    inCache.addRootID(new OrderID((String)columns[0]),
+                                      new OrderID((String)columns[1]));
+                }
+                query = em.createNamedQuery(
+                        "lastFamilyReports");  //$NON-NLS-1$
+                List<?> list = query.getResultList();
+                for(Object o: list) {
+                    addFamily(inCache, (Object[]) o);
+                }
+                return list.size();
+            }
+        }, null);
+    }
+
+    /**
+     * Loads the last non-pending report of the given order family into
+     * the given position cache, if the family has one.
+     *
+     * @param inCache the position cache.
+     * @param inRootID the root ID of the family.
+     *
+     * @throws PersistenceException if there were errors retrieving the
+     * report.
+     */
+    static void loadFamily(final PositionCache inCache,
+                           final OrderID inRootID)
+        throws PersistenceException {
+        executeRemote(new Transaction<Integer>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Integer execute(EntityManager em,
+                                   PersistContext context) {
+                Query query = em.createNamedQuery(
+                        "lastFamilyReport");  //$NON-NLS-1$
+                query.setParameter("rootID", inRootID.getValue());  //$NON-NLS-1$
+                List<?> list = query.getResultList();
+                for(Object o: list) {
+                    addFamily(inCache, (Object[]) o);
+                }
+                return list.size();
+            }
+        }, null);
+    }
+
+    /**
+     * Adds the family of the given row of the last family reports query
+     * to the given position cache.
+     *
+     * @param inCache the position cache.
+     * @param inColumns the row.
+     */
+    private static void addFamily(PositionCache inCache,
+                                  Object[] inColumns)
+    {
+        BigDecimal quantity = (BigDecimal)inColumns[8];
+        if(((Number)inColumns[7]).intValue() != Side.Buy.ordinal()) {
+            quantity = quantity.negate();
+        }
+        inCache.addFamily(new OrderID((String)inColumns[0]),
+                          ((Number)inColumns[1]).longValue(),
+                          InstrumentSymbolResolver.resolveSymbol((String)inColumns[3], (String)inColumns[4]),
+                          new BrokerID((String)inColumns[2]),
+                          (String)inColumns[5],
+                          ((inColumns[6]==null)?null:
+                           ((BigInteger)inColumns[6]).toString()),
+                          quantity,
+                          ((Date)inColumns[9]).getTime());
+    }
+    
     /**
      * Gets the root order ID for the given order ID.
      *
@@ -434,6 +605,43 @@ class ExecutionReportSummary extends EntityBase {
             throws PersistenceException {
         super.saveLocal(inManager, inContext);
     }
+
+    /**
+     * Saves this instance within an existing transaction which saves
+     * a batch of reports. The other orders of the family are not
+     * closed right away, instead the ID of this instance is recorded
+     * as the last one of its family, see {@link #closeFamilies(EntityManager, Map)}.
+     *
+     * @param inManager the entity manager instance
+     * @param inContext the persistence context
+     * @param inLastIDs the ID of the last saved instance, by root ID
+     *
+     * @throws PersistenceException if there were errors.
+     */
+    void localSave(EntityManager inManager,
+                   PersistContext inContext,
+                   Map<OrderID,Long> inLastIDs)
+            throws PersistenceException {
+        mLastIDs = inLastIDs;
+        super.saveLocal(inManager, inContext);
+    }
+
+    /**
+     * Marks all orders of the given families as closed, except the
+     * last one saved of each family. Issues one update per family for
+     * a batch of saved reports.
+     *
+     * @param inManager the entity manager instance
+     * @param inLastIDs the ID of the last saved instance, by root ID
+     */
+    static void closeFamilies(EntityManager inManager,
+                              Map<OrderID,Long> inLastIDs)
+    {
+        for(Map.Entry<OrderID,Long> entry : inLastIDs.entrySet()) {
+            inManager.createNamedQuery("setIsOpen") //$NON-NLS-1$
+                .setParameter("Id",entry.getValue()).setParameter("rootID",entry.getKey()).executeUpdate();
+        }
+    }
 	
     /* (non-Javadoc)
      * @see org.marketcetera.persist.EntityBase#preSaveLocal(javax.persistence.EntityManager, org.marketcetera.persist.PersistContext)
@@ -496,8 +704,13 @@ class ExecutionReportSummary extends EntityBase {
                             inContext);
         // CD 27-Jul-2013 MATP-350
         // mark all other orders of this family as closed
-        Query query = inEntityManager.createNamedQuery("setIsOpen"); //$NON-NLS-1$
         ExecutionReportSummary summaryReport = (ExecutionReportSummary)inMerged;
+        if(mLastIDs != null) {
+            // deferred to the end of the batch
+            mLastIDs.put(summaryReport.getRootID(),summaryReport.getId());
+            return;
+        }
+        Query query = inEntityManager.createNamedQuery("setIsOpen"); //$NON-NLS-1$
         query.setParameter("Id",summaryReport.getId()).setParameter("rootID",summaryReport.getRootID()).executeUpdate();
     }
     
@@ -725,6 +938,10 @@ class ExecutionReportSummary extends EntityBase {
     private SimpleUser mActor; 
     private PersistentReport mReport;
     private boolean mIsOpen;
+    /**
+     * the ID of the last saved instance by root ID, if saved in a batch
+     */
+    private transient Map<OrderID,Long> mLastIDs;
 
     /**
      * The scale used for storing all decimal values.
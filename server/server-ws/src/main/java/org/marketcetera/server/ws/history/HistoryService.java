@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.marketcetera.client.ws.OrderSnapshot;
 import org.marketcetera.core.IDFactory;
 import org.marketcetera.core.position.PositionKey;
 import org.marketcetera.core.time.Period;
@@ -43,6 +44,11 @@ public interface HistoryService {
     		ComboPooledDataSource dataSource)
             throws PersistenceException;
     
+    /**
+     * Stops the receiver, saving the data it still buffers.
+     */
+    public void stop();
+    
     /**
      * Returns the actor ID associated with the report with given
      * order ID.
@@ -85,6 +91,17 @@ public interface HistoryService {
      */
     public List<ReportBaseImpl> getOpenOrders(SimpleUser user)
             throws PersistenceException;
+
+    /**
+     * Returns the latest report of each open order visible to the given
+     * user, with the highest report ID saved before they were read.
+     *
+     * @param user a <code>SimpleUser</code> value
+     * @return an <code>OrderSnapshot</code> value
+     * @throws PersistenceException if there were errors retrieving the data
+     */
+    public OrderSnapshot getOrderSnapshot(SimpleUser user)
+            throws PersistenceException;
  
     /**
      * Returns the position of the instrument based on all reports
@@ -1,11 +1,9 @@
 package org.marketcetera.server.ws.history;
 
 
+import java.io.File;
 import java.math.BigDecimal;
-import java.sql.Connection;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -15,10 +13,10 @@ import java.util.regex.Pattern;
 
 import org.apache.commons.lang.StringUtils;
 import org.joda.time.DateTime;
+import org.marketcetera.client.ws.OrderSnapshot;
 import org.marketcetera.core.IDFactory;
 import org.marketcetera.core.NoMoreIDsException;
 import org.marketcetera.core.position.PositionKey;
-import org.marketcetera.core.time.HasTime;
 import org.marketcetera.core.time.Period;
 import org.marketcetera.core.time.TimeFactory;
 import org.marketcetera.core.time.TimeFactoryImpl;
@@ -28,11 +26,11 @@ import org.marketcetera.event.info.InstrumentInfo;
 import org.marketcetera.persist.PersistenceException;
 import org.marketcetera.trade.*;
 import org.marketcetera.util.log.I18NBoundMessage1P;
+import org.marketcetera.util.log.I18NBoundMessage5P;
 import org.marketcetera.util.misc.ClassVersion;
 import org.marketcetera.ws.server.security.SimpleUser;
 import org.marketcetera.server.ws.LongIDFactory;
 
-import com.google.common.collect.Lists;
 import com.mchange.v2.c3p0.ComboPooledDataSource;
 
 /**
@@ -45,8 +43,13 @@ public class HistoryServiceImpl
     // INSTANCE DATA.
     private LongIDFactory mReportIDFactory;
     private ReportSavedListener mReportSavedListener;
-    private Connection mConnection ;
+    private QuoteStore mQuoteStore;
     private DateTime mPurgeDate;
+    private String mJournalDirectory;
+    private int mJournalBatchSize = 100;
+    private ReportJournal mJournal;
+    private int mPositionCacheDays = 7;
+    private PositionCache mPositionCache;
     
     /**
      * pattern used to identify a history threshold value expressed in seconds
@@ -95,7 +98,7 @@ public class HistoryServiceImpl
         mReportSavedListener=reportSavedListener;
         
         try {
-			mConnection=dataSource.getConnection();
+			mQuoteStore=new QuoteStore(dataSource, DATA_BASE_ID);
 		} catch (SQLException e) {
 			throw new PersistenceException(new I18NBoundMessage1P(Messages.RHS_ERROR_CONNECTION, e));
 		}
@@ -106,6 +109,32 @@ public class HistoryServiceImpl
             int count = PersistentReport.deleteBefore(mPurgeDate.toDate());
             Messages.RHS_RECORDS_PURGED.info(this,count);
         }
+        
+        // load the positions, then keep them up to date from the saved reports
+        if(mPositionCacheDays > 0) {
+            mPositionCache=new PositionCache(mPositionCacheDays,
+                                             reportSavedListener);
+            mPositionCache.load();
+            mReportSavedListener=mPositionCache;
+        }
+        
+        // replay the reports left in the journal, if any
+        if(mJournalDirectory != null) {
+            mJournal=new ReportJournal(new File(mJournalDirectory),
+                                       mJournalBatchSize,
+                                       getReportSavedListener());
+        }
+    }
+    
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ws.history.HistoryService#stop()
+     */
+    @Override
+    public void stop()
+    {
+        if(mQuoteStore != null) {
+            mQuoteStore.stop();
+        }
     }
     
     /* (non-Javadoc)
@@ -115,6 +144,7 @@ public class HistoryServiceImpl
     public ReportBaseImpl[] getReportsSince
     	(SimpleUser inUser, Date inDate)
     			throws PersistenceException {
+        awaitJournal();
         MultiPersistentReportQuery query = MultiPersistentReportQuery.all();
         query.setSendingTimeAfterFilter(inDate);
         if (!inUser.isSuperuser()) {
@@ -139,6 +169,7 @@ public class HistoryServiceImpl
     	(SimpleUser inUser)
     			throws PersistenceException
     {
+        awaitJournal();
         List<ReportBaseImpl> reports = new ArrayList<>();
         List<ExecutionReportSummary> rawReports = ExecutionReportSummary.getOpenOrders(inUser);
         try {
@@ -150,6 +181,18 @@ public class HistoryServiceImpl
         }
         return reports;
     }
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ws.history.HistoryService#getOrderSnapshot(org.marketcetera.ws.server.security.SimpleUser)
+     */
+    @Override
+    public OrderSnapshot getOrderSnapshot
+    	(SimpleUser inUser)
+    			throws PersistenceException
+    {
+        awaitJournal();
+        return ExecutionReportSummary.getOrderSnapshot(inUser);
+    }
     
     /* (non-Javadoc)
      * @see org.marketcetera.server.ws.history.HistoryService#getPositionAsOf(org.marketcetera.ws.server.security.SimpleUser, java.util.Date, org.marketcetera.trade.Instrument)
@@ -159,6 +202,13 @@ public class HistoryServiceImpl
         (SimpleUser inUser, Date inDate, Instrument inInstrument)
         		throws PersistenceException
     {
+        awaitJournal();
+        if (mPositionCache!=null) {
+            BigDecimal position=mPositionCache.getPositionAsOf(inUser,inDate,inInstrument);
+            if (position!=null) {
+                return position;
+            }
+        }
         return ExecutionReportSummary.getPositionAsOf(inUser,inDate,inInstrument);
     }
 
@@ -170,6 +220,13 @@ public class HistoryServiceImpl
         (SimpleUser inUser, Date inDate, SecurityType inSecurityType)
         		throws PersistenceException
     {
+        awaitJournal();
+        if (mPositionCache!=null) {
+            Map<PositionKey, BigDecimal> positions=mPositionCache.getPositionsAsOf(inUser,inDate,inSecurityType);
+            if (positions!=null) {
+                return positions;
+            }
+        }
         return ExecutionReportSummary.getPositionsAsOf(inUser,inDate,inSecurityType);
     }
     
@@ -181,6 +238,13 @@ public class HistoryServiceImpl
     	(SimpleUser inUser, Date inDate)
     			throws PersistenceException
     {
+        awaitJournal();
+        if (mPositionCache!=null) {
+            Map<PositionKey, BigDecimal> positions=mPositionCache.getPositionsAsOf(inUser,inDate,null);
+            if (positions!=null) {
+                return positions;
+            }
+        }
         return ExecutionReportSummary.getAllPositionsAsOf(inUser,inDate);
     }
     
@@ -193,13 +257,22 @@ public class HistoryServiceImpl
     			throws PersistenceException
     {
         boolean success=false;
+        boolean journaled=false;
         try {
             assignID(report);
+            if (getJournal()!=null && report instanceof HasFIXMessage) {
+                // saved and notified later by the journal writer
+                getJournal().append(report);
+                journaled=true;
+                return;
+            }
             PersistentReport.save(report);
             success=true;
             Messages.RHS_PERSISTED_DB.info(this,report);
         } finally {
-            invokeListener(report,success);
+            if (!journaled) {
+                invokeListener(report,success);
+            }
         }
     }
     
@@ -211,7 +284,14 @@ public class HistoryServiceImpl
     	(ReportBase inReport)
     			throws PersistenceException
     {
+        awaitJournal();
+        // read first, the deleted report may be the last one of its order
+        OrderID rootID = mPositionCache==null ? null :
+            mPositionCache.getRootID(inReport.getOrderID());
         PersistentReport.delete(inReport);
+        if (mPositionCache!=null) {
+            mPositionCache.reloadFamily(rootID);
+        }
     }
     
     /* (non-Javadoc)
@@ -267,6 +347,7 @@ public class HistoryServiceImpl
         (OrderID orderID)
         		throws PersistenceException
     {
+        awaitJournal();
         return PersistentReport.getActorID(orderID);
     }
     
@@ -278,21 +359,10 @@ public class HistoryServiceImpl
 		(OrderID inOrderID) 
 				throws PersistenceException 
 	{
+		 awaitJournal();
 		 return ExecutionReportSummary.getRootOrderID(inOrderID);
 	}
     
-	/**
-	 * Returns the name of the table for a given instrument and period.
-	 * 
-	 * @param instrument The instrument
-	 * @param period The period
-	 * 
-	 * @return the table name
-	 */
-	private String getTableName(Instrument instrument, Period period){
-		return String.format("%s_%s", instrument.getSymbol().replace("/", ""), period.name());
-	}
-	
     /* (non-Javadoc)
      * @see org.marketcetera.server.ws.history.HistoryService#getQuoteHistory(org.marketcetera.trade.Instrument, org.marketcetera.core.time.Period, java.util.Date, java.util.Date)
      */
@@ -301,40 +371,13 @@ public class HistoryServiceImpl
     		Date fromDate, Date toDate)
             throws PersistenceException
     {
-        List<Quote> quotes = Lists.newArrayList();
-       
-		String idDT = getTableName(instrument, period);
         try {
-            Statement statement = getConnection().createStatement();
-            
-            // use DB ..
-            statement.executeUpdate("USE " + DATA_BASE_ID); 
-            
-            // retrieve results
-     		ResultSet rs = statement.executeQuery("SELECT * FROM "+ idDT);
-    		while (rs.next()) {
-    			BigDecimal inOpen = new BigDecimal(rs.getString("open"));
-    			BigDecimal inHigh = new BigDecimal(rs.getString("high"));
-				BigDecimal inLow = new BigDecimal(rs.getString("low"));
-				BigDecimal inClose = new BigDecimal(rs.getString("close"));
-				BigDecimal inVolume = new BigDecimal(rs.getString("volume"));
-				BigDecimal inSpread = new BigDecimal(rs.getString("spread"));
-				long inTime = HasTime.parse(rs.getString("time"));
-				
-				if(inTime >= fromDate.getTime() 
-						&& inTime <= toDate.getTime()){
-					quotes.add(new Quote(inTime, inOpen, inHigh, inLow, inClose, inVolume, inSpread));
-				}
-			}
-    		rs.close();
-    		
-    		// clean up
-            statement.close();
+            return getQuoteStore().getQuotes(instrument, period, fromDate, toDate);
         } catch (SQLException e) {
-        	Messages.LOADING_DATA_ERROR.error(this, instrument, period, fromDate, toDate, e);
+            // failed, not empty: the quote history cache must not take it as loaded
+            throw new PersistenceException(e, new I18NBoundMessage5P(Messages.LOADING_DATA_ERROR,
+                    instrument, period, fromDate, toDate, e));
         }
-        
-        return quotes;
     }
     
     /*
@@ -346,44 +389,8 @@ public class HistoryServiceImpl
 		(QuoteEvent quoteEvent) 
 				throws PersistenceException 
 	{
-		String idDT = getTableName(quoteEvent.getInstrument(), quoteEvent.getPeriod());
         try {
-            Statement statement = getConnection().createStatement();
-            
-            // create the DB .. 
-            statement.executeUpdate("CREATE DATABASE IF NOT EXISTS " + DATA_BASE_ID);
-
-            // use DB ..
-            statement.executeUpdate("USE " + DATA_BASE_ID); 
-
-            // create table ...
-            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + idDT
-            					 +"(open NUMERIC(17,7) NOT NULL,"
-                                 +"high NUMERIC(17,7) NOT NULL,"
-                                 +"low NUMERIC(17,7) NOT NULL,"
-                                 +"close NUMERIC(17,7) NOT NULL,"
-                                 +"volume NUMERIC(17,7) NOT NULL,"
-                                 +"time VARCHAR(255) NOT NULL,"
-                                 +"spread NUMERIC(17,7) NOT NULL,"
-                                 +"UNIQUE (time))");
-
-            // insert the quote
-            Quote quote = quoteEvent.getQuote();
-            statement.executeUpdate("INSERT INTO "+ idDT +
-            		"(open,high,low,close,volume,time,spread) VALUES('"
-            		+quote.getOpen() + "','"
-            		+quote.getHigh() + "','"
-            		+quote.getLow() + "','"
-            		+quote.getClose() + "','"
-            		+quote.getVolume() + "','"
-            		+HasTime.format(quote.getTime()) + "','"
-            		+quote.getSpread() + "')" +
-            		"ON DUPLICATE KEY UPDATE open=VALUES(open), high=VALUES(high), low=VALUES(low), close=VALUES(close)" +
-            		", volume=VALUES(volume), time=VALUES(time), spread=VALUES(spread);");
-            
-            // clean up
-            statement.close();
-            Messages.RHS_PERSISTED_DB.info(this, quoteEvent);
+            getQuoteStore().save(quoteEvent);
         } catch (SQLException e) {
         	Messages.RHS_PERSIST_ERROR.error(this, quoteEvent, e);
         }
@@ -398,19 +405,8 @@ public class HistoryServiceImpl
 		(QuoteEvent quoteEvent) 
 				throws PersistenceException 
 	{
-		String idDT = getTableName(quoteEvent.getInstrument(), quoteEvent.getPeriod());
         try {
-            Statement statement = getConnection().createStatement();
-            
-            // use DB ..
-            statement.executeUpdate("USE " + DATA_BASE_ID); 
-            
-            // delete the quote
-            String cltime = quoteEvent.formatedTime();
-            statement.execute("DELETE FROM `" + idDT + "` WHERE `time` ='"+cltime+"' LIMIT 1");
-            
-            // clean up
-            statement.close();
+            getQuoteStore().delete(quoteEvent);
         } catch (SQLException e) {
         	Messages.RHS_PERSIST_ERROR.error(this, quoteEvent, e);
         }   
@@ -452,6 +448,78 @@ public class HistoryServiceImpl
         mPurgeDate = translateHistoryValue(inPurgeDate);
     }
     
+    /**
+     * Get the journalDirectory value.
+     *
+     * @return a <code>String</code> value
+     */
+    public String getJournalDirectory()
+    {
+        return mJournalDirectory;
+    }
+    
+    /**
+     * Sets the journalDirectory value.
+     * 
+     * <p>If set, reports are saved write-behind: a report is appended
+     * to a journal in this directory and acknowledged once the journal
+     * is on disk, then saved to the database in batches by a background
+     * writer. Reports left in the journal are replayed at startup. If not
+     * set, each report is saved to the database before it is acknowledged.
+     *
+     * @param inJournalDirectory a <code>String</code> value
+     */
+    public void setJournalDirectory(String inJournalDirectory)
+    {
+        mJournalDirectory = StringUtils.trimToNull(inJournalDirectory);
+    }
+    
+    /**
+     * Get the journalBatchSize value.
+     *
+     * @return an <code>int</code> value
+     */
+    public int getJournalBatchSize()
+    {
+        return mJournalBatchSize;
+    }
+    
+    /**
+     * Sets the maximum number of journaled reports saved to the
+     * database in one transaction.
+     *
+     * @param inJournalBatchSize an <code>int</code> value
+     */
+    public void setJournalBatchSize(int inJournalBatchSize)
+    {
+        mJournalBatchSize = inJournalBatchSize;
+    }
+    
+    /**
+     * Get the positionCacheDays value.
+     *
+     * @return an <code>int</code> value
+     */
+    public int getPositionCacheDays()
+    {
+        return mPositionCacheDays;
+    }
+    
+    /**
+     * Sets the positionCacheDays value.
+     * 
+     * <p>Positions are loaded into memory at startup and kept up to date
+     * from the saved reports. Position queries for dates within this many
+     * days are answered from memory, older ones by the database. Zero
+     * disables the position cache.
+     *
+     * @param inPositionCacheDays an <code>int</code> value
+     */
+    public void setPositionCacheDays(int inPositionCacheDays)
+    {
+        mPositionCacheDays = inPositionCacheDays;
+    }
+    
     // INSTANCE METHODS.
     /**
      * Returns the receiver's report ID factory.
@@ -475,13 +543,34 @@ public class HistoryServiceImpl
     }
     
     /**
-     * Returns the receiver's pooled Connection.
+     * Returns the receiver's report journal.
+     *
+     * @return The journal. It is null if reports are saved directly.
+     */
+    protected ReportJournal getJournal()
+    {
+        return mJournal;
+    }
+    
+    /**
+     * Waits until the journaled reports are saved to the database, so
+     * that queries see all reports saved so far.
+     */
+    protected void awaitJournal()
+    {
+        if (getJournal()!=null) {
+            getJournal().awaitSaved();
+        }
+    }
+    
+    /**
+     * Returns the receiver's quote history store.
      *
-     * @return The connection.
+     * @return The store.
      */
-    protected Connection getConnection()
+    protected QuoteStore getQuoteStore()
     {
-        return mConnection;
+        return mQuoteStore;
     }
     
     /**
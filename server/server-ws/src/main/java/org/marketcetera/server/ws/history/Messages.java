@@ -39,6 +39,26 @@ public interface Messages {
         new I18NMessage2P(LOGGER,"rhs_persist_error"); //$NON-NLS-1$
     static final I18NMessage1P RHS_PURGING_RECORDS = new I18NMessage1P(LOGGER,"rhs_purging_records"); //$NON-NLS-1$
     static final I18NMessage1P RHS_RECORDS_PURGED = new I18NMessage1P(LOGGER,"rhs_records_purged"); //$NON-NLS-1$
+    static final I18NMessage1P RHS_JOURNAL_ERROR=
+        new I18NMessage1P(LOGGER,"rhs_journal_error"); //$NON-NLS-1$
+    static final I18NMessage2P RHS_JOURNAL_TRUNCATED=
+        new I18NMessage2P(LOGGER,"rhs_journal_truncated"); //$NON-NLS-1$
+    static final I18NMessage1P RHS_JOURNAL_REPLAYED=
+        new I18NMessage1P(LOGGER,"rhs_journal_replayed"); //$NON-NLS-1$
+    static final I18NMessage2P RHS_JOURNAL_RETRY=
+        new I18NMessage2P(LOGGER,"rhs_journal_retry"); //$NON-NLS-1$
+    static final I18NMessage1P RHS_POSITIONS_LOADED=
+        new I18NMessage1P(LOGGER,"rhs_positions_loaded"); //$NON-NLS-1$
+    static final I18NMessage1P RHS_POSITION_ROOT_ID_ERROR=
+        new I18NMessage1P(LOGGER,"rhs_position_root_id_error"); //$NON-NLS-1$
+    static final I18NMessage2P RHS_QUOTES_PERSISTED=
+        new I18NMessage2P(LOGGER,"rhs_quotes_persisted"); //$NON-NLS-1$
+    static final I18NMessage2P RHS_QUOTES_MIGRATED=
+        new I18NMessage2P(LOGGER,"rhs_quotes_migrated"); //$NON-NLS-1$
+    static final I18NMessage0P RHS_QUOTE_FLUSH_ERROR=
+        new I18NMessage0P(LOGGER,"rhs_quote_flush_error"); //$NON-NLS-1$
+    static final I18NMessage2P RHS_QUOTE_DROPPED=
+        new I18NMessage2P(LOGGER,"rhs_quote_dropped"); //$NON-NLS-1$
     
     static final I18NMessage5P LOADING_DATA_ERROR=
             new I18NMessage5P(LOGGER,"loading_data_error"); //$NON-NLS-1$
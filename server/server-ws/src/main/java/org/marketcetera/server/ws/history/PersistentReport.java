@@ -2,7 +2,9 @@ package org.marketcetera.server.ws.history;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.persistence.*;
 
@@ -29,6 +31,8 @@ import quickfix.Message;
 @Entity
 @Table(name = "reports")
 @NamedQueries( { @NamedQuery(name="forOrderID",query="select e from PersistentReport e where e.orderID = :orderID"),
+                 @NamedQuery(name="forReportID",query="select count(e) from PersistentReport e where e.reportIDAsLong = :reportID"),
+                 @NamedQuery(name="maxReportID",query="select max(e.reportIDAsLong) from PersistentReport e"),
                  @NamedQuery(name="since",query="select e from PersistentReport e where e.sendingTime < :target") })
 class PersistentReport
         extends EntityBase
@@ -60,6 +64,66 @@ class PersistentReport
         PersistentReport report = new PersistentReport(inReport);
         report.saveRemote(null);
     }
+
+    /**
+     * Saves the supplied reports to the database in one transaction.
+     * The orders closed by the reports are updated once per order
+     * family, after all reports are saved.
+     *
+     * @param inReports The reports to be saved, in the order they
+     * were received.
+     *
+     * @throws PersistenceException if there were errors saving the
+     * reports to the database. None of the reports is saved then.
+     */
+    static void saveAll(final List<ReportBase> inReports)
+            throws PersistenceException
+    {
+        executeRemote(new Transaction<Integer>() {
+            @Override
+            public Integer execute(EntityManager em,
+                                   PersistContext context)
+                    throws PersistenceException
+            {
+                Map<OrderID,Long> lastIDs = new LinkedHashMap<OrderID,Long>();
+                for(ReportBase inReport : inReports) {
+                    PersistentReport report = new PersistentReport(inReport);
+                    report.mLastIDs = lastIDs;
+                    report.saveLocal(em, context);
+                }
+                ExecutionReportSummary.closeFamilies(em, lastIDs);
+                return inReports.size();
+            }
+            private static final long serialVersionUID = 1L;
+        },null);
+    }
+
+    /**
+     * Checks whether a report with the given report ID was saved.
+     *
+     * @param inReportID The report ID.
+     *
+     * @return True if the report is in the database.
+     *
+     * @throws PersistenceException if there were errors accessing the
+     * reports.
+     */
+    static boolean exists(final ReportID inReportID)
+            throws PersistenceException
+    {
+        return executeRemote(new Transaction<Boolean>() {
+            @Override
+            public Boolean execute(EntityManager em,
+                                   PersistContext context)
+            {
+                Query query = em.createNamedQuery("forReportID"); //$NON-NLS-1$
+                query.setParameter("reportID", //$NON-NLS-1$
+                                   inReportID.longValue());
+                return ((Number)query.getSingleResult()).longValue() > 0;
+            }
+            private static final long serialVersionUID = 1L;
+        },null);
+    }
     
     /**
      * Deletes the given report.
@@ -204,10 +268,32 @@ class PersistentReport
      * instance.
      */
     ReportBase toReport() throws PersistenceException {
+        return toReport(mReportType, getFixMessage(), getBrokerID(),
+                        getOriginator(), getActorID(), getReportID());
+    }
+
+    /**
+     * Converts the given persistent representation of a report into a
+     * system report instance.
+     *
+     * @param inReportType the report type.
+     * @param fixMsgString the FIX message of the report.
+     * @param inBrokerID the broker ID.
+     * @param inOriginator the originator.
+     * @param inActorID the actor ID. It may be null.
+     * @param inReportID the report ID.
+     *
+     * @return the system report instance.
+     *
+     * @throws PersistenceException if there were errors converting
+     * the message to a system report instance.
+     */
+    static ReportBase toReport(ReportType inReportType, String fixMsgString,
+                               BrokerID inBrokerID, Originator inOriginator,
+                               UserID inActorID, ReportID inReportID)
+            throws PersistenceException {
         ReportBase returnValue = null;
-        String fixMsgString = null;
         try {
-            fixMsgString = getFixMessage();
             Message fixMessage;
             try {
             	fixMessage = new Message(fixMsgString);
@@ -215,15 +301,15 @@ class PersistentReport
 				fixMessage =  new Message(fixMsgString,false); // log the validation exception and create message without validation.
 				SLF4JLoggerProxy.warn(PersistentReport.class, e);    
 			}
-            switch(mReportType) {
+            switch(inReportType) {
                 case ExecutionReport:
                     returnValue =  Factory.getInstance().createExecutionReport(
-                            fixMessage, getBrokerID(),
-                            getOriginator(), getActorID());
+                            fixMessage, inBrokerID,
+                            inOriginator, inActorID);
                     break;
                 case CancelReject:
                     returnValue =  Factory.getInstance().createOrderCancelReject(
-                            fixMessage, getBrokerID(), getOriginator(), getActorID());
+                            fixMessage, inBrokerID, inOriginator, inActorID);
                     break;
                 default:
                     //You added new report types but forgot to update the code
@@ -231,7 +317,7 @@ class PersistentReport
                     throw new IllegalArgumentException();
             }
             ReportBaseImpl.assignReportID((ReportBaseImpl)returnValue,
-                                          getReportID());
+                                          inReportID);
             return returnValue;
         } catch (InvalidMessage | MessageCreationException e) {
             throw new PersistenceException(e, new I18NBoundMessage1P(
@@ -251,9 +337,14 @@ class PersistentReport
         PersistentReport mergedReport = (PersistentReport) merged;
         //Save the summary if the report is an execution report.
         if(mergedReport.getReportType() == ReportType.ExecutionReport) {
-            new ExecutionReportSummary(
+            ExecutionReportSummary summary = new ExecutionReportSummary(
                     (ExecutionReport) mReportBase,
-                    mergedReport).localSave(em, context);
+                    mergedReport);
+            if(mLastIDs == null) {
+                summary.localSave(em, context);
+            } else {
+                summary.localSave(em, context, mLastIDs);
+            }
         }
     }
 
@@ -380,6 +471,10 @@ class PersistentReport
     private Date mSendingTime;
     private ReportType mReportType;
     private ReportBase mReportBase;
+    /**
+     * the ID of the last saved summary by root ID, if saved in a batch
+     */
+    private transient Map<OrderID,Long> mLastIDs;
     
     /**
      * The attribute sending time used in JPQL queries
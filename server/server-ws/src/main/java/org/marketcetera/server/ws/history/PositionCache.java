@@ -0,0 +1,639 @@
+package org.marketcetera.server.ws.history;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.marketcetera.core.position.PositionKey;
+import org.marketcetera.core.position.PositionKeyFactory;
+import org.marketcetera.persist.PersistenceException;
+import org.marketcetera.symbol.InstrumentSymbolResolver;
+import org.marketcetera.trade.BrokerID;
+import org.marketcetera.trade.ExecutionReport;
+import org.marketcetera.trade.Instrument;
+import org.marketcetera.trade.OrderID;
+import org.marketcetera.trade.OrderStatus;
+import org.marketcetera.trade.ReportBase;
+import org.marketcetera.trade.SecurityType;
+import org.marketcetera.trade.Side;
+import org.marketcetera.util.misc.ClassVersion;
+import org.marketcetera.ws.server.security.SimpleUser;
+
+/**
+ * In-memory positions, kept up to date from the saved reports.
+ *
+ * The position queries of {@link ExecutionReportSummary} sum the
+ * signed cumulative quantity of the last non-pending report of each
+ * order family, if that report was sent on or before the given date.
+ * The cache loads the last report of each family once and then tracks
+ * each saved execution report, so it answers the same queries without
+ * aggregating the report table.
+ *
+ * The contribution of each family is recorded per actor and position
+ * key at the sending time of its last report. Recent contributions are
+ * grouped into hourly buckets, each holding the position at its end,
+ * so a query only adds up the contributions of one bucket. Older
+ * contributions are folded into a base position; queries for dates
+ * before the retained window return <code>null</code> and have to be
+ * answered by the database.
+ *
+ * The root ID of each order is kept while the order is seen within the
+ * retained window or, from the load, while it is open. The first report
+ * of a new order starts its own family; the root ID of any other order
+ * not seen since is looked up in the database, as the report table
+ * records it.
+ *
+ * A deleted report only reloads the contribution of its family.
+ *
+ * The cache is a {@link ReportSavedListener} which forwards to the
+ * listener it wraps.
+ */
+@ClassVersion("$Id$")
+class PositionCache
+        implements ReportSavedListener
+{
+    /**
+     * the width of a bucket in milliseconds
+     */
+    private static final long BUCKET_WIDTH = 60 * 60 * 1000;
+    /**
+     * the statuses ignored by the position queries
+     */
+    private static final Set<OrderStatus> PENDING_STATUSES = EnumSet.of(
+            OrderStatus.PendingCancel,
+            OrderStatus.PendingNew,
+            OrderStatus.PendingReplace);
+    /**
+     * the statuses of the first report of a new order
+     */
+    private static final Set<OrderStatus> NEW_STATUSES = EnumSet.of(
+            OrderStatus.PendingNew,
+            OrderStatus.New);
+
+    private final ReportSavedListener mListener;
+    private final long mRetention;
+    /**
+     * the root ID of each order, least recently seen first
+     */
+    private final Map<OrderID,RootID> mRootIDs = new LinkedHashMap<OrderID,RootID>();
+    /**
+     * the current contribution of each order family, by root ID
+     */
+    private final Map<OrderID,Family> mFamilies = new HashMap<OrderID,Family>();
+    /**
+     * the positions by actor ID, the positions without actor under null
+     */
+    private final Map<String,Map<PositionKey,Position>> mPositions =
+        new HashMap<String,Map<PositionKey,Position>>();
+    /**
+     * contributions at or before this time are folded into the base positions
+     */
+    private long mWindowStart;
+
+    /**
+     * Creates an instance.
+     *
+     * @param inRetentionDays the number of days for which "as of"
+     * queries are answered from memory.
+     * @param inListener the listener to forward to. It may be null.
+     */
+    PositionCache(int inRetentionDays,
+                  ReportSavedListener inListener)
+    {
+        mRetention = inRetentionDays * 24L * BUCKET_WIDTH;
+        mListener = inListener;
+    }
+
+    /**
+     * Loads the positions from the database, discarding the current ones.
+     *
+     * @throws PersistenceException if the positions cannot be loaded.
+     */
+    synchronized void load()
+            throws PersistenceException
+    {
+        mRootIDs.clear();
+        mFamilies.clear();
+        mPositions.clear();
+        mWindowStart = windowStart(System.currentTimeMillis());
+        ExecutionReportSummary.loadPositions(this,new Date(mWindowStart));
+        Messages.RHS_POSITIONS_LOADED.info(this,mFamilies.size());
+    }
+
+    /**
+     * Records the root ID of an order, while loading.
+     *
+     * @param inOrderID the order ID.
+     * @param inRootID the root ID of its family.
+     */
+    void addRootID(OrderID inOrderID,
+                   OrderID inRootID)
+    {
+        putRootID(inOrderID,inRootID);
+    }
+
+    /**
+     * Records the last non-pending report of an order family, while
+     * loading.
+     *
+     * @param inRootID the root ID of the family.
+     * @param inReportID the ID of the report.
+     * @param inInstrument the instrument.
+     * @param inBrokerID the broker ID.
+     * @param inAccount the account. It may be null.
+     * @param inActorID the actor ID. It may be null.
+     * @param inQuantity the signed cumulative quantity.
+     * @param inSendingTime the sending time of the report.
+     */
+    void addFamily(OrderID inRootID,
+                   long inReportID,
+                   Instrument inInstrument,
+                   BrokerID inBrokerID,
+                   String inAccount,
+                   String inActorID,
+                   BigDecimal inQuantity,
+                   long inSendingTime)
+    {
+        Position position = getPosition(inInstrument,inBrokerID,inAccount,inActorID);
+        mFamilies.put(inRootID,new Family(inReportID,position,inQuantity,inSendingTime));
+        position.add(inSendingTime,inQuantity);
+    }
+
+    /**
+     * Replaces the contribution of the given order family by the one
+     * of its last report in the database, after one of its reports was
+     * deleted.
+     *
+     * @param inRootID the root ID of the family.
+     *
+     * @throws PersistenceException if the family cannot be loaded.
+     */
+    synchronized void reloadFamily(OrderID inRootID)
+            throws PersistenceException
+    {
+        Family family = mFamilies.remove(inRootID);
+        if (family!=null) {
+            family.mPosition.add(family.mSendingTime,family.mQuantity.negate());
+        }
+        ExecutionReportSummary.loadFamily(this,inRootID);
+    }
+
+    /**
+     * Returns the root ID of the given order, looked up in the database
+     * if the order was not seen within the retained window.
+     *
+     * @param inOrderID the order ID.
+     *
+     * @return the root ID, the order ID itself if it cannot be read.
+     */
+    OrderID getRootID(OrderID inOrderID)
+    {
+        RootID rootID;
+        synchronized (this) {
+            rootID = mRootIDs.get(inOrderID);
+        }
+        return rootID==null ? loadRootID(inOrderID) : rootID.mRootID;
+    }
+
+    /* (non-Javadoc)
+     * @see org.marketcetera.server.ws.history.ReportSavedListener#reportSaved(org.marketcetera.trade.ReportBase, boolean)
+     */
+    @Override
+    public void reportSaved(ReportBase report,
+                            boolean status)
+    {
+        if (status && report instanceof ExecutionReport) {
+            ExecutionReport executionReport = (ExecutionReport)report;
+            OrderID rootID = getRootID(executionReport);
+            if (rootID==null) {
+                rootID = loadRootID(executionReport.getOrderID());
+            }
+            update(executionReport,rootID);
+        }
+        if (mListener!=null) {
+            mListener.reportSaved(report,status);
+        }
+    }
+
+    /**
+     * Returns the position of the given instrument as of the given
+     * date, see {@link ExecutionReportSummary#getPositionAsOf(SimpleUser, Date, Instrument)}.
+     *
+     * @param inUser the user making the query.
+     * @param inDate the date.
+     * @param inInstrument the instrument.
+     *
+     * @return the position, or null if the date is before the retained window.
+     */
+    synchronized BigDecimal getPositionAsOf(SimpleUser inUser,
+                                            Date inDate,
+                                            Instrument inInstrument)
+    {
+        long time = inDate.getTime();
+        if (time < mWindowStart) {
+            return null;
+        }
+        BigDecimal position = BigDecimal.ZERO;
+        for (Map<PositionKey,Position> positions : getVisiblePositions(inUser)) {
+            for (Position entry : positions.values()) {
+                if (inInstrument.getSecurityType()==entry.mInstrument.getSecurityType() &&
+                    inInstrument.getFullSymbol().equals(entry.mInstrument.getFullSymbol())) {
+                    position = position.add(entry.asOf(time));
+                }
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Returns the non-zero positions of the given security type as of
+     * the given date, see {@link ExecutionReportSummary#getPositionsAsOf(SimpleUser, Date, SecurityType)}.
+     *
+     * @param inUser the user making the query.
+     * @param inDate the date.
+     * @param inSecurityType the security type, or null for all positions.
+     *
+     * @return the positions, or null if the date is before the retained window.
+     */
+    synchronized Map<PositionKey,BigDecimal> getPositionsAsOf(SimpleUser inUser,
+                                                              Date inDate,
+                                                              SecurityType inSecurityType)
+    {
+        long time = inDate.getTime();
+        if (time < mWindowStart) {
+            return null;
+        }
+        Map<PositionKey,BigDecimal> map = new HashMap<PositionKey,BigDecimal>();
+        for (Map<PositionKey,Position> positions : getVisiblePositions(inUser)) {
+            for (Map.Entry<PositionKey,Position> entry : positions.entrySet()) {
+                if (inSecurityType!=null &&
+                    inSecurityType!=entry.getValue().mInstrument.getSecurityType()) {
+                    continue;
+                }
+                BigDecimal position = entry.getValue().asOf(time);
+                if (position.signum()!=0) {
+                    map.put(entry.getKey(),position);
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Returns the root ID of the order of the given report, if its
+     * parent was seen within the retained window or the report is the
+     * first one of a new order.
+     *
+     * @param inReport the report.
+     *
+     * @return the root ID, or null if it has to be looked up.
+     */
+    private synchronized OrderID getRootID(ExecutionReport inReport)
+    {
+        OrderID orderID = inReport.getOrderID();
+        OrderID origOrderID = inReport.getOriginalOrderID();
+        // same lookup as ExecutionReportSummary#preSaveLocal
+        RootID rootID = mRootIDs.get(origOrderID==null ? orderID : origOrderID);
+        if (rootID!=null) {
+            return rootID.mRootID;
+        }
+        // preSaveLocal finds no earlier record of a new order either
+        if (origOrderID==null &&
+            NEW_STATUSES.contains(inReport.getOrderStatus())) {
+            return orderID;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the root ID recorded in the database for the given order,
+     * whose report has just been saved.
+     *
+     * @param inOrderID the order ID.
+     *
+     * @return the root ID, the order ID itself if it cannot be read.
+     */
+    private OrderID loadRootID(OrderID inOrderID)
+    {
+        try {
+            return ExecutionReportSummary.getRootOrderID(inOrderID);
+        } catch (PersistenceException e) {
+            Messages.RHS_POSITION_ROOT_ID_ERROR.warn(this,e,inOrderID);
+            return inOrderID;
+        }
+    }
+
+    /**
+     * Records the root ID of an order, as seen now.
+     *
+     * @param inOrderID the order ID.
+     * @param inRootID the root ID of its family.
+     */
+    private void putRootID(OrderID inOrderID,
+                           OrderID inRootID)
+    {
+        // re-inserted so the map stays ordered by the time last seen
+        mRootIDs.remove(inOrderID);
+        mRootIDs.put(inOrderID,new RootID(inRootID,System.currentTimeMillis()));
+    }
+
+    /**
+     * Applies the given saved report.
+     *
+     * @param inReport the report.
+     * @param inRootID the root ID of its order.
+     */
+    private synchronized void update(ExecutionReport inReport,
+                                     OrderID inRootID)
+    {
+        putRootID(inReport.getOrderID(),inRootID);
+        Instrument instrument = inReport.getInstrument();
+        if (instrument==null ||
+            inReport.getSendingTime()==null ||
+            PENDING_STATUSES.contains(inReport.getOrderStatus())) {
+            return;
+        }
+        long reportID = inReport.getReportID().longValue();
+        Family family = mFamilies.get(inRootID);
+        if (family!=null) {
+            if (family.mReportID>reportID) {
+                return;
+            }
+            family.mPosition.add(family.mSendingTime,family.mQuantity.negate());
+        }
+        String actorID = inReport.getActorID()==null ? null :
+            String.valueOf(inReport.getActorID().getValue());
+        Position position = getPosition(instrument,
+                                        inReport.getBrokerID(),
+                                        inReport.getAccount(),
+                                        actorID);
+        BigDecimal quantity = inReport.getCumulativeQuantity();
+        if (inReport.getSide()!=Side.Buy) {
+            quantity = quantity.negate();
+        }
+        long sendingTime = inReport.getSendingTime().getTime();
+        mFamilies.put(inRootID,new Family(reportID,position,quantity,sendingTime));
+        position.add(sendingTime,quantity);
+        slideWindow();
+    }
+
+    /**
+     * Folds the buckets which left the retained window into the base
+     * positions and forgets the orders not seen since, once per bucket
+     * width.
+     */
+    private void slideWindow()
+    {
+        long windowStart = windowStart(System.currentTimeMillis());
+        if (windowStart<=mWindowStart) {
+            return;
+        }
+        mWindowStart = windowStart;
+        for (Map<PositionKey,Position> positions : mPositions.values()) {
+            for (Position position : positions.values()) {
+                position.fold(windowStart);
+            }
+        }
+        Iterator<RootID> rootIDs = mRootIDs.values().iterator();
+        while (rootIDs.hasNext()) {
+            if (rootIDs.next().mSeenTime>windowStart) {
+                break;
+            }
+            rootIDs.remove();
+        }
+    }
+
+    /**
+     * Returns the start of the retained window at the given time,
+     * aligned to a bucket.
+     *
+     * @param inTime the time.
+     *
+     * @return the window start.
+     */
+    private long windowStart(long inTime)
+    {
+        long windowStart = inTime - mRetention;
+        return windowStart - windowStart % BUCKET_WIDTH;
+    }
+
+    /**
+     * Returns the positions visible to the given user.
+     *
+     * @param inUser the user.
+     *
+     * @return the positions, one map per actor.
+     */
+    private List<Map<PositionKey,Position>> getVisiblePositions(SimpleUser inUser)
+    {
+        if (inUser.isSuperuser()) {
+            return new ArrayList<Map<PositionKey,Position>>(mPositions.values());
+        }
+        List<Map<PositionKey,Position>> list = new ArrayList<Map<PositionKey,Position>>();
+        Map<PositionKey,Position> positions =
+            mPositions.get(String.valueOf(inUser.getUserID().getValue()));
+        if (positions!=null) {
+            list.add(positions);
+        }
+        return list;
+    }
+
+    /**
+     * Returns the position of the given tuple, creating it if needed.
+     * The key is created as the position queries do.
+     *
+     * @param inInstrument the instrument.
+     * @param inBrokerID the broker ID.
+     * @param inAccount the account. It may be null.
+     * @param inActorID the actor ID. It may be null.
+     *
+     * @return the position.
+     */
+    private Position getPosition(Instrument inInstrument,
+                                 BrokerID inBrokerID,
+                                 String inAccount,
+                                 String inActorID)
+    {
+        Map<PositionKey,Position> positions = mPositions.get(inActorID);
+        if (positions==null) {
+            positions = new HashMap<PositionKey,Position>();
+            mPositions.put(inActorID,positions);
+        }
+        Instrument instrument = InstrumentSymbolResolver.resolveSymbol(
+                inInstrument.getSecurityType().getValue(),
+                inInstrument.getFullSymbol());
+        PositionKey key = PositionKeyFactory.createKey(instrument,inBrokerID,inAccount,inActorID);
+        Position position = positions.get(key);
+        if (position==null) {
+            position = new Position(instrument);
+            positions.put(key,position);
+        }
+        return position;
+    }
+
+    /**
+     * The root ID of an order and the time it was last seen.
+     */
+    private static class RootID
+    {
+        private final OrderID mRootID;
+        private final long mSeenTime;
+
+        private RootID(OrderID inRootID,
+                       long inSeenTime)
+        {
+            mRootID = inRootID;
+            mSeenTime = inSeenTime;
+        }
+    }
+
+    /**
+     * The contribution of an order family: the signed cumulative
+     * quantity of its last non-pending report.
+     */
+    private static class Family
+    {
+        private final long mReportID;
+        private final Position mPosition;
+        private final BigDecimal mQuantity;
+        private final long mSendingTime;
+
+        private Family(long inReportID,
+                       Position inPosition,
+                       BigDecimal inQuantity,
+                       long inSendingTime)
+        {
+            mReportID = inReportID;
+            mPosition = inPosition;
+            mQuantity = inQuantity;
+            mSendingTime = inSendingTime;
+        }
+    }
+
+    /**
+     * The position of one actor and key over time.
+     */
+    private class Position
+    {
+        private final Instrument mInstrument;
+        /**
+         * the sum of the contributions at or before the window start
+         */
+        private BigDecimal mBase = BigDecimal.ZERO;
+        /**
+         * the buckets by start time
+         */
+        private final NavigableMap<Long,Bucket> mBuckets = new TreeMap<Long,Bucket>();
+
+        private Position(Instrument inInstrument)
+        {
+            mInstrument = inInstrument;
+        }
+
+        /**
+         * Adds a contribution at the given time.
+         *
+         * @param inTime the time.
+         * @param inQuantity the signed quantity.
+         */
+        private void add(long inTime,
+                         BigDecimal inQuantity)
+        {
+            if (inTime<=mWindowStart) {
+                mBase = mBase.add(inQuantity);
+                for (Bucket bucket : mBuckets.values()) {
+                    bucket.mSnapshot = bucket.mSnapshot.add(inQuantity);
+                }
+                return;
+            }
+            long start = inTime - inTime % BUCKET_WIDTH;
+            Bucket bucket = mBuckets.get(start);
+            if (bucket==null) {
+                Map.Entry<Long,Bucket> previous = mBuckets.lowerEntry(start);
+                bucket = new Bucket(previous==null ? mBase : previous.getValue().mSnapshot);
+                mBuckets.put(start,bucket);
+            }
+            BigDecimal change = bucket.mChanges.get(inTime);
+            change = change==null ? inQuantity : change.add(inQuantity);
+            if (change.signum()==0) {
+                bucket.mChanges.remove(inTime);
+            } else {
+                bucket.mChanges.put(inTime,change);
+            }
+            for (Bucket later : mBuckets.tailMap(start,true).values()) {
+                later.mSnapshot = later.mSnapshot.add(inQuantity);
+            }
+            if (bucket.mChanges.isEmpty()) {
+                mBuckets.remove(start);
+            }
+        }
+
+        /**
+         * Returns the position as of the given time, which is not
+         * before the window start.
+         *
+         * @param inTime the time.
+         *
+         * @return the position.
+         */
+        private BigDecimal asOf(long inTime)
+        {
+            long start = inTime - inTime % BUCKET_WIDTH;
+            Map.Entry<Long,Bucket> entry = mBuckets.floorEntry(start);
+            if (entry==null) {
+                return mBase;
+            }
+            if (entry.getKey()!=start) {
+                return entry.getValue().mSnapshot;
+            }
+            Map.Entry<Long,Bucket> previous = mBuckets.lowerEntry(start);
+            BigDecimal position = previous==null ? mBase : previous.getValue().mSnapshot;
+            for (BigDecimal change : entry.getValue().mChanges.headMap(inTime,true).values()) {
+                position = position.add(change);
+            }
+            return position;
+        }
+
+        /**
+         * Folds the buckets at or before the given window start into
+         * the base position.
+         *
+         * @param inWindowStart the window start.
+         */
+        private void fold(long inWindowStart)
+        {
+            Iterator<Map.Entry<Long,Bucket>> buckets = mBuckets.entrySet().iterator();
+            while (buckets.hasNext()) {
+                Map.Entry<Long,Bucket> entry = buckets.next();
+                if (entry.getKey()+BUCKET_WIDTH>inWindowStart+1) {
+                    break;
+                }
+                mBase = entry.getValue().mSnapshot;
+                buckets.remove();
+            }
+        }
+    }
+
+    /**
+     * The contributions within one bucket and the position at its end.
+     */
+    private static class Bucket
+    {
+        private BigDecimal mSnapshot;
+        private final NavigableMap<Long,BigDecimal> mChanges = new TreeMap<Long,BigDecimal>();
+
+        private Bucket(BigDecimal inSnapshot)
+        {
+            mSnapshot = inSnapshot;
+        }
+    }
+}
@@ -0,0 +1,564 @@
+package org.marketcetera.server.ws.history;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.marketcetera.core.time.HasTime;
+import org.marketcetera.core.time.Period;
+import org.marketcetera.event.Quote;
+import org.marketcetera.event.QuoteEvent;
+import org.marketcetera.trade.Instrument;
+import org.marketcetera.util.misc.ClassVersion;
+import org.marketcetera.ws.server.CoreExecutors;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.mchange.v2.c3p0.ComboPooledDataSource;
+
+/**
+ * Stores the quote history, one table per instrument and period.
+ *
+ * The bars are keyed by their time in ms since the epoch, so a date
+ * range is read through the primary key. Writes are upserts through
+ * cached prepared statements. They are buffered per table and sent in
+ * JDBC batches, either when a batch is full or by a periodic flush.
+ * The batches of a table are written one at a time, in order, and a
+ * batch which cannot be written is put back ahead of the bars buffered
+ * since, to be written by the next flush. A batch which keeps failing
+ * is written bar by bar and the bars which still fail are dropped, so a
+ * bad bar does not hold up its table. The remaining bars are written
+ * when the store is stopped.
+ *
+ * Reads flush the table first, reading what is stored if the flush
+ * fails, and then fetch the range in pages, each page starting after
+ * the last bar of the previous one.
+ *
+ * The schema is created once per table. The tables of the previous
+ * layout, which stored the time as text, are copied into the new
+ * layout the first time they are used.
+ */
+@ClassVersion("$Id$")
+class QuoteStore
+{
+    /**
+     * the number of buffered bars that triggers a flush
+     */
+    private static final int BATCH_SIZE = 500;
+    /**
+     * the interval of the periodic flush, in ms
+     */
+    private static final long FLUSH_INTERVAL = 1000;
+    /**
+     * the number of failed writes of a table after which its bars are
+     * written one by one
+     */
+    private static final int MAX_ATTEMPTS = 60;
+    /**
+     * the number of bars read per page
+     */
+    private static final int PAGE_SIZE = 5000;
+    /**
+     * the suffix of the table names
+     */
+    private static final String TABLE_SUFFIX = "_bars"; //$NON-NLS-1$
+
+    private final String mDatabase;
+    /**
+     * the connection used for writes, guarded by itself
+     */
+    private final Connection mWriteConnection;
+    /**
+     * the connection used for reads, guarded by itself
+     */
+    private final Connection mReadConnection;
+    /**
+     * the upsert statements by table, guarded by the write connection
+     */
+    private final Map<String,PreparedStatement> mUpserts = Maps.newHashMap();
+    /**
+     * the range statements by table, guarded by the read connection
+     */
+    private final Map<String,PreparedStatement> mRanges = Maps.newHashMap();
+    /**
+     * the buffered bars by table, guarded by the store
+     */
+    private final Map<String,List<QuoteEvent>> mPending = Maps.newHashMap();
+    /**
+     * the locks ordering the writes of each table, guarded by the store
+     */
+    private final Map<String,Object> mTableLocks = Maps.newHashMap();
+    /**
+     * the number of consecutive failed writes by table, guarded by the
+     * store
+     */
+    private final Map<String,Integer> mFailures = Maps.newHashMap();
+    /**
+     * the tables known to exist, guarded by the store
+     */
+    private final Set<String> mTables = Sets.newHashSet();
+
+    /**
+     * Creates an instance, creating the database if needed.
+     *
+     * @param inDataSource the data source.
+     * @param inDatabase the database name.
+     *
+     * @throws SQLException if the database cannot be accessed.
+     */
+    QuoteStore(ComboPooledDataSource inDataSource,
+               String inDatabase)
+            throws SQLException
+    {
+        mDatabase = inDatabase;
+        mWriteConnection = inDataSource.getConnection();
+        mReadConnection = inDataSource.getConnection();
+        Statement statement = mWriteConnection.createStatement();
+        try {
+            statement.executeUpdate("CREATE DATABASE IF NOT EXISTS " + mDatabase); //$NON-NLS-1$
+        } finally {
+            statement.close();
+        }
+        CoreExecutors.scheduleAtFixedRate(new Runnable() {
+            public void run() {
+                try {
+                    flush();
+                } catch (SQLException e) {
+                    Messages.RHS_QUOTE_FLUSH_ERROR.error(QuoteStore.this, e);
+                }
+            }
+        }, FLUSH_INTERVAL, FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Buffers the given bar, flushing its table if the batch is full.
+     *
+     * @param inQuote the bar.
+     *
+     * @throws SQLException if the table cannot be created or written.
+     */
+    void save(QuoteEvent inQuote)
+            throws SQLException
+    {
+        String table = getTable(inQuote.getInstrument(), inQuote.getPeriod());
+        synchronized (this) {
+            List<QuoteEvent> batch = mPending.get(table);
+            if (batch == null) {
+                batch = Lists.newArrayList();
+                mPending.put(table, batch);
+            }
+            batch.add(inQuote);
+            if (batch.size() < BATCH_SIZE) {
+                return;
+            }
+        }
+        flush(table);
+    }
+
+    /**
+     * Returns the bars of the given instrument and period within the
+     * given dates, both inclusive, ordered by time.
+     *
+     * @param inInstrument the instrument.
+     * @param inPeriod the period.
+     * @param inFrom the first date.
+     * @param inTo the last date.
+     *
+     * @return the bars.
+     *
+     * @throws SQLException if the bars cannot be read.
+     */
+    List<Quote> getQuotes(Instrument inInstrument,
+                          Period inPeriod,
+                          Date inFrom,
+                          Date inTo)
+            throws SQLException
+    {
+        String table = getTable(inInstrument, inPeriod);
+        try {
+            flush(table);
+        } catch (SQLException e) {
+            // the buffered bars are retried later, read what is stored
+            Messages.RHS_QUOTE_FLUSH_ERROR.warn(this, e);
+        }
+        List<Quote> quotes = Lists.newArrayList();
+        long from = inFrom.getTime();
+        long to = inTo.getTime();
+        synchronized (mReadConnection) {
+            PreparedStatement statement = mRanges.get(table);
+            if (statement == null) {
+                statement = mReadConnection.prepareStatement("SELECT time,open,high,low,close,volume,spread FROM " + table //$NON-NLS-1$
+                        + " WHERE time >= ? AND time <= ? ORDER BY time LIMIT " + PAGE_SIZE); //$NON-NLS-1$
+                statement.setFetchSize(PAGE_SIZE);
+                mRanges.put(table, statement);
+            }
+            int count;
+            do {
+                statement.setLong(1, from);
+                statement.setLong(2, to);
+                ResultSet rs = statement.executeQuery();
+                count = 0;
+                try {
+                    while (rs.next()) {
+                        long time = rs.getLong(1);
+                        quotes.add(new Quote(time,
+                                             rs.getBigDecimal(2),
+                                             rs.getBigDecimal(3),
+                                             rs.getBigDecimal(4),
+                                             rs.getBigDecimal(5),
+                                             rs.getBigDecimal(6),
+                                             rs.getBigDecimal(7)));
+                        from = time + 1;
+                        count++;
+                    }
+                } finally {
+                    rs.close();
+                }
+            } while (count == PAGE_SIZE);
+        }
+        return quotes;
+    }
+
+    /**
+     * Deletes the given bar.
+     *
+     * @param inQuote the bar.
+     *
+     * @throws SQLException if the bar cannot be deleted.
+     */
+    void delete(QuoteEvent inQuote)
+            throws SQLException
+    {
+        String table = getTable(inQuote.getInstrument(), inQuote.getPeriod());
+        synchronized (getTableLock(table)) {
+            flush(table);
+            synchronized (mWriteConnection) {
+                PreparedStatement statement = mWriteConnection.prepareStatement("DELETE FROM " + table + " WHERE time = ?"); //$NON-NLS-1$ //$NON-NLS-2$
+                try {
+                    statement.setLong(1, inQuote.getQuote().getTime());
+                    statement.executeUpdate();
+                } finally {
+                    statement.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes all buffered bars.
+     *
+     * @throws SQLException if the bars of a table cannot be written. The
+     * other tables are written nonetheless.
+     */
+    void flush()
+            throws SQLException
+    {
+        Set<String> tables;
+        synchronized (this) {
+            if (mPending.isEmpty()) {
+                return;
+            }
+            tables = Sets.newHashSet(mPending.keySet());
+        }
+        SQLException failure = null;
+        for (String table : tables) {
+            try {
+                flush(table);
+            } catch (SQLException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Writes the buffered bars, on shutdown.
+     */
+    void stop()
+    {
+        try {
+            flush();
+        } catch (SQLException e) {
+            Messages.RHS_QUOTE_FLUSH_ERROR.error(this, e);
+        }
+    }
+
+    /**
+     * Writes the buffered bars of the given table. If they cannot be
+     * written they are buffered again, ahead of the bars buffered since,
+     * unless the table failed too many times in a row: the bars are
+     * then written one by one and those failing are dropped.
+     *
+     * @param inTable the qualified table name.
+     *
+     * @throws SQLException if the bars cannot be written.
+     */
+    private void flush(String inTable)
+            throws SQLException
+    {
+        synchronized (getTableLock(inTable)) {
+            List<QuoteEvent> batch;
+            synchronized (this) {
+                batch = mPending.remove(inTable);
+            }
+            if (batch == null) {
+                return;
+            }
+            boolean written = false;
+            try {
+                write(inTable, batch);
+                written = true;
+                countFailure(inTable, false);
+            } catch (SQLException e) {
+                if (countFailure(inTable, true) < MAX_ATTEMPTS) {
+                    throw e;
+                }
+                writeEach(inTable, batch);
+                written = true;
+            } finally {
+                if (!written) {
+                    synchronized (this) {
+                        List<QuoteEvent> pending = mPending.get(inTable);
+                        if (pending != null) {
+                            batch.addAll(pending);
+                        }
+                        mPending.put(inTable, batch);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the given bars one by one, dropping those which cannot be
+     * written.
+     *
+     * @param inTable the qualified table name.
+     * @param inBatch the bars.
+     */
+    private void writeEach(String inTable,
+                           List<QuoteEvent> inBatch)
+    {
+        for (QuoteEvent quoteEvent : inBatch) {
+            try {
+                write(inTable, Collections.singletonList(quoteEvent));
+            } catch (SQLException e) {
+                Messages.RHS_QUOTE_DROPPED.error(this, e, quoteEvent, inTable);
+            }
+        }
+    }
+
+    /**
+     * Updates the number of consecutive failed writes of the given
+     * table.
+     *
+     * @param inTable the qualified table name.
+     * @param inFailed true if the last write failed, false if it
+     * succeeded.
+     *
+     * @return the number of consecutive failed writes, reset once it
+     * reaches the maximum.
+     */
+    private synchronized int countFailure(String inTable,
+                                          boolean inFailed)
+    {
+        if (!inFailed) {
+            mFailures.remove(inTable);
+            return 0;
+        }
+        Integer failures = mFailures.get(inTable);
+        int count = failures == null ? 1 : failures + 1;
+        if (count >= MAX_ATTEMPTS) {
+            mFailures.remove(inTable);
+        } else {
+            mFailures.put(inTable, count);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the lock ordering the writes of the given table.
+     *
+     * @param inTable the qualified table name.
+     *
+     * @return the lock.
+     */
+    private synchronized Object getTableLock(String inTable)
+    {
+        Object lock = mTableLocks.get(inTable);
+        if (lock == null) {
+            lock = new Object();
+            mTableLocks.put(inTable, lock);
+        }
+        return lock;
+    }
+
+    /**
+     * Upserts the given bars in one JDBC batch.
+     *
+     * @param inTable the qualified table name.
+     * @param inBatch the bars.
+     *
+     * @throws SQLException if the bars cannot be written.
+     */
+    private void write(String inTable,
+                       List<QuoteEvent> inBatch)
+            throws SQLException
+    {
+        synchronized (mWriteConnection) {
+            PreparedStatement statement = mUpserts.get(inTable);
+            if (statement == null) {
+                statement = mWriteConnection.prepareStatement("INSERT INTO " + inTable //$NON-NLS-1$
+                        + "(time,open,high,low,close,volume,spread) VALUES (?,?,?,?,?,?,?)" //$NON-NLS-1$
+                        + " ON DUPLICATE KEY UPDATE open=VALUES(open), high=VALUES(high), low=VALUES(low), close=VALUES(close)" //$NON-NLS-1$
+                        + ", volume=VALUES(volume), spread=VALUES(spread)"); //$NON-NLS-1$
+                mUpserts.put(inTable, statement);
+            }
+            // drop what a failed batch may have left
+            statement.clearBatch();
+            for (QuoteEvent quoteEvent : inBatch) {
+                Quote quote = quoteEvent.getQuote();
+                statement.setLong(1, quote.getTime());
+                statement.setBigDecimal(2, quote.getOpen());
+                statement.setBigDecimal(3, quote.getHigh());
+                statement.setBigDecimal(4, quote.getLow());
+                statement.setBigDecimal(5, quote.getClose());
+                statement.setBigDecimal(6, quote.getVolume());
+                statement.setBigDecimal(7, quote.getSpread());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        Messages.RHS_QUOTES_PERSISTED.debug(this, inBatch.size(), inTable);
+    }
+
+    /**
+     * Returns the qualified name of the table of the given instrument
+     * and period, creating the table the first time.
+     *
+     * @param inInstrument the instrument.
+     * @param inPeriod the period.
+     *
+     * @return the table name.
+     *
+     * @throws SQLException if the table cannot be created.
+     */
+    private String getTable(Instrument inInstrument,
+                            Period inPeriod)
+            throws SQLException
+    {
+        String legacyTable = String.format("%s_%s", inInstrument.getSymbol().replace("/", ""), inPeriod.name()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        String table = mDatabase + "." + legacyTable + TABLE_SUFFIX; //$NON-NLS-1$
+        synchronized (this) {
+            if (mTables.contains(table)) {
+                return table;
+            }
+        }
+        synchronized (mWriteConnection) {
+            createTable(legacyTable, table);
+        }
+        synchronized (this) {
+            mTables.add(table);
+        }
+        return table;
+    }
+
+    /**
+     * Creates the given table if it does not exist yet. The bars of the
+     * table of the previous layout, if any, are copied into a temporary
+     * table which is renamed when complete.
+     *
+     * @param inLegacyTable the unqualified name of the previous table.
+     * @param inTable the qualified table name.
+     *
+     * @throws SQLException if the table cannot be created.
+     */
+    private void createTable(String inLegacyTable,
+                             String inTable)
+            throws SQLException
+    {
+        DatabaseMetaData metaData = mWriteConnection.getMetaData();
+        if (tableExists(metaData, inLegacyTable + TABLE_SUFFIX)) {
+            return;
+        }
+        boolean migrate = tableExists(metaData, inLegacyTable);
+        String target = migrate ? inTable + "_tmp" : inTable; //$NON-NLS-1$
+        Statement statement = mWriteConnection.createStatement();
+        try {
+            if (migrate) {
+                statement.executeUpdate("DROP TABLE IF EXISTS " + target); //$NON-NLS-1$
+            }
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + target //$NON-NLS-1$
+                    + "(time BIGINT NOT NULL," //$NON-NLS-1$
+                    + "open NUMERIC(17,7) NOT NULL," //$NON-NLS-1$
+                    + "high NUMERIC(17,7) NOT NULL," //$NON-NLS-1$
+                    + "low NUMERIC(17,7) NOT NULL," //$NON-NLS-1$
+                    + "close NUMERIC(17,7) NOT NULL," //$NON-NLS-1$
+                    + "volume NUMERIC(17,7) NOT NULL," //$NON-NLS-1$
+                    + "spread NUMERIC(17,7) NOT NULL," //$NON-NLS-1$
+                    + "PRIMARY KEY (time))"); //$NON-NLS-1$
+            if (!migrate) {
+                return;
+            }
+            int count = 0;
+            PreparedStatement insert = mWriteConnection.prepareStatement("INSERT IGNORE INTO " + target //$NON-NLS-1$
+                    + "(time,open,high,low,close,volume,spread) VALUES (?,?,?,?,?,?,?)"); //$NON-NLS-1$
+            ResultSet rs = statement.executeQuery("SELECT time,open,high,low,close,volume,spread FROM " //$NON-NLS-1$
+                    + mDatabase + "." + inLegacyTable); //$NON-NLS-1$
+            try {
+                while (rs.next()) {
+                    insert.setLong(1, HasTime.parse(rs.getString(1)));
+                    for (int column = 2; column <= 7; column++) {
+                        insert.setBigDecimal(column, rs.getBigDecimal(column));
+                    }
+                    insert.addBatch();
+                    if (++count % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            } finally {
+                rs.close();
+                insert.close();
+            }
+            statement.executeUpdate("RENAME TABLE " + target + " TO " + inTable); //$NON-NLS-1$ //$NON-NLS-2$
+            Messages.RHS_QUOTES_MIGRATED.info(this, count, inTable);
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * Tells whether the given table exists in the database.
+     *
+     * @param inMetaData the database meta data.
+     * @param inTable the unqualified table name.
+     *
+     * @return true if the table exists.
+     *
+     * @throws SQLException if the meta data cannot be read.
+     */
+    private boolean tableExists(DatabaseMetaData inMetaData,
+                                String inTable)
+            throws SQLException
+    {
+        ResultSet rs = inMetaData.getTables(mDatabase, null, inTable, null);
+        try {
+            return rs.next();
+        } finally {
+            rs.close();
+        }
+    }
+}
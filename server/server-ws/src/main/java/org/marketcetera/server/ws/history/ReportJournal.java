@@ -0,0 +1,655 @@
+package org.marketcetera.server.ws.history;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import org.marketcetera.persist.PersistenceException;
+import org.marketcetera.server.ws.history.PersistentReport.ReportType;
+import org.marketcetera.trade.BrokerID;
+import org.marketcetera.trade.HasFIXMessage;
+import org.marketcetera.trade.OrderCancelReject;
+import org.marketcetera.trade.Originator;
+import org.marketcetera.trade.ReportBase;
+import org.marketcetera.trade.ReportID;
+import org.marketcetera.trade.UserID;
+import org.marketcetera.util.log.I18NBoundMessage1P;
+import org.marketcetera.util.misc.ClassVersion;
+
+/**
+ * Write-behind journal of reports.
+ *
+ * A report is appended to a sequential log file and is acknowledged
+ * once the log is forced to disk. Concurrent appends share a single
+ * force. A background writer then saves the reports to the database in
+ * batches, one transaction per batch, and notifies the listener. Once
+ * all appended reports are saved the log is truncated.
+ *
+ * Reports which cannot be saved, e.g. while the database is down, are
+ * retried with an increasing delay. Those still failing after the last
+ * attempt are given up for this run: instead of being truncated, the
+ * log is then compacted down to them, so they are replayed on the next
+ * start.
+ *
+ * Reports left in the log by a crash are replayed when the journal is
+ * opened. Reports which reached the database before the crash are
+ * recognized by their report ID and skipped.
+ *
+ * Each record of the log is written as its length, the CRC32 of its
+ * content and the content: report type, report ID, broker ID,
+ * originator, actor ID and FIX message.
+ */
+@ClassVersion("$Id$")
+class ReportJournal
+        implements Runnable
+{
+    /**
+     * the name of the log file in the journal directory
+     */
+    private static final String FILE_NAME = "reports.journal"; //$NON-NLS-1$
+    /**
+     * the log is only truncated or compacted once it grew by this size
+     */
+    private static final long TRUNCATE_SIZE = 4 << 20;
+    /**
+     * the maximum number of reports waiting to be saved
+     */
+    private static final int QUEUE_CAPACITY = 10000;
+    /**
+     * the delay before the first retry of the reports which could not
+     * be saved, in ms, doubled at each retry up to the maximum
+     */
+    private static final long RETRY_DELAY = 500;
+    private static final long MAX_RETRY_DELAY = 30000;
+    /**
+     * the number of attempts to save a report before it is left to the
+     * next start
+     */
+    private static final int MAX_ATTEMPTS = 10;
+    private static final Charset CHARSET = Charset.forName("UTF-8"); //$NON-NLS-1$
+
+    private final File mFile;
+    /**
+     * the log, replaced when it is compacted
+     */
+    private volatile FileChannel mChannel;
+    private final int mBatchSize;
+    private final ReportSavedListener mListener;
+    /**
+     * the reports appended but not yet saved to the database
+     */
+    private final BlockingQueue<ReportBase> mQueue =
+        new ArrayBlockingQueue<ReportBase>(QUEUE_CAPACITY);
+    /**
+     * the reports replayed from the log which could not be saved, saved
+     * by the writer before the appended ones
+     */
+    private final List<ReportBase> mReplayed = new ArrayList<ReportBase>();
+    /**
+     * the reports given up in this run, kept when the log is compacted
+     */
+    private final List<ReportBase> mUnsaved = new ArrayList<ReportBase>();
+    /**
+     * guards the writes to the log and the append count
+     */
+    private final ReentrantLock mAppendLock = new ReentrantLock();
+    /**
+     * guards the force of the log
+     */
+    private final Object mSyncLock = new Object();
+    /**
+     * guards the saved and abandoned counts and the unsaved reports
+     */
+    private final Object mSavedLock = new Object();
+    private volatile long mAppended;
+    private long mSynced;
+    private boolean mSyncing;
+    private long mSaved;
+    /**
+     * the number of reports given up after the last attempt
+     */
+    private long mAbandoned;
+    /**
+     * the size of the log once truncated or compacted
+     */
+    private long mCompactedSize;
+
+    /**
+     * Opens the journal in the given directory, replays the reports
+     * left in it and starts the background writer.
+     *
+     * @param inDirectory the journal directory, created if needed.
+     * @param inBatchSize the maximum number of reports saved in one
+     * transaction.
+     * @param inListener the listener notified after a report has been
+     * saved. It may be null.
+     *
+     * @throws PersistenceException if the journal cannot be opened or
+     * the reports cannot be replayed.
+     */
+    ReportJournal(File inDirectory,
+                  int inBatchSize,
+                  ReportSavedListener inListener)
+            throws PersistenceException
+    {
+        mFile = new File(inDirectory, FILE_NAME);
+        mBatchSize = Math.max(1, inBatchSize);
+        mListener = inListener;
+        try {
+            inDirectory.mkdirs();
+            mChannel = new RandomAccessFile(mFile, "rw").getChannel(); //$NON-NLS-1$
+        } catch (IOException e) {
+            throw new PersistenceException(e, new I18NBoundMessage1P(Messages.RHS_JOURNAL_ERROR, mFile));
+        }
+        replay();
+        mAppended = mReplayed.size();
+        try {
+            mCompactedSize = mChannel.size();
+        } catch (IOException e) {
+            throw new PersistenceException(e, new I18NBoundMessage1P(Messages.RHS_JOURNAL_ERROR, mFile));
+        }
+        Thread writer = new Thread(this, "Report Journal Writer"); //$NON-NLS-1$
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Appends the given report to the journal. The report is on disk
+     * when this method returns and is saved to the database later on.
+     *
+     * @param inReport the report, with its report ID assigned.
+     *
+     * @throws PersistenceException if the report cannot be written.
+     */
+    void append(ReportBase inReport)
+            throws PersistenceException
+    {
+        ByteBuffer record = encode(inReport);
+        long sequence;
+        mAppendLock.lock();
+        try {
+            while(record.hasRemaining()) {
+                mChannel.write(record, mChannel.size());
+            }
+            // queued in log order, so a chain of orders is saved in sequence
+            mQueue.put(inReport);
+            sequence = ++mAppended;
+        } catch (IOException e) {
+            throw new PersistenceException(e, new I18NBoundMessage1P(Messages.RHS_JOURNAL_ERROR, mFile));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PersistenceException(e, new I18NBoundMessage1P(Messages.RHS_JOURNAL_ERROR, mFile));
+        } finally {
+            mAppendLock.unlock();
+        }
+        sync(sequence);
+    }
+
+    /**
+     * Waits until all reports appended so far are saved to the
+     * database, so queries see them, or given up.
+     */
+    void awaitSaved()
+    {
+        long target = mAppended;
+        synchronized (mSavedLock) {
+            while(mSaved + mAbandoned < target) {
+                try {
+                    mSavedLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Forces the log to disk up to the given append. The first caller
+     * forces the log for all appends made so far, the others wait for
+     * it and only force again if their append came later.
+     *
+     * @param inSequence the append count after the caller's append.
+     *
+     * @throws PersistenceException if the log cannot be forced.
+     */
+    private void sync(long inSequence)
+            throws PersistenceException
+    {
+        while(true) {
+            long target;
+            synchronized (mSyncLock) {
+                while(mSyncing && mSynced < inSequence) {
+                    try {
+                        mSyncLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new PersistenceException(e, new I18NBoundMessage1P(Messages.RHS_JOURNAL_ERROR, mFile));
+                    }
+                }
+                if(mSynced >= inSequence) {
+                    return;
+                }
+                mSyncing = true;
+                target = mAppended;
+            }
+            boolean forced = false;
+            try {
+                mChannel.force(false);
+                forced = true;
+            } catch (IOException e) {
+                throw new PersistenceException(e, new I18NBoundMessage1P(Messages.RHS_JOURNAL_ERROR, mFile));
+            } finally {
+                synchronized (mSyncLock) {
+                    mSyncing = false;
+                    if(forced) {
+                        mSynced = Math.max(mSynced, target);
+                    }
+                    mSyncLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Runnable#run()
+     */
+    @Override
+    public void run()
+    {
+        for(int i = 0; i < mReplayed.size(); i += mBatchSize) {
+            if(!persist(mReplayed.subList(i, Math.min(mReplayed.size(), i + mBatchSize)))) {
+                return;
+            }
+        }
+        mReplayed.clear();
+        List<ReportBase> batch = new ArrayList<ReportBase>(mBatchSize);
+        while(true) {
+            try {
+                batch.add(mQueue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            mQueue.drainTo(batch, mBatchSize - 1);
+            if(!persist(batch)) {
+                return;
+            }
+            batch.clear();
+            truncate();
+        }
+    }
+
+    /**
+     * Saves the given reports to the database, retrying those which
+     * could not be saved with an increasing delay. The reports still
+     * not saved after the last attempt are given up and the listener
+     * notified of the failure.
+     *
+     * @param inReports the reports.
+     *
+     * @return false if the writer was interrupted while waiting to
+     * retry.
+     */
+    private boolean persist(List<ReportBase> inReports)
+    {
+        List<ReportBase> pending = inReports;
+        long delay = RETRY_DELAY;
+        for(int attempt = 1; ; attempt++) {
+            boolean last = attempt >= MAX_ATTEMPTS;
+            List<ReportBase> failed = save(pending, last);
+            countSaved(pending.size() - failed.size(), 0);
+            if(failed.isEmpty()) {
+                return true;
+            }
+            if(last) {
+                for(ReportBase report : failed) {
+                    invokeListener(report,false);
+                }
+                synchronized (mSavedLock) {
+                    mUnsaved.addAll(failed);
+                }
+                countSaved(0, failed.size());
+                return true;
+            }
+            Messages.RHS_JOURNAL_RETRY.warn(this,failed.size(),delay);
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                return false;
+            }
+            delay = Math.min(2 * delay, MAX_RETRY_DELAY);
+            pending = failed;
+        }
+    }
+
+    /**
+     * Saves the given reports to the database in one transaction. If
+     * the transaction fails, the reports are saved one by one, so a
+     * single bad report does not fail the others. The listener is
+     * notified of the reports saved.
+     *
+     * @param inReports the reports.
+     * @param inLastAttempt true if the reports which cannot be saved are
+     * given up, their failure being then logged as an error.
+     *
+     * @return the reports which could not be saved, in their order.
+     */
+    private List<ReportBase> save(List<ReportBase> inReports,
+                                  boolean inLastAttempt)
+    {
+        try {
+            PersistentReport.saveAll(inReports);
+            for(ReportBase report : inReports) {
+                Messages.RHS_PERSISTED_DB.info(this,report);
+                invokeListener(report,true);
+            }
+            return Collections.emptyList();
+        } catch (PersistenceException ignored) {}
+        List<ReportBase> failed = new ArrayList<ReportBase>();
+        for(ReportBase report : inReports) {
+            try {
+                PersistentReport.save(report);
+                Messages.RHS_PERSISTED_DB.info(this,report);
+                invokeListener(report,true);
+            } catch (PersistenceException e) {
+                if(inLastAttempt) {
+                    Messages.RHS_PERSIST_ERROR.error(this,report,e);
+                } else {
+                    Messages.RHS_PERSIST_ERROR.debug(this,report,e);
+                }
+                failed.add(report);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Adds to the saved and abandoned counts and wakes up the callers
+     * waiting for them.
+     *
+     * @param inSaved the number of reports saved.
+     * @param inAbandoned the number of reports given up.
+     */
+    private void countSaved(int inSaved,
+                            int inAbandoned)
+    {
+        synchronized (mSavedLock) {
+            mSaved += inSaved;
+            mAbandoned += inAbandoned;
+            mSavedLock.notifyAll();
+        }
+    }
+
+    /**
+     * Truncates the log if all reports appended to it are saved, or
+     * compacts it down to the reports given up if some were. The log is
+     * left as is if an append is in progress.
+     */
+    private void truncate()
+    {
+        if(!mAppendLock.tryLock()) {
+            return;
+        }
+        try {
+            List<ReportBase> unsaved;
+            synchronized (mSavedLock) {
+                if(mSaved + mAbandoned != mAppended) {
+                    return;
+                }
+                unsaved = new ArrayList<ReportBase>(mUnsaved);
+            }
+            if(mChannel.size() - mCompactedSize <= TRUNCATE_SIZE) {
+                return;
+            }
+            if(unsaved.isEmpty()) {
+                mChannel.truncate(0);
+                mCompactedSize = 0;
+            } else {
+                compact(unsaved);
+            }
+        } catch (IOException e) {
+            Messages.RHS_JOURNAL_ERROR.warn(this,e,mFile);
+        } finally {
+            mAppendLock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the log by one holding only the given reports. The new
+     * log is written aside and renamed over the old one, so a crash
+     * leaves either of them whole. Called with the append lock held; the
+     * log is left as is if it is being forced.
+     *
+     * @param inReports the reports to keep.
+     *
+     * @throws IOException if the new log cannot be written.
+     */
+    private void compact(List<ReportBase> inReports)
+            throws IOException
+    {
+        File file = new File(mFile.getPath() + ".tmp"); //$NON-NLS-1$
+        FileChannel channel = new RandomAccessFile(file, "rw").getChannel(); //$NON-NLS-1$
+        boolean replaced = false;
+        try {
+            channel.truncate(0);
+            for(ReportBase report : inReports) {
+                ByteBuffer record = encode(report);
+                while(record.hasRemaining()) {
+                    channel.write(record);
+                }
+            }
+            channel.force(true);
+            synchronized (mSyncLock) {
+                // a force in progress must not find its channel closed
+                if(mSyncing) {
+                    return;
+                }
+                if(!file.renameTo(mFile)) {
+                    throw new IOException(file.getPath());
+                }
+                FileChannel old = mChannel;
+                mChannel = channel;
+                mCompactedSize = channel.size();
+                replaced = true;
+                old.close();
+            }
+        } finally {
+            if(!replaced) {
+                channel.close();
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Saves the reports left in the log by a previous run, skipping
+     * those already in the database, and clears the log. The reports
+     * which cannot be saved are kept in the log and left to the writer
+     * to retry. An incomplete or corrupt last record, written when the
+     * previous run stopped, is cut off the log, so new records follow
+     * the last valid one.
+     *
+     * @throws PersistenceException if the log cannot be read.
+     */
+    private void replay()
+            throws PersistenceException
+    {
+        List<ReportBase> reports = new ArrayList<ReportBase>();
+        long validSize;
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(mFile)));
+            long size = mChannel.size();
+            long offset = 0;
+            try {
+                while(true) {
+                    int length;
+                    try {
+                        length = in.readInt();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    if(length < 0 || offset + 8 + length > size) {
+                        Messages.RHS_JOURNAL_TRUNCATED.warn(this,mFile,offset);
+                        break;
+                    }
+                    long crc = in.readInt() & 0xFFFFFFFFL;
+                    byte[] content = new byte[length];
+                    in.readFully(content);
+                    CRC32 checksum = new CRC32();
+                    checksum.update(content);
+                    if(checksum.getValue() != crc) {
+                        Messages.RHS_JOURNAL_TRUNCATED.warn(this,mFile,offset);
+                        break;
+                    }
+                    ReportBase report = decode(content);
+                    if(!PersistentReport.exists(report.getReportID())) {
+                        reports.add(report);
+                    }
+                    offset += 8 + length;
+                }
+            } finally {
+                in.close();
+            }
+            validSize = offset;
+        } catch (IOException e) {
+            throw new PersistenceException(e, new I18NBoundMessage1P(Messages.RHS_JOURNAL_ERROR, mFile));
+        }
+        for(int i = 0; i < reports.size(); i += mBatchSize) {
+            mReplayed.addAll(save(reports.subList(i, Math.min(reports.size(), i + mBatchSize)), false));
+        }
+        if(!reports.isEmpty()) {
+            Messages.RHS_JOURNAL_REPLAYED.info(this,reports.size() - mReplayed.size());
+        }
+        if(!mReplayed.isEmpty()) {
+            Messages.RHS_JOURNAL_RETRY.warn(this,mReplayed.size(),0);
+        }
+        try {
+            // keeps the valid records while some are to be retried
+            mChannel.truncate(mReplayed.isEmpty() ? 0 : validSize);
+            mChannel.force(true);
+        } catch (IOException e) {
+            throw new PersistenceException(e, new I18NBoundMessage1P(Messages.RHS_JOURNAL_ERROR, mFile));
+        }
+    }
+
+    /**
+     * Encodes the given report as a log record.
+     *
+     * @param inReport the report.
+     *
+     * @return the record, ready to be written.
+     */
+    private ByteBuffer encode(ReportBase inReport)
+    {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeByte(inReport instanceof OrderCancelReject ?
+                          ReportType.CancelReject.ordinal() : ReportType.ExecutionReport.ordinal());
+            out.writeLong(inReport.getReportID().longValue());
+            writeString(out, inReport.getBrokerID() == null ? null : inReport.getBrokerID().toString());
+            writeString(out, inReport.getOriginator() == null ? null : inReport.getOriginator().name());
+            out.writeBoolean(inReport.getActorID() != null);
+            out.writeLong(inReport.getActorID() == null ? 0 : inReport.getActorID().getValue());
+            writeString(out, ((HasFIXMessage)inReport).getMessage().toString());
+            out.flush();
+
+            ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+            CRC32 checksum = new CRC32();
+            checksum.update(record.array(), 8, record.limit() - 8);
+            record.putInt(0, record.limit() - 8);
+            record.putInt(4, (int)checksum.getValue());
+            return record;
+        } catch (IOException e) {
+            // writing to memory
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Decodes a report from the content of a log record.
+     *
+     * @param inContent the record content.
+     *
+     * @return the report.
+     *
+     * @throws IOException if the content is malformed.
+     * @throws PersistenceException if the report cannot be rebuilt.
+     */
+    private static ReportBase decode(byte[] inContent)
+            throws IOException, PersistenceException
+    {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(inContent));
+        ReportType reportType = ReportType.values()[in.readByte()];
+        ReportID reportID = new ReportID(in.readLong());
+        String brokerID = readString(in);
+        String originator = readString(in);
+        boolean hasActor = in.readBoolean();
+        long actorID = in.readLong();
+        String fixMessage = readString(in);
+        return PersistentReport.toReport(reportType, fixMessage,
+                                         brokerID == null ? null : new BrokerID(brokerID),
+                                         originator == null ? null : Originator.valueOf(originator),
+                                         hasActor ? new UserID(actorID) : null,
+                                         reportID);
+    }
+
+    private static void writeString(DataOutputStream out, String value)
+            throws IOException
+    {
+        if(value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(CHARSET);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in)
+            throws IOException
+    {
+        int length = in.readInt();
+        if(length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, CHARSET);
+    }
+
+    /**
+     * Invokes the listener which should be notified after the given
+     * report has been saved.
+     *
+     * @param report The report.
+     * @param status True if saving completed successfully.
+     */
+    private void invokeListener(ReportBase report,
+                                boolean status)
+    {
+        if (mListener!=null) {
+            mListener.reportSaved(report,status);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package org.marketcetera.server.ws.security;
 
+import org.marketcetera.client.ws.jms.BinaryMessageConverter;
+import org.marketcetera.client.ws.jms.WireFormat;
 import org.marketcetera.info.SessionInfo;
 import org.marketcetera.info.SessionInfoImpl;
 import org.marketcetera.info.SystemInfo;
@@ -7,6 +9,8 @@ import org.marketcetera.util.misc.ClassVersion;
 import org.marketcetera.util.ws.tags.SessionId;
 import org.marketcetera.ws.server.security.SimpleUser;
 import org.springframework.jms.core.JmsOperations;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.converter.MessageConverter;
 
 /**
  * The session information maintained for each client.
@@ -19,13 +23,15 @@ public class ClientSession
     private final SimpleUser mUser;
     private final JmsOperations mReplyTopic;
     private final SessionInfo mSessionInfo;
+    private final SessionOutbox mOutbox;
 
     // CONSTRUCTOR.
     /**
      * Creates a new session which uses the given system information
      * to create its session information, and retains the given
      * session ID, the given user associated with the session, and the
-     * given topic for reply delivery.
+     * given topic for reply delivery. Replies are queued in an outbox
+     * and delivered to the topic on a separate thread.
      *
      * @param systemInfo The system information.
      * @param sessionId The session ID.
@@ -42,6 +48,8 @@ public class ClientSession
         mUser=user;
         mReplyTopic=replyTopic;
         mSessionInfo=new SessionInfoImpl(systemInfo);
+        mOutbox=(replyTopic==null)?null:
+            new SessionOutbox(String.valueOf(sessionId),replyTopic);
         getSessionInfo().setValue
             (SessionInfo.SESSION_ID,getSessionId());
         getSessionInfo().setValue
@@ -72,13 +80,60 @@ public class ClientSession
     }
 
     /**
-     * Sends the given message to the the receiver.
+     * Sends the given message to the the receiver. The message is
+     * queued and this method returns without waiting for delivery.
+     * Market data may be conflated or dropped if the receiver does not
+     * keep up; other messages are always delivered, ahead of market
+     * data.
      *
      * @param message The message.
      */
     public void convertAndSend(Object message)
     {
-        mReplyTopic.convertAndSend(message);;
+        mOutbox.add(message);
+    }
+
+    /**
+     * Returns the receiver's outbound queue metrics.
+     *
+     * @return The metrics. It may be null if the receiver has no
+     * reply topic.
+     */
+    public SessionOutboxMBean getOutbox()
+    {
+        return mOutbox;
+    }
+
+    /**
+     * Discards the messages still queued for the receiver, once the
+     * session has ended.
+     */
+    public void close()
+    {
+        if (mOutbox!=null) {
+            mOutbox.close();
+        }
+    }
+
+    /**
+     * Sets the format the messages are sent to the receiver in. The
+     * format is left unchanged if the reply topic cannot send it.
+     *
+     * @param wireFormat The requested format.
+     *
+     * @return The format messages are sent in from now on.
+     */
+    public WireFormat setWireFormat(WireFormat wireFormat)
+    {
+        if (mReplyTopic instanceof JmsTemplate) {
+            MessageConverter converter=
+                ((JmsTemplate)mReplyTopic).getMessageConverter();
+            if (converter instanceof BinaryMessageConverter) {
+                ((BinaryMessageConverter)converter).setWireFormat(wireFormat);
+                return ((BinaryMessageConverter)converter).getWireFormat();
+            }
+        }
+        return WireFormat.XML;
     }
 
     /**
@@ -119,4 +119,6 @@ public interface Messages {
             new I18NMessage1P(LOGGER,"cannot_retrieve_user"); //$NON-NLS-1$
     static final I18NMessage2P CLIENT_SESSION_STRING=
             new I18NMessage2P(LOGGER,"client_session_string"); //$NON-NLS-1$
+    static final I18NMessage1P CANNOT_SEND_TO_SESSION=
+            new I18NMessage1P(LOGGER,"cannot_send_to_session"); //$NON-NLS-1$
 }
@@ -0,0 +1,307 @@
+package org.marketcetera.server.ws.security;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.marketcetera.event.Event;
+import org.marketcetera.event.TickEvent;
+import org.marketcetera.marketdata.MarketDataReject;
+import org.marketcetera.util.misc.ClassVersion;
+import org.springframework.jms.core.JmsOperations;
+
+/**
+ * The outbound queue of one client session. Messages are queued by the
+ * caller and sent to the reply topic of the session on a thread of a
+ * shared pool, so a slow consumer only delays its own messages.
+ * <p>
+ * Reports and the other non market data messages go on a priority
+ * queue, which is never bounded nor conflated, and is always drained
+ * first. Market data goes on a bounded queue in arrival order; a tick
+ * which finds a tick of the same instrument still queued replaces it in
+ * place, and other market data is dropped while the queue is full.
+ */
+@ClassVersion("$Id$")
+class SessionOutbox
+    implements SessionOutboxMBean, Runnable
+{
+    // INSTANCE DATA.
+    private final String mName;
+    private final JmsOperations mReplyTopic;
+    private final Object mLock=new Object();
+    private final ArrayDeque<Slot> mPriority=new ArrayDeque<Slot>();
+    private final ArrayDeque<Slot> mMarketData=new ArrayDeque<Slot>();
+    private final Map<Object,Slot> mPending=new HashMap<Object,Slot>();
+    private final AtomicBoolean mScheduled=new AtomicBoolean();
+    private volatile boolean mClosed;
+    private volatile int mCapacity=DEFAULT_CAPACITY;
+    private final AtomicLong mSent=new AtomicLong();
+    private final AtomicLong mConflated=new AtomicLong();
+    private final AtomicLong mDropped=new AtomicLong();
+    private final AtomicLong mFailed=new AtomicLong();
+    private final AtomicLong mMaxLag=new AtomicLong();
+
+    // CONSTRUCTOR.
+    /**
+     * Creates a new outbox which sends to the given topic.
+     *
+     * @param name The name of the session, for logging.
+     * @param replyTopic The topic.
+     */
+    SessionOutbox
+        (String name,
+         JmsOperations replyTopic)
+    {
+        mName=name;
+        mReplyTopic=replyTopic;
+    }
+
+    // INSTANCE METHODS.
+    /**
+     * Queues the given message to be sent. Messages added after the
+     * receiver is closed are ignored.
+     *
+     * @param message The message.
+     */
+    void add(Object message)
+    {
+        if (mClosed) {
+            return;
+        }
+        long now=System.currentTimeMillis();
+        synchronized (mLock) {
+            if (!isMarketData(message)) {
+                mPriority.add(new Slot(message,null,now));
+            } else {
+                Object key=getConflationKey(message);
+                Slot queued=(key==null)?null:mPending.get(key);
+                if (queued!=null) {
+                    queued.mMessage=message;
+                    mConflated.incrementAndGet();
+                    return;
+                }
+                if (mMarketData.size()>=mCapacity) {
+                    mDropped.incrementAndGet();
+                    return;
+                }
+                Slot slot=new Slot(message,key,now);
+                mMarketData.add(slot);
+                if (key!=null) {
+                    mPending.put(key,slot);
+                }
+            }
+        }
+        if (mScheduled.compareAndSet(false,true)) {
+            EXECUTOR.execute(this);
+        }
+    }
+
+    /**
+     * Discards the queued messages and stops queuing new ones.
+     */
+    void close()
+    {
+        mClosed=true;
+        synchronized (mLock) {
+            mPriority.clear();
+            mMarketData.clear();
+            mPending.clear();
+        }
+    }
+
+    /**
+     * Sends the queued messages until none is left.
+     */
+    @Override
+    public void run()
+    {
+        while (true) {
+            Slot slot;
+            synchronized (mLock) {
+                slot=mPriority.poll();
+                if (slot==null) {
+                    slot=mMarketData.poll();
+                    if ((slot!=null) && (slot.mKey!=null)) {
+                        mPending.remove(slot.mKey);
+                    }
+                }
+                if (slot==null) {
+                    // Cleared under the lock, so a message added from
+                    // now on schedules a new run.
+                    mScheduled.set(false);
+                    return;
+                }
+            }
+            long lag=System.currentTimeMillis()-slot.mTime;
+            long max=mMaxLag.get();
+            while ((lag>max) && !mMaxLag.compareAndSet(max,lag)) {
+                max=mMaxLag.get();
+            }
+            try {
+                mReplyTopic.convertAndSend(slot.mMessage);
+                mSent.incrementAndGet();
+            } catch (RuntimeException ex) {
+                mFailed.incrementAndGet();
+                Messages.CANNOT_SEND_TO_SESSION.warn(this,ex,mName);
+            }
+        }
+    }
+
+    /**
+     * Returns true if the given message is market data, which may be
+     * conflated or dropped.
+     *
+     * @param message The message.
+     *
+     * @return True if it is market data.
+     */
+    private static boolean isMarketData(Object message)
+    {
+        return (message instanceof Event) ||
+            (message instanceof MarketDataReject);
+    }
+
+    /**
+     * Returns the key under which the given message replaces a queued
+     * one: the latest tick of an instrument on a broker supersedes the
+     * previous ones.
+     *
+     * @param message The message.
+     *
+     * @return The key, or null if the message is never replaced.
+     */
+    private static Object getConflationKey(Object message)
+    {
+        if (!(message instanceof TickEvent)) {
+            return null;
+        }
+        TickEvent tick=(TickEvent)message;
+        return Arrays.asList(tick.getInstrument(),tick.getBrokerID());
+    }
+
+    // SessionOutboxMBean.
+    @Override
+    public int getPriorityQueueDepth()
+    {
+        synchronized (mLock) {
+            return mPriority.size();
+        }
+    }
+
+    @Override
+    public int getMarketDataQueueDepth()
+    {
+        synchronized (mLock) {
+            return mMarketData.size();
+        }
+    }
+
+    @Override
+    public long getLag()
+    {
+        long oldest;
+        synchronized (mLock) {
+            Slot priority=mPriority.peek();
+            Slot marketData=mMarketData.peek();
+            if ((priority==null) && (marketData==null)) {
+                return 0;
+            }
+            oldest=Math.min((priority==null)?Long.MAX_VALUE:priority.mTime,
+                            (marketData==null)?Long.MAX_VALUE:marketData.mTime);
+        }
+        return Math.max(0,System.currentTimeMillis()-oldest);
+    }
+
+    @Override
+    public long getMaxLag()
+    {
+        return mMaxLag.get();
+    }
+
+    @Override
+    public long getSentMessages()
+    {
+        return mSent.get();
+    }
+
+    @Override
+    public long getConflatedMessages()
+    {
+        return mConflated.get();
+    }
+
+    @Override
+    public long getDroppedMessages()
+    {
+        return mDropped.get();
+    }
+
+    @Override
+    public long getFailedMessages()
+    {
+        return mFailed.get();
+    }
+
+    @Override
+    public int getMarketDataQueueCapacity()
+    {
+        return mCapacity;
+    }
+
+    @Override
+    public void setMarketDataQueueCapacity(int inCapacity)
+    {
+        if (inCapacity<1) {
+            throw new IllegalArgumentException();
+        }
+        mCapacity=inCapacity;
+    }
+
+    /**
+     * A queued message, with the time it was first queued. A tick may
+     * be replaced by a newer tick of the same key until it is sent.
+     */
+    private static class Slot
+    {
+        private Object mMessage;
+        private final Object mKey;
+        private final long mTime;
+
+        private Slot
+            (Object message,
+             Object key,
+             long time)
+        {
+            mMessage=message;
+            mKey=key;
+            mTime=time;
+        }
+    }
+
+    // CLASS DATA.
+    private static final int DEFAULT_CAPACITY=10000;
+    private static final AtomicInteger THREAD_COUNT=new AtomicInteger();
+    /**
+     * The threads the outboxes are drained on. A busy outbox keeps its
+     * thread, so threads are added rather than shared with other
+     * sessions.
+     */
+    private static final ExecutorService EXECUTOR=
+        Executors.newCachedThreadPool(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r)
+            {
+                Thread thread=new Thread
+                    (r,"Session outbox-"+THREAD_COUNT.incrementAndGet()); //$NON-NLS-1$
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+}
@@ -0,0 +1,86 @@
+package org.marketcetera.server.ws.security;
+
+import org.marketcetera.util.misc.ClassVersion;
+
+/**
+ * MBean interface exposing the outbound queue metrics of one client
+ * session.
+ */
+@ClassVersion("$Id$")
+public interface SessionOutboxMBean {
+
+    /**
+     * Returns the number of reports and other lossless messages waiting
+     * to be sent.
+     *
+     * @return an <code>int</code> value
+     */
+    public int getPriorityQueueDepth();
+
+    /**
+     * Returns the number of market data messages waiting to be sent.
+     *
+     * @return an <code>int</code> value
+     */
+    public int getMarketDataQueueDepth();
+
+    /**
+     * Returns how long the oldest waiting message has been queued, in ms.
+     *
+     * @return a <code>long</code> value
+     */
+    public long getLag();
+
+    /**
+     * Returns the longest time a message waited before being sent, in ms.
+     *
+     * @return a <code>long</code> value
+     */
+    public long getMaxLag();
+
+    /**
+     * Returns the number of messages sent to the client.
+     *
+     * @return a <code>long</code> value
+     */
+    public long getSentMessages();
+
+    /**
+     * Returns the number of queued ticks replaced by a newer tick of the
+     * same instrument before being sent.
+     *
+     * @return a <code>long</code> value
+     */
+    public long getConflatedMessages();
+
+    /**
+     * Returns the number of market data messages dropped because the
+     * market data queue was full.
+     *
+     * @return a <code>long</code> value
+     */
+    public long getDroppedMessages();
+
+    /**
+     * Returns the number of messages which could not be sent.
+     *
+     * @return a <code>long</code> value
+     */
+    public long getFailedMessages();
+
+    /**
+     * Returns the number of market data messages which may be queued.
+     *
+     * @return an <code>int</code> value
+     */
+    public int getMarketDataQueueCapacity();
+
+    /**
+     * Sets the number of market data messages which may be queued.
+     * Market data beyond it is dropped, except for ticks replacing a
+     * queued tick.
+     *
+     * @param inCapacity an <code>int</code> value
+     */
+    public void setMarketDataQueueCapacity(int inCapacity);
+}